@@ -29,15 +29,20 @@ import java.nio.file.Files;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 import java.security.cert.Certificate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Attributes;
 import java.util.jar.Attributes.Name;
 import java.util.jar.JarEntry;
@@ -130,6 +135,11 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
          */
         private URL nextResource;
 
+        /**
+         * The path components that may contain the resource.
+         */
+        private final List<File> components;
+
         /**
          * Constructs a new enumeration of resources of the given name found
          * within this class loader's classpath.
@@ -139,6 +149,7 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
         ResourceEnumeration(final String name) {
             this.resourceName = name;
             this.pathElementsIndex = 0;
+            this.components = getComponentsFor(name);
             findNextResource();
         }
 
@@ -175,9 +186,9 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
          */
         private void findNextResource() {
             URL url = null;
-            while ((pathElementsIndex < pathComponents.size()) && (url == null)) {
+            while ((pathElementsIndex < components.size()) && (url == null)) {
                 try {
-                    final File pathComponent = pathComponents.elementAt(pathElementsIndex);
+                    final File pathComponent = components.get(pathElementsIndex);
                     url = getResourceURL(pathComponent, this.resourceName);
                     pathElementsIndex++;
                 } catch (final BuildException e) {
@@ -248,6 +259,17 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
      */
     private Hashtable<File, JarFile> jarFiles = new Hashtable<>();
 
+    /**
+     * The packages contained in the jar files this loader has opened,
+     * read from their central directories when they are opened.
+     */
+    private final Map<File, Set<String>> jarPackages = new ConcurrentHashMap<>();
+
+    /**
+     * The pool jar files have been obtained from, if any.
+     */
+    private volatile JarFilePool jarFilePool;
+
     /** Static map of jar file/time to manifest class-path entries */
     private static Map<String, String> pathMap =
         Collections.synchronizedMap(new HashMap<>());
@@ -767,7 +789,7 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
     private InputStream loadResource(final String name) {
         // we need to search the components of the path to see if we can
         // find the class we want.
-        return pathComponents.stream().map(path -> getResourceStream(path, name))
+        return getComponentsFor(name).stream().map(path -> getResourceStream(path, name))
                 .filter(Objects::nonNull).findFirst().orElse(null);
     }
 
@@ -808,14 +830,10 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
             } else {
                 if (jarFile == null) {
                     if (file.exists()) {
-                        jarFile = newJarFile(file);
-                        jarFiles.put(file, jarFile);
+                        jarFile = openJarFile(file);
                     } else {
                         return null;
                     }
-                    //to eliminate a race condition, retrieve the entry
-                    //that is in the hash table under that filename
-                    jarFile = jarFiles.get(file);
                 }
                 final JarEntry entry = jarFile.getJarEntry(resourceName);
                 if (entry != null) {
@@ -920,7 +938,7 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
 
         // try and load from this loader if the parent either didn't find
         // it or wasn't consulted.
-        for (final File pathComponent : pathComponents) {
+        for (final File pathComponent : getComponentsFor(name)) {
             url = getResourceURL(pathComponent, name);
             if (url != null) {
                 log("Resource " + name + " loaded from ant loader", Project.MSG_DEBUG);
@@ -1047,13 +1065,10 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
                             log(msg, Project.MSG_WARN);
                             return null;
                         }
-                        jarFile = newJarFile(file);
-                        jarFiles.put(file, jarFile);
+                        jarFile = openJarFile(file);
                     } else {
                         return null;
                     }
-                    // potential race-condition
-                    jarFile = jarFiles.get(file);
                 }
                 final JarEntry entry = jarFile.getJarEntry(resourceName);
                 if (entry != null) {
@@ -1357,6 +1372,72 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
         return findClassInComponents(name);
     }
 
+    /**
+     * The path components that may contain the given resource, in
+     * classpath order.
+     *
+     * <p>Jar files that have already been opened are only returned if
+     * they contain the package of the resource, all other components
+     * are always returned.</p>
+     *
+     * @param resourceName the name of the resource
+     * @return list of path components
+     */
+    private List<File> getComponentsFor(final String resourceName) {
+        final List<File> components;
+        synchronized (pathComponents) {
+            components = new ArrayList<>(pathComponents);
+        }
+        if (resourceName.startsWith("/") || resourceName.indexOf('\\') >= 0
+            || resourceName.contains("./") || resourceName.contains("//")) {
+            // leave names that are not canonical to the jar files
+            return components;
+        }
+        final String packageName = getPackageName(resourceName);
+        components.removeIf(c -> {
+            final Set<String> packages = jarPackages.get(c);
+            return packages != null && !packages.contains(packageName);
+        });
+        return components;
+    }
+
+    /**
+     * Reads the names of all packages contained in a jar file from
+     * its central directory.
+     *
+     * @param jarFile the jar file
+     * @return the package names
+     */
+    private static Set<String> getPackages(final JarFile jarFile) {
+        final Set<String> packages = new HashSet<>();
+        for (final JarEntry entry : Collections.list(jarFile.entries())) {
+            final String name = entry.getName();
+            addPackages(packages, name);
+            if (name.startsWith(VERSIONS_DIR)) {
+                // multi-release jars return versioned entries for
+                // unversioned names
+                final int slash = name.indexOf('/', VERSIONS_DIR.length());
+                if (slash > 0) {
+                    addPackages(packages, name.substring(slash + 1));
+                }
+            }
+        }
+        return packages;
+    }
+
+    private static void addPackages(final Set<String> packages, final String name) {
+        packages.add(getPackageName(name));
+        if (name.endsWith("/")) {
+            // a directory entry is found with or without trailing slash
+            packages.add(getPackageName(name.substring(0, name.length() - 1)));
+        }
+    }
+
+    private static String getPackageName(final String resourceName) {
+        final int slash = resourceName.lastIndexOf('/');
+        return slash < 0 ? "" : resourceName.substring(0, slash);
+    }
+
     /**
      * Indicate if the given file is in this loader's path
      *
@@ -1384,7 +1465,7 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
         // we need to search the components of the path to see if
         // we can find the class we want.
         final String classFilename = getClassFilename(name);
-        for (final File pathComponent : pathComponents) {
+        for (final File pathComponent : getComponentsFor(classFilename)) {
             try (InputStream stream = getResourceStream(pathComponent, classFilename)) {
                 if (stream != null) {
                     log("Loaded from " + pathComponent + " "
@@ -1421,15 +1502,61 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
         return parent == null ? findSystemClass(name) : parent.loadClass(name);
     }
 
+    /**
+     * Opens the jar file for a path component - or obtains it from
+     * the shared pool if the project enables it - unless this loader
+     * already uses it, and records the packages it contains.
+     *
+     * @param file the path component
+     * @return the jar file used by this loader
+     * @throws IOException if the file cannot be opened
+     */
+    private JarFile openJarFile(final File file) throws IOException {
+        final Hashtable<File, JarFile> myJarFiles = jarFiles;
+        JarFile jarFile = myJarFiles.get(file);
+        if (jarFile == null) {
+            final JarFilePool pool = JarFilePool.getInstance(project);
+            if (pool != null) {
+                jarFilePool = pool;
+            }
+            final JarFile newJar = pool == null ? newJarFile(file) : pool.acquire(file);
+            jarFile = myJarFiles.putIfAbsent(file, newJar);
+            if (jarFile == null) {
+                jarFile = newJar;
+                try {
+                    jarPackages.put(file, getPackages(jarFile));
+                } catch (final RuntimeException e) {
+                    log("Not indexing " + file + ": " + e, Project.MSG_VERBOSE);
+                }
+            } else {
+                // another thread has been faster
+                release(pool, newJar);
+            }
+        }
+        return jarFile;
+    }
+
+    private static void release(final JarFilePool pool, final JarFile jarFile) {
+        if (pool == null) {
+            FileUtils.close(jarFile);
+        } else {
+            // closes jar files that have not been obtained from a pool
+            pool.release(jarFile);
+        }
+    }
+
     /**
      * Cleans up any resources held by this classloader. Any open archive
-     * files are closed.
+     * files are closed or handed back to the pool shared by all
+     * loaders.
      */
     public synchronized void cleanup() {
         for (final JarFile jarFile : jarFiles.values()) {
-            FileUtils.close(jarFile);
+            release(jarFilePool, jarFile);
         }
         jarFiles = new Hashtable<>();
+        jarFilePool = null;
+        jarPackages.clear();
         if (project != null) {
             project.removeBuildListener(this);
         }
@@ -1581,6 +1708,8 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
         return new AntClassLoader(parent, project, path, parentFirst);
     }
 
+    private static final String VERSIONS_DIR = "META-INF/versions/";
+
     private static final ZipLong EOCD_SIG = new ZipLong(0X06054B50L);
     private static final ZipLong SINGLE_SEGMENT_SPLIT_MARKER =
         new ZipLong(0X30304B50L);
@@ -1620,7 +1749,7 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
      *         aware (a feature introduced in Java 9)
      * @throws IOException
      */
-    private static JarFile newJarFile(final File file) throws IOException {
+    static JarFile newJarFile(final File file) throws IOException {
         if (!IS_ATLEAST_JAVA9 || MR_JARFILE_CTOR_ARGS == null || MR_JARFILE_CTOR_RUNTIME_VERSION_VAL == null) {
             return new JarFile(file);
         }
@@ -52,6 +52,10 @@ public class BuildEvent extends EventObject {
      * and "buildFinished" events.
      */
     private Throwable exception;
+    /**
+     * The thread that has created the event.
+     */
+    private final transient Thread thread = Thread.currentThread();
 
     /**
      * Construct a BuildEvent for a project level event.
@@ -200,4 +204,21 @@ public class BuildEvent extends EventObject {
     public Throwable getException() {
         return exception;
     }
+
+    /**
+     * Returns the thread that has fired this event.
+     *
+     * <p>Listeners that keep track of state per thread should use
+     * this rather than the current thread, listeners may be invoked
+     * from a different thread, see {@link
+     * org.apache.tools.ant.listener.AsyncBuildListener
+     * AsyncBuildListener}.</p>
+     *
+     * @return the thread that has created this event, null if the
+     * event has been deserialized.
+     * @since Ant 1.10.18
+     */
+    public Thread getThread() {
+        return thread;
+    }
 }
@@ -34,12 +34,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.launch.Launcher;
 import org.apache.tools.ant.taskdefs.Definer;
 import org.apache.tools.ant.taskdefs.Property;
 import org.apache.tools.ant.taskdefs.Typedef;
+import org.apache.tools.ant.util.ConcurrentHashtable;
 
 /**
  * Component creation and configuration.
@@ -59,26 +61,39 @@ import org.apache.tools.ant.taskdefs.Typedef;
  */
 public class ComponentHelper  {
     /** Map of component name to lists of restricted definitions */
-    private final Map<String, List<AntTypeDefinition>> restrictedDefinitions = new HashMap<>();
+    private final Map<String, List<AntTypeDefinition>> restrictedDefinitions =
+        new ConcurrentHashMap<>();
 
-    /** Map from component name to anttypedefinition */
-    private final Hashtable<String, AntTypeDefinition> antTypeTable = new Hashtable<>();
+    /**
+     * Map from component name to anttypedefinition.
+     * Reads don't lock, writes are guarded by a lock on the table.
+     */
+    private final Hashtable<String, AntTypeDefinition> antTypeTable =
+        new ConcurrentHashtable<>();
 
     /** Map of tasks generated from antTypeTable */
-    private final Hashtable<String, Class<?>> taskClassDefinitions = new Hashtable<>();
+    private final Hashtable<String, Class<?>> taskClassDefinitions =
+        new ConcurrentHashtable<>();
 
     /** flag to rebuild taskClassDefinitions */
-    private boolean rebuildTaskClassDefinitions = true;
+    private volatile boolean rebuildTaskClassDefinitions = true;
 
     /** Map of types generated from antTypeTable */
-    private final Hashtable<String, Class<?>> typeClassDefinitions = new Hashtable<>();
+    private final Hashtable<String, Class<?>> typeClassDefinitions =
+        new ConcurrentHashtable<>();
 
     /** flag to rebuild typeClassDefinitions */
-    private boolean rebuildTypeClassDefinitions = true;
+    private volatile boolean rebuildTypeClassDefinitions = true;
 
     /** Set of namespaces that have been checked for antlibs */
     private final HashSet<String> checkedNamespaces = new HashSet<>();
 
+    /**
+     * Set of namespaces whose antlibs have been loaded completely,
+     * can be read without holding a lock.
+     */
+    private final Set<String> loadedNamespaces = ConcurrentHashMap.newKeySet();
+
     /**
      * Stack of antlib contexts used to resolve definitions while
      *   processing antlib
@@ -205,15 +220,13 @@ public class ComponentHelper  {
      */
     private Map<String, List<AntTypeDefinition>> getRestrictedDefinition() {
         final Map<String, List<AntTypeDefinition>> result = new HashMap<>();
-        synchronized (restrictedDefinitions) {
-            for (Map.Entry<String, List<AntTypeDefinition>> entry : restrictedDefinitions.entrySet()) {
-                List<AntTypeDefinition> entryVal = entry.getValue();
-                synchronized (entryVal) {
-                    //copy the entryVal
-                    entryVal = new ArrayList<>(entryVal);
-                }
-                result.put(entry.getKey(), entryVal);
+        for (Map.Entry<String, List<AntTypeDefinition>> entry : restrictedDefinitions.entrySet()) {
+            List<AntTypeDefinition> entryVal = entry.getValue();
+            synchronized (entryVal) {
+                //copy the entryVal
+                entryVal = new ArrayList<>(entryVal);
             }
+            result.put(entry.getKey(), entryVal);
         }
         return result;
     }
@@ -227,24 +240,20 @@ public class ComponentHelper  {
      */
     public void initSubProject(ComponentHelper helper) {
         // add the types of the parent project
-        @SuppressWarnings("unchecked")
-        final Hashtable<String, AntTypeDefinition> typeTable
-                = (Hashtable<String, AntTypeDefinition>) helper.antTypeTable.clone();
         synchronized (antTypeTable) {
-            for (AntTypeDefinition def : typeTable.values()) {
+            for (AntTypeDefinition def : helper.antTypeTable.values()) {
                 antTypeTable.put(def.getName(), def);
             }
+            rebuildTaskClassDefinitions = true;
+            rebuildTypeClassDefinitions = true;
         }
         // add the parsed namespaces of the parent project
         Set<String> inheritedCheckedNamespace = helper.getCheckedNamespace();
         synchronized (this) {
             checkedNamespaces.addAll(inheritedCheckedNamespace);
+            loadedNamespaces.addAll(inheritedCheckedNamespace);
         }
-        Map<String, List<AntTypeDefinition>> inheritedRestrictedDef
-                = helper.getRestrictedDefinition();
-        synchronized (restrictedDefinitions) {
-            restrictedDefinitions.putAll(inheritedRestrictedDef);
-        }
+        restrictedDefinitions.putAll(helper.getRestrictedDefinition());
     }
 
     /**
@@ -396,16 +405,13 @@ public class ComponentHelper  {
      *         (String to Class).
      */
     public Hashtable<String, Class<?>> getTaskDefinitions() {
-        synchronized (taskClassDefinitions) {
-            synchronized (antTypeTable) {
+        if (rebuildTaskClassDefinitions) {
+            synchronized (taskClassDefinitions) {
                 if (rebuildTaskClassDefinitions) {
-                    taskClassDefinitions.clear();
-                    antTypeTable.entrySet().stream()
-                            .filter(e -> e.getValue().getExposedClass(project) != null
-                                    && Task.class.isAssignableFrom(e.getValue().getExposedClass(project)))
-                            .forEach(e -> taskClassDefinitions.put(e.getKey(),
-                                    e.getValue().getTypeClass(project)));
+                    // reset the flag first so definitions added while
+                    // the table is rebuilt trigger another rebuild
                     rebuildTaskClassDefinitions = false;
+                    rebuildClassDefinitions(taskClassDefinitions, true);
                 }
             }
         }
@@ -420,22 +426,39 @@ public class ComponentHelper  {
      *         (String to Class).
      */
     public Hashtable<String, Class<?>> getDataTypeDefinitions() {
-        synchronized (typeClassDefinitions) {
-            synchronized (antTypeTable) {
+        if (rebuildTypeClassDefinitions) {
+            synchronized (typeClassDefinitions) {
                 if (rebuildTypeClassDefinitions) {
-                    typeClassDefinitions.clear();
-                    antTypeTable.entrySet().stream()
-                            .filter(e -> e.getValue().getExposedClass(project) != null
-                                    && !Task.class.isAssignableFrom(e.getValue().getExposedClass(project)))
-                            .forEach(e -> typeClassDefinitions.put(e.getKey(),
-                                    e.getValue().getTypeClass(project)));
                     rebuildTypeClassDefinitions = false;
+                    rebuildClassDefinitions(typeClassDefinitions, false);
                 }
             }
         }
         return typeClassDefinitions;
     }
 
+    /**
+     * Updates a map of task or type classes from antTypeTable without
+     * removing entries that have not changed, so concurrent readers
+     * never miss a definition that exists before and after the
+     * update.
+     */
+    private void rebuildClassDefinitions(Hashtable<String, Class<?>> definitions,
+                                         boolean tasks) {
+        final Map<String, Class<?>> current = new HashMap<>();
+        for (AntTypeDefinition def : antTypeTable.values()) {
+            final Class<?> exposed = def.getExposedClass(project);
+            if (exposed != null && Task.class.isAssignableFrom(exposed) == tasks) {
+                final Class<?> typeClass = def.getTypeClass(project);
+                if (typeClass != null) {
+                    current.put(def.getName(), typeClass);
+                }
+            }
+        }
+        definitions.keySet().retainAll(current.keySet());
+        definitions.putAll(current);
+    }
+
     /**
      * This returns a list of restricted definitions for a name.
      * The returned List is "live" and so should not be modified.
@@ -446,9 +469,7 @@ public class ComponentHelper  {
      * @return the list of restricted definitions for a particular name.
      */
     public List<AntTypeDefinition> getRestrictedDefinitions(String componentName) {
-        synchronized (restrictedDefinitions) {
-            return restrictedDefinitions.get(componentName);
-        }
+        return restrictedDefinitions.get(componentName);
     }
 
     /**
@@ -607,13 +628,11 @@ public class ComponentHelper  {
         //      but this is for logging only...
         Class<?> elementClass = o.getClass();
         String elementClassname = elementClass.getName();
-        synchronized (antTypeTable) {
-            for (AntTypeDefinition def : antTypeTable.values()) {
-                if (elementClassname.equals(def.getClassName())
-                        && (elementClass == def.getExposedClass(project))) {
-                    String name = def.getName();
-                    return brief ? name : "The <" + name + "> type";
-                }
+        for (AntTypeDefinition def : antTypeTable.values()) {
+            if (elementClassname.equals(def.getClassName())
+                    && (elementClass == def.getExposedClass(project))) {
+                String name = def.getName();
+                return brief ? name : "The <" + name + "> type";
             }
         }
         return getUnmappedElementName(o.getClass(), brief);
@@ -674,10 +693,8 @@ public class ComponentHelper  {
       */
     private void updateRestrictedDefinition(AntTypeDefinition def) {
         String name = def.getName();
-        List<AntTypeDefinition> list = null;
-        synchronized (restrictedDefinitions) {
-            list = restrictedDefinitions.computeIfAbsent(name, k -> new ArrayList<>());
-        }
+        final List<AntTypeDefinition> list =
+            restrictedDefinitions.computeIfAbsent(name, k -> new ArrayList<>());
         // Check if the classname is already present and remove it
         // if it is
         synchronized (list) {
@@ -700,8 +717,6 @@ public class ComponentHelper  {
     private void updateDataTypeDefinition(AntTypeDefinition def) {
         String name = def.getName();
         synchronized (antTypeTable) {
-            rebuildTaskClassDefinitions = true;
-            rebuildTypeClassDefinitions = true;
             final AntTypeDefinition old = antTypeTable.get(name);
             if (old != null) {
                 if (sameDefinition(def, old)) {
@@ -715,6 +730,8 @@ public class ComponentHelper  {
             }
             project.log(" +Datatype " + name + " " + def.getClassName(), Project.MSG_DEBUG);
             antTypeTable.put(name, def);
+            rebuildTaskClassDefinitions = true;
+            rebuildTypeClassDefinitions = true;
         }
     }
 
@@ -819,7 +836,7 @@ public class ComponentHelper  {
      * @param componentName the name of the component, which should include a URI
      *                      prefix if it is in a namespace
      */
-    private synchronized void checkNamespace(String componentName) {
+    private void checkNamespace(String componentName) {
         String uri = ProjectHelper.extractUriFromComponentName(componentName);
         if (uri.isEmpty()) {
             uri = ProjectHelper.ANT_CORE_URI;
@@ -827,10 +844,25 @@ public class ComponentHelper  {
         if (!uri.startsWith(MagicNames.ANTLIB_PREFIX)) {
             return; // namespace that does not contain antlib
         }
-        if (checkedNamespaces.contains(uri)) {
+        if (loadedNamespaces.contains(uri)) {
             return; // Already processed
         }
+        loadAntlib(uri);
+    }
+
+    private synchronized void loadAntlib(String uri) {
+        if (checkedNamespaces.contains(uri)) {
+            return; // Already processed or being processed by this thread
+        }
         checkedNamespaces.add(uri);
+        try {
+            loadAntlibUnchecked(uri);
+        } finally {
+            loadedNamespaces.add(uri);
+        }
+    }
+
+    private void loadAntlibUnchecked(String uri) {
 
         if (antTypeTable.isEmpty()) {
             // Project instance doesn't know the tasks and types
@@ -1067,9 +1099,7 @@ public class ComponentHelper  {
      * @return the (possibly empty) list of definitions
      */
     private List<AntTypeDefinition> findTypeMatches(String prefix) {
-        synchronized (antTypeTable) {
-            return antTypeTable.values().stream().filter(def -> def.getName().startsWith(prefix))
-                    .collect(Collectors.toList());
-        }
+        return antTypeTable.values().stream().filter(def -> def.getName().startsWith(prefix))
+                .collect(Collectors.toList());
     }
 }
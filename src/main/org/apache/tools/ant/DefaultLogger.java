@@ -36,7 +36,7 @@ import org.apache.tools.ant.util.StringUtils;
  * any messages that get logged.
  *
  */
-public class DefaultLogger implements BuildLogger {
+public class DefaultLogger implements BuildLogger, LevelAwareBuildListener {
     /**
      * Size of left-hand column for right-justified task name.
      * @see #messageLogged(BuildEvent)
@@ -66,6 +66,13 @@ public class DefaultLogger implements BuildLogger {
     protected boolean emacsMode = false;
     // CheckStyle:VisibilityModifier ON
 
+    /**
+     * Whether {@link #messageLogged} ignores all messages above
+     * {@link #msgOutputLevel}, subclasses overriding it may want to
+     * see more.
+     */
+    private final boolean filtersMessages = filtersMessages(getClass());
+
 
     /**
      * Sole constructor.
@@ -98,6 +105,31 @@ public class DefaultLogger implements BuildLogger {
         return this.msgOutputLevel;
     }
 
+    /**
+     * The message output level unless a subclass has overridden
+     * {@link #messageLogged messageLogged}, in which case it is
+     * interested in all messages.
+     *
+     * @return the most verbose message level this logger wants to see
+     * @since Ant 1.10.18
+     */
+    @Override
+    public int getInterestingMessageLevel() {
+        return filtersMessages ? msgOutputLevel : Project.MSG_DEBUG;
+    }
+
+    private static boolean filtersMessages(Class<?> c) {
+        try {
+            final Class<?> declaring =
+                c.getMethod("messageLogged", BuildEvent.class).getDeclaringClass();
+            return declaring == DefaultLogger.class
+                || declaring == NoBannerLogger.class;
+        } catch (NoSuchMethodException ex) {
+            // can't happen
+            return false;
+        }
+    }
+
     /**
      * Sets the output stream to which this logger is to send its output.
      *
@@ -0,0 +1,250 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A Hashtable some entries of which are not stored in the table
+ * itself but provided on demand by the subclass.
+ *
+ * <p>Subclasses override {@link #get get}, {@link #containsKey
+ * containsKey} and {@link #put put} to take the deferred entries
+ * into account. All other methods first {@link #complete complete}
+ * the table so they see the full content, this way the table
+ * behaves like a normal Hashtable for code that accesses it
+ * directly.</p>
+ *
+ * @since Ant 1.10.18
+ */
+abstract class DeferredHashtable extends Hashtable<String, Object> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Adds all deferred entries to the table itself, must not
+     * override entries that are present in the table.
+     *
+     * <p>Invoked while holding the table's lock.</p>
+     */
+    protected abstract void complete();
+
+    /**
+     * The entries that are stored in the table itself.
+     * @return a live view
+     */
+    protected Set<Map.Entry<String, Object>> storedEntries() {
+        return super.entrySet();
+    }
+
+    /**
+     * Whether no entries are stored in the table itself.
+     * @return boolean
+     */
+    protected boolean isStoredEmpty() {
+        return super.isEmpty();
+    }
+
+    /**
+     * Removes all entries stored in the table itself.
+     */
+    protected void clearStored() {
+        super.clear();
+    }
+
+    /**
+     * Returns a Hashtable holding the full content when serialized.
+     * @return the object to serialize
+     */
+    protected synchronized Object writeReplace() {
+        complete();
+        return new Hashtable<>(this);
+    }
+
+    @Override
+    public synchronized int size() {
+        complete();
+        return super.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        complete();
+        return super.isEmpty();
+    }
+
+    @Override
+    public synchronized Enumeration<String> keys() {
+        complete();
+        return super.keys();
+    }
+
+    @Override
+    public synchronized Enumeration<Object> elements() {
+        complete();
+        return super.elements();
+    }
+
+    @Override
+    public synchronized boolean contains(Object value) {
+        complete();
+        return super.contains(value);
+    }
+
+    @Override
+    public synchronized boolean containsValue(Object value) {
+        complete();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        complete();
+        return super.remove(key);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends String, ? extends Object> t) {
+        complete();
+        super.putAll(t);
+    }
+
+    @Override
+    public synchronized void clear() {
+        complete();
+        super.clear();
+    }
+
+    @Override
+    public synchronized Object clone() {
+        complete();
+        return super.clone();
+    }
+
+    @Override
+    public synchronized String toString() {
+        complete();
+        return super.toString();
+    }
+
+    @Override
+    public synchronized Set<String> keySet() {
+        complete();
+        return super.keySet();
+    }
+
+    @Override
+    public synchronized Set<Map.Entry<String, Object>> entrySet() {
+        complete();
+        return super.entrySet();
+    }
+
+    @Override
+    public synchronized Collection<Object> values() {
+        complete();
+        return super.values();
+    }
+
+    @Override
+    public synchronized boolean equals(Object o) {
+        complete();
+        return super.equals(o);
+    }
+
+    @Override
+    public synchronized int hashCode() {
+        complete();
+        return super.hashCode();
+    }
+
+    @Override
+    public synchronized Object getOrDefault(Object key, Object defaultValue) {
+        complete();
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public synchronized void forEach(BiConsumer<? super String, ? super Object> action) {
+        complete();
+        super.forEach(action);
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+        complete();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public synchronized Object putIfAbsent(String key, Object value) {
+        complete();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        complete();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public synchronized boolean replace(String key, Object oldValue, Object newValue) {
+        complete();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public synchronized Object replace(String key, Object value) {
+        complete();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent(String key,
+        Function<? super String, ? extends Object> mappingFunction) {
+        complete();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public synchronized Object computeIfPresent(String key,
+        BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        complete();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object compute(String key,
+        BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        complete();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object merge(String key, Object value,
+        BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+        complete();
+        return super.merge(key, value, remappingFunction);
+    }
+}
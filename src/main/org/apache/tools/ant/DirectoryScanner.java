@@ -34,6 +34,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -46,7 +52,9 @@ import org.apache.tools.ant.types.selectors.SelectorScanner;
 import org.apache.tools.ant.types.selectors.SelectorUtils;
 import org.apache.tools.ant.types.selectors.TokenizedPath;
 import org.apache.tools.ant.types.selectors.TokenizedPattern;
+import org.apache.tools.ant.util.DirectoryListingCache;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.PrefetchedFile;
 import org.apache.tools.ant.util.VectorSet;
 import org.apache.tools.ant.util.WindowsJunctionUtils;
 
@@ -329,7 +337,7 @@ public class DirectoryScanner
      *
      * @since Ant 1.6
      */
-    private final Set<String> scannedDirs = new HashSet<>();
+    private final Set<String> scannedDirs = ConcurrentHashMap.newKeySet();
 
     /**
      * Map of all include patterns that are full file names and don't
@@ -389,7 +397,7 @@ public class DirectoryScanner
      *
      * @since Ant 1.6.3
      */
-    private boolean areNonPatternSetsReady = false;
+    private volatile boolean areNonPatternSetsReady = false;
 
     /**
      * Scanning flag.
@@ -442,7 +450,62 @@ public class DirectoryScanner
      *
      * @since Ant 1.8.0
      */
-    private final Set<String> notFollowedSymlinks = new HashSet<>();
+    private final Set<String> notFollowedSymlinks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of threads used to scan the directory tree.
+     *
+     * @since Ant 1.10.18
+     */
+    private int parallelism = 1;
+
+    /**
+     * Pool running the current scan, <code>null</code> if the scan
+     * happens on the calling thread. Created for each scan and shut
+     * down once it has finished.
+     *
+     * @since Ant 1.10.18
+     */
+    private ForkJoinPool scanPool = null;
+
+    /**
+     * First exception thrown by a directory scanned in parallel.
+     *
+     * @since Ant 1.10.18
+     */
+    private final AtomicReference<RuntimeException> scanFailure =
+        new AtomicReference<>();
+
+    /**
+     * Selectors are not required to be thread-safe, a parallel scan
+     * serializes their invocations using this lock.
+     *
+     * @since Ant 1.10.18
+     */
+    private final Object selectorLock = new Object();
+
+    /**
+     * Whether the attributes of all scanned files are read once while
+     * listing their parent directory.
+     *
+     * @since Ant 1.10.18
+     */
+    private boolean prefetchAttributes = false;
+
+    /**
+     * Limits the attributes read by the PrefetchedFiles of the
+     * running scan to that scan.
+     *
+     * @since Ant 1.10.18
+     */
+    private volatile AtomicBoolean prefetchScope = null;
+
+    /**
+     * Cache of directory listings below basedir, may be null.
+     *
+     * @since Ant 1.10.18
+     */
+    private DirectoryListingCache listingCache = null;
 
     /**
      * Test whether or not a given path matches the start of a given
@@ -722,6 +785,89 @@ public class DirectoryScanner
         maxLevelsOfSymlinks = max;
     }
 
+    /**
+     * The number of threads used to list and match the directory
+     * tree.
+     *
+     * <p>With a value bigger than one subdirectories are scanned
+     * concurrently and all result lists are sorted once the scan has
+     * finished, so the order of the results no longer depends on the
+     * order in which the file system lists directory contents.
+     * Selectors are still invoked by one thread at a time.</p>
+     *
+     * @param parallelism int
+     * @since Ant 1.10.18
+     */
+    public synchronized void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * The number of threads used to list and match the directory
+     * tree.
+     *
+     * @return int
+     * @since Ant 1.10.18
+     */
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Whether the basic attributes (type, size and last modification
+     * time) of each file should be read once while scanning.
+     *
+     * <p>If enabled, selectors are handed {@link PrefetchedFile}s
+     * that answer these queries from the attributes read during the
+     * scan rather than asking the file system again. Once the scan
+     * has finished these files query the file system again, so the
+     * attributes never outlive the scan.</p>
+     *
+     * @param prefetchAttributes boolean
+     * @since Ant 1.10.18
+     */
+    public synchronized void setPrefetchAttributes(final boolean prefetchAttributes) {
+        this.prefetchAttributes = prefetchAttributes;
+    }
+
+    /**
+     * Whether the basic attributes of each file are read once while
+     * scanning.
+     *
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public synchronized boolean isPrefetchAttributes() {
+        return prefetchAttributes;
+    }
+
+    /**
+     * Sets a cache for the listings of the directories below the base
+     * directory.
+     *
+     * <p>Directories whose modification time hasn't changed since
+     * they have been cached are not listed again and the types of
+     * their children are taken from the cache as well. The cache must
+     * have been created for the base directory of this scanner.</p>
+     *
+     * @param cache the cache, may be null
+     * @since Ant 1.10.18
+     */
+    public synchronized void setListingCache(final DirectoryListingCache cache) {
+        this.listingCache = cache;
+    }
+
+    /**
+     * The cache for the listings of the directories below the base
+     * directory.
+     *
+     * @return the cache, may be null
+     * @since Ant 1.10.18
+     */
+    public synchronized DirectoryListingCache getListingCache() {
+        return listingCache;
+    }
+
     /**
      * Set the list of include patterns to use. All '/' and '\' characters
      * are replaced by <code>File.separatorChar</code>, so the separator used
@@ -863,6 +1009,8 @@ public class DirectoryScanner
             synchronized (this) {
                 illegal = null;
                 clearResults();
+                scanPool = createScanPool();
+                startPrefetchScope();
 
                 // set in/excludes to reasonable defaults if needed:
                 final boolean nullIncludes = includes == null;
@@ -916,8 +1064,11 @@ public class DirectoryScanner
                 clearCaches();
                 includes = nullIncludes ? null : includes;
                 excludes = nullExcludes ? null : excludes;
+                sortResultsOfParallelScan();
             }
         } finally {
+            shutdownScanPool();
+            endPrefetchScope();
             basedir = savedBase;
             synchronized (scanLock) {
                 scanning = false;
@@ -1112,13 +1263,18 @@ public class DirectoryScanner
 
                 ensureNonPatternSetsReady();
 
+                scanPool = createScanPool();
+                startPrefetchScope();
                 processSlowScan(excl);
                 processSlowScan(notIncl);
                 clearCaches();
                 includes = nullIncludes ? null : includes;
                 excludes = nullExcludes ? null : excludes;
+                sortResultsOfParallelScan();
             }
         } finally {
+            shutdownScanPool();
+            endPrefetchScope();
             synchronized (slowScanLock) {
                 haveSlowResults = true;
                 slowScanning = false;
@@ -1127,6 +1283,58 @@ public class DirectoryScanner
         }
     }
 
+    /**
+     * The pool to use for the next scan, <code>null</code> if the
+     * scan should happen on the calling thread.
+     */
+    private ForkJoinPool createScanPool() {
+        return parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * Starts the scope of the attributes read by the scan that is
+     * about to begin.
+     */
+    private void startPrefetchScope() {
+        prefetchScope = prefetchAttributes ? new AtomicBoolean(true) : null;
+    }
+
+    /**
+     * Makes the PrefetchedFiles of the scan that has just finished
+     * query the file system again.
+     */
+    private void endPrefetchScope() {
+        final AtomicBoolean scope = prefetchScope;
+        if (scope != null) {
+            scope.set(false);
+            prefetchScope = null;
+        }
+    }
+
+    /**
+     * Shuts down the pool of the scan that has just finished so its
+     * threads don't outlive it.
+     */
+    private void shutdownScanPool() {
+        if (scanPool != null) {
+            scanPool.shutdown();
+            scanPool = null;
+        }
+    }
+
+    /**
+     * Results of a parallel scan have been collected in
+     * nondeterministic order, sort them.
+     */
+    private void sortResultsOfParallelScan() {
+        if (scanPool != null) {
+            Stream.of(filesIncluded, filesNotIncluded, filesExcluded,
+                      filesDeselected, dirsIncluded, dirsNotIncluded,
+                      dirsExcluded, dirsDeselected)
+                .forEach(Collections::sort);
+        }
+    }
+
     private void processSlowScan(final String[] arr) {
         for (String element : arr) {
             final TokenizedPath path  = new TokenizedPath(element);
@@ -1184,10 +1392,13 @@ public class DirectoryScanner
      * @see #dirsExcluded
      * @see #slowScan
      */
-    private void scandir(final File dir, final TokenizedPath path, final boolean fast) {
+    private void scandir(File dir, final TokenizedPath path, final boolean fast) {
         if (dir == null) {
             throw new BuildException("dir must not be null.");
         }
+        if (listingCache != null) {
+            dir = listingCache.getDirectory(dir);
+        }
         final String[] newfiles = dir.list();
         if (newfiles == null) {
             if (!dir.exists()) {
@@ -1199,7 +1410,17 @@ public class DirectoryScanner
                     dir.getAbsolutePath());
             }
         }
-        scandir(dir, path, fast, newfiles, new LinkedList<>());
+        if (scanPool == null) {
+            scandir(dir, path, fast, newfiles, new LinkedList<>());
+            return;
+        }
+        scanFailure.set(null);
+        scanPool.invoke(new ScanDirTask(dir, path, fast, newfiles,
+                                        new LinkedList<>()));
+        final RuntimeException failure = scanFailure.getAndSet(null);
+        if (failure != null) {
+            throw failure;
+        }
     }
 
     private void scandir(final File dir, final TokenizedPath path, final boolean fast,
@@ -1238,10 +1459,13 @@ public class DirectoryScanner
             directoryNamesFollowed.addFirst(dir.getName());
         }
 
+        // subdirectories to scan concurrently, null if not scanning in parallel
+        final List<ScanDirTask> subdirs = scanPool == null ? null : new ArrayList<>();
+
         for (String newFile : newFiles) {
             final String name = vpath + newFile;
             final TokenizedPath newPath = new TokenizedPath(path, newFile);
-            final File file = new File(dir, newFile);
+            final File file = newFile(dir, newFile);
             final String[] children;
 
             // don't invoke file.list() if we know we never use the children
@@ -1276,25 +1500,47 @@ public class DirectoryScanner
 
                 if (isIncluded(newPath)) {
                     accountForIncludedDir(newPath, file, fast, children,
-                                          directoryNamesFollowed);
+                                          directoryNamesFollowed, subdirs);
                 } else {
                     everythingIncluded = false;
                     dirsNotIncluded.addElement(name);
                     if (fast && scanDuringFastScan(newPath)) {
-                        scandir(file, newPath, fast, children, directoryNamesFollowed);
+                        scandir(file, newPath, fast, children, directoryNamesFollowed,
+                                subdirs);
                     }
                 }
                 if (!fast) {
-                    scandir(file, newPath, fast, children, directoryNamesFollowed);
+                    scandir(file, newPath, fast, children, directoryNamesFollowed, subdirs);
                 }
             }
         }
 
+        if (subdirs != null && !subdirs.isEmpty()) {
+            ForkJoinTask.invokeAll(subdirs);
+        }
+
         if (followSymlinks) {
             directoryNamesFollowed.removeFirst();
         }
     }
 
+    /**
+     * Creates the File for an entry of a directory that is being scanned.
+     *
+     * <p>Entries of a directory listing cache only know their type,
+     * so files are still prefetched if that has been requested.
+     * Directories always come from the cache so their listings
+     * do.</p>
+     */
+    private File newFile(final File dir, final String name) {
+        final File cached = DirectoryListingCache.getChild(dir, name);
+        if (cached != null && (!prefetchAttributes || cached.isDirectory())) {
+            return cached;
+        }
+        final AtomicBoolean scope = prefetchScope;
+        return scope != null ? new PrefetchedFile(dir, name, scope) : new File(dir, name);
+    }
+
     /**
      * Process included file.
      * @param name  path of the file relative to the directory of the FileSet.
@@ -1323,10 +1569,26 @@ public class DirectoryScanner
     private void accountForIncludedDir(final TokenizedPath name,
                                        final File file, final boolean fast,
                                        final String[] children,
-                                       final Deque<String> directoryNamesFollowed) {
+                                       final Deque<String> directoryNamesFollowed,
+                                       final List<ScanDirTask> subdirs) {
         processIncluded(name, file, dirsIncluded, dirsExcluded, dirsDeselected);
         if (fast && scanDuringFastScan(name)) {
-            scandir(file, name, fast, children, directoryNamesFollowed);
+            scandir(file, name, fast, children, directoryNamesFollowed, subdirs);
+        }
+    }
+
+    /**
+     * Scans a subdirectory right away or - during a parallel scan -
+     * adds it to the list of directories to scan concurrently.
+     */
+    private void scandir(final File dir, final TokenizedPath path, final boolean fast,
+                         final String[] newFiles, final Deque<String> directoryNamesFollowed,
+                         final List<ScanDirTask> subdirs) {
+        if (subdirs == null) {
+            scandir(dir, path, fast, newFiles, directoryNamesFollowed);
+        } else {
+            subdirs.add(new ScanDirTask(dir, path, fast, newFiles,
+                                        new LinkedList<>(directoryNamesFollowed)));
         }
     }
 
@@ -1348,16 +1610,24 @@ public class DirectoryScanner
         if (inc.contains(name) || exc.contains(name) || des.contains(name)) {
             return;
         }
-        boolean included = false;
         if (isExcluded(path)) {
             exc.add(name);
-        } else if (isSelected(name, file)) {
-            included = true;
+        } else if (isSelectedDuringScan(name, file)) {
             inc.add(name);
+            return;
         } else {
             des.add(name);
         }
-        everythingIncluded &= included;
+        everythingIncluded = false;
+    }
+
+    private boolean isSelectedDuringScan(final String name, final File file) {
+        if (scanPool == null || selectors == null) {
+            return isSelected(name, file);
+        }
+        synchronized (selectorLock) {
+            return isSelected(name, file);
+        }
     }
 
     /**
@@ -1384,11 +1654,11 @@ public class DirectoryScanner
         ensureNonPatternSetsReady();
 
         String toMatch = path.toString();
-        if (!isCaseSensitive()) {
+        if (!isCaseSensitive) {
             toMatch = toMatch.toUpperCase();
         }
         return includeNonPatterns.containsKey(toMatch)
-            || Stream.of(includePatterns).anyMatch(p -> p.matchPath(path, isCaseSensitive()));
+            || Stream.of(includePatterns).anyMatch(p -> p.matchPath(path, isCaseSensitive));
     }
 
     /**
@@ -1427,7 +1697,7 @@ public class DirectoryScanner
      */
     private boolean couldHoldIncluded(final TokenizedPath tokenizedName,
                                       final TokenizedPattern tokenizedInclude) {
-        return tokenizedInclude.matchStartOf(tokenizedName, isCaseSensitive())
+        return tokenizedInclude.matchStartOf(tokenizedName, isCaseSensitive)
             && isMorePowerfulThanExcludes(tokenizedName.toString())
             && isDeeper(tokenizedInclude, tokenizedName);
     }
@@ -1476,7 +1746,7 @@ public class DirectoryScanner
         return Stream.of(excludePatterns)
             .filter(p -> p.endsWith(SelectorUtils.DEEP_TREE_MATCH))
             .map(TokenizedPattern::withoutLastToken)
-            .anyMatch(wlt -> wlt.matchPath(path, isCaseSensitive()));
+            .anyMatch(wlt -> wlt.matchPath(path, isCaseSensitive));
     }
 
     /**
@@ -1503,11 +1773,11 @@ public class DirectoryScanner
         ensureNonPatternSetsReady();
 
         String toMatch = name.toString();
-        if (!isCaseSensitive()) {
+        if (!isCaseSensitive) {
             toMatch = toMatch.toUpperCase();
         }
         return excludeNonPatterns.containsKey(toMatch)
-            || Stream.of(excludePatterns).anyMatch(p -> p.matchPath(name, isCaseSensitive()));
+            || Stream.of(excludePatterns).anyMatch(p -> p.matchPath(name, isCaseSensitive));
     }
 
     /**
@@ -1772,11 +2042,17 @@ public class DirectoryScanner
      *
      * @since Ant 1.6.3
      */
-    /* package */ synchronized void ensureNonPatternSetsReady() {
+    /* package */ void ensureNonPatternSetsReady() {
+        // threads of a parallel scan must not block on this instance,
+        // the pattern sets have been prepared before they start
         if (!areNonPatternSetsReady) {
-            includePatterns = fillNonPatternSet(includeNonPatterns, includes);
-            excludePatterns = fillNonPatternSet(excludeNonPatterns, excludes);
-            areNonPatternSetsReady = true;
+            synchronized (this) {
+                if (!areNonPatternSetsReady) {
+                    includePatterns = fillNonPatternSet(includeNonPatterns, includes);
+                    excludePatterns = fillNonPatternSet(excludeNonPatterns, excludes);
+                    areNonPatternSetsReady = true;
+                }
+            }
         }
     }
 
@@ -1849,4 +2125,41 @@ public class DirectoryScanner
         }
     }
 
+    /**
+     * Scans a single directory as part of a parallel scan, its
+     * subdirectories are scanned by tasks of their own.
+     *
+     * @since Ant 1.10.18
+     */
+    private final class ScanDirTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final File dir;
+        private final TokenizedPath path;
+        private final boolean fast;
+        private final String[] newFiles;
+        private final Deque<String> directoryNamesFollowed;
+
+        ScanDirTask(final File dir, final TokenizedPath path, final boolean fast,
+                    final String[] newFiles, final Deque<String> directoryNamesFollowed) {
+            this.dir = dir;
+            this.path = path;
+            this.fast = fast;
+            this.newFiles = newFiles;
+            this.directoryNamesFollowed = directoryNamesFollowed;
+        }
+
+        @Override
+        protected void compute() {
+            if (scanFailure.get() != null) {
+                return;
+            }
+            try {
+                scandir(dir, path, fast, newFiles, directoryNamesFollowed);
+            } catch (final RuntimeException ex) {
+                scanFailure.compareAndSet(null, ex);
+            }
+        }
+    }
+
 }
@@ -27,7 +27,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -35,6 +34,7 @@ import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.apache.tools.ant.taskdefs.PreSetDef;
@@ -71,7 +71,7 @@ public final class IntrospectionHelper {
     /**
      * Helper instances we've already created (Class.getName() to IntrospectionHelper).
      */
-    private static final Map<String, IntrospectionHelper> HELPERS = new Hashtable<>();
+    private static final Map<String, IntrospectionHelper> HELPERS = new ConcurrentHashMap<>();
 
     /**
      * Map from primitive types to wrapper classes for use in
@@ -95,29 +95,32 @@ public final class IntrospectionHelper {
     private static final int MAX_REPORT_NESTED_TEXT = 20;
     private static final String ELLIPSIS = "...";
 
+    // The following maps are only modified by the constructor, the
+    // helpers are published through the concurrent HELPERS map.
+
     /**
      * Map from attribute names to attribute types
      * (String to Class).
      */
-    private final Map<String, Class<?>> attributeTypes = new Hashtable<>();
+    private final Map<String, Class<?>> attributeTypes = new HashMap<>();
 
     /**
      * Map from attribute names to attribute setter methods
      * (String to AttributeSetter).
      */
-    private final Map<String, AttributeSetter> attributeSetters = new Hashtable<>();
+    private final Map<String, AttributeSetter> attributeSetters = new HashMap<>();
 
     /**
      * Map from attribute names to nested types
      * (String to Class).
      */
-    private final Map<String, Class<?>> nestedTypes = new Hashtable<>();
+    private final Map<String, Class<?>> nestedTypes = new HashMap<>();
 
     /**
      * Map from attribute names to methods to create nested types
      * (String to NestedCreator).
      */
-    private final Map<String, NestedCreator> nestedCreators = new Hashtable<>();
+    private final Map<String, NestedCreator> nestedCreators = new HashMap<>();
 
     /**
      * Vector of methods matching add[Configured](Class) pattern.
@@ -359,16 +362,11 @@ public final class IntrospectionHelper {
         // Note: This new instance of IntrospectionHelper is intentionally
         // created without holding a lock, to prevent potential deadlocks.
         // See bz-65424 for details
-        ih = new IntrospectionHelper(c);
-        synchronized (HELPERS) {
-            IntrospectionHelper cached = HELPERS.get(c.getName());
-            if (cached != null && cached.bean == c) {
-                return cached;
-            }
-            // cache the recently created one
-            HELPERS.put(c.getName(), ih);
-            return ih;
-        }
+        final IntrospectionHelper created = new IntrospectionHelper(c);
+        // keep a helper another thread has cached in the mean time,
+        // otherwise cache the recently created one
+        return HELPERS.compute(c.getName(),
+            (name, cached) -> cached != null && cached.bean == c ? cached : created);
     }
 
     /**
@@ -0,0 +1,338 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+
+import org.apache.tools.ant.util.FileUtils;
+
+/**
+ * Pool of the jar files opened by the {@link AntClassLoader}s of a
+ * project.
+ *
+ * <p>Jar files are shared between all loaders of the JVM that use the
+ * same file, identified by its canonical path, modification time and
+ * length, and reference counted. A jar file that is no longer used by
+ * any loader is kept open for a while so loaders created later -
+ * e.g. by the next <code>&lt;antcall&gt;</code> - don't have to read
+ * its central directory again.</p>
+ *
+ * <p>Loaders only use a pool if the {@link
+ * MagicNames#CLASSLOADER_JAR_FILE_POOL} property of their project is
+ * set to a positive number. The first project that uses a pool owns
+ * it, projects created by <code>&lt;ant&gt;</code> or
+ * <code>&lt;antcall&gt;</code> afterwards use the pool of their
+ * parent. Each pool keeps at most the configured number of unused jar
+ * files open and closes them once the build of its project has
+ * finished. Jar files released after that are closed right away.</p>
+ *
+ * @since Ant 1.10.18
+ */
+final class JarFilePool {
+
+    /** guards the shared state and the state of all pools */
+    private static final Object LOCK = new Object();
+    /** guards the registration of pools with projects */
+    private static final Object REGISTRATION_LOCK = new Object();
+    /** the current entry for each canonical path */
+    private static final Map<String, Entry> ENTRIES = new HashMap<>();
+    /** all entries that have not been closed, including stale ones */
+    private static final Map<JarFile, Entry> OPEN = new IdentityHashMap<>();
+
+    private final int maxIdle;
+    /** entries without references released to this pool, least recently used first */
+    private final Set<Entry> idle = new LinkedHashSet<>();
+    /** the build of the project owning this pool has finished */
+    private boolean finished = false;
+
+    /**
+     * The pool of the project if the project enables it.
+     *
+     * <p>Creates the pool with the value of the {@link
+     * MagicNames#CLASSLOADER_JAR_FILE_POOL} property as the number of
+     * unused jar files to keep open unless the project - or the
+     * project it has been created by - already has one.</p>
+     *
+     * @param project the project of the loader, may be null
+     * @return the pool or null if the project doesn't use one
+     * @throws BuildException if the property is not a number
+     */
+    static JarFilePool getInstance(final Project project) {
+        if (project == null) {
+            return null;
+        }
+        synchronized (REGISTRATION_LOCK) {
+            for (final BuildListener l : project.getBuildListeners()) {
+                if (l instanceof Closer) {
+                    return ((Closer) l).pool;
+                }
+            }
+            final String size = project.getProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL);
+            if (size == null) {
+                return null;
+            }
+            final int maxIdle;
+            try {
+                maxIdle = Integer.parseInt(size.trim());
+            } catch (final NumberFormatException ex) {
+                throw new BuildException("Invalid value for "
+                    + MagicNames.CLASSLOADER_JAR_FILE_POOL + ": " + size, ex);
+            }
+            if (maxIdle <= 0) {
+                return null;
+            }
+            final JarFilePool pool = new JarFilePool(maxIdle);
+            project.addBuildListener(new Closer(project, pool));
+            return pool;
+        }
+    }
+
+    /**
+     * @param maxIdle the number of unused jar files to keep open.
+     */
+    JarFilePool(final int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Obtains an open jar file for the given file.
+     *
+     * <p>Every jar file obtained must be passed to {@link #release}
+     * once it is no longer used and must not be closed by the
+     * caller.</p>
+     *
+     * @param file the jar file to open
+     * @return JarFile
+     * @throws IOException if the file cannot be opened
+     */
+    JarFile acquire(final File file) throws IOException {
+        final String path = file.getCanonicalPath();
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        JarFile jarFile = acquire(path, lastModified, length);
+        if (jarFile != null) {
+            return jarFile;
+        }
+        // reading the central directory may take a while, don't
+        // block the other loaders
+        final JarFile newJar = AntClassLoader.newJarFile(file);
+        synchronized (LOCK) {
+            jarFile = acquire(path, lastModified, length);
+            if (jarFile != null) {
+                // another thread has been faster
+                FileUtils.close(newJar);
+                return jarFile;
+            }
+            final Entry entry = new Entry(path, lastModified, length, newJar);
+            entry.refs = 1;
+            ENTRIES.put(path, entry);
+            OPEN.put(newJar, entry);
+            return newJar;
+        }
+    }
+
+    /**
+     * Obtains the current entry for the given file if there is one.
+     * @return the jar file or null if it must be opened
+     */
+    private static JarFile acquire(final String path, final long lastModified,
+                                   final long length) {
+        synchronized (LOCK) {
+            final Entry entry = ENTRIES.get(path);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.lastModified != lastModified || entry.length != length) {
+                // the file has been replaced, keep the old one open for
+                // its current users only
+                ENTRIES.remove(path);
+                entry.stale = true;
+                if (entry.refs == 0) {
+                    close(entry);
+                }
+                return null;
+            }
+            if (entry.refs++ == 0 && entry.idleIn != null) {
+                entry.idleIn.idle.remove(entry);
+                entry.idleIn = null;
+            }
+            return entry.jarFile;
+        }
+    }
+
+    /**
+     * Gives back a jar file obtained via {@link #acquire}, jar files
+     * that have not been obtained from a pool are closed.
+     * @param jarFile the jar file
+     */
+    void release(final JarFile jarFile) {
+        synchronized (LOCK) {
+            final Entry entry = OPEN.get(jarFile);
+            if (entry == null) {
+                // not ours
+                FileUtils.close(jarFile);
+                return;
+            }
+            if (--entry.refs > 0) {
+                return;
+            }
+            if (entry.stale || finished) {
+                close(entry);
+                return;
+            }
+            entry.idleIn = this;
+            idle.add(entry);
+            final Iterator<Entry> iter = idle.iterator();
+            while (idle.size() > maxIdle) {
+                final Entry eldest = iter.next();
+                iter.remove();
+                eldest.idleIn = null;
+                close(eldest);
+            }
+        }
+    }
+
+    /**
+     * Closes all unused jar files of this pool, jar files released
+     * later are closed right away.
+     */
+    void finish() {
+        synchronized (LOCK) {
+            finished = true;
+            for (final Entry entry : new ArrayList<>(idle)) {
+                close(entry);
+            }
+        }
+    }
+
+    /**
+     * Keeps unused jar files open again.
+     */
+    private void restart() {
+        synchronized (LOCK) {
+            finished = false;
+        }
+    }
+
+    private static void close(final Entry entry) {
+        if (entry.idleIn != null) {
+            entry.idleIn.idle.remove(entry);
+            entry.idleIn = null;
+        }
+        if (ENTRIES.get(entry.path) == entry) {
+            ENTRIES.remove(entry.path);
+        }
+        OPEN.remove(entry.jarFile);
+        FileUtils.close(entry.jarFile);
+    }
+
+    /**
+     * Finishes a pool once the build of its project has finished,
+     * which is signalled by a subBuildFinished event for projects
+     * created by <code>&lt;ant&gt;</code> and friends.
+     */
+    private static final class Closer implements SubBuildListener {
+        private final Project project;
+        private final JarFilePool pool;
+
+        Closer(final Project project, final JarFilePool pool) {
+            this.project = project;
+            this.pool = pool;
+        }
+
+        @Override
+        public void buildStarted(final BuildEvent event) {
+            pool.restart();
+        }
+
+        @Override
+        public void buildFinished(final BuildEvent event) {
+            pool.finish();
+        }
+
+        @Override
+        public void subBuildStarted(final BuildEvent event) {
+            if (event.getProject() == project) {
+                pool.restart();
+            }
+        }
+
+        @Override
+        public void subBuildFinished(final BuildEvent event) {
+            if (event.getProject() == project) {
+                pool.finish();
+            }
+        }
+
+        @Override
+        public void targetStarted(final BuildEvent event) {
+            // not interested
+        }
+
+        @Override
+        public void targetFinished(final BuildEvent event) {
+            // not interested
+        }
+
+        @Override
+        public void taskStarted(final BuildEvent event) {
+            // not interested
+        }
+
+        @Override
+        public void taskFinished(final BuildEvent event) {
+            // not interested
+        }
+
+        @Override
+        public void messageLogged(final BuildEvent event) {
+            // not interested
+        }
+    }
+
+    /**
+     * An open jar file and its users.
+     */
+    private static final class Entry {
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final JarFile jarFile;
+        private int refs = 0;
+        private boolean stale = false;
+        /** the pool holding the entry while it is unused */
+        private JarFilePool idleIn;
+
+        Entry(final String path, final long lastModified, final long length,
+              final JarFile jarFile) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.jarFile = jarFile;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A property table that can share its content with other tables
+ * without copying it.
+ *
+ * <p>{@link #freeze freeze} moves the entries of the table into an
+ * immutable {@link Layer} that the table - and any other table that
+ * {@link #inherit inherits} the layer - keeps reading from while new
+ * entries are stored in the table itself. Changes made after the
+ * layer has been created are thus only seen by the table that has
+ * made them.</p>
+ *
+ * @since Ant 1.10.18
+ */
+final class LayeredHashtable extends DeferredHashtable {
+    private static final long serialVersionUID = 1L;
+
+    /** Chains longer than this are merged into a single layer. */
+    private static final int MAX_DEPTH = 8;
+
+    private transient Layer base;
+
+    @Override
+    public synchronized Object get(Object key) {
+        final Object value = super.get(key);
+        return value != null || base == null ? value : base.get(key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return super.containsKey(key) || base != null && base.get(key) != null;
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        final Object old = super.put(key, value);
+        return old != null || base == null ? old : base.get(key);
+    }
+
+    @Override
+    protected void complete() {
+        if (base != null) {
+            final Map<String, Object> inherited = base.toMap();
+            base = null;
+            inherited.forEach((k, v) -> {
+                if (!super.containsKey(k)) {
+                    super.put(k, v);
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates a copy of the full content without completing this table.
+     * @return a new Hashtable
+     */
+    synchronized Hashtable<String, Object> copy() {
+        final Hashtable<String, Object> result = base == null
+            ? new Hashtable<>() : new Hashtable<>(base.toMap());
+        for (Map.Entry<String, Object> e : storedEntries()) {
+            result.put(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * The keys of the entries that have been stored in this table
+     * after it has last been frozen.
+     * @return a copy of the keys
+     */
+    synchronized List<String> storedKeys() {
+        final List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Object> e : storedEntries()) {
+            result.add(e.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Moves all entries stored in this table into a new layer this
+     * table reads from from now on.
+     * @return a layer holding the current content of this table
+     */
+    synchronized Layer freeze() {
+        if (base == null || !isStoredEmpty()) {
+            final Map<String, Object> entries = new HashMap<>();
+            for (Map.Entry<String, Object> e : storedEntries()) {
+                entries.put(e.getKey(), e.getValue());
+            }
+            clearStored();
+            base = new Layer(entries, base, Collections.emptySet(), false).compact();
+        }
+        return base;
+    }
+
+    /**
+     * Makes the entries of the given layer visible in this table,
+     * entries stored in the table take precedence.
+     *
+     * @param layer the layer to read from
+     * @return false if the table already inherits a layer
+     */
+    synchronized boolean inherit(Layer layer) {
+        if (base != null) {
+            return false;
+        }
+        base = layer.compact();
+        return true;
+    }
+
+    /**
+     * An immutable set of entries, optionally with a layer below
+     * it.
+     */
+    static final class Layer {
+        private final Map<String, Object> entries;
+        private final Layer next;
+        private final Set<String> hidden;
+        private final boolean stringify;
+        private final int depth;
+
+        /**
+         * @param entries the entries of this layer
+         * @param next the layer below this one, may be null
+         * @param hidden keys of the layers below this one that are
+         * not visible
+         * @param stringify whether values of the layers below this
+         * one are exposed as strings
+         */
+        Layer(Map<String, Object> entries, Layer next, Collection<String> hidden,
+              boolean stringify) {
+            this.entries = entries;
+            this.next = next;
+            this.hidden = hidden.isEmpty() ? Collections.emptySet()
+                : Collections.unmodifiableSet(new HashSet<>(hidden));
+            this.stringify = stringify;
+            this.depth = next == null ? 1 : next.depth + 1;
+        }
+
+        /**
+         * Looks up a key in this layer and the ones below it.
+         * @param key the key
+         * @return the value or null
+         */
+        Object get(Object key) {
+            boolean toString = false;
+            for (Layer l = this; l != null; l = l.next) {
+                final Object value = l.entries.get(key);
+                if (value != null) {
+                    return toString ? value.toString() : value;
+                }
+                if (l.hidden.contains(key)) {
+                    return null;
+                }
+                toString |= l.stringify;
+            }
+            return null;
+        }
+
+        /**
+         * All visible entries of this layer and the ones below it.
+         * @return a new map
+         */
+        Map<String, Object> toMap() {
+            final Map<String, Object> result = new HashMap<>();
+            final Set<String> invisible = new HashSet<>();
+            boolean toString = false;
+            for (Layer l = this; l != null; l = l.next) {
+                for (Map.Entry<String, Object> e : l.entries.entrySet()) {
+                    final String key = e.getKey();
+                    if (!invisible.contains(key) && !result.containsKey(key)) {
+                        result.put(key, toString ? e.getValue().toString() : e.getValue());
+                    }
+                }
+                invisible.addAll(l.hidden);
+                toString |= l.stringify;
+            }
+            return result;
+        }
+
+        private Layer compact() {
+            return depth > MAX_DEPTH
+                ? new Layer(toMap(), null, Collections.emptySet(), false) : this;
+        }
+    }
+}
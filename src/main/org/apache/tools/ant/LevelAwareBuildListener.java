@@ -0,0 +1,48 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant;
+
+/**
+ * A build listener that is not interested in all logged messages.
+ *
+ * <p>If all listeners of a project implement this interface and none
+ * of them is interested in messages of a given level, the project
+ * doesn't create events for such messages at all and {@link
+ * Project#isLoggingEnabled} allows callers to avoid building the
+ * message in the first place.</p>
+ *
+ * <p>Listeners not implementing this interface receive all
+ * messages.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public interface LevelAwareBuildListener extends BuildListener {
+
+    /**
+     * The most verbose message level this listener is interested in.
+     *
+     * <p>{@link #messageLogged messageLogged} may not be invoked for
+     * messages with a priority greater than the returned value. The
+     * value may change over time and will be queried for each
+     * message.</p>
+     *
+     * @return one of the <code>MSG_*</code> constants of {@link Project}
+     */
+    int getInterestingMessageLevel();
+}
@@ -107,6 +107,14 @@ public final class MagicNames {
      */
     public static final String ANT_EXECUTOR_CLASSNAME = "ant.executor.class";
 
+    /**
+     * Property defining the number of threads used by the
+     * {@link org.apache.tools.ant.helper.ParallelExecutor}.
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String ANT_EXECUTOR_THREADS = "ant.executor.threads";
+
     /**
      * property name for basedir of the project.
      * Value: {@value}
@@ -370,5 +378,126 @@ public final class MagicNames {
      */
     public static final String WARN_SECURITY_MANAGER_USAGE = "ant.securitymanager.usage.warn";
 
-}
+    /**
+     * Number of threads used to scan the directory of a fileset or
+     * dirset that doesn't specify the scanthreads attribute.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String FILESET_SCAN_THREADS = "ant.fileset.scanthreads";
+
+    /**
+     * Whether filesets and dirsets that don't specify the
+     * prefetchattributes attribute read the attributes of each file
+     * once while scanning.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String FILESET_PREFETCH_ATTRIBUTES = "ant.fileset.prefetchattributes";
+
+    /**
+     * Directory holding the persistent directory listing caches of
+     * filesets and dirsets that don't specify the scancache attribute.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String FILESET_SCAN_CACHE = "ant.fileset.scancache";
+
+    /**
+     * Number of threads used to compress the entries of archives
+     * written by zip and its subclasses when the compressthreads
+     * attribute hasn't been set.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String ZIP_COMPRESS_THREADS = "ant.zip.compressthreads";
+
+    /**
+     * Number of threads used by the depend task to read class files
+     * when its threads attribute hasn't been set.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String DEPEND_THREADS = "ant.depend.threads";
+
+    /**
+     * Number of threads used by copy, move and sync to copy files
+     * when their threads attribute hasn't been set.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String COPY_THREADS = "ant.copy.threads";
+
+    /**
+     * Number of files read at the same time by the checksum task when
+     * its threads attribute hasn't been set.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String CHECKSUM_THREADS = "ant.checksum.threads";
+
+    /**
+     * Number of files transformed at the same time by the xslt task
+     * when its threads attribute hasn't been set.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String XSLT_THREADS = "ant.xslt.threads";
 
+    /**
+     * Whether the command line launcher dispatches build events to
+     * loggers derived from DefaultLogger from a separate thread.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String LOGGING_ASYNC = "ant.logging.async";
+
+    /**
+     * Number of build events that can be queued when logging
+     * asynchronously.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String LOGGING_ASYNC_CAPACITY = "ant.logging.async.capacity";
+
+    /**
+     * What to do when the queue of asynchronous logging is full,
+     * <code>block</code> or <code>drop-debug</code>.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String LOGGING_ASYNC_OVERFLOW = "ant.logging.async.overflow";
+
+    /**
+     * Number of jar files no longer used by any class loader that are
+     * kept open so later loaders can use them without opening them
+     * again. Loaders don't share jar files unless this is a positive
+     * number.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String CLASSLOADER_JAR_FILE_POOL = "ant.classloader.jarfilepool";
+
+    /**
+     * Name of the property that enables a JVM wide cache of parsed
+     * build files, imported files are only parsed again if they have
+     * been modified.
+     *
+     * Value: {@value}
+     * @since Ant 1.10.18
+     */
+    public static final String PROJECT_HELPER_CACHE = "ant.projecthelper.cache";
+
+}
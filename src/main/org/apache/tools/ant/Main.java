@@ -18,6 +18,7 @@
 
 package org.apache.tools.ant;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,9 +39,12 @@ import java.util.Set;
 import java.util.Vector;
 import java.util.stream.Collectors;
 
+import org.apache.tools.ant.helper.ParallelExecutor;
 import org.apache.tools.ant.input.DefaultInputHandler;
 import org.apache.tools.ant.input.InputHandler;
 import org.apache.tools.ant.launch.AntMain;
+import org.apache.tools.ant.listener.AsyncBuildListener;
+import org.apache.tools.ant.listener.ProfileLogger;
 import org.apache.tools.ant.listener.SilentLogger;
 import org.apache.tools.ant.property.GetProperty;
 import org.apache.tools.ant.property.ResolvePropertyMap;
@@ -149,6 +153,17 @@ public class Main implements AntMain {
      */
     private Integer threadPriority = null;
 
+    /**
+     * optional number of threads for the parallel executor
+     */
+    private Integer parallelThreads = null;
+
+    /**
+     * dispatches events to the logger and listeners if asynchronous
+     * logging has been enabled
+     */
+    private AsyncBuildListener asyncListener = null;
+
     /**
      * proxy flag: default is false
      */
@@ -385,6 +400,8 @@ public class Main implements AntMain {
                 keepGoingMode = true;
             } else if (arg.equals("-nice")) {
                 i = handleArgNice(args, i);
+            } else if (arg.equals("-parallel")) {
+                i = handleArgParallel(args, i);
             } else if (LAUNCH_COMMANDS.contains(arg)) {
                 //catch script/ant mismatch with a meaningful message
                 //we could ignore it, but there are likely to be other
@@ -626,6 +643,26 @@ public class Main implements AntMain {
         return pos;
     }
 
+    /** Handle the -parallel argument. */
+    private int handleArgParallel(final String[] args, int pos) {
+        try {
+            parallelThreads = Integer.decode(args[++pos]);
+        } catch (final ArrayIndexOutOfBoundsException aioobe) {
+            throw new BuildException(
+                "You must supply the number of threads"
+                + " after the -parallel option");
+        } catch (final NumberFormatException e) {
+            throw new BuildException("Unrecognized number of threads: "
+                                     + args[pos]);
+        }
+
+        if (parallelThreads < 1) {
+            throw new BuildException(
+                "The number of threads must be at least 1");
+        }
+        return pos;
+    }
+
     // --------------------------------------------------------
     //    other methods
     // --------------------------------------------------------
@@ -777,6 +814,12 @@ public class Main implements AntMain {
                 setProperties(project);
 
                 project.setKeepGoingMode(keepGoingMode);
+                if (parallelThreads != null) {
+                    project.setUserProperty(MagicNames.ANT_EXECUTOR_CLASSNAME,
+                                            ParallelExecutor.class.getName());
+                    project.setUserProperty(MagicNames.ANT_EXECUTOR_THREADS,
+                                            String.valueOf(parallelThreads));
+                }
                 if (proxy) {
                     //proxy setup if enabled
                     final ProxySetup proxySetup = new ProxySetup(project);
@@ -844,6 +887,9 @@ public class Main implements AntMain {
             } else if (error != null) {
                 project.log(error.toString(), Project.MSG_ERR);
             }
+            if (asyncListener != null) {
+                asyncListener.drain();
+            }
         }
     }
 
@@ -889,9 +935,23 @@ public class Main implements AntMain {
      *                Must not be <code>null</code>.
      */
     protected void addBuildListeners(final Project project) {
+        asyncListener = createAsyncListener();
 
         // Add the default listener
-        project.addBuildListener(createLogger());
+        final BuildLogger logger = createLogger();
+        if (asyncListener != null && isLogFileUsed
+            && canDispatchAsynchronously(logger)) {
+            // the log file is flushed after each batch of events
+            // rather than written to for each line
+            out = new PrintStream(new BufferedOutputStream(out));
+            err = out;
+            System.setOut(out);
+            System.setErr(err);
+            logger.setOutputPrintStream(out);
+            logger.setErrorPrintStream(err);
+            asyncListener.addFlushable(out);
+        }
+        addBuildListener(project, logger);
 
         final int count = listeners.size();
         for (int i = 0; i < count; i++) {
@@ -901,10 +961,78 @@ public class Main implements AntMain {
                             Main.class.getClassLoader(), BuildListener.class);
             project.setProjectReference(listener);
 
+            addBuildListener(project, listener);
+        }
+    }
+
+    /**
+     * Adds the listener to the project or - if it is able to receive
+     * events from a separate thread - to the dispatcher for
+     * asynchronous logging.
+     */
+    private void addBuildListener(final Project project, final BuildListener listener) {
+        if (asyncListener != null && canDispatchAsynchronously(listener)) {
+            if (asyncListener.getBuildListeners().isEmpty()) {
+                project.addBuildListener(asyncListener);
+            }
+            asyncListener.addBuildListener(listener);
+        } else {
             project.addBuildListener(listener);
         }
     }
 
+    /**
+     * Whether the listener may receive events from a separate thread
+     * after they have been fired.
+     *
+     * <p>DefaultLogger and the loggers derived from it only format
+     * the events. Other listeners, like XmlLogger and ProfileLogger,
+     * inspect the tasks and targets or measure times when receiving
+     * an event and must receive it synchronously.</p>
+     */
+    private static boolean canDispatchAsynchronously(final BuildListener listener) {
+        return listener instanceof DefaultLogger
+            && !(listener instanceof ProfileLogger);
+    }
+
+    /**
+     * Creates the dispatcher for asynchronous logging if it has been
+     * enabled.
+     *
+     * @return the dispatcher or null
+     */
+    private AsyncBuildListener createAsyncListener() {
+        if (!Project.toBoolean(getDefinedProperty(MagicNames.LOGGING_ASYNC))) {
+            return null;
+        }
+        final AsyncBuildListener async;
+        try {
+            int capacity = AsyncBuildListener.DEFAULT_CAPACITY;
+            final String capacityValue = getDefinedProperty(MagicNames.LOGGING_ASYNC_CAPACITY);
+            if (capacityValue != null) {
+                try {
+                    capacity = Integer.parseInt(capacityValue.trim());
+                } catch (final NumberFormatException e) {
+                    throw new BuildException("Invalid value for "
+                        + MagicNames.LOGGING_ASYNC_CAPACITY + ": " + capacityValue);
+                }
+            }
+            final String overflowValue = getDefinedProperty(MagicNames.LOGGING_ASYNC_OVERFLOW);
+            async = new AsyncBuildListener(capacity,
+                overflowValue == null ? AsyncBuildListener.OverflowPolicy.BLOCK
+                : AsyncBuildListener.OverflowPolicy.parse(overflowValue));
+        } catch (final BuildException e) {
+            System.err.println("Asynchronous logging could not be enabled because "
+                + e.getMessage());
+            throw e;
+        }
+        return async;
+    }
+
+    private String getDefinedProperty(final String name) {
+        return definedProps.getProperty(name, System.getProperty(name));
+    }
+
     /**
      * Creates the InputHandler and adds it to the project.
      *
@@ -996,6 +1124,8 @@ public class Main implements AntMain {
         System.out.println("    -s  <file>           the filesystem and use it");
         System.out.println("  -nice  number          A niceness value for the main thread:");
         System.out.println("                         1 (lowest) to 10 (highest); 5 is the default");
+        System.out.println("  -parallel number       run independent targets concurrently using");
+        System.out.println("                         the given number of threads");
         System.out.println("  -nouserlib             Run ant without using the jar files from");
         System.out.println("                         ${user.home}/.ant/lib");
         System.out.println("  -noclasspath           Run ant without using CLASSPATH");
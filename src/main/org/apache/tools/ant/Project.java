@@ -23,7 +23,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,6 +37,7 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.Vector;
 import java.util.WeakHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.helper.DefaultExecutor;
@@ -404,6 +407,30 @@ public class Project implements ResourceFactory {
         }
     }
 
+    /**
+     * Add all build listeners of another project, like
+     * <code>&lt;ant&gt;</code> does for the projects it creates.
+     *
+     * <p>If this project doesn't have any listeners yet both projects
+     * share the list of listeners until either of them adds or
+     * removes one.</p>
+     *
+     * @param other the project to take the listeners from.
+     * @since Ant 1.10.18
+     */
+    public void addBuildListeners(final Project other) {
+        final BuildListener[] otherListeners = other.listeners;
+        synchronized (listenersLock) {
+            if (listeners.length == 0) {
+                listeners = otherListeners;
+                return;
+            }
+        }
+        for (final BuildListener listener : otherListeners) {
+            addBuildListener(listener);
+        }
+    }
+
     /**
      * Remove a build listener from the list. This listener
      * will no longer be notified of build events for this project.
@@ -939,10 +966,12 @@ public class Project implements ResourceFactory {
         if (!JavaEnvUtils.isAtLeastJavaVersion(JavaEnvUtils.JAVA_1_8))  {
             throw new BuildException("Ant cannot work on Java prior to 1.8");
         }
-        log("Detected Java version: " + javaVersion + " in: "
-            + System.getProperty("java.home"), MSG_VERBOSE);
+        if (isLoggingEnabled(MSG_VERBOSE)) {
+            log("Detected Java version: " + javaVersion + " in: "
+                + System.getProperty("java.home"), MSG_VERBOSE);
 
-        log("Detected OS: " + System.getProperty("os.name"), MSG_VERBOSE);
+            log("Detected OS: " + System.getProperty("os.name"), MSG_VERBOSE);
+        }
     }
 
     /**
@@ -1985,7 +2014,7 @@ public class Project implements ResourceFactory {
      */
     public void addReference(final String referenceName, final Object value) {
         synchronized (referencesLock) {
-            final Object old = ((AntRefTable) references).getReal(referenceName);
+            final Object old = ((AntRefTable) references).getStored(referenceName);
             if (old == value) {
                 // no warning, this is not changing anything
                 return;
@@ -2022,6 +2051,40 @@ public class Project implements ResourceFactory {
         }
     }
 
+    /**
+     * Adds references that are only created when they are looked up
+     * for the first time, for example when this project inherits
+     * the references of another project.
+     *
+     * <p>References that exist in this project already are not
+     * replaced.</p>
+     *
+     * @param names the names of the references
+     * @param factory creates the reference of the given name, may
+     * return <code>null</code> if it cannot be created
+     * @since Ant 1.10.18
+     */
+    public void addDeferredReferences(final Collection<String> names,
+                                      final Function<String, Object> factory) {
+        synchronized (referencesLock) {
+            ((AntRefTable) references).defer(names, factory);
+        }
+    }
+
+    /**
+     * Return the names of all references of the project without
+     * creating any deferred references.
+     *
+     * @return a set of names
+     * @see #addDeferredReferences
+     * @since Ant 1.10.18
+     */
+    public Set<String> getReferenceNames() {
+        synchronized (referencesLock) {
+            return ((AntRefTable) references).names();
+        }
+    }
+
     /**
      * Return a map of the references in the project (String to
      * Object).  The returned hashtable is a copy of the
@@ -2220,6 +2283,32 @@ public class Project implements ResourceFactory {
 
     }
 
+    /**
+     * Whether any of the registered build listeners is interested in
+     * messages of the given level.
+     *
+     * <p>This is the case unless all listeners implement {@link
+     * LevelAwareBuildListener} and are configured to ignore messages
+     * of this level. Messages nobody is interested in are not
+     * dispatched at all, callers may use this method to avoid
+     * building expensive messages.</p>
+     *
+     * @param msgLevel the message level
+     * @return whether a message of the given level would be seen
+     * by any listener
+     * @since Ant 1.10.18
+     */
+    public boolean isLoggingEnabled(final int msgLevel) {
+        for (BuildListener listener : listeners) {
+            if (!(listener instanceof LevelAwareBuildListener)
+                || msgLevel <= ((LevelAwareBuildListener) listener)
+                    .getInterestingMessageLevel()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Send a &quot;message logged&quot; event to the build listeners
      * for this project.
@@ -2296,6 +2385,9 @@ public class Project implements ResourceFactory {
      */
     protected void fireMessageLogged(final Project project, final String message,
             final Throwable throwable, final int priority) {
+        if (!isLoggingEnabled(priority)) {
+            return;
+        }
         final BuildEvent event = new BuildEvent(project);
         event.setException(throwable);
         fireMessageLoggedEvent(event, message, priority);
@@ -2328,6 +2420,9 @@ public class Project implements ResourceFactory {
      */
     protected void fireMessageLogged(final Target target, final String message,
             final Throwable throwable, final int priority) {
+        if (!isLoggingEnabled(priority)) {
+            return;
+        }
         final BuildEvent event = new BuildEvent(target);
         event.setException(throwable);
         fireMessageLoggedEvent(event, message, priority);
@@ -2359,6 +2454,9 @@ public class Project implements ResourceFactory {
      */
     protected void fireMessageLogged(final Task task, final String message,
             final Throwable throwable, final int priority) {
+        if (!isLoggingEnabled(priority)) {
+            return;
+        }
         final BuildEvent event = new BuildEvent(task);
         event.setException(throwable);
         fireMessageLoggedEvent(event, message, priority);
@@ -2408,9 +2506,12 @@ public class Project implements ResourceFactory {
 
     // Should move to a separate public class - and have API to add
     // listeners, etc.
-    private static class AntRefTable extends Hashtable<String, Object> {
+    private static class AntRefTable extends DeferredHashtable {
         private static final long serialVersionUID = 1L;
 
+        /** Creates references when they are looked up for the first time. */
+        private transient Map<String, Function<String, Object>> deferred;
+
         AntRefTable() {
             super();
         }
@@ -2422,7 +2523,15 @@ public class Project implements ResourceFactory {
          * of UnknownElement (this is similar with the JDNI
          * refs behavior).
          */
-        private Object getReal(final Object key) {
+        private synchronized Object getReal(final Object key) {
+            final Object o = super.get(key);
+            return o != null ? o : create(key);
+        }
+
+        /**
+         * Returns the original object if it has been created already.
+         */
+        private synchronized Object getStored(final Object key) {
             return super.get(key);
         }
 
@@ -2438,7 +2547,7 @@ public class Project implements ResourceFactory {
          * @return mapped value.
          */
         @Override
-        public Object get(final Object key) {
+        public synchronized Object get(final Object key) {
             Object o = getReal(key);
             if (o instanceof UnknownElement) {
                 // Make sure that
@@ -2448,6 +2557,65 @@ public class Project implements ResourceFactory {
             }
             return o;
         }
+
+        @Override
+        public synchronized boolean containsKey(final Object key) {
+            return super.containsKey(key) || create(key) != null;
+        }
+
+        @Override
+        public synchronized Object put(final String key, final Object value) {
+            if (deferred != null) {
+                deferred.remove(key);
+            }
+            return super.put(key, value);
+        }
+
+        @Override
+        protected void complete() {
+            if (deferred != null) {
+                for (final String key : new ArrayList<>(deferred.keySet())) {
+                    create(key);
+                }
+                deferred = null;
+            }
+        }
+
+        private synchronized void defer(final Collection<String> names,
+                                        final Function<String, Object> factory) {
+            for (final String name : names) {
+                if (!super.containsKey(name)) {
+                    if (deferred == null) {
+                        deferred = new HashMap<>();
+                    }
+                    deferred.put(name, factory);
+                }
+            }
+        }
+
+        private synchronized Set<String> names() {
+            final Set<String> names = new HashSet<>();
+            for (final Map.Entry<String, Object> e : storedEntries()) {
+                names.add(e.getKey());
+            }
+            if (deferred != null) {
+                names.addAll(deferred.keySet());
+            }
+            return names;
+        }
+
+        private Object create(final Object key) {
+            final Function<String, Object> factory =
+                deferred == null ? null : deferred.remove(key);
+            if (factory == null) {
+                return null;
+            }
+            final Object o = factory.apply((String) key);
+            if (o != null) {
+                super.put((String) key, o);
+            }
+            return o;
+        }
     }
 
     /**
@@ -22,10 +22,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.tools.ant.property.GetProperty;
 import org.apache.tools.ant.property.NullReturn;
@@ -194,6 +196,8 @@ public class PropertyHelper implements GetProperty {
         }
     };
 
+    private static final int MAX_TEMPLATES = 10000;
+
     private static final PropertyExpander DEFAULT_EXPANDER =
         (s, pos, notUsed) -> {
             int index = pos.getIndex();
@@ -249,15 +253,21 @@ public class PropertyHelper implements GetProperty {
     private PropertyHelper next;
     private final Hashtable<Class<? extends Delegate>, List<Delegate>> delegates = new Hashtable<>();
 
+    /**
+     * Parsed strings, only valid as long as the default expanders
+     * are used.
+     */
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
     /** Project properties map (usually String to String). */
-    private final Hashtable<String, Object> properties = new Hashtable<>();
+    private final LayeredHashtable properties = new LayeredHashtable();
 
     /**
      * Map of "user" properties (as created in the Ant task, for example).
      * Note that these key/value pairs are also always put into the
      * project properties, so only the project properties need to be queried.
      */
-    private final Hashtable<String, Object> userProperties = new Hashtable<>();
+    private final LayeredHashtable userProperties = new LayeredHashtable();
 
     /**
      * Map of inherited "user" properties - that are those "user"
@@ -585,6 +595,9 @@ public class PropertyHelper implements GetProperty {
      *         <code>null</code> if the original string is <code>null</code>.
      */
     public Object parseProperties(String value) throws BuildException {
+        if (value != null && usesDefaultExpanders()) {
+            return value.indexOf('$') < 0 ? value : getTemplate(value).expand(this);
+        }
         return new ParseProperties(getProject(), getExpanders(), this)
             .parseProperties(value);
     }
@@ -595,10 +608,39 @@ public class PropertyHelper implements GetProperty {
      * @return <code>true</code> if <code>value</code> contains property notation.
      */
     public boolean containsProperties(String value) {
+        if (value != null && usesDefaultExpanders()) {
+            return value.indexOf('$') >= 0 && getTemplate(value).containsProperties();
+        }
         return new ParseProperties(getProject(), getExpanders(), this)
             .containsProperties(value);
     }
 
+    /**
+     * Whether the expanders are the ones every PropertyHelper starts
+     * with, which means strings can be expanded using templates.
+     */
+    private boolean usesDefaultExpanders() {
+        final Collection<PropertyExpander> expanders = getExpanders();
+        if (expanders.size() != 2) {
+            return false;
+        }
+        final Iterator<PropertyExpander> iter = expanders.iterator();
+        return iter.next() == DEFAULT_EXPANDER && iter.next() == SKIP_DOUBLE_DOLLAR;
+    }
+
+    private Template getTemplate(String value) {
+        Template template = templates.get(value);
+        if (template == null) {
+            template = Template.compile(value);
+            if (templates.size() >= MAX_TEMPLATES) {
+                // strings built at runtime may never be seen again
+                templates.clear();
+            }
+            templates.put(value, template);
+        }
+        return template;
+    }
+
     // -------------------- Default implementation  --------------------
     // Methods used to support the default behavior and provide backward
     // compatibility. Some will be deprecated, you should avoid calling them.
@@ -916,10 +958,7 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing all properties (including user properties).
      */
     public Hashtable<String, Object> getProperties() {
-        //avoid concurrent modification:
-        synchronized (properties) {
-            return new Hashtable<>(properties);
-        }
+        return properties.copy();
         // There is a better way to save the context. This shouldn't
         // delegate to next, it's for backward compatibility only.
     }
@@ -933,10 +972,7 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing just the user properties
      */
     public Hashtable<String, Object> getUserProperties() {
-        //avoid concurrent modification:
-        synchronized (userProperties) {
-            return new Hashtable<>(userProperties);
-        }
+        return userProperties.copy();
     }
 
     /**
@@ -1023,15 +1059,82 @@ public class PropertyHelper implements GetProperty {
      * @since Ant 1.6
      */
     public void copyUserProperties(Project other) {
-        //avoid concurrent modification:
-        synchronized (userProperties) {
-            for (Map.Entry<String, Object> entry : userProperties.entrySet()) {
-                String arg = entry.getKey();
-                if (!inheritedProperties.containsKey(arg)) {
-                    other.setUserProperty(arg, entry.getValue().toString());
+        for (Map.Entry<String, Object> entry : userProperties.copy().entrySet()) {
+            String arg = entry.getKey();
+            if (!inheritedProperties.containsKey(arg)) {
+                other.setUserProperty(arg, entry.getValue().toString());
+            }
+        }
+    }
+
+    /**
+     * Makes the user properties that have been set on the command
+     * line or a GUI tool and optionally all other properties of this
+     * instance visible in the Project instance given as the argument
+     * without copying them.
+     *
+     * <p>The result is the same as invoking {@link
+     * #copyUserProperties copyUserProperties} and setting all
+     * properties that are not excluded and have not been set in the
+     * other project as plain properties, but the time this takes
+     * doesn't depend on the number of properties. Both projects
+     * share the properties set so far, properties set later are
+     * only seen by the project that sets them.</p>
+     *
+     * <p>Does not copy properties held by implementations of
+     * delegates (like local properties).</p>
+     *
+     * @param other the project to pass the properties to.  Must not
+     * be null.
+     * @param all whether to pass all properties rather than just the
+     * user properties
+     * @param excluded names of properties that are not passed as
+     * plain properties, they are still passed when they are user
+     * properties
+     * @return false if the properties cannot be shared because
+     * either project uses a subclass of PropertyHelper or the other
+     * project has already inherited properties, nothing has been
+     * changed in this case
+     *
+     * @since Ant 1.10.18
+     */
+    public boolean inheritProperties(Project other, boolean all,
+                                     Collection<String> excluded) {
+        PropertyHelper target = getPropertyHelper(other);
+        if (target == this || getClass() != PropertyHelper.class
+            || target.getClass() != PropertyHelper.class) {
+            return false;
+        }
+        LayeredHashtable.Layer userLayer;
+        LayeredHashtable.Layer propertyLayer;
+        synchronized (this) {
+            userLayer = new LayeredHashtable.Layer(Collections.emptyMap(),
+                                                   userProperties.freeze(),
+                                                   inheritedProperties.keySet(), true);
+            propertyLayer = !all ? userLayer
+                : new LayeredHashtable.Layer(Collections.emptyMap(),
+                                             properties.freeze(), excluded, true);
+        }
+        synchronized (target) {
+            List<String> overridden = target.properties.storedKeys();
+            if (!target.userProperties.isEmpty()
+                || !target.properties.inherit(propertyLayer)) {
+                return false;
+            }
+            target.userProperties.inherit(userLayer);
+            // user properties take precedence over properties the
+            // other project has set already and over excluded ones
+            if (all) {
+                overridden.addAll(excluded);
+            }
+            for (String name : overridden) {
+                Object value = userLayer.get(name);
+                if (value != null) {
+                    target.properties.put(name, value);
                 }
             }
         }
+        return true;
     }
 
     // -------------------- Property parsing  --------------------
@@ -1231,4 +1334,91 @@ public class PropertyHelper implements GetProperty {
     public boolean testUnlessCondition(Object value) {
         return nullOrEmpty(value) || !evalAsBooleanOrPropertyName(value);
     }
+
+    /**
+     * A string that has been split into literal text and references
+     * to properties the way {@link #DEFAULT_EXPANDER} and {@link
+     * #SKIP_DOUBLE_DOLLAR} would parse it.
+     */
+    private static final class Template {
+        /** literal text before, between and after the references */
+        private final String[] literals;
+        /** names of the referenced properties */
+        private final String[] names;
+        /** the references as they appear in the string */
+        private final String[] references;
+        private final int literalLength;
+
+        private Template(List<String> literals, List<String> names,
+                         List<String> references) {
+            this.literals = literals.toArray(new String[0]);
+            this.names = names.toArray(new String[0]);
+            this.references = references.toArray(new String[0]);
+            this.literalLength = literals.stream().mapToInt(String::length).sum();
+        }
+
+        static Template compile(String value) {
+            final List<String> literals = new ArrayList<>();
+            final List<String> names = new ArrayList<>();
+            final List<String> references = new ArrayList<>();
+            final StringBuilder literal = new StringBuilder();
+            final int len = value.length();
+            int i = 0;
+            while (i < len) {
+                final char c = value.charAt(i);
+                if (c == '$' && len - i >= 3 && value.charAt(i + 1) == '{') {
+                    final int end = value.indexOf('}', i + 2);
+                    if (end < 0) {
+                        throw new BuildException(
+                            "Syntax error in property: " + value.substring(i));
+                    }
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    names.add(value.substring(i + 2, end));
+                    references.add(value.substring(i, end + 1));
+                    i = end + 1;
+                } else if (c == '$' && len - i >= 2 && value.charAt(i + 1) == '$') {
+                    literal.append('$');
+                    i += 2;
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+            }
+            literals.add(literal.toString());
+            return new Template(literals, names, references);
+        }
+
+        boolean containsProperties() {
+            return names.length > 0;
+        }
+
+        Object expand(PropertyHelper helper) {
+            if (names.length == 0) {
+                return literals[0];
+            }
+            if (names.length == 1 && literalLength == 0) {
+                // the whole string is a single reference
+                return resolve(helper, 0);
+            }
+            final StringBuilder sb = new StringBuilder(literalLength + 16 * names.length);
+            sb.append(literals[0]);
+            for (int i = 0; i < names.length; i++) {
+                sb.append(resolve(helper, i)).append(literals[i + 1]);
+            }
+            return sb.toString();
+        }
+
+        private Object resolve(PropertyHelper helper, int i) {
+            final Object result = helper.getProperty(names[i]);
+            if (result != null) {
+                return result;
+            }
+            if (helper.getProject() != null) {
+                helper.getProject().log("Property \"" + names[i]
+                    + "\" has not been set", Project.MSG_VERBOSE);
+            }
+            return references[i];
+        }
+    }
 }
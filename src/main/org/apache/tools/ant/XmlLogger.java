@@ -206,22 +206,26 @@ public class XmlLogger implements BuildLogger {
     }
 
     /**
-     * Returns the stack of timed elements for the current thread.
-     * @return the stack of timed elements for the current thread
+     * Returns the stack of timed elements for the thread that has
+     * fired the event.
+     * @param event the event
+     * @return the stack of timed elements for the event's thread
      */
-    private Stack<TimedElement> getStack() {
+    private Stack<TimedElement> getStack(BuildEvent event) {
         /* For debugging purposes uncomment:
         if (threadStacks.containsKey(Thread.currentThread())) {
             org.w3c.dom.Comment s = doc.createComment("stack=" + threadStacks(Thread.currentThread()));
             buildElement.element.appendChild(s);
         }
         */
-        return threadStacks.computeIfAbsent(Thread.currentThread(), k -> new Stack<>());
+        final Thread thread = event.getThread();
+        return threadStacks.computeIfAbsent(thread == null ? Thread.currentThread() : thread,
+                                            k -> new Stack<>());
     }
 
     /**
      * Fired when a target starts building, this pushes a timed element
-     * for the target onto the stack of elements for the current thread,
+     * for the target onto the stack of elements for the thread that fired the event,
      * remembering the current time and the name of the target.
      *
      * @param event An event with any relevant extra information.
@@ -235,7 +239,7 @@ public class XmlLogger implements BuildLogger {
         targetElement.element = doc.createElement(TARGET_TAG);
         targetElement.element.setAttribute(NAME_ATTR, target.getName());
         targets.put(target, targetElement);
-        getStack().push(targetElement);
+        getStack(event).push(targetElement);
     }
 
     /**
@@ -254,7 +258,7 @@ public class XmlLogger implements BuildLogger {
             targetElement.element.setAttribute(TIME_ATTR, DefaultLogger.formatTime(totalTime));
 
             TimedElement parentElement = null;
-            Stack<TimedElement> threadStack = getStack();
+            Stack<TimedElement> threadStack = getStack(event);
             if (!threadStack.empty()) {
                 TimedElement poppedStack = threadStack.pop();
                 if (poppedStack != targetElement) {
@@ -277,7 +281,7 @@ public class XmlLogger implements BuildLogger {
 
     /**
      * Fired when a task starts building, this pushes a timed element
-     * for the task onto the stack of elements for the current thread,
+     * for the task onto the stack of elements for the thread that fired the event,
      * remembering the current time and the name of the task.
      *
      * @param event An event with any relevant extra information.
@@ -297,7 +301,7 @@ public class XmlLogger implements BuildLogger {
         taskElement.element.setAttribute(NAME_ATTR, name);
         taskElement.element.setAttribute(LOCATION_ATTR, event.getTask().getLocation().toString());
         tasks.put(task, taskElement);
-        getStack().push(taskElement);
+        getStack(event).push(taskElement);
     }
 
     /**
@@ -326,7 +330,7 @@ public class XmlLogger implements BuildLogger {
         } else {
             synchronizedAppend(targetElement.element, taskElement.element);
         }
-        Stack<TimedElement> threadStack = getStack();
+        Stack<TimedElement> threadStack = getStack(event);
         if (!threadStack.empty()) {
             TimedElement poppedStack = threadStack.pop();
             if (poppedStack != taskElement) {
@@ -348,7 +352,10 @@ public class XmlLogger implements BuildLogger {
         if (element != null) {
             return element;
         }
-        final Set<Task> knownTasks = new HashSet<>(tasks.keySet());
+        final Set<Task> knownTasks;
+        synchronized (tasks) {
+            knownTasks = new HashSet<>(tasks.keySet());
+        }
         for (final Task t : knownTasks) {
             if (t instanceof UnknownElement && ((UnknownElement) t).getTask() == task) {
                 return tasks.get(t);
@@ -0,0 +1,460 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.helper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Executor;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+import org.apache.tools.ant.Target;
+
+/**
+ * Target executor that runs independent targets concurrently.
+ *
+ * <p>Like {@link SingleCheckExecutor} the dependencies of all
+ * requested targets are computed together, so shared dependencies run
+ * just once. A target is started as soon as all of its dependencies
+ * have finished successfully; the order of targets inside a
+ * <code>depends</code> list that do not depend on each other is not
+ * preserved.</p>
+ *
+ * <p>The number of worker threads is read from the
+ * {@value MagicNames#ANT_EXECUTOR_THREADS} property and defaults to
+ * the number of available processors. Build events of each target are
+ * held back until the target has finished and are then passed on to
+ * the listeners in one piece so the log of concurrently running
+ * targets does not interleave.</p>
+ *
+ * <p>If an error occurs, behavior is determined by the Project's
+ * "keep-going" mode: without it no further targets are started and
+ * the first failure is rethrown once all running targets have
+ * finished.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class ParallelExecutor implements Executor {
+
+    private static final SingleCheckExecutor SUB_EXECUTOR = new SingleCheckExecutor();
+
+    /** {@inheritDoc}. */
+    public void executeTargets(Project project, String[] targetNames)
+        throws BuildException {
+        Vector<Target> sortedTargets =
+            project.topoSort(targetNames, project.getTargets(), false);
+        int threads = getThreadCount(project);
+        if (threads < 2 || sortedTargets.size() < 2) {
+            project.executeSortedTargets(sortedTargets);
+            return;
+        }
+        TargetOutputBuffer buffer = installBuffer(project);
+        try {
+            new Scheduler(project, sortedTargets, threads, buffer).run();
+        } finally {
+            uninstallBuffer(project, buffer);
+        }
+    }
+
+    /** {@inheritDoc}. */
+    public Executor getSubProjectExecutor() {
+        return SUB_EXECUTOR;
+    }
+
+    /**
+     * Determine the number of worker threads to use.
+     * @param project the Ant Project.
+     * @return the value of the {@value MagicNames#ANT_EXECUTOR_THREADS}
+     * property or the number of available processors if it has not
+     * been set.
+     */
+    protected int getThreadCount(Project project) {
+        String value = project.getProperty(MagicNames.ANT_EXECUTOR_THREADS);
+        if (value == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.ANT_EXECUTOR_THREADS
+                                     + ": " + value, ex);
+        }
+    }
+
+    private static TargetOutputBuffer installBuffer(Project project) {
+        List<BuildListener> listeners = project.getBuildListeners();
+        TargetOutputBuffer buffer =
+            new TargetOutputBuffer(listeners.toArray(new BuildListener[0]));
+        listeners.forEach(project::removeBuildListener);
+        project.addBuildListener(buffer);
+        return buffer;
+    }
+
+    private static void uninstallBuffer(Project project,
+                                        TargetOutputBuffer buffer) {
+        // listeners may have been added by tasks while the targets ran,
+        // keep them after the original ones
+        List<BuildListener> current = project.getBuildListeners();
+        current.forEach(project::removeBuildListener);
+        for (BuildListener l : buffer.delegates) {
+            project.addBuildListener(l);
+        }
+        for (BuildListener l : current) {
+            if (l != buffer) {
+                project.addBuildListener(l);
+            }
+        }
+    }
+
+    /**
+     * Keeps track of the state of all targets and hands them to the
+     * worker pool once they become executable.
+     */
+    private static final class Scheduler {
+        private final Project project;
+        private final Vector<Target> sortedTargets;
+        private final int threads;
+        private final TargetOutputBuffer buffer;
+
+        private final Object lock = new Object();
+        private final Set<String> started = new HashSet<>();
+        private final Set<String> finished = new HashSet<>();
+        private final Set<String> succeeded = new HashSet<>();
+        private int running = 0;
+        private BuildException buildException = null; // first build exception
+        private RuntimeException abortException = null;
+
+        Scheduler(Project project, Vector<Target> sortedTargets, int threads,
+                  TargetOutputBuffer buffer) {
+            this.project = project;
+            this.sortedTargets = sortedTargets;
+            this.threads = threads;
+            this.buffer = buffer;
+        }
+
+        void run() {
+            ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(threads, sortedTargets.size()), new WorkerFactory());
+            try {
+                synchronized (lock) {
+                    while (finished.size() < sortedTargets.size()) {
+                        if (abortException == null) {
+                            scheduleReadyTargets(pool);
+                        }
+                        if (running == 0) {
+                            // nothing left that could become executable
+                            break;
+                        }
+                        lock.wait();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new BuildException("Interrupted while waiting for targets to finish",
+                                         ex);
+            } finally {
+                pool.shutdownNow();
+            }
+            if (abortException != null) {
+                throw abortException;
+            }
+            if (buildException != null) {
+                throw buildException;
+            }
+        }
+
+        /**
+         * Starts all targets whose dependencies have finished; marks
+         * those whose dependencies failed as not executed.
+         * Must be called while holding the lock.
+         */
+        private void scheduleReadyTargets(ExecutorService pool) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (final Target curtarget : sortedTargets) {
+                    String name = curtarget.getName();
+                    if (started.contains(name)) {
+                        continue;
+                    }
+                    List<String> dependencies =
+                        Collections.list(curtarget.getDependencies());
+                    if (!finished.containsAll(dependencies)) {
+                        continue;
+                    }
+                    started.add(name);
+                    String failedDependency = dependencies.stream()
+                        .filter(d -> !succeeded.contains(d))
+                        .findFirst().orElse(null);
+                    if (failedDependency != null) {
+                        project.log(curtarget,
+                            "Cannot execute '" + name + "' - '"
+                            + failedDependency + "' failed or was not executed.",
+                            Project.MSG_ERR);
+                        finished.add(name);
+                        changed = true;
+                    } else {
+                        running++;
+                        pool.execute(() -> runTarget(curtarget));
+                    }
+                }
+            }
+        }
+
+        private void runTarget(Target curtarget) {
+            Throwable thrownException = null;
+            buffer.startBuffering(curtarget);
+            try {
+                curtarget.performTasks();
+            } catch (final Throwable ex) { //NOSONAR
+                thrownException = ex;
+            } finally {
+                buffer.flush(curtarget);
+            }
+            synchronized (lock) {
+                running--;
+                finished.add(curtarget.getName());
+                if (thrownException == null) {
+                    succeeded.add(curtarget.getName());
+                } else {
+                    handleFailure(curtarget, thrownException);
+                }
+                lock.notifyAll();
+            }
+        }
+
+        /**
+         * Mirrors the error handling of
+         * {@link Project#executeSortedTargets}.
+         * Must be called while holding the lock.
+         */
+        private void handleFailure(Target curtarget, Throwable thrownException) {
+            if (!project.isKeepGoingMode()) {
+                if (abortException == null) {
+                    abortException = thrownException instanceof RuntimeException
+                        ? (RuntimeException) thrownException
+                        : new BuildException(thrownException);
+                }
+                return;
+            }
+            project.log(curtarget,
+                "Target '" + curtarget.getName()
+                + "' failed with message '"
+                + thrownException.getMessage() + "'.", Project.MSG_ERR);
+            if (thrownException instanceof BuildException) {
+                // only the first build exception is reported
+                if (buildException == null) {
+                    buildException = (BuildException) thrownException;
+                }
+            } else {
+                thrownException.printStackTrace(System.err); //NOSONAR
+                if (buildException == null) {
+                    buildException = new BuildException(thrownException);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the worker threads, named after the executor.
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "ant-executor-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    /**
+     * Listener that collects the events of a target while it is
+     * running and forwards them to the real listeners once the target
+     * has finished.
+     *
+     * <p>Events are assigned to the target they belong to, including
+     * those fired by threads the target's tasks have started. Events
+     * that don't belong to any target - like project level messages -
+     * are assigned to the target the firing thread is running. All
+     * other events are forwarded immediately.</p>
+     */
+    private static final class TargetOutputBuffer implements SubBuildListener {
+        private final BuildListener[] delegates;
+        private final Map<Target, Buffer> buffers = new ConcurrentHashMap<>();
+        private final Map<Thread, Target> runningTargets = new ConcurrentHashMap<>();
+        private final ThreadLocal<Boolean> flushing =
+            ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+        TargetOutputBuffer(BuildListener[] delegates) {
+            this.delegates = delegates;
+        }
+
+        void startBuffering(Target target) {
+            buffers.put(target, new Buffer());
+            runningTargets.put(Thread.currentThread(), target);
+        }
+
+        void flush(Target target) {
+            runningTargets.remove(Thread.currentThread());
+            Buffer buffer = buffers.remove(target);
+            if (buffer == null) {
+                return;
+            }
+            flushing.set(Boolean.TRUE);
+            try {
+                synchronized (this) {
+                    // events that arrive from now on are delivered
+                    // immediately, after the buffered ones
+                    for (Consumer<BuildListener> event : buffer.close()) {
+                        deliver(event);
+                    }
+                }
+            } finally {
+                flushing.set(Boolean.FALSE);
+            }
+        }
+
+        private void dispatch(BuildEvent e, Consumer<BuildListener> event) {
+            if (flushing.get()) {
+                // one of the listeners is logging while the buffer is
+                // flushed, swallow it like Project does
+                return;
+            }
+            Buffer buffer = getBuffer(e);
+            if (buffer == null || !buffer.add(event)) {
+                synchronized (this) {
+                    deliver(event);
+                }
+            }
+        }
+
+        private Buffer getBuffer(BuildEvent e) {
+            Target target = e.getTarget();
+            Buffer buffer = target == null ? null : buffers.get(target);
+            if (buffer == null) {
+                target = runningTargets.get(Thread.currentThread());
+                if (target != null) {
+                    buffer = buffers.get(target);
+                }
+            }
+            return buffer;
+        }
+
+        private void deliver(Consumer<BuildListener> event) {
+            for (BuildListener l : delegates) {
+                event.accept(l);
+            }
+        }
+
+        @Override
+        public void buildStarted(BuildEvent event) {
+            dispatch(event, l -> l.buildStarted(event));
+        }
+
+        @Override
+        public void buildFinished(BuildEvent event) {
+            dispatch(event, l -> l.buildFinished(event));
+        }
+
+        @Override
+        public void targetStarted(BuildEvent event) {
+            dispatch(event, l -> l.targetStarted(event));
+        }
+
+        @Override
+        public void targetFinished(BuildEvent event) {
+            dispatch(event, l -> l.targetFinished(event));
+        }
+
+        @Override
+        public void taskStarted(BuildEvent event) {
+            dispatch(event, l -> l.taskStarted(event));
+        }
+
+        @Override
+        public void taskFinished(BuildEvent event) {
+            dispatch(event, l -> l.taskFinished(event));
+        }
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+            dispatch(event, l -> l.messageLogged(event));
+        }
+
+        @Override
+        public void subBuildStarted(BuildEvent event) {
+            dispatch(event, l -> {
+                if (l instanceof SubBuildListener) {
+                    ((SubBuildListener) l).subBuildStarted(event);
+                }
+            });
+        }
+
+        @Override
+        public void subBuildFinished(BuildEvent event) {
+            dispatch(event, l -> {
+                if (l instanceof SubBuildListener) {
+                    ((SubBuildListener) l).subBuildFinished(event);
+                }
+            });
+        }
+    }
+
+    /**
+     * The events of a single target.
+     */
+    private static final class Buffer {
+        private final List<Consumer<BuildListener>> events = new ArrayList<>();
+        private boolean closed = false;
+
+        /**
+         * @return false if the buffer has already been flushed
+         */
+        synchronized boolean add(Consumer<BuildListener> event) {
+            if (closed) {
+                return false;
+            }
+            events.add(event);
+            return true;
+        }
+
+        synchronized List<Consumer<BuildListener>> close() {
+            closed = true;
+            return events;
+        }
+    }
+}
@@ -241,28 +241,54 @@ public class ProjectHelper2 extends ProjectHelper {
         ZipFile zf = null;
 
         try {
+            String uri = null;
+            if (buildFile != null) {
+                uri = FILE_UTILS.toURI(buildFile.getAbsolutePath());
+            } else {
+                uri = url.toString();
+            }
+            int pling = uri.indexOf("!/");
+            boolean fromZip = buildFile == null && uri.startsWith("jar:file") && pling > -1;
+
+            RecordedBuildFile.Recorder recorder = null;
+            if (isCacheEnabled(project, handler)) {
+                RecordedBuildFile recorded = RecordedBuildFile.lookup(uri);
+                if (recorded != null) {
+                    project.log("parsing buildfile " + buildFileName + " with URI = "
+                                + uri + " from the cache", Project.MSG_VERBOSE);
+                    recorded.replay(handler);
+                    return;
+                }
+                File sourceFile = null;
+                if (buildFile != null) {
+                    sourceFile = buildFile;
+                } else if (fromZip) {
+                    sourceFile = new File(org.apache.tools.ant.launch.Locator
+                                          .fromJarURI(uri));
+                } else if (uri.startsWith("file:")) {
+                    sourceFile = new File(FILE_UTILS.fromURI(uri));
+                }
+                if (sourceFile != null) {
+                    recorder = RecordedBuildFile.record(uri, sourceFile, handler);
+                }
+            }
+
             /**
              * SAX 2 style parser used to parse the given file.
              */
             XMLReader parser = JAXPUtils.getNamespaceXMLReader();
 
-            String uri = null;
             if (buildFile != null) {
-                uri = FILE_UTILS.toURI(buildFile.getAbsolutePath());
                 inputStream = Files.newInputStream(buildFile.toPath());
+            } else if (fromZip) {
+                zf = new ZipFile(org.apache.tools.ant.launch.Locator
+                                 .fromJarURI(uri), "UTF-8");
+                inputStream =
+                    zf.getInputStream(zf.getEntry(uri.substring(pling + 2)));
             } else {
-                uri = url.toString();
-                int pling = uri.indexOf("!/");
-                if (uri.startsWith("jar:file") && pling > -1) {
-                    zf = new ZipFile(org.apache.tools.ant.launch.Locator
-                                     .fromJarURI(uri), "UTF-8");
-                    inputStream =
-                        zf.getInputStream(zf.getEntry(uri.substring(pling + 2)));
-                } else {
-                    URLConnection conn = url.openConnection();
-                    conn.setUseCaches(false);
-                    inputStream = conn.getInputStream();
-                }
+                URLConnection conn = url.openConnection();
+                conn.setUseCaches(false);
+                inputStream = conn.getInputStream();
             }
 
             inputSource = new InputSource(inputStream);
@@ -273,11 +299,15 @@ public class ProjectHelper2 extends ProjectHelper {
                         + uri + (zf != null ? " from a zip file" : ""),
                         Project.MSG_VERBOSE);
 
-            parser.setContentHandler(handler);
-            parser.setEntityResolver(handler);
-            parser.setErrorHandler(handler);
-            parser.setDTDHandler(handler);
+            DefaultHandler saxHandler = recorder == null ? handler : recorder;
+            parser.setContentHandler(saxHandler);
+            parser.setEntityResolver(saxHandler);
+            parser.setErrorHandler(saxHandler);
+            parser.setDTDHandler(saxHandler);
             parser.parse(inputSource);
+            if (recorder != null) {
+                recorder.store();
+            }
         } catch (SAXParseException exc) {
             Location location = new Location(exc.getSystemId(), exc.getLineNumber(), exc
                                              .getColumnNumber());
@@ -311,6 +341,23 @@ public class ProjectHelper2 extends ProjectHelper {
         }
     }
 
+    /**
+     * Whether the SAX events of parsed files may be cached and
+     * replayed.
+     *
+     * <p>Only applies to handlers of the exact RootHandler class as
+     * subclasses may rely on events that are not recorded.</p>
+     *
+     * @param project the current project
+     * @param handler the root handler to use
+     * @return true if the {@link MagicNames#PROJECT_HELPER_CACHE}
+     * property is set to true
+     */
+    private static boolean isCacheEnabled(Project project, RootHandler handler) {
+        return handler.getClass() == RootHandler.class
+            && Project.toBoolean(project.getProperty(MagicNames.PROJECT_HELPER_CACHE));
+    }
+
     /**
      * Returns main handler
      * @return main handler
@@ -0,0 +1,338 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.helper;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tools.ant.util.FileUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * The SAX events ProjectHelper2's RootHandler has received while a
+ * build file was parsed.
+ *
+ * <p>Replaying the events into a new RootHandler configures a
+ * project exactly like parsing the file again would, including
+ * Location information, prefixes of imported targets and namespace
+ * mappings, as the handlers process the same events in the same
+ * order. The recorded events are kept in a JVM wide cache keyed by
+ * the URI of the file, entries are discarded as soon as the file or
+ * any external entity read while parsing it has changed.</p>
+ *
+ * @since Ant 1.10.18
+ */
+final class RecordedBuildFile {
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private static final Map<String, SoftReference<RecordedBuildFile>> CACHE =
+        new ConcurrentHashMap<>();
+
+    private static final int START_PREFIX_MAPPING = 0;
+    private static final int END_PREFIX_MAPPING = 1;
+    private static final int START_ELEMENT = 2;
+    private static final int END_ELEMENT = 3;
+    private static final int CHARACTERS = 4;
+
+    private final List<Event> events;
+    private final List<Dependency> dependencies;
+
+    private RecordedBuildFile(List<Event> events, List<Dependency> dependencies) {
+        this.events = events;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Looks up the events recorded for the given URI.
+     * @param uri the URI of the build file
+     * @return the recorded events or null if the file has not been
+     * recorded or has changed since
+     */
+    static RecordedBuildFile lookup(String uri) {
+        final SoftReference<RecordedBuildFile> ref = CACHE.get(uri);
+        final RecordedBuildFile recorded = ref == null ? null : ref.get();
+        if (recorded == null || !recorded.isUpToDate()) {
+            if (ref != null) {
+                CACHE.remove(uri, ref);
+            }
+            return null;
+        }
+        return recorded;
+    }
+
+    /**
+     * Forgets all recorded files.
+     */
+    static void clear() {
+        CACHE.clear();
+    }
+
+    private boolean isUpToDate() {
+        for (Dependency d : dependencies) {
+            if (!d.isUpToDate()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Passes the recorded events to the given handler.
+     * @param handler the handler
+     * @throws SAXException if the handler throws it
+     */
+    void replay(ProjectHelper2.RootHandler handler) throws SAXException {
+        final ReplayLocator locator = new ReplayLocator();
+        handler.setDocumentLocator(locator);
+        for (Event e : events) {
+            locator.current = e;
+            switch (e.type) {
+            case START_PREFIX_MAPPING:
+                handler.startPrefixMapping(e.prefix, e.uri);
+                break;
+            case END_PREFIX_MAPPING:
+                handler.endPrefixMapping(e.prefix);
+                break;
+            case START_ELEMENT:
+                handler.startElement(e.uri, e.localName, e.qName, e.attributes);
+                break;
+            case END_ELEMENT:
+                handler.endElement(e.uri, e.localName, e.qName);
+                break;
+            default:
+                handler.characters(e.text, 0, e.text.length);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Creates a handler that forwards all events to the given
+     * handler and records them.
+     * @param uri the URI of the build file
+     * @param file the file to read
+     * @param handler the handler to forward events to
+     * @return the recorder
+     */
+    static Recorder record(String uri, File file, ProjectHelper2.RootHandler handler) {
+        return new Recorder(uri, file, handler);
+    }
+
+    /**
+     * Forwards events to a RootHandler and records them.
+     */
+    static final class Recorder extends DefaultHandler {
+        private final String key;
+        private final ProjectHelper2.RootHandler delegate;
+        private final List<Event> events = new ArrayList<>();
+        private final List<Dependency> dependencies = new ArrayList<>();
+        private Locator locator;
+        private boolean cacheable = true;
+
+        private Recorder(String key, File file, ProjectHelper2.RootHandler delegate) {
+            this.key = key;
+            this.delegate = delegate;
+            dependencies.add(new Dependency(file));
+        }
+
+        /**
+         * Adds the recorded events to the cache, must only be invoked
+         * after the whole file has been parsed successfully.
+         */
+        void store() {
+            if (cacheable) {
+                for (Dependency d : dependencies) {
+                    if (!d.isUpToDate()) {
+                        // modified while we've been reading it
+                        return;
+                    }
+                }
+                CACHE.put(key, new SoftReference<>(new RecordedBuildFile(
+                    Collections.unmodifiableList(new ArrayList<>(events)),
+                    Collections.unmodifiableList(new ArrayList<>(dependencies)))));
+            }
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) {
+            final InputSource source = delegate.resolveEntity(publicId, systemId);
+            if (source != null && source.getSystemId() != null
+                && source.getSystemId().startsWith("file:")) {
+                dependencies.add(new Dependency(new File(FILE_UTILS
+                    .fromURI(source.getSystemId()))));
+            } else {
+                // the parser reads the entity from somewhere we
+                // cannot check for modifications
+                cacheable = false;
+            }
+            return source;
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+            delegate.setDocumentLocator(locator);
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            events.add(event(START_PREFIX_MAPPING).namespace(prefix, uri));
+            delegate.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) {
+            events.add(event(END_PREFIX_MAPPING).namespace(prefix, null));
+            delegate.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String tag, String qname, Attributes attrs)
+            throws SAXParseException {
+            events.add(event(START_ELEMENT).element(uri, tag, qname,
+                                                    new AttributesImpl(attrs)));
+            delegate.startElement(uri, tag, qname, attrs);
+        }
+
+        @Override
+        public void endElement(String uri, String name, String qName) throws SAXException {
+            events.add(event(END_ELEMENT).element(uri, name, qName, null));
+            delegate.endElement(uri, name, qName);
+        }
+
+        @Override
+        public void characters(char[] buf, int start, int count)
+            throws SAXParseException {
+            final Event e = event(CHARACTERS);
+            e.text = new char[count];
+            System.arraycopy(buf, start, e.text, 0, count);
+            events.add(e);
+            delegate.characters(buf, start, count);
+        }
+
+        private Event event(int type) {
+            final Event e = new Event(type);
+            if (locator != null) {
+                e.systemId = locator.getSystemId();
+                e.publicId = locator.getPublicId();
+                e.line = locator.getLineNumber();
+                e.column = locator.getColumnNumber();
+            }
+            return e;
+        }
+    }
+
+    private static final class Event {
+        private final int type;
+        private String uri;
+        private String localName;
+        private String qName;
+        private String prefix;
+        private Attributes attributes;
+        private char[] text;
+        private String systemId;
+        private String publicId;
+        private int line = -1;
+        private int column = -1;
+
+        Event(int type) {
+            this.type = type;
+        }
+
+        Event namespace(String prefix, String uri) {
+            this.prefix = prefix;
+            this.uri = uri;
+            return this;
+        }
+
+        Event element(String uri, String localName, String qName, Attributes attributes) {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+            this.attributes = attributes;
+            return this;
+        }
+    }
+
+    /**
+     * Provides the position of the event that is currently replayed.
+     */
+    private static final class ReplayLocator implements Locator {
+        private Event current;
+
+        @Override
+        public String getPublicId() {
+            return current == null ? null : current.publicId;
+        }
+
+        @Override
+        public String getSystemId() {
+            return current == null ? null : current.systemId;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return current == null ? -1 : current.line;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return current == null ? -1 : current.column;
+        }
+    }
+
+    /**
+     * A file read while parsing and the state it had been in.
+     */
+    private static final class Dependency {
+        private final File file;
+        private final long length;
+        private final long lastModified;
+        private final long readAt;
+
+        Dependency(File file) {
+            this.file = file;
+            // read the timestamp before the content
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.readAt = System.currentTimeMillis();
+        }
+
+        boolean isUpToDate() {
+            // a file modified within the timestamp granularity before
+            // it has been read may be modified again without changing
+            // its timestamp
+            return lastModified != 0
+                && lastModified + FILE_UTILS.getFileTimestampGranularity() < readAt
+                && file.lastModified() == lastModified
+                && file.length() == length;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.listener;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.LevelAwareBuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+
+/**
+ * Dispatches build events to other listeners from a separate thread.
+ *
+ * <p>Events are put into a bounded queue and handed to the wrapped
+ * listeners by a single consumer thread, so the threads running the
+ * build don't wait for console or file I/O performed by the
+ * listeners. Events are delivered in the order they have been
+ * received, in particular all events fired by one thread arrive in
+ * the order they have been fired. After each batch of events the
+ * registered {@link Flushable}s are flushed.</p>
+ *
+ * <p>When the queue is full threads firing events wait until the
+ * consumer has caught up. With the {@link OverflowPolicy#DROP_DEBUG
+ * DROP_DEBUG} policy debug messages are discarded instead.</p>
+ *
+ * <p>{@link #buildFinished buildFinished} doesn't return before all
+ * events have been delivered, exceptions thrown by the wrapped
+ * listeners are re-thrown from there.</p>
+ *
+ * <p>All events are delivered by the same thread, listeners that
+ * keep track of state per thread must use {@link
+ * BuildEvent#getThread} rather than the current thread. Listeners
+ * that inspect tasks or targets or measure times when they receive
+ * an event - like {@link org.apache.tools.ant.XmlLogger XmlLogger} -
+ * should not be wrapped as the event may arrive after the task has
+ * finished.</p>
+ *
+ * <p>Messages logged by the wrapped listeners themselves are
+ * swallowed, just like {@link Project} does when a listener logs
+ * while handling an event.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class AsyncBuildListener implements SubBuildListener, LevelAwareBuildListener {
+
+    /** Default number of events the queue can hold. */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /** Default maximum number of events delivered between two flushes. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * What to do when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for the consumer to catch up. */
+        BLOCK,
+        /** Discard debug messages, wait for all other events. */
+        DROP_DEBUG;
+
+        /**
+         * Parses <code>block</code> or <code>drop-debug</code>.
+         * @param value the value to parse
+         * @return the policy
+         * @throws BuildException if the value is unknown
+         */
+        public static OverflowPolicy parse(String value) {
+            try {
+                return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException ex) {
+                throw new BuildException("Unknown overflow policy " + value
+                    + ", must be one of block or drop-debug");
+            }
+        }
+    }
+
+    private static final AtomicLong THREAD_COUNT = new AtomicLong();
+
+    /** Marks the end of the events the current consumer delivers. */
+    private static final Runnable STOP = () -> { };
+
+    private final List<BuildListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Flushable> flushables = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Runnable> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    // only modified while holding the lock
+    private volatile Thread consumer;
+
+    /**
+     * Uses a queue of {@link #DEFAULT_CAPACITY default capacity} and
+     * the {@link OverflowPolicy#BLOCK BLOCK} policy.
+     */
+    public AsyncBuildListener() {
+        this(DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param capacity number of events the queue can hold
+     * @param overflowPolicy what to do when the queue is full
+     */
+    public AsyncBuildListener(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new BuildException("The capacity must be at least 1");
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Adds a listener that will receive the events.
+     * @param listener the listener
+     */
+    public void addBuildListener(BuildListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * The listeners events are dispatched to.
+     * @return a copy of the list of listeners
+     */
+    public List<BuildListener> getBuildListeners() {
+        return new ArrayList<>(listeners);
+    }
+
+    /**
+     * Adds an object that is flushed after each batch of events, like
+     * the stream a logger writes to.
+     * @param flushable the object to flush
+     */
+    public void addFlushable(Flushable flushable) {
+        flushables.add(flushable);
+    }
+
+    /**
+     * Sets the maximum number of events delivered between two flushes.
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new BuildException("The batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * The number of debug messages that have been discarded because
+     * the queue was full.
+     * @return the number of discarded messages
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * The most verbose level any of the wrapped listeners is
+     * interested in.
+     * @return the message level
+     */
+    @Override
+    public int getInterestingMessageLevel() {
+        int level = Project.MSG_ERR;
+        for (BuildListener l : listeners) {
+            if (!(l instanceof LevelAwareBuildListener)) {
+                return Project.MSG_DEBUG;
+            }
+            level = Math.max(level, ((LevelAwareBuildListener) l).getInterestingMessageLevel());
+        }
+        return level;
+    }
+
+    @Override
+    public void buildStarted(BuildEvent event) {
+        dispatch(l -> l.buildStarted(event));
+    }
+
+    /**
+     * Dispatches the event and waits until all events have been
+     * delivered.
+     * @param event the event
+     * @throws BuildException if any of the wrapped listeners has
+     * failed
+     */
+    @Override
+    public void buildFinished(BuildEvent event) {
+        dispatch(l -> l.buildFinished(event));
+        drain();
+        final Throwable t = failure.getAndSet(null);
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+    }
+
+    @Override
+    public void targetStarted(BuildEvent event) {
+        dispatch(l -> l.targetStarted(event));
+    }
+
+    @Override
+    public void targetFinished(BuildEvent event) {
+        dispatch(l -> l.targetFinished(event));
+    }
+
+    @Override
+    public void taskStarted(BuildEvent event) {
+        dispatch(l -> l.taskStarted(event));
+    }
+
+    @Override
+    public void taskFinished(BuildEvent event) {
+        dispatch(l -> l.taskFinished(event));
+    }
+
+    @Override
+    public void messageLogged(BuildEvent event) {
+        if (isConsumerThread()) {
+            return;
+        }
+        final Runnable r = forEachListener(l -> l.messageLogged(event));
+        if (overflowPolicy == OverflowPolicy.DROP_DEBUG
+            && event.getPriority() == Project.MSG_DEBUG) {
+            if (!queue.offer(r)) {
+                droppedMessages.incrementAndGet();
+                return;
+            }
+            ensureConsumer();
+        } else {
+            enqueue(r);
+        }
+    }
+
+    @Override
+    public void subBuildStarted(BuildEvent event) {
+        dispatch(l -> {
+            if (l instanceof SubBuildListener) {
+                ((SubBuildListener) l).subBuildStarted(event);
+            }
+        });
+    }
+
+    @Override
+    public void subBuildFinished(BuildEvent event) {
+        dispatch(l -> {
+            if (l instanceof SubBuildListener) {
+                ((SubBuildListener) l).subBuildFinished(event);
+            }
+        });
+    }
+
+    /**
+     * Waits until all events queued so far have been delivered and
+     * stops the consumer thread, it will be restarted by the next
+     * event.
+     */
+    public void drain() {
+        final Thread t;
+        synchronized (this) {
+            t = consumer;
+        }
+        if (t == null || t == Thread.currentThread()) {
+            return;
+        }
+        enqueue(STOP);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                t.join();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        synchronized (this) {
+            if (consumer == t) {
+                consumer = null;
+            }
+            if (!queue.isEmpty()) {
+                // events that arrived after the stop marker
+                startConsumer();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(Consumer<BuildListener> action) {
+        enqueue(forEachListener(action));
+    }
+
+    private Runnable forEachListener(Consumer<BuildListener> action) {
+        return () -> {
+            for (BuildListener l : listeners) {
+                try {
+                    action.accept(l);
+                } catch (RuntimeException | Error ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            }
+        };
+    }
+
+    private void enqueue(Runnable r) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(r);
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        ensureConsumer();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isConsumerThread() {
+        return consumer == Thread.currentThread();
+    }
+
+    private synchronized void ensureConsumer() {
+        if (consumer == null) {
+            startConsumer();
+        }
+    }
+
+    // must hold the lock
+    private void startConsumer() {
+        consumer = new Thread(this::consume,
+                              "async-logger-" + THREAD_COUNT.incrementAndGet());
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    private void consume() {
+        final List<Runnable> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                // only drain may stop this thread
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            for (Runnable r : batch) {
+                if (r == STOP) {
+                    // drainTo may have taken events queued after
+                    // the marker, deliver them before stopping
+                    stop = true;
+                } else {
+                    r.run();
+                }
+            }
+            batch.clear();
+            flush();
+        }
+    }
+
+    private void flush() {
+        for (Flushable f : flushables) {
+            try {
+                f.flush();
+            } catch (IOException ex) {
+                // nothing we could report this to
+            }
+        }
+    }
+}
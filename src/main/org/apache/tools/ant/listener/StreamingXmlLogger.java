@@ -0,0 +1,670 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.listener;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildLogger;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.UnknownElement;
+import org.apache.tools.ant.XmlLogger;
+import org.apache.tools.ant.util.DOMElementWriter;
+import org.apache.tools.ant.util.DateUtils;
+import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Writes the same XML description of the build as {@link XmlLogger}
+ * but writes it while the build is running rather than keeping the
+ * whole document in memory until the build has finished.
+ *
+ * <p>The start tag of a target or task is written as soon as it
+ * starts and its messages follow as they arrive. The
+ * <code>time</code> attribute that is only known once an element has
+ * finished is written into space reserved inside the start tag, so
+ * the file ends up with the same elements and attributes as the one
+ * written by XmlLogger and can be processed with the same style
+ * sheets. Only targets and tasks that start while another child of
+ * the same target - or the build - is being written are kept in
+ * memory until they have finished, this includes the tasks nested
+ * into containers like <code>&lt;sequential&gt;</code> or
+ * <code>&lt;parallel&gt;</code>.</p>
+ *
+ * <p>Unlike XmlLogger, which orders the children of an element by
+ * the time they finished, elements written right away appear in the
+ * order they started, so a container task precedes the tasks nested
+ * into it.</p>
+ *
+ * <p>Messages logged by a project rather than a target or task are
+ * added to the element of the target or task the logging thread is
+ * currently running, if any, and to the build element
+ * otherwise.</p>
+ *
+ * <p>If the build is aborted the file is incomplete but contains
+ * everything that has been logged so far.</p>
+ *
+ * <p>The file name is taken from the <code>XmlLogger.file</code>
+ * property, which is read when the first target starts. When used
+ * as a logger, the document is written to the output stream right
+ * away. As no space can be reserved inside of a stream, the
+ * <code>time</code> attributes of the elements written before they
+ * have finished and the <code>error</code> attribute of the
+ * <code>build</code> element are omitted in this case, the
+ * <code>stacktrace</code> element is still written.</p>
+ *
+ * <p>The <code>error</code> attribute of the <code>build</code>
+ * element is truncated to {@value #MAX_ERROR_LENGTH} bytes, the
+ * complete stack trace follows in the <code>stacktrace</code>
+ * element.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class StreamingXmlLogger implements BuildLogger {
+
+    /** Maximum length of the build element's error attribute in bytes. */
+    public static final int MAX_ERROR_LENGTH = 1024;
+
+    private static final String BUILD_TAG = "build";
+    private static final String TARGET_TAG = "target";
+    private static final String TASK_TAG = "task";
+    private static final String MESSAGE_TAG = "message";
+    private static final String NAME_ATTR = "name";
+    private static final String TIME_ATTR = "time";
+    private static final String PRIORITY_ATTR = "priority";
+    private static final String LOCATION_ATTR = "location";
+    private static final String ERROR_ATTR = "error";
+    private static final String STACKTRACE_TAG = "stacktrace";
+
+    private static final String INDENT = "\t";
+
+    /** Space reserved for the time attribute, more than any formatted time needs. */
+    private static final int TIME_SPACE = 48;
+
+    private int msgOutputLevel = Project.MSG_DEBUG;
+    private PrintStream outStream;
+
+    private final Document doc;
+    private final DOMElementWriter domWriter = new DOMElementWriter();
+
+    private final Map<Task, LogNode> tasks = new HashMap<>();
+    private final Map<Target, LogNode> targets = new HashMap<>();
+    private final Map<Thread, Deque<LogNode>> threadStacks = new HashMap<>();
+
+    private LogNode buildNode;
+    /** the file written to, null when writing to outStream */
+    private FileChannel channel;
+    private Writer out;
+
+    /**
+     * Creates the logger.
+     */
+    public StreamingXmlLogger() {
+        try {
+            doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException exc) {
+            throw new BuildException(exc);
+        }
+    }
+
+    /** A target, task or the build. */
+    private static final class LogNode {
+        private final LogNode parent;
+        private final int depth;
+        private final long startTime = System.currentTimeMillis();
+        /** holds the children while not streaming */
+        private final Element element;
+        /** finished children waiting for the active child to finish */
+        private final List<Element> pending = new ArrayList<>();
+        /** the start tag has been written */
+        private boolean streaming;
+        private boolean closed;
+        /** file position of the space reserved inside the start tag */
+        private long reserved;
+        /** the child whose start tag has been written but not its end tag */
+        private LogNode active;
+
+        LogNode(LogNode parent, Element element) {
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.element = element;
+        }
+
+        @Override
+        public String toString() {
+            return element.getTagName() + ":" + element.getAttribute(NAME_ATTR);
+        }
+    }
+
+    /**
+     * Remembers the start of the build.
+     *
+     * @param event Ignored.
+     */
+    @Override
+    public synchronized void buildStarted(BuildEvent event) {
+        buildNode = new LogNode(null, doc.createElement(BUILD_TAG));
+    }
+
+    /**
+     * Closes all elements, adds the time taken and any error to the
+     * build element and closes the file.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void buildFinished(BuildEvent event) {
+        if (buildNode == null) {
+            buildStarted(event);
+        }
+        try {
+            if (!buildNode.streaming) {
+                open(event);
+            }
+            if (buildNode.active != null) {
+                close(buildNode.active);
+            }
+            final Throwable t = event.getException();
+            if (t != null) {
+                append(buildNode, stacktrace(t));
+            }
+            final long totalTime = System.currentTimeMillis() - buildNode.startTime;
+            String attributes = attribute(TIME_ATTR, DateUtils.formatElapsedTime(totalTime));
+            if (t != null) {
+                attributes += errorAttribute(t.toString());
+            }
+            writeEndTag(buildNode, attributes);
+            out.close();
+        } catch (IOException exc) {
+            throw new BuildException("Unable to write log file", exc);
+        } finally {
+            FileUtils.close(out);
+            FileUtils.close(channel);
+            out = null;
+            channel = null;
+            buildNode = null;
+            tasks.clear();
+            targets.clear();
+            threadStacks.clear();
+        }
+    }
+
+    /**
+     * Starts the element of a target, writes its start tag if
+     * nothing else is written at the same level.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void targetStarted(BuildEvent event) {
+        if (buildNode == null) {
+            return;
+        }
+        final Target target = event.getTarget();
+        final Deque<LogNode> stack = getStack(event);
+        final LogNode parent = stack.isEmpty() ? buildNode : stack.peek();
+        final Element element = doc.createElement(TARGET_TAG);
+        element.setAttribute(NAME_ATTR, target.getName());
+        final LogNode node = new LogNode(parent, element);
+        try {
+            if (!buildNode.streaming) {
+                open(event);
+            }
+            if (!parent.streaming && canStream(parent.parent)) {
+                // a task running a nested build
+                startStreaming(parent);
+            }
+            if (canStream(parent)) {
+                startStreaming(node);
+            }
+        } catch (IOException exc) {
+            throw new BuildException("Unable to write log file", exc);
+        }
+        targets.put(target, node);
+        stack.push(node);
+    }
+
+    /**
+     * Finishes the element of a target.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void targetFinished(BuildEvent event) {
+        final LogNode node = targets.remove(event.getTarget());
+        if (node != null) {
+            pop(event, node);
+            finish(node);
+        }
+    }
+
+    /**
+     * Starts the element of a task, writes its start tag if nothing
+     * else is written at the same level.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void taskStarted(BuildEvent event) {
+        if (buildNode == null) {
+            return;
+        }
+        final Task task = event.getTask();
+        final Element element = doc.createElement(TASK_TAG);
+        final String name = task.getTaskName();
+        element.setAttribute(NAME_ATTR, name == null ? "" : name);
+        element.setAttribute(LOCATION_ATTR, task.getLocation().toString());
+        final Target target = task.getOwningTarget();
+        LogNode parent = target == null ? null : targets.get(target);
+        if (parent == null) {
+            parent = buildNode;
+        }
+        final LogNode node = new LogNode(parent, element);
+        if (canStream(parent)) {
+            try {
+                startStreaming(node);
+            } catch (IOException exc) {
+                throw new BuildException("Unable to write log file", exc);
+            }
+        }
+        tasks.put(task, node);
+        getStack(event).push(node);
+    }
+
+    /**
+     * Finishes the element of a task.
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void taskFinished(BuildEvent event) {
+        final Task task = event.getTask();
+        final LogNode node = tasks.remove(task);
+        if (node == null) {
+            if (buildNode == null) {
+                return;
+            }
+            throw new RuntimeException("Unknown task " + task + " not in " + tasks); //NOSONAR
+        }
+        pop(event, node);
+        finish(node);
+    }
+
+    /**
+     * Adds a message element to the most appropriate parent element
+     * (task, target or build).
+     *
+     * @param event An event with any relevant extra information.
+     *              Will not be <code>null</code>.
+     */
+    @Override
+    public synchronized void messageLogged(BuildEvent event) {
+        final int priority = event.getPriority();
+        if (priority > msgOutputLevel || buildNode == null) {
+            return;
+        }
+        final Element messageElement = doc.createElement(MESSAGE_TAG);
+        final String name;
+        switch (priority) {
+            case Project.MSG_ERR:
+                name = "error";
+                break;
+            case Project.MSG_WARN:
+                name = "warn";
+                break;
+            case Project.MSG_INFO:
+                name = "info";
+                break;
+            default:
+                name = "debug";
+                break;
+        }
+        messageElement.setAttribute(PRIORITY_ATTR, name);
+        messageElement.appendChild(doc.createCDATASection(event.getMessage()));
+
+        final Throwable ex = event.getException();
+        if (Project.MSG_DEBUG <= msgOutputLevel && ex != null) {
+            append(buildNode, stacktrace(ex));
+        }
+
+        LogNode parent = null;
+        final Task task = event.getTask();
+        final Target target = event.getTarget();
+        if (task != null) {
+            parent = getTaskNode(task);
+        }
+        if (parent == null && target != null) {
+            parent = targets.get(target);
+        }
+        if (parent == null) {
+            // project level messages of nested builds go to the task
+            // running the nested build rather than being held back
+            // until the build element's current child has finished
+            parent = getStack(event).peek();
+        }
+        append(parent == null ? buildNode : parent, messageElement);
+    }
+
+    /**
+     * Get the node associated with a task.
+     *
+     * Where the task is not found directly, search for unknown elements which
+     * may be hiding the real task
+     */
+    private LogNode getTaskNode(Task task) {
+        final LogNode node = tasks.get(task);
+        if (node != null) {
+            return node;
+        }
+        for (Map.Entry<Task, LogNode> e : tasks.entrySet()) {
+            if (e.getKey() instanceof UnknownElement
+                && ((UnknownElement) e.getKey()).getTask() == task) {
+                return e.getValue();
+            }
+        }
+        return null;
+    }
+
+    private Deque<LogNode> getStack(BuildEvent event) {
+        return threadStacks.computeIfAbsent(getThread(event), k -> new ArrayDeque<>());
+    }
+
+    private static Thread getThread(BuildEvent event) {
+        final Thread thread = event.getThread();
+        return thread == null ? Thread.currentThread() : thread;
+    }
+
+    private void pop(BuildEvent event, LogNode node) {
+        final Deque<LogNode> stack = getStack(event);
+        if (!stack.isEmpty()) {
+            final LogNode popped = stack.pop();
+            if (popped != node) {
+                throw new RuntimeException("Mismatch - popped element = " + popped //NOSONAR
+                    + " finished element = " + node);
+            }
+        }
+        if (stack.isEmpty()) {
+            threadStacks.remove(getThread(event));
+        }
+    }
+
+    private void finish(LogNode node) {
+        if (node.closed) {
+            return;
+        }
+        if (node.streaming) {
+            try {
+                close(node);
+            } catch (IOException exc) {
+                throw new BuildException("Unable to write log file", exc);
+            }
+        } else {
+            node.closed = true;
+            node.element.setAttribute(TIME_ATTR,
+                DateUtils.formatElapsedTime(System.currentTimeMillis() - node.startTime));
+            append(node.parent, node.element);
+        }
+    }
+
+    /**
+     * Adds a finished element to the given parent, writes it right
+     * away if possible.
+     */
+    private void append(LogNode parent, Element child) {
+        while (parent.closed && parent.parent != null) {
+            parent = parent.parent;
+        }
+        if (!parent.streaming) {
+            parent.element.appendChild(child);
+        } else if (parent.active != null) {
+            parent.pending.add(child);
+        } else {
+            try {
+                write(child, parent.depth + 1);
+            } catch (IOException exc) {
+                throw new BuildException("Unable to write log file", exc);
+            }
+        }
+    }
+
+    private static boolean canStream(LogNode node) {
+        return node != null && node.streaming && !node.closed && node.active == null;
+    }
+
+    private Element stacktrace(Throwable t) {
+        final Element stacktrace = doc.createElement(STACKTRACE_TAG);
+        stacktrace.appendChild(doc.createCDATASection(StringUtils.getStackTrace(t)));
+        return stacktrace;
+    }
+
+    // ------------------------------------------------------------ output
+
+    private void open(BuildEvent event) throws IOException {
+        final String xslUri = getProperty(event, "ant.XmlLogger.stylesheet.uri", "log.xsl");
+        final OutputStream stream;
+        if (outStream == null) {
+            final File file = new File(getProperty(event, "XmlLogger.file", "log.xml"));
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                       StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+            stream = Channels.newOutputStream(channel);
+        } else {
+            stream = outStream;
+        }
+        out = new OutputStreamWriter(new BufferedOutputStream(stream), StandardCharsets.UTF_8);
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        if (!xslUri.isEmpty()) {
+            out.write("<?xml-stylesheet type=\"text/xsl\" href=\"" + xslUri
+                + "\"?>\n\n");
+        }
+        startStreaming(buildNode);
+    }
+
+    private String getProperty(BuildEvent event, String propertyName, String defaultValue) {
+        String rv = defaultValue;
+        if (event != null && event.getProject() != null
+            && event.getProject().getProperty(propertyName) != null) {
+            rv = event.getProject().getProperty(propertyName);
+        }
+        return rv;
+    }
+
+    /**
+     * Writes the start tag and the children collected so far.
+     */
+    private void startStreaming(LogNode node) throws IOException {
+        indent(node.depth);
+        out.write("<");
+        out.write(node.element.getTagName());
+        for (String attr : new String[] {NAME_ATTR, LOCATION_ATTR}) {
+            if (node.element.hasAttribute(attr)) {
+                out.write(attribute(attr, node.element.getAttribute(attr)));
+            }
+        }
+        if (channel != null) {
+            out.flush();
+            node.reserved = channel.position();
+            final char[] space = new char[node.parent == null
+                                          ? TIME_SPACE + MAX_ERROR_LENGTH : TIME_SPACE];
+            Arrays.fill(space, ' ');
+            out.write(space);
+        }
+        out.write(">");
+        out.write(System.lineSeparator());
+        node.streaming = true;
+        if (node.parent != null) {
+            node.parent.active = node;
+        }
+        Node child = node.element.getFirstChild();
+        while (child != null) {
+            final Node next = child.getNextSibling();
+            node.element.removeChild(child);
+            write((Element) child, node.depth + 1);
+            child = next;
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the end tag and the time attribute of the node and of
+     * any descendants that haven't finished, yet.
+     */
+    private void close(LogNode node) throws IOException {
+        if (node.active != null) {
+            close(node.active);
+        }
+        writeEndTag(node, attribute(TIME_ATTR,
+            DateUtils.formatElapsedTime(System.currentTimeMillis() - node.startTime)));
+        final LogNode parent = node.parent;
+        parent.active = null;
+        for (Element e : parent.pending) {
+            write(e, parent.depth + 1);
+        }
+        parent.pending.clear();
+        out.flush();
+    }
+
+    private void writeEndTag(LogNode node, String attributes) throws IOException {
+        node.closed = true;
+        for (Element e : node.pending) {
+            write(e, node.depth + 1);
+        }
+        node.pending.clear();
+        indent(node.depth);
+        out.write("</");
+        out.write(node.element.getTagName());
+        out.write(">");
+        out.write(System.lineSeparator());
+        out.flush();
+        if (channel == null) {
+            return;
+        }
+        final byte[] bytes = attributes.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= TIME_SPACE + (node.parent == null ? MAX_ERROR_LENGTH : 0)) {
+            channel.write(ByteBuffer.wrap(bytes), node.reserved);
+        }
+    }
+
+    private void write(Element element, int depth) throws IOException {
+        domWriter.write(element, out, depth, INDENT);
+    }
+
+    private void indent(int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            out.write(INDENT);
+        }
+    }
+
+    private String attribute(String name, String value) {
+        return " " + name + "=\"" + domWriter.encodeAttributeValue(value) + "\"";
+    }
+
+    private String errorAttribute(String error) {
+        String attr = attribute(ERROR_ATTR, error);
+        int length = error.length();
+        while (attr.getBytes(StandardCharsets.UTF_8).length > MAX_ERROR_LENGTH && length > 0) {
+            length = Math.max(0, length - Math.max(1, length / 8));
+            attr = attribute(ERROR_ATTR, error.substring(0, length) + "...");
+        }
+        return attr;
+    }
+
+    // -------------------------------------------------- BuildLogger interface
+
+    /**
+     * Set the logging level when using this as a Logger
+     *
+     * @param level the logging level -
+     *        see {@link org.apache.tools.ant.Project#MSG_ERR Project}
+     *        class for level definitions
+     */
+    @Override
+    public void setMessageOutputLevel(int level) {
+        msgOutputLevel = level;
+    }
+
+    @Override
+    public int getMessageOutputLevel() {
+        return msgOutputLevel;
+    }
+
+    /**
+     * Set the output stream to which logging output is sent when operating
+     * as a logger.
+     *
+     * @param output the output PrintStream.
+     */
+    @Override
+    public void setOutputPrintStream(PrintStream output) {
+        this.outStream = new PrintStream(output, true);
+    }
+
+    /**
+     * Ignore emacs mode, as it has no meaning in XML format
+     *
+     * @param emacsMode true if logger should produce emacs compatible
+     *        output
+     */
+    @Override
+    public void setEmacsMode(boolean emacsMode) {
+    }
+
+    /**
+     * Ignore error print stream. All output will be written to
+     * either the XML log file or the PrintStream provided to
+     * setOutputPrintStream
+     *
+     * @param err the stream we are going to ignore.
+     */
+    @Override
+    public void setErrorPrintStream(PrintStream err) {
+    }
+}
@@ -23,7 +23,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +38,7 @@ import org.apache.tools.ant.Main;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectComponent;
 import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.PropertyHelper;
 import org.apache.tools.ant.Target;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.PropertySet;
@@ -69,6 +70,10 @@ public class Ant extends Task {
 
     private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
 
+    /** Properties that are never passed on as plain properties. */
+    private static final List<String> NOT_INHERITED =
+        Arrays.asList(MagicNames.PROJECT_BASEDIR, MagicNames.ANT_FILE);
+
     /** the basedir where is executed the build file */
     private File dir = null;
 
@@ -195,7 +200,7 @@ public class Ant extends Task {
     private void initializeProject() {
         newProject.setInputHandler(getProject().getInputHandler());
 
-        getProject().getBuildListeners().forEach(bl -> newProject.addBuildListener(bl));
+        newProject.addBuildListeners(getProject());
 
         if (output != null) {
             File outfile;
@@ -215,10 +220,16 @@ public class Ant extends Task {
                 log("Ant: Can't set output to " + output);
             }
         }
+        // share the properties of the calling project rather than
+        // copying them if possible
+        final boolean shared = !useNativeBasedir
+            && PropertyHelper.getPropertyHelper(getProject())
+            .inheritProperties(newProject, inheritAll, NOT_INHERITED);
+
         // set user-defined properties
         if (useNativeBasedir) {
             addAlmostAll(getProject().getUserProperties(), PropertyType.USER);
-        } else {
+        } else if (!shared) {
             getProject().copyUserProperties(newProject);
         }
 
@@ -227,7 +238,7 @@ public class Ant extends Task {
            // because they are not being inherited.
            newProject.initProperties();
 
-        } else {
+        } else if (!shared) {
             // set all properties from calling project
             addAlmostAll(getProject().getProperties(), PropertyType.PLAIN);
         }
@@ -510,15 +521,14 @@ public class Ant extends Task {
      * @throws BuildException if a reference does not have a refid.
      */
     private void addReferences() throws BuildException {
-        Map<String, Object> thisReferences =
-            new HashMap<>(getProject().getReferences());
+        Set<String> thisReferences = getProject().getReferenceNames();
         for (Reference ref : references) {
             String refid = ref.getRefId();
             if (refid == null) {
                 throw new BuildException(
                     "the refid attribute is required for reference elements");
             }
-            if (!thisReferences.containsKey(refid)) {
+            if (!thisReferences.contains(refid)) {
                 log("Parent project doesn't contain any reference '"
                     + refid + "'",
                     Project.MSG_WARN);
@@ -534,16 +544,14 @@ public class Ant extends Task {
         }
 
         // Now add all references that are not defined in the
-        // subproject, if inheritRefs is true
-        if (inheritRefs) {
-            Map<String, Object> newReferences = newProject.getReferences();
-            for (String key : thisReferences.keySet()) {
-                if (newReferences.containsKey(key)) {
-                    continue;
-                }
-                copyReference(key, key);
-                newProject.inheritIDReferences(getProject());
-            }
+        // subproject, if inheritRefs is true. They are copied when
+        // the subproject uses them for the first time.
+        if (inheritRefs && !thisReferences.isEmpty()) {
+            final Project parent = getProject();
+            final Project child = newProject;
+            child.addDeferredReferences(thisReferences,
+                                        key -> createCopy(parent, key, child, key));
+            child.inheritIDReferences(parent);
         }
     }
 
@@ -557,12 +565,28 @@ public class Ant extends Task {
      * @param newKey the reference id in the new project.
      */
     private void copyReference(String oldKey, String newKey) {
-        Object orig = getProject().getReference(oldKey);
+        Object copy = createCopy(getProject(), oldKey, newProject, newKey);
+        if (copy != null) {
+            newProject.addReference(newKey, copy);
+        }
+    }
+
+    /**
+     * Try to clone and reconfigure the object referenced by oldkey in
+     * the given project for use as newKey in the other project.
+     * @param from the project holding the original reference.
+     * @param oldKey the reference id in the original project.
+     * @param to the project the copy is made for.
+     * @param newKey the reference id in the other project.
+     * @return the copy or null if there is no object to copy.
+     */
+    private Object createCopy(Project from, String oldKey, Project to, String newKey) {
+        Object orig = from.getReference(oldKey);
         if (orig == null) {
             log("No object referenced by " + oldKey + ". Can't copy to "
                 + newKey,
                 Project.MSG_WARN);
-            return;
+            return null;
         }
 
         Class<?> c = orig.getClass();
@@ -578,13 +602,13 @@ public class Ant extends Task {
         }
 
         if (copy instanceof ProjectComponent) {
-            ((ProjectComponent) copy).setProject(newProject);
+            ((ProjectComponent) copy).setProject(to);
         } else {
             try {
                 Method setProjectM =
                     c.getMethod("setProject", Project.class);
                 if (setProjectM != null) {
-                    setProjectM.invoke(copy, newProject);
+                    setProjectM.invoke(copy, to);
                 }
             } catch (NoSuchMethodException e) {
                 // ignore this if the class being referenced does not have
@@ -596,7 +620,7 @@ public class Ant extends Task {
                     e2, getLocation());
             }
         }
-        newProject.addReference(newKey, copy);
+        return copy;
     }
 
     /**
@@ -21,10 +21,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
-import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -37,6 +35,7 @@ import java.util.Hashtable;
 import java.util.Map;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.condition.Condition;
 import org.apache.tools.ant.types.EnumeratedAttribute;
@@ -47,6 +46,7 @@ import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.Restrict;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.types.resources.selectors.Type;
+import org.apache.tools.ant.util.FileDigester;
 import org.apache.tools.ant.util.FileUtils;
 
 /**
@@ -143,6 +143,10 @@ public class Checksum extends MatchingTask implements Condition {
      * Message Digest instance
      */
     private MessageDigest messageDigest;
+    /**
+     * Computes the digests of the individual files.
+     */
+    private FileDigester fileDigester;
     /**
      * is this task being used as a nested condition element?
      */
@@ -152,6 +156,16 @@ public class Checksum extends MatchingTask implements Condition {
      */
     private int readBufferSize = BUFFER_SIZE;
 
+    /**
+     * number of files to read at the same time
+     */
+    private int threads = 0;
+
+    /**
+     * cache of file digests
+     */
+    private File cache;
+
     /**
      * Formatter for the checksum file.
      */
@@ -248,6 +262,48 @@ public class Checksum extends MatchingTask implements Condition {
         this.readBufferSize = size;
     }
 
+    /**
+     * The number of files to read at the same time.
+     *
+     * <p>If not set explicitly the value of the {@value
+     * MagicNames#CHECKSUM_THREADS} property is used, if that isn't
+     * set either, files are read one after the other.</p>
+     *
+     * @param threads an <code>int</code> value
+     * @since Ant 1.10.18
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * A file to cache the digests of files in, files whose size and
+     * modification time haven't changed are not read again.
+     *
+     * @param cache the cache file
+     * @since Ant 1.10.18
+     */
+    public void setCache(File cache) {
+        this.cache = cache;
+    }
+
+    private int getEffectiveThreads() {
+        if (threads > 0) {
+            return threads;
+        }
+        final String value = getProject().getProperty(MagicNames.CHECKSUM_THREADS);
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException ex) {
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.CHECKSUM_THREADS
+                                     + ": " + value, ex);
+        }
+    }
+
     /**
      * Select the in/output pattern via a well know format name.
      * @param e an <code>enumerated</code> value
@@ -370,19 +426,25 @@ public class Checksum extends MatchingTask implements Condition {
         if (provider != null) {
             try {
                 messageDigest = MessageDigest.getInstance(algorithm, provider);
+                fileDigester = new FileDigester(algorithm, provider);
             } catch (NoSuchAlgorithmException | NoSuchProviderException noalgo) {
                 throw new BuildException(noalgo, getLocation());
             }
         } else {
             try {
                 messageDigest = MessageDigest.getInstance(algorithm);
-            } catch (NoSuchAlgorithmException noalgo) {
+                fileDigester = new FileDigester(algorithm, null);
+            } catch (NoSuchAlgorithmException | NoSuchProviderException noalgo) {
                 throw new BuildException(noalgo, getLocation());
             }
         }
         if (messageDigest == null) {
             throw new BuildException("Unable to create Message Digest", getLocation());
         }
+        fileDigester.setReadBufferSize(readBufferSize);
+        if (cache != null) {
+            fileDigester.setCacheFile(cache);
+        }
         if (fileext == null) {
             fileext = "." + algorithm;
         } else if (fileext.trim().isEmpty()) {
@@ -469,26 +531,19 @@ public class Checksum extends MatchingTask implements Condition {
      */
     private boolean generateChecksums() throws BuildException {
         boolean checksumMatches = true;
-        InputStream fis = null;
         OutputStream fos = null;
-        byte[] buf = new byte[readBufferSize];
         try {
-            for (Map.Entry<File, Object> e : includeFileMap.entrySet()) {
-                messageDigest.reset();
-                File src = e.getKey();
-                if (!isCondition) {
+            if (!isCondition) {
+                for (File src : includeFileMap.keySet()) {
                     log("Calculating " + algorithm + " checksum for " + src, Project.MSG_VERBOSE);
                 }
-                fis = Files.newInputStream(src.toPath());
-                DigestInputStream dis = new DigestInputStream(fis,
-                                                              messageDigest);
-                while (dis.read(buf, 0, readBufferSize) != -1) {
-                    // Empty statement
-                }
-                dis.close();
-                fis.close();
-                fis = null;
-                byte[] fileDigest = messageDigest.digest();
+            }
+            Map<File, byte[]> fileDigests =
+                fileDigester.digest(includeFileMap.keySet(), getEffectiveThreads());
+            fileDigester.saveCache();
+            for (Map.Entry<File, Object> e : includeFileMap.entrySet()) {
+                File src = e.getKey();
+                byte[] fileDigest = fileDigests.get(src);
                 if (totalproperty != null) {
                     allDigests.put(src, fileDigest);
                 }
@@ -567,7 +622,6 @@ public class Checksum extends MatchingTask implements Condition {
         } catch (Exception e) {
             throw new BuildException(e, getLocation());
         } finally {
-            FileUtils.close(fis);
             FileUtils.close(fos);
         }
         return checksumMatches;
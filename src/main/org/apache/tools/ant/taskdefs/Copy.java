@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -29,9 +30,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.FileSet;
@@ -105,6 +113,9 @@ public class Copy extends Task {
     private long granularity = 0;
     private boolean force = false;
     private boolean quiet = false;
+    private int threads = 0;
+    /** whether copy operations are currently run by several threads */
+    private boolean concurrent = false;
 
     // used to store the single non-file resource to copy when the
     // tofile attribute has been used
@@ -429,6 +440,37 @@ public class Copy extends Task {
         this.granularity = granularity;
     }
 
+    /**
+     * Set the number of threads used to copy files.
+     *
+     * <p>If not set explicitly the value of the {@value
+     * MagicNames#COPY_THREADS} property is used, if that isn't set
+     * either, files are copied one after the other.</p>
+     *
+     * @param threads the number of threads.
+     * @since Ant 1.10.18
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    private int getEffectiveThreads() {
+        if (threads > 0) {
+            return threads;
+        }
+        final String value = getProject().getProperty(MagicNames.COPY_THREADS);
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException ex) {
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.COPY_THREADS
+                                     + ": " + value, ex);
+        }
+    }
+
     /**
      * Perform the copy operation.
      * @exception BuildException if an error occurs.
@@ -861,6 +903,7 @@ public class Copy extends Task {
                 + " file" + (fileCopyMap.size() == 1 ? "" : "s")
                 + " to " + destDir.getAbsolutePath());
 
+            final List<Runnable> operations = new ArrayList<>();
             for (final Map.Entry<String, String[]> e : fileCopyMap.entrySet()) {
                 final String fromFile = e.getKey();
 
@@ -869,41 +912,10 @@ public class Copy extends Task {
                         log("Skipping self-copy of " + fromFile, verbosity);
                         continue;
                     }
-                    try {
-                        log("Copying " + fromFile + " to " + toFile, verbosity);
-
-                        final FilterSetCollection executionFilters =
-                            new FilterSetCollection();
-                        if (filtering) {
-                            executionFilters
-                                .addFilterSet(getProject().getGlobalFilterSet());
-                        }
-                        for (final FilterSet filterSet : filterSets) {
-                            executionFilters.addFilterSet(filterSet);
-                        }
-                        fileUtils.copyFile(new File(fromFile), new File(toFile),
-                                           executionFilters,
-                                           filterChains, forceOverwrite,
-                                           preserveLastModified,
-                                           /* append: */ false, inputEncoding,
-                                           outputEncoding, getProject(),
-                                           getForce());
-                    } catch (final IOException ioe) {
-                        String msg = "Failed to copy " + fromFile + " to " + toFile
-                            + " due to " + getDueTo(ioe);
-                        final File targetFile = new File(toFile);
-                        if (!(ioe instanceof
-                              ResourceUtils.ReadOnlyTargetFileException)
-                            && targetFile.exists() && !targetFile.delete()) {
-                            msg += " and I couldn't delete the corrupt " + toFile;
-                        }
-                        if (failonerror) {
-                            throw new BuildException(msg, ioe, getLocation());
-                        }
-                        log(msg, Project.MSG_ERR);
-                    }
+                    operations.add(() -> doFileCopy(fromFile, toFile));
                 }
             }
+            runOperations(operations, fileCopyMap.values());
         }
         if (includeEmpty) {
             int createCount = 0;
@@ -944,51 +956,186 @@ public class Copy extends Task {
                 + " resource" + (map.size() == 1 ? "" : "s")
                 + " to " + destDir.getAbsolutePath());
 
+            final List<Runnable> operations = new ArrayList<>();
             for (final Map.Entry<Resource, String[]> e : map.entrySet()) {
                 final Resource fromResource = e.getKey();
                 for (final String toFile : e.getValue()) {
-                    try {
-                        log("Copying " + fromResource + " to " + toFile,
-                            verbosity);
+                    operations.add(() -> doResourceCopy(fromResource, toFile));
+                }
+            }
+            runOperations(operations, map.values());
+        }
+    }
 
-                        final FilterSetCollection executionFilters = new FilterSetCollection();
-                        if (filtering) {
-                            executionFilters
-                                .addFilterSet(getProject().getGlobalFilterSet());
-                        }
-                        for (final FilterSet filterSet : filterSets) {
-                            executionFilters.addFilterSet(filterSet);
-                        }
-                        ResourceUtils.copyResource(fromResource,
-                                                   new FileResource(destDir,
-                                                                    toFile),
-                                                   executionFilters,
-                                                   filterChains,
-                                                   forceOverwrite,
-                                                   preserveLastModified,
-                                                   /* append: */ false,
-                                                   inputEncoding,
-                                                   outputEncoding,
-                                                   getProject(),
-                                                   getForce());
-                    } catch (final IOException ioe) {
-                        String msg = "Failed to copy " + fromResource
-                            + " to " + toFile
-                            + " due to " + getDueTo(ioe);
-                        final File targetFile = new File(toFile);
-                        if (!(ioe instanceof
-                              ResourceUtils.ReadOnlyTargetFileException)
-                            && targetFile.exists() && !targetFile.delete()) {
-                            msg += " and I couldn't delete the corrupt " + toFile;
-                        }
-                        if (failonerror) {
-                            throw new BuildException(msg, ioe, getLocation());
-                        }
-                        log(msg, Project.MSG_ERR);
-                    }
+    private void doFileCopy(final String fromFile, final String toFile) {
+        try {
+            if (getProject().isLoggingEnabled(verbosity)) {
+                log("Copying " + fromFile + " to " + toFile, verbosity);
+            }
+
+            fileUtils.copyFile(new File(fromFile), new File(toFile),
+                               createExecutionFilters(),
+                               filterChains, forceOverwrite,
+                               preserveLastModified,
+                               /* append: */ false, inputEncoding,
+                               outputEncoding, getProject(),
+                               getForce());
+        } catch (final IOException ioe) {
+            String msg = "Failed to copy " + fromFile + " to " + toFile
+                + " due to " + getDueTo(ioe);
+            final File targetFile = new File(toFile);
+            if (!(ioe instanceof
+                  ResourceUtils.ReadOnlyTargetFileException)
+                && targetFile.exists() && !targetFile.delete()) {
+                msg += " and I couldn't delete the corrupt " + toFile;
+            }
+            if (failonerror) {
+                throw new BuildException(msg, ioe, getLocation());
+            }
+            log(msg, Project.MSG_ERR);
+        }
+    }
+
+    private void doResourceCopy(final Resource fromResource, final String toFile) {
+        try {
+            if (getProject().isLoggingEnabled(verbosity)) {
+                log("Copying " + fromResource + " to " + toFile,
+                    verbosity);
+            }
+
+            ResourceUtils.copyResource(fromResource,
+                                       new FileResource(destDir,
+                                                        toFile),
+                                       createExecutionFilters(),
+                                       filterChains,
+                                       forceOverwrite,
+                                       preserveLastModified,
+                                       /* append: */ false,
+                                       inputEncoding,
+                                       outputEncoding,
+                                       getProject(),
+                                       getForce());
+        } catch (final IOException ioe) {
+            String msg = "Failed to copy " + fromResource
+                + " to " + toFile
+                + " due to " + getDueTo(ioe);
+            final File targetFile = new File(toFile);
+            if (!(ioe instanceof
+                  ResourceUtils.ReadOnlyTargetFileException)
+                && targetFile.exists() && !targetFile.delete()) {
+                msg += " and I couldn't delete the corrupt " + toFile;
+            }
+            if (failonerror) {
+                throw new BuildException(msg, ioe, getLocation());
+            }
+            log(msg, Project.MSG_ERR);
+        }
+    }
+
+    /**
+     * Collects the filter sets to apply to a single copy.
+     *
+     * <p>FilterSet replaces tokens in a synchronized method, when
+     * copying with several threads each copy uses clones of the
+     * filter sets so they don't block each other.</p>
+     */
+    FilterSetCollection createExecutionFilters() {
+        final FilterSetCollection executionFilters =
+            new FilterSetCollection();
+        if (filtering) {
+            final FilterSet global = getProject().getGlobalFilterSet();
+            executionFilters
+                .addFilterSet(concurrent ? (FilterSet) global.clone() : global);
+        }
+        for (final FilterSet filterSet : filterSets) {
+            executionFilters
+                .addFilterSet(concurrent ? (FilterSet) filterSet.clone() : filterSet);
+        }
+        return executionFilters;
+    }
+
+    /**
+     * Runs the given copy operations.
+     *
+     * <p>If more than one thread has been configured, the parent
+     * directories of all targets are created first and the operations
+     * are run by a pool of worker threads. The first exception thrown
+     * by an operation - in the order of the operations - is rethrown
+     * after the operations already running have finished, operations
+     * that have not been started by then are skipped.</p>
+     *
+     * <p>Operations are always run one after the other if nested
+     * filter chains have been specified, the readers created by a
+     * filter chain may share state - like the tokenizer of a
+     * tokenfilter - with all other readers of the same chain.</p>
+     *
+     * @param operations the operations to run
+     * @param targets the names of the target files of all operations
+     * @since Ant 1.10.18
+     */
+    void runOperations(final List<Runnable> operations,
+                       final Collection<String[]> targets) {
+        int threadCount = Math.min(getEffectiveThreads(), operations.size());
+        if (threadCount > 1 && !filterChains.isEmpty()) {
+            log("Copying files one after the other as filter chains can't"
+                + " be used by several threads", Project.MSG_VERBOSE);
+            threadCount = 1;
+        }
+        if (threadCount <= 1) {
+            operations.forEach(Runnable::run);
+            return;
+        }
+        final Set<File> parents = new HashSet<>();
+        for (final String[] toFiles : targets) {
+            for (final String toFile : toFiles) {
+                final File parent = new File(toFile).getParentFile();
+                if (parent != null && parents.add(parent)
+                    && !parent.isDirectory() && !parent.mkdirs()
+                    && !parent.isDirectory()) {
+                    log("Unable to create directory " + parent.getAbsolutePath(),
+                        Project.MSG_ERR);
                 }
             }
         }
+        log("Using " + threadCount + " threads", Project.MSG_VERBOSE);
+        concurrent = true;
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = new Thread(r, getTaskType() + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        final List<Future<?>> results = new ArrayList<>();
+        try {
+            for (final Runnable operation : operations) {
+                results.add(pool.submit(operation));
+            }
+            for (final Future<?> result : results) {
+                result.get();
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while waiting for "
+                                     + getTaskType(), ex, getLocation());
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BuildException(cause, getLocation());
+        } finally {
+            results.forEach(r -> r.cancel(false));
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent = false;
+        }
     }
 
     /**
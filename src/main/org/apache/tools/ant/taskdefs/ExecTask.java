@@ -628,10 +628,6 @@ public class ExecTask extends Task {
         if (redirectorElement != null) {
             redirectorElement.configure(redirector);
         }
-        Execute exe = new Execute(createHandler(), createWatchdog());
-        exe.setAntRun(getProject());
-        exe.setWorkingDirectory(dir);
-        exe.setVMLauncher(vmLauncher);
         String[] environment = env.getVariables();
         if (environment != null) {
             for (String variable : environment) {
@@ -639,8 +635,24 @@ public class ExecTask extends Task {
                         Project.MSG_VERBOSE);
             }
         }
+        return createExecute(createHandler());
+    }
+
+    /**
+     * Create an Execute instance using the given stream handler once
+     * {@link #prepareExec} has been invoked.
+     *
+     * @param handler the stream handler to use
+     * @return an instance of the Execute class.
+     * @since Ant 1.10.18
+     */
+    Execute createExecute(ExecuteStreamHandler handler) {
+        Execute exe = new Execute(handler, createWatchdog());
+        exe.setAntRun(getProject());
+        exe.setWorkingDirectory(dir);
+        exe.setVMLauncher(vmLauncher);
         exe.setNewenvironment(newEnvironment);
-        exe.setEnvironment(environment);
+        exe.setEnvironment(env.getVariables());
         return exe;
     }
 
@@ -654,33 +666,63 @@ public class ExecTask extends Task {
      * streams of the process.
      */
     protected final void runExecute(Execute exe) throws IOException {
-        int returnCode = -1; // assume the worst
-
         if (!spawn) {
-            returnCode = exe.execute();
+            int returnCode = exe.execute();
+            handleResult(returnCode, exe.killedProcess());
+        } else {
+            exe.spawn();
+        }
+    }
 
-            //test for and handle a forced process death
-            if (exe.killedProcess()) {
-                String msg = "Timeout: killed the sub-process";
-                if (failOnError) {
-                    throw new BuildException(msg);
-                }
-                log(msg, Project.MSG_WARN);
+    /**
+     * Completes the redirection and deals with the exit code of a
+     * process that has finished.
+     *
+     * @param returnCode the exit code of the process
+     * @param killedProcess whether the process has been killed by the
+     * watchdog
+     * @throws IOException if the redirector cannot be completed
+     * @since Ant 1.10.18
+     */
+    void handleResult(int returnCode, boolean killedProcess) throws IOException {
+        //test for and handle a forced process death
+        if (killedProcess) {
+            String msg = "Timeout: killed the sub-process";
+            if (failOnError) {
+                throw new BuildException(msg);
             }
-            maybeSetResultPropertyValue(returnCode);
-            redirector.complete();
-            if (Execute.isFailure(returnCode)) {
-                if (failOnError) {
-                    throw new BuildException(getTaskType() + " returned: "
-                        + returnCode, getLocation());
-                }
-                log("Result: " + returnCode, Project.MSG_INFO);
+            log(msg, Project.MSG_WARN);
+        }
+        maybeSetResultPropertyValue(returnCode);
+        redirector.complete();
+        if (Execute.isFailure(returnCode)) {
+            if (failOnError) {
+                throw new BuildException(getTaskType() + " returned: "
+                    + returnCode, getLocation());
             }
-        } else {
-            exe.spawn();
+            log("Result: " + returnCode, Project.MSG_INFO);
         }
     }
 
+    /**
+     * Whether the process is spawned.
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    boolean isSpawn() {
+        return spawn;
+    }
+
+    /**
+     * Whether the input of the process has been redirected using the
+     * input or inputstring attribute.
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    boolean isInputRedirected() {
+        return input != null || inputString != null;
+    }
+
     /**
      * Run the command using the given Execute instance. This may be
      * overridden by subclasses.
@@ -18,6 +18,7 @@
 
 package org.apache.tools.ant.taskdefs;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -25,6 +26,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
@@ -82,6 +88,9 @@ public class ExecuteOn extends ExecTask {
     private boolean verbose = false;
     private boolean ignoreMissing = true;
     private boolean force = false;
+    private int threads = 1;
+    /** invocations to run concurrently, null if running sequentially */
+    private List<Invocation> invocations = null;
 
     /**
      * Has &lt;srcfile&gt; been specified before &lt;targetfile&gt;
@@ -244,6 +253,22 @@ public class ExecuteOn extends ExecTask {
         force = b;
     }
 
+    /**
+     * Set the maximum number of commands to run at the same time.
+     *
+     * <p>Only used if parallel is false or maxparallel is positive.
+     * The output of each command is collected and passed on once the
+     * command has finished, so output of different commands doesn't
+     * interleave. Defaults to 1.</p>
+     *
+     * @param threads maximum number of concurrently running commands.
+     *
+     * @since Ant 1.10.18
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Create a placeholder indicating where on the command line
      * the name of the source file should be inserted.
@@ -323,6 +348,19 @@ public class ExecuteOn extends ExecTask {
         if (mapperElement != null) {
             mapper = mapperElement.getImplementation();
         }
+        if (threads < 1) {
+            throw new BuildException("threads must be a positive number",
+                                     getLocation());
+        }
+        if (threads > 1 && isSpawn()) {
+            throw new BuildException("spawn is not compatible with threads",
+                                     getLocation());
+        }
+        if (threads > 1 && (isInputRedirected()
+            || (redirectorElement != null && redirectorElement.isRedirectingInput()))) {
+            throw new BuildException("input redirection is not compatible"
+                                     + " with threads", getLocation());
+        }
     }
 
     /**
@@ -356,6 +394,7 @@ public class ExecuteOn extends ExecTask {
         int totalFiles = 0;
         int totalDirs = 0;
         boolean haveExecuted = false;
+        invocations = threads > 1 ? new ArrayList<>() : null;
         try {
             Vector<String> fileNames = new Vector<>();
             Vector<File> baseDirs = new Vector<>();
@@ -395,19 +434,23 @@ public class ExecuteOn extends ExecTask {
                     for (String srcFile : fileNames) {
                         String[] command = getCommandline(srcFile, base);
                         log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
-                        exe.setCommandline(command);
-
-                        if (redirectorElement != null) {
-                            setupRedirector();
-                            redirectorElement.configure(redirector, srcFile);
-                        }
-                        if (redirectorElement != null || haveExecuted) {
-                            // need to reset the stream handler to restart
-                            // reading of pipes;
-                            // go ahead and do it always w/ nested redirectors
-                            exe.setStreamHandler(redirector.createHandler());
+                        if (invocations != null) {
+                            invocations.add(new Invocation(command, srcFile));
+                        } else {
+                            exe.setCommandline(command);
+
+                            if (redirectorElement != null) {
+                                setupRedirector();
+                                redirectorElement.configure(redirector, srcFile);
+                            }
+                            if (redirectorElement != null || haveExecuted) {
+                                // need to reset the stream handler to restart
+                                // reading of pipes;
+                                // go ahead and do it always w/ nested redirectors
+                                exe.setStreamHandler(redirector.createHandler());
+                            }
+                            runExecute(exe);
                         }
-                        runExecute(exe);
                         haveExecuted = true;
                     }
                     fileNames.clear();
@@ -451,19 +494,23 @@ public class ExecuteOn extends ExecTask {
                     if (!parallel) {
                         String[] command = getCommandline(name, base);
                         log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
-                        exe.setCommandline(command);
-
-                        if (redirectorElement != null) {
-                            setupRedirector();
-                            redirectorElement.configure(redirector, name);
-                        }
-                        if (redirectorElement != null || haveExecuted) {
-                            // need to reset the stream handler to restart
-                            // reading of pipes;
-                            // go ahead and do it always w/ nested redirectors
-                            exe.setStreamHandler(redirector.createHandler());
+                        if (invocations != null) {
+                            invocations.add(new Invocation(command, name));
+                        } else {
+                            exe.setCommandline(command);
+
+                            if (redirectorElement != null) {
+                                setupRedirector();
+                                redirectorElement.configure(redirector, name);
+                            }
+                            if (redirectorElement != null || haveExecuted) {
+                                // need to reset the stream handler to restart
+                                // reading of pipes;
+                                // go ahead and do it always w/ nested redirectors
+                                exe.setStreamHandler(redirector.createHandler());
+                            }
+                            runExecute(exe);
                         }
-                        runExecute(exe);
                         haveExecuted = true;
                         fileNames.clear();
                         baseDirs.clear();
@@ -474,6 +521,9 @@ public class ExecuteOn extends ExecTask {
                 runParallel(exe, fileNames, baseDirs);
                 haveExecuted = true;
             }
+            if (invocations != null && !invocations.isEmpty()) {
+                runConcurrently(invocations);
+            }
             if (haveExecuted) {
                 log("Applied " + cmdl.getExecutable() + " to " + totalFiles + " file"
                     + (totalFiles != 1 ? "s" : "") + " and " + totalDirs + " director"
@@ -483,6 +533,7 @@ public class ExecuteOn extends ExecTask {
         } catch (IOException e) {
             throw new BuildException("Execute failed: " + e, e, getLocation());
         } finally {
+            invocations = null;
             // close the output file if required
             logFlush();
             redirector.setAppendProperties(false);
@@ -711,18 +762,22 @@ public class ExecuteOn extends ExecTask {
                 System.arraycopy(b, currentOffset, cb, 0, currentAmount);
                 String[] command = getCommandline(cs, cb);
                 log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
-                exe.setCommandline(command);
-                if (redirectorElement != null) {
-                    setupRedirector();
-                    redirectorElement.configure(redirector, null);
-                }
-                if (redirectorElement != null || currentOffset > 0) {
-                    // need to reset the stream handler to restart
-                    // reading of pipes;
-                    // go ahead and do it always w/ nested redirectors
-                    exe.setStreamHandler(redirector.createHandler());
+                if (invocations != null) {
+                    invocations.add(new Invocation(command, null));
+                } else {
+                    exe.setCommandline(command);
+                    if (redirectorElement != null) {
+                        setupRedirector();
+                        redirectorElement.configure(redirector, null);
+                    }
+                    if (redirectorElement != null || currentOffset > 0) {
+                        // need to reset the stream handler to restart
+                        // reading of pipes;
+                        // go ahead and do it always w/ nested redirectors
+                        exe.setStreamHandler(redirector.createHandler());
+                    }
+                    runExecute(exe);
                 }
-                runExecute(exe);
 
                 stillToDo -= currentAmount;
                 currentOffset += currentAmount;
@@ -730,6 +785,95 @@ public class ExecuteOn extends ExecTask {
         }
     }
 
+    /**
+     * Runs the collected commands using up to threads concurrent
+     * processes.
+     *
+     * <p>The output of each process is buffered and passed to the
+     * redirector once the process has finished, in the order the
+     * commands have been collected. If failonerror is true the first
+     * failed command - in that order - fails the task and all
+     * commands that are still running are killed.</p>
+     *
+     * @param commands the commands to run.
+     * @throws IOException on I/O errors.
+     */
+    private void runConcurrently(List<Invocation> commands) throws IOException {
+        final int threadCount = Math.min(threads, commands.size());
+        log("Running " + commands.size() + " commands using " + threadCount
+            + " threads", Project.MSG_VERBOSE);
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = new Thread(r, getTaskType() + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            final List<Future<Invocation>> results = new ArrayList<>();
+            for (Invocation invocation : commands) {
+                results.add(pool.submit(invocation::run));
+            }
+            boolean first = true;
+            for (Future<Invocation> result : results) {
+                final Invocation invocation = result.get();
+                if (redirectorElement != null) {
+                    setupRedirector();
+                    redirectorElement.configure(redirector, invocation.srcFile);
+                }
+                if (redirectorElement != null || !first) {
+                    // the streams of the first command have been
+                    // created by prepareExec unless there is a nested
+                    // redirector
+                    redirector.createStreams();
+                }
+                first = false;
+                redirector.getOutputStream().write(invocation.output.toByteArray());
+                redirector.getErrorStream().write(invocation.error.toByteArray());
+                handleResult(invocation.returnCode, invocation.killedProcess);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while waiting for "
+                                     + getTaskType(), ex, getLocation());
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new BuildException(cause, getLocation());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A command to run concurrently together with its buffered output.
+     */
+    private class Invocation {
+        private final String[] command;
+        private final String srcFile;
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream error = new ByteArrayOutputStream();
+        private int returnCode;
+        private boolean killedProcess;
+
+        Invocation(String[] command, String srcFile) {
+            this.command = command;
+            this.srcFile = srcFile;
+        }
+
+        Invocation run() throws IOException {
+            Execute exe = createExecute(new PumpStreamHandler(output, error));
+            exe.setCommandline(command);
+            returnCode = exe.execute();
+            killedProcess = exe.killedProcess();
+            return this;
+        }
+    }
+
     /**
      * Inserts target file names (which are already absolute paths)
      * into the list of arguments, taking prefix and postfix into
@@ -867,6 +867,17 @@ public class Jar extends Zip {
         return super.getResourcesToAdd(rcs, zipFile, needsUpdate);
     }
 
+    /**
+     * Jar files are always rewritten as the manifest and index must
+     * be the first entries of the archive.
+     * @return false
+     * @since Ant 1.10.18
+     */
+    @Override
+    protected boolean supportsIncrementalUpdate() {
+        return false;
+    }
+
     /**
      * Create an empty jar file.
      * @param zipFile the file to create
@@ -26,8 +26,12 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.tools.ant.BuildException;
@@ -37,6 +41,7 @@ import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.compilers.CompilerAdapter;
 import org.apache.tools.ant.taskdefs.compilers.CompilerAdapterExtension;
 import org.apache.tools.ant.taskdefs.compilers.CompilerAdapterFactory;
+import org.apache.tools.ant.taskdefs.optional.depend.ClassDependencyGraph;
 import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.types.Reference;
 import org.apache.tools.ant.util.FileUtils;
@@ -137,6 +142,10 @@ public class Javac extends MatchingTask {
 
     private boolean createMissingPackageInfoClass = true;
 
+    private File dependencyCache;
+    /** all java sources by path relative to their source root */
+    private final Map<String, File> sourceFiles = new LinkedHashMap<>();
+
     /**
      * Javac task for compilation of Java files.
      */
@@ -958,7 +967,8 @@ public class Javac extends MatchingTask {
         if (CompilerAdapterFactory.COMPILER_CLASSIC.equalsIgnoreCase(anImplementation)) {
             return assumedJavaVersion();
         }
-        if (CompilerAdapterFactory.isForkedJavac(anImplementation)) {
+        if (CompilerAdapterFactory.isForkedJavac(anImplementation)
+            || CompilerAdapterFactory.isJavaxToolsCompiler(anImplementation)) {
             return assumedJavaVersion();
         }
         return null;
@@ -1071,6 +1081,34 @@ public class Javac extends MatchingTask {
         createMissingPackageInfoClass = b;
     }
 
+    /**
+     * File holding the dependency graph of the compiled classes.
+     *
+     * <p>If set, Ant compiles not only the source files that are
+     * newer than their class files but also all sources whose classes
+     * depend on classes whose API has changed, and deletes the class
+     * files of sources that have been removed.</p>
+     *
+     * <p>Requires srcdir and destdir to be set. Each
+     * <code>&lt;javac&gt;</code> task needs a file of its own.</p>
+     *
+     * @param dependencyCache File
+     * @since Ant 1.10.18
+     */
+    public void setDependencyCache(final File dependencyCache) {
+        this.dependencyCache = dependencyCache;
+    }
+
+    /**
+     * File holding the dependency graph of the compiled classes.
+     *
+     * @return File
+     * @since Ant 1.10.18
+     */
+    public File getDependencyCache() {
+        return dependencyCache;
+    }
+
     /**
      * Executes the task.
      * @exception BuildException if an error occurs
@@ -1089,7 +1127,11 @@ public class Javac extends MatchingTask {
             collectFileListFromModulePath();
         }
 
-        compile();
+        if (isIncremental()) {
+            compileIncrementally();
+        } else {
+            compile();
+        }
         if (updatedProperty != null
             && taskSuccess
             && compileList.length != 0) {
@@ -1103,6 +1145,7 @@ public class Javac extends MatchingTask {
     protected void resetFileLists() {
         compileList = new File[0];
         packageInfos = new HashMap<>();
+        sourceFiles.clear();
     }
 
     /**
@@ -1114,6 +1157,14 @@ public class Javac extends MatchingTask {
      * @param files    An array of filenames
      */
     protected void scanDir(final File srcDir, final File destDir, final String[] files) {
+        if (dependencyCache != null) {
+            for (String name : files) {
+                if (name.endsWith(".java")) {
+                    sourceFiles.putIfAbsent(name.replace(File.separatorChar, '/'),
+                                            new File(srcDir, name));
+                }
+            }
+        }
         final GlobPatternMapper m = new GlobPatternMapper();
 
         for (String extension : findSupportedFileExtensions()) {
@@ -1377,6 +1428,113 @@ public class Javac extends MatchingTask {
         }
     }
 
+    private boolean isIncremental() {
+        if (dependencyCache == null) {
+            return false;
+        }
+        if (!hasPath(src) || destDir == null) {
+            log("dependencycache requires srcdir and destdir to be set, ignoring it.",
+                Project.MSG_WARN);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compiles the outdated sources and - in as many rounds as
+     * necessary - all sources depending on classes whose API has
+     * changed.
+     */
+    private void compileIncrementally() {
+        final ClassDependencyGraph graph = ClassDependencyGraph.load(dependencyCache);
+        final boolean initial = graph.isEmpty();
+        final Map<String, String> sourceNames = new HashMap<>();
+        sourceFiles.forEach((name, file) -> sourceNames.put(file.getAbsolutePath(), name));
+        final Set<String> compiled = new HashSet<>();
+        final List<File> allCompiled = new ArrayList<>();
+        try {
+            // remove the classes of sources that no longer exist
+            for (String source : graph.getSources()) {
+                if (!sourceFiles.containsKey(source)) {
+                    log("Removing classes of deleted " + source, Project.MSG_VERBOSE);
+                    deleteClasses(graph, source);
+                }
+            }
+            ClassDependencyGraph.Changes changes =
+                graph.update(destDir, sourceFiles::containsKey);
+            final Set<String> pending = new LinkedHashSet<>();
+            for (File f : compileList) {
+                final String name = sourceNames.get(f.getAbsolutePath());
+                pending.add(name != null ? name : f.getAbsolutePath());
+            }
+            if (!initial) {
+                pending.addAll(getAffectedSources(graph, changes));
+            }
+            while (!pending.isEmpty() && taskSuccess) {
+                final List<File> files = new ArrayList<>();
+                for (String name : pending) {
+                    deleteClasses(graph, name);
+                    files.add(sourceFiles.containsKey(name) ? sourceFiles.get(name)
+                              : new File(name));
+                }
+                if (!compiled.isEmpty()) {
+                    log("Recompiling " + files.size() + " dependent source file"
+                        + (files.size() == 1 ? "" : "s"), Project.MSG_VERBOSE);
+                }
+                compiled.addAll(pending);
+                allCompiled.addAll(files);
+                compileList = files.toArray(new File[0]);
+                compile();
+                changes = graph.update(destDir, sourceFiles::containsKey);
+                pending.clear();
+                pending.addAll(getAffectedSources(graph, changes));
+                pending.removeAll(compiled);
+            }
+        } catch (final IOException ex) {
+            throw new BuildException("Failed to update dependency cache "
+                                     + dependencyCache, ex, getLocation());
+        } finally {
+            compileList = allCompiled.toArray(new File[0]);
+            try {
+                graph.save(dependencyCache);
+            } catch (final IOException ex) {
+                log("Failed to save dependency cache " + dependencyCache + ": "
+                    + ex.getMessage(), Project.MSG_WARN);
+            }
+        }
+    }
+
+    /**
+     * The sources that need to be compiled again as they may be
+     * affected by the given changes.
+     */
+    private Set<String> getAffectedSources(final ClassDependencyGraph graph,
+                                           final ClassDependencyGraph.Changes changes) {
+        if (changes.haveConstantsChanged()) {
+            log("Compile time constants have changed, recompiling all sources.",
+                Project.MSG_VERBOSE);
+            return new LinkedHashSet<>(sourceFiles.keySet());
+        }
+        final Set<String> result = new LinkedHashSet<>();
+        for (String className : graph.getAffectedClasses(changes.getChangedClasses())) {
+            final String source = graph.getSource(className);
+            if (source != null && sourceFiles.containsKey(source)) {
+                result.add(source);
+            }
+        }
+        return result;
+    }
+
+    private void deleteClasses(final ClassDependencyGraph graph, final String source) {
+        for (String className : graph.getClasses(source)) {
+            final File classFile = new File(destDir,
+                className.replace('.', File.separatorChar) + ".class");
+            if (classFile.exists() && !classFile.delete()) {
+                log("Failed to delete " + classFile, Project.MSG_WARN);
+            }
+        }
+    }
+
     /**
      * Adds an "compiler" attribute to Commandline$Attribute used to
      * filter command line attributes based on the current
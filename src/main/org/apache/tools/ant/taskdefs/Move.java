@@ -19,6 +19,8 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.tools.ant.BuildException;
@@ -26,7 +28,6 @@ import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.FileSet;
-import org.apache.tools.ant.types.FilterSetCollection;
 
 /**
  * Moves a file or directory to a new file or directory.
@@ -134,34 +135,11 @@ public class Move extends Copy {
             log("Moving " + moveCount + " file" + ((moveCount == 1) ? "" : "s")
                     + " to " + destDir.getAbsolutePath());
 
+            List<Runnable> operations = new ArrayList<>();
             for (Map.Entry<String, String[]> entry : fileCopyMap.entrySet()) {
-                String fromFile = entry.getKey();
-                File f = new File(fromFile);
-                boolean selfMove = false;
-                if (f.exists()) { //Is this file still available to be moved?
-                    String[] toFiles = entry.getValue();
-                    for (int i = 0; i < toFiles.length; i++) {
-                        String toFile = toFiles[i];
-
-                        if (fromFile.equals(toFile)) {
-                            log("Skipping self-move of " + fromFile, verbosity);
-                            selfMove = true;
-
-                            // if this is the last time through the loop then
-                            // move will not occur, but that's what we want
-                            continue;
-                        }
-                        File d = new File(toFile);
-                        if ((i + 1) == toFiles.length && !selfMove) {
-                            // Only try to move if this is the last mapped file
-                            // and one of the mappings isn't to itself
-                            moveFile(f, d, filtering, forceOverwrite);
-                        } else {
-                            copyFile(f, d, filtering, forceOverwrite);
-                        }
-                    }
-                }
+                operations.add(() -> moveFile(entry.getKey(), entry.getValue()));
             }
+            runOperations(operations, fileCopyMap.values());
         }
 
         if (includeEmpty) {
@@ -202,6 +180,36 @@ public class Move extends Copy {
         }
     }
 
+    /**
+     * Move a file to all its targets, copying it to all but the last.
+     */
+    private void moveFile(String fromFile, String[] toFiles) {
+        File f = new File(fromFile);
+        boolean selfMove = false;
+        if (f.exists()) { //Is this file still available to be moved?
+            for (int i = 0; i < toFiles.length; i++) {
+                String toFile = toFiles[i];
+
+                if (fromFile.equals(toFile)) {
+                    log("Skipping self-move of " + fromFile, verbosity);
+                    selfMove = true;
+
+                    // if this is the last time through the loop then
+                    // move will not occur, but that's what we want
+                    continue;
+                }
+                File d = new File(toFile);
+                if ((i + 1) == toFiles.length && !selfMove) {
+                    // Only try to move if this is the last mapped file
+                    // and one of the mappings isn't to itself
+                    moveFile(f, d, filtering, forceOverwrite);
+                } else {
+                    copyFile(f, d, filtering, forceOverwrite);
+                }
+            }
+        }
+    }
+
     /**
      * Try to move the file via a rename, but if this fails or filtering
      * is enabled, copy the file then delete the sourceFile.
@@ -236,12 +244,7 @@ public class Move extends Copy {
         try {
             log("Copying " + fromFile + " to " + toFile, verbosity);
 
-            FilterSetCollection executionFilters = new FilterSetCollection();
-            if (filtering) {
-                executionFilters.addFilterSet(getProject().getGlobalFilterSet());
-            }
-            getFilterSets().forEach(executionFilters::addFilterSet);
-            getFileUtils().copyFile(fromFile, toFile, executionFilters,
+            getFileUtils().copyFile(fromFile, toFile, createExecutionFilters(),
                                     getFilterChains(),
                                     forceOverwrite,
                                     getPreserveLastModified(),
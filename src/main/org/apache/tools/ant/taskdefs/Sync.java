@@ -427,6 +427,16 @@ public class Sync extends Task {
         myCopy.setGranularity(granularity);
     }
 
+    /**
+     * The number of threads used to copy files.
+     *
+     * @param threads the number of threads.
+     * @since Ant 1.10.18
+     */
+    public void setThreads(int threads) {
+        myCopy.setThreads(threads);
+    }
+
     /**
      * A container for patterns and selectors that can be used to
      * specify files that should be kept in the target even if they
@@ -0,0 +1,43 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+/**
+ * Extends Proxy interface for XSLT processors: adds support for
+ * transforming several files at the same time.
+ *
+ * @see XSLTProcess
+ * @since Ant 1.10.18
+ */
+public interface XSLTLiaison5 extends XSLTLiaison4 {
+
+    /**
+     * Creates a liaison that uses the same stylesheet, parameters and
+     * configuration as this one but can be used by a different
+     * thread.
+     *
+     * <p>Only invoked after this liaison has been configured
+     * completely. Parameters added to the new liaison must not affect
+     * this liaison and vice versa.</p>
+     *
+     * @return a new liaison
+     * @throws Exception thrown if any problems happens.
+     * @since Ant 1.10.18
+     */
+    XSLTLiaison5 createConcurrentLiaison() throws Exception;
+}
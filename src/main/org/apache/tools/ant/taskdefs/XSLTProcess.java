@@ -26,6 +26,14 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.namespace.QName;
 import javax.xml.xpath.XPath;
@@ -38,6 +46,7 @@ import org.apache.tools.ant.AntClassLoader;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.DynamicConfigurator;
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectComponent;
 import org.apache.tools.ant.PropertyHelper;
@@ -251,6 +260,28 @@ public class XSLTProcess extends MatchingTask implements XSLTLogger {
      */
     private long granularity = FILE_UTILS.getFileTimestampGranularity();
 
+    /**
+     * Whether compiled stylesheets are shared with other tasks.
+     *
+     * @since Ant 1.10.18
+     */
+    private boolean cacheTemplates = false;
+
+    /**
+     * Number of files to transform at the same time.
+     *
+     * @since Ant 1.10.18
+     */
+    private int threads = 0;
+
+    /**
+     * Input and output files of the transformations to perform
+     * concurrently, null if files are transformed immediately.
+     *
+     * @since Ant 1.10.18
+     */
+    private List<File[]> pendingTransformations = null;
+
     /**
      * Whether to style all files in the included directories as well;
      * optional, default is true.
@@ -274,6 +305,60 @@ public class XSLTProcess extends MatchingTask implements XSLTLogger {
         reuseLoadedStylesheet = !b;
     }
 
+    /**
+     * Whether the compiled stylesheet may be shared with other tasks
+     * using the same stylesheet and factory configuration.
+     *
+     * <p>The stylesheet is compiled again if its modification time
+     * changes. Only supported by the trax processor, default is
+     * false.</p>
+     * @param b a <code>boolean</code> value
+     * @since Ant 1.10.18
+     */
+    public void setCacheTemplates(final boolean b) {
+        cacheTemplates = b;
+    }
+
+    /**
+     * Whether the compiled stylesheet may be shared with other tasks.
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public boolean getCacheTemplates() {
+        return cacheTemplates;
+    }
+
+    /**
+     * The number of files to transform at the same time.
+     *
+     * <p>If not set explicitly the value of the {@value
+     * MagicNames#XSLT_THREADS} property is used, if that isn't set
+     * either, files are transformed one after the other. Only
+     * supported by processors implementing {@link XSLTLiaison5}.</p>
+     * @param threads an <code>int</code> value
+     * @since Ant 1.10.18
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    private int getEffectiveThreads() {
+        if (threads > 0) {
+            return threads;
+        }
+        final String value = getProject().getProperty(MagicNames.XSLT_THREADS);
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException ex) {
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.XSLT_THREADS
+                                     + ": " + value, ex);
+        }
+    }
+
     /**
      * Defines the mapper to map source to destination files.
      * @param mapper the mapper to use
@@ -422,6 +507,19 @@ public class XSLTProcess extends MatchingTask implements XSLTLogger {
             //-- make sure destination directory exists...
             checkDest();
 
+            final int threadCount = getEffectiveThreads();
+            if (threadCount > 1) {
+                if (!reuseLoadedStylesheet) {
+                    log("Stylesheet is reloaded for every file, transforming files"
+                        + " one after the other", Project.MSG_VERBOSE);
+                } else if (!(liaison instanceof XSLTLiaison5)) {
+                    log(liaison.getClass().getName() + " doesn't support concurrent"
+                        + " transformations, transforming files one after the other",
+                        Project.MSG_VERBOSE);
+                } else {
+                    pendingTransformations = new ArrayList<>();
+                }
+            }
 
             if (useImplicitFileset) {
                 DirectoryScanner scanner = getDirectoryScanner(baseDir);
@@ -452,7 +550,11 @@ public class XSLTProcess extends MatchingTask implements XSLTLogger {
                 return;
             }
             processResources(styleResource);
+            if (pendingTransformations != null) {
+                transformConcurrently(styleResource, threadCount);
+            }
         } finally {
+            pendingTransformations = null;
             if (loader != null) {
                 loader.resetThreadContextLoader();
                 loader.cleanup();
@@ -856,6 +958,10 @@ public class XSLTProcess extends MatchingTask implements XSLTLogger {
                 || SelectorUtils.isOutOfDate(stylesheet, outR, granularity)) {
                 ensureDirectoryFor(outF);
                 log("Processing " + inF + " to " + outF);
+                if (pendingTransformations != null) {
+                    pendingTransformations.add(new File[] {inF, outF});
+                    return;
+                }
                 configureLiaison(stylesheet);
                 setLiaisonDynamicFileParameters(liaison, inF);
                 liaison.transform(inF, outF);
@@ -908,6 +1014,88 @@ public class XSLTProcess extends MatchingTask implements XSLTLogger {
         }
     }
 
+    /**
+     * Performs all pending transformations using a pool of threads,
+     * each thread uses a liaison of its own.
+     *
+     * @param stylesheet the stylesheet to use.
+     * @param threadCount the maximum number of threads to use.
+     * @exception BuildException if the processing fails.
+     * @since Ant 1.10.18
+     */
+    private void transformConcurrently(final Resource stylesheet, final int threadCount) {
+        final List<File[]> transformations = pendingTransformations;
+        pendingTransformations = null;
+        if (transformations.isEmpty()) {
+            return;
+        }
+        configureLiaison(stylesheet);
+        final int poolSize = Math.min(threadCount, transformations.size());
+        final BlockingQueue<XSLTLiaison> liaisons = new ArrayBlockingQueue<>(poolSize);
+        liaisons.add(liaison);
+        try {
+            for (int i = 1; i < poolSize; i++) {
+                liaisons.add(((XSLTLiaison5) liaison).createConcurrentLiaison());
+            }
+        } catch (final Exception ex) {
+            log("Failed to transform using stylesheet " + stylesheet, Project.MSG_INFO);
+            handleTransformationError(ex);
+            return;
+        }
+
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(poolSize, r -> {
+            final Thread t = new Thread(r, getTaskType() + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        final List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (final File[] t : transformations) {
+                futures.add(pool.submit(() -> {
+                    final XSLTLiaison l = liaisons.take();
+                    try {
+                        setLiaisonDynamicFileParameters(l, t[0]);
+                        l.transform(t[0], t[1]);
+                    } finally {
+                        liaisons.add(l);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (final ExecutionException ex) {
+                    final File[] t = transformations.get(i);
+                    log("Failed to process " + t[0], Project.MSG_INFO);
+                    t[1].delete();
+                    final Throwable cause = ex.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    handleTransformationError((Exception) cause);
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while transforming files", ex);
+        } finally {
+            // let running transformations complete rather than leave
+            // partial output behind
+            futures.forEach(f -> f.cancel(false));
+            pool.shutdown();
+            try {
+                while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                    log("Waiting for running transformations to finish",
+                        Project.MSG_VERBOSE);
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Ensure the directory exists for a given file
      *
@@ -26,6 +26,7 @@ import java.nio.file.Files;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Hashtable;
@@ -39,6 +40,7 @@ import java.util.zip.CRC32;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.FileScanner;
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.ArchiveFileSet;
 import org.apache.tools.ant.types.EnumeratedAttribute;
@@ -191,6 +193,34 @@ public class Zip extends MatchingTask {
 
     private int level = ZipOutputStream.DEFAULT_COMPRESSION;
 
+    /**
+     * Number of threads compressing entries, 0 if not set explicitly.
+     * @since Ant 1.10.18
+     */
+    private int compressThreads = 0;
+
+    /**
+     * Whether entries taken from other archives are decompressed and
+     * compressed again rather than copied as they are.
+     * @since Ant 1.10.18
+     */
+    private boolean recompress = false;
+
+    /**
+     * Whether update only appends new entries to the existing archive.
+     * @since Ant 1.10.18
+     */
+    private boolean incremental = false;
+
+    /**
+     * Percentage of unused space that makes an incremental update
+     * rewrite the whole archive.
+     * @since Ant 1.10.18
+     */
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 50;
+
     /**
      * Assume 0 Unix mode is intentional.
      * @since Ant 1.8.0
@@ -588,6 +618,167 @@ public class Zip extends MatchingTask {
         return zip64Mode;
     }
 
+    /**
+     * Number of threads used to compress the entries of the archive.
+     *
+     * <p>If not set explicitly the value of the {@value
+     * MagicNames#ZIP_COMPRESS_THREADS} property is used.</p>
+     *
+     * @param threads int
+     * @since Ant 1.10.18
+     */
+    public void setCompressThreads(final int threads) {
+        compressThreads = threads;
+    }
+
+    /**
+     * Number of threads used to compress the entries of the archive.
+     *
+     * @return int, zero if the value has not been set explicitly.
+     * @since Ant 1.10.18
+     */
+    public int getCompressThreads() {
+        return compressThreads;
+    }
+
+    /**
+     * Whether entries taken from other archives should be
+     * decompressed and compressed again.
+     *
+     * <p>By default entries of zipfilesets and zipgroupfilesets that
+     * are added without any modification and already use the
+     * compression method of this archive are copied without
+     * decompressing them, so they keep the compression level of the
+     * archive they have been taken from.</p>
+     *
+     * @param b boolean
+     * @since Ant 1.10.18
+     */
+    public void setRecompress(final boolean b) {
+        recompress = b;
+    }
+
+    /**
+     * Whether entries taken from other archives will be decompressed
+     * and compressed again.
+     *
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public boolean getRecompress() {
+        return recompress;
+    }
+
+    /**
+     * Whether an update should only append new and changed entries
+     * to the existing archive rather than rewrite it completely.
+     *
+     * <p>Only used if update is true.</p>
+     *
+     * @param b boolean
+     * @since Ant 1.10.18
+     */
+    public void setIncremental(final boolean b) {
+        incremental = b;
+    }
+
+    /**
+     * Whether an update will only append new and changed entries to
+     * the existing archive.
+     *
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public boolean getIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Percentage of the archive's entry data that may be occupied by
+     * replaced entries before an incremental update rewrites the
+     * whole archive instead of appending to it.
+     *
+     * @param threshold int between 0 and 100
+     * @since Ant 1.10.18
+     */
+    public void setCompactionThreshold(final int threshold) {
+        compactionThreshold = threshold;
+    }
+
+    /**
+     * Percentage of the archive's entry data that may be occupied by
+     * replaced entries before an incremental update rewrites the
+     * whole archive.
+     *
+     * @return int
+     * @since Ant 1.10.18
+     */
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Whether this task is able to update archives incrementally.
+     *
+     * <p>Subclasses that need entries at a certain position inside
+     * the archive must return false.</p>
+     *
+     * @return true
+     * @since Ant 1.10.18
+     */
+    protected boolean supportsIncrementalUpdate() {
+        return true;
+    }
+
+    /**
+     * Opens the existing archive for an incremental update.
+     *
+     * @return the existing archive or null if it must be rewritten
+     * completely.
+     */
+    private ZipFile openForIncrementalUpdate() {
+        if (!incremental || !supportsIncrementalUpdate() || !zipFile.isFile()) {
+            return null;
+        }
+        ZipFile existing = null;
+        try {
+            existing = new ZipFile(zipFile, encoding);
+            final long total = existing.getEntryDataSize();
+            final long unused = total - existing.getUsedEntryDataSize();
+            if (total > 0 && unused * 100 > total * compactionThreshold) {
+                log("Rewriting " + zipFile.getAbsolutePath() + " as "
+                    + (unused * 100 / total) + "% of it are unused",
+                    Project.MSG_VERBOSE);
+                ZipFile.closeQuietly(existing);
+                return null;
+            }
+            return existing;
+        } catch (final IOException ex) {
+            log("Can't update " + zipFile.getAbsolutePath()
+                + " incrementally: " + ex.getMessage(), Project.MSG_VERBOSE);
+            ZipFile.closeQuietly(existing);
+            return null;
+        }
+    }
+
+    private int getEffectiveCompressThreads() {
+        if (compressThreads > 0) {
+            return compressThreads;
+        }
+        final String threads =
+            getProject().getProperty(MagicNames.ZIP_COMPRESS_THREADS);
+        if (threads == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (final NumberFormatException ex) {
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.ZIP_COMPRESS_THREADS
+                                     + ": " + threads, ex);
+        }
+    }
+
     /**
      * Set all stored file modification times to {@code time}.
      * @param time Milliseconds since 1970-01-01 00:00, or
@@ -690,8 +881,12 @@ public class Zip extends MatchingTask {
             }
             final Resource[][] addThem = state.getResourcesToAdd();
 
+            ZipFile existing = null;
             if (doUpdate) {
-                renamedFile = renameFile();
+                existing = openForIncrementalUpdate();
+                if (existing == null) {
+                    renamedFile = renameFile();
+                }
             }
 
             final String action = doUpdate ? "Updating " : "Building ";
@@ -702,8 +897,17 @@ public class Zip extends MatchingTask {
 
             ZipOutputStream zOut = null;
             try {
+                if (existing != null) {
+                    for (final ZipEntry ze : Collections.list(existing.getEntries())) {
+                        if (ze.isDirectory()) {
+                            addedDirs.put(ze.getName(), ze.getName());
+                        }
+                    }
+                }
                 if (!skipWriting) {
-                    zOut = new ZipOutputStream(zipFile);
+                    zOut = existing != null
+                        ? new ZipOutputStream(zipFile, existing)
+                        : new ZipOutputStream(zipFile);
 
                     zOut.setEncoding(encoding);
                     zOut.setUseLanguageEncodingFlag(useLanguageEncodingFlag);
@@ -714,7 +918,9 @@ public class Zip extends MatchingTask {
                         ? ZipOutputStream.DEFLATED : ZipOutputStream.STORED);
                     zOut.setLevel(level);
                     zOut.setUseZip64(zip64Mode.getMode());
+                    zOut.setParallelism(getEffectiveCompressThreads());
                 }
+                ZipFile.closeQuietly(existing);
                 initZipOutputStream(zOut);
 
                 // Add the explicit resource collections to the archive.
@@ -724,7 +930,7 @@ public class Zip extends MatchingTask {
                     }
                 }
 
-                if (doUpdate) {
+                if (doUpdate && renamedFile != null) {
                     addingNewFiles = false;
                     final ZipFileSet oldFiles = new ZipFileSet();
                     oldFiles.setProject(getProject());
@@ -759,7 +965,7 @@ public class Zip extends MatchingTask {
 
                 // If we've been successful on an update, delete the
                 // temporary file
-                if (doUpdate) {
+                if (renamedFile != null) {
                     if (!renamedFile.delete()) {
                         log("Warning: unable to delete temporary file "
                             + renamedFile.getName(), Project.MSG_WARN);
@@ -809,12 +1015,40 @@ public class Zip extends MatchingTask {
         return renamedFile;
     }
 
+    /** Restore the archive zOut has been appending to */
+    private void restore(final ZipOutputStream zOut) {
+        try {
+            zOut.restore();
+        } catch (final IOException ex) {
+            log("Failed to restore " + zipFile.getAbsolutePath()
+                + ", the archive is probably corrupt: " + ex.getMessage(),
+                Project.MSG_ERR);
+        }
+    }
+
     /** Close zout */
     private void closeZout(final ZipOutputStream zOut, final boolean success)
         throws IOException {
         if (zOut == null) {
             return;
         }
+        if (zOut.isAppending()) {
+            // entries have been written over the central directory of
+            // the existing archive, it must be restored unless the new
+            // central directory has been written completely
+            if (success) {
+                try {
+                    zOut.finish();
+                } catch (final IOException ex) {
+                    restore(zOut);
+                    throw ex;
+                }
+                zOut.close();
+            } else {
+                restore(zOut);
+            }
+            return;
+        }
         try {
             zOut.close();
         } catch (final IOException ex) {
@@ -1073,7 +1307,7 @@ public class Zip extends MatchingTask {
                 if (keepCompression) {
                     doCompress = (ze.getMethod() == ZipEntry.DEFLATED);
                 }
-                try (final BufferedInputStream is = new BufferedInputStream(zf.getInputStream(ze))) {
+                try (final InputStream is = new ZipEntryInputStream(zf, ze)) {
                     zipFile(is, zOut, prefix + name, ze.getTime(),
                             fromArchive, mode, ze.getExtraFields(true));
                 } finally {
@@ -1694,7 +1928,9 @@ public class Zip extends MatchingTask {
             return;
         }
 
-        logWhenWriting("adding directory " + vPath, Project.MSG_VERBOSE);
+        if (getProject().isLoggingEnabled(Project.MSG_VERBOSE)) {
+            logWhenWriting("adding directory " + vPath, Project.MSG_VERBOSE);
+        }
         addedDirs.put(vPath, vPath);
 
         if (!skipWriting) {
@@ -1786,7 +2022,7 @@ public class Zip extends MatchingTask {
             // duplicate equal to add, so we continue
             logWhenWriting("duplicate file " + vPath
                            + " found, adding.", Project.MSG_VERBOSE);
-        } else {
+        } else if (getProject().isLoggingEnabled(Project.MSG_VERBOSE)) {
             logWhenWriting("adding entry " + vPath, Project.MSG_VERBOSE);
         }
 
@@ -1831,6 +2067,20 @@ public class Zip extends MatchingTask {
                 ze.setExtraFields(extra);
             }
 
+            if (in instanceof ZipEntryInputStream) {
+                final ZipEntryInputStream source = (ZipEntryInputStream) in;
+                if (!recompress && source.canCopyRaw(ze.getMethod())) {
+                    ze.setCrc(source.entry.getCrc());
+                    ze.setSize(source.entry.getSize());
+                    ze.setCompressedSize(source.entry.getCompressedSize());
+                    try (InputStream raw = source.zf.getRawInputStream(source.entry)) {
+                        zOut.addRawEntry(ze, raw);
+                    }
+                    addedFiles.add(vPath);
+                    return;
+                }
+            }
+
             zOut.putNextEntry(ze);
 
             final byte[] buffer = new byte[BUFFER_SIZE];
@@ -2233,4 +2483,68 @@ public class Zip extends MatchingTask {
         }
 
     }
- }
+
+    /**
+     * Stream reading the content of an entry of another archive.
+     *
+     * <p>Only decompresses the entry once somebody reads from it, if
+     * it is handed to {@link #zipFile(InputStream, ZipOutputStream,
+     * String, long, File, int) zipFile} untouched the compressed data
+     * can be copied instead.</p>
+     */
+    private static final class ZipEntryInputStream extends InputStream {
+        private final ZipFile zf;
+        private final ZipEntry entry;
+        private InputStream delegate;
+
+        private ZipEntryInputStream(final ZipFile zf, final ZipEntry entry) {
+            this.zf = zf;
+            this.entry = entry;
+        }
+
+        /**
+         * Whether the compressed data of the entry can be copied to
+         * an entry using the given method.
+         */
+        private boolean canCopyRaw(final int method) {
+            return delegate == null && entry.getMethod() == method
+                && zf.canReadEntryData(entry)
+                && entry.getCrc() != -1 && entry.getSize() != -1
+                && entry.getCompressedSize() != -1;
+        }
+
+        private InputStream getDelegate() throws IOException {
+            if (delegate == null) {
+                delegate = new BufferedInputStream(zf.getInputStream(entry));
+            }
+            return delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return getDelegate().read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            return getDelegate().read(b, off, len);
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            return getDelegate().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return getDelegate().available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+    }
+}
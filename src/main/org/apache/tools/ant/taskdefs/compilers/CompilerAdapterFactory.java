@@ -59,9 +59,13 @@ public final class CompilerAdapterFactory {
     public static final String COMPILER_CLASSIC = "classic";
     public static final String COMPILER_MODERN = "modern";
     public static final String COMPILER_EXTJAVAC = "extJavac";
+    /** @since Ant 1.10.18 */
+    public static final String COMPILER_JAVAX_TOOLS = "javaxtools";
 
     public static final String COMPILER_MODERN_CLASSNAME = Javac13.class.getName();
     public static final String COMPILER_EXTJAVAC_CLASSNAME = JavacExternal.class.getName();
+    /** @since Ant 1.10.18 */
+    public static final String COMPILER_JAVAX_TOOLS_CLASSNAME = JavaxToolsJavac.class.getName();
 
     private static final List<String> JDK_COMPILERS = Arrays.asList(
         COMPILER_JAVAC_1_1,
@@ -78,8 +82,10 @@ public final class CompilerAdapterFactory {
         COMPILER_CLASSIC,
         COMPILER_MODERN,
         COMPILER_EXTJAVAC,
+        COMPILER_JAVAX_TOOLS,
         COMPILER_MODERN_CLASSNAME,
-        COMPILER_EXTJAVAC_CLASSNAME
+        COMPILER_EXTJAVAC_CLASSNAME,
+        COMPILER_JAVAX_TOOLS_CLASSNAME
     );
 
     private static final List<String> FORKED_JDK_COMPILERS = Arrays.asList(
@@ -91,8 +97,15 @@ public final class CompilerAdapterFactory {
         COMPILER_CLASSIC,
         COMPILER_MODERN,
         COMPILER_EXTJAVAC,
+        COMPILER_JAVAX_TOOLS,
         COMPILER_MODERN_CLASSNAME,
-        COMPILER_EXTJAVAC_CLASSNAME
+        COMPILER_EXTJAVAC_CLASSNAME,
+        COMPILER_JAVAX_TOOLS_CLASSNAME
+    );
+
+    private static final List<String> JAVAX_TOOLS_COMPILERS = Arrays.asList(
+        COMPILER_JAVAX_TOOLS,
+        COMPILER_JAVAX_TOOLS_CLASSNAME
     );
 
     private static final List<String> CLASSIC_JDK_COMPILERS = Arrays.asList(
@@ -126,6 +139,8 @@ public final class CompilerAdapterFactory {
      * <li>classic, javac1.1, javac1.2 = the standard compiler from JDK
      * 1.1/1.2
      * <li>modern, javac1.3, javac1.4, javac1.5 = the compiler of JDK 1.3+
+     * <li>javaxtools = the compiler of the running JDK via the
+     * javax.tools API</li>
      * <li>jvc, microsoft = the command line compiler from Microsoft's SDK
      * for Java / Visual J++
      * <li>kjc = the kopi compiler</li>
@@ -156,6 +171,8 @@ public final class CompilerAdapterFactory {
      * <li>classic, javac1.1, javac1.2 = the standard compiler from JDK
      * 1.1/1.2
      * <li>modern, javac1.3, javac1.4, javac1.5 = the compiler of JDK 1.3+
+     * <li>javaxtools = the compiler of the running JDK via the
+     * javax.tools API</li>
      * <li>jvc, microsoft = the command line compiler from Microsoft's SDK
      * for Java / Visual J++
      * <li>kjc = the kopi compiler</li>
@@ -201,6 +218,10 @@ public final class CompilerAdapterFactory {
                 MODERN_COMPILER, JavaEnvUtils.getJavaHome());
         }
 
+        if (isJavaxToolsCompiler(compilerType)) {
+            return new JavaxToolsJavac();
+        }
+
         if (COMPILER_JVC.equalsIgnoreCase(compilerType)
             || COMPILER_JVC_ALIAS.equalsIgnoreCase(compilerType)) {
             return new Jvc();
@@ -310,6 +331,17 @@ public final class CompilerAdapterFactory {
         return containsIgnoreCase(MODERN_JDK_COMPILERS, compilerName);
     }
 
+    /**
+     * Does the compiler correspond to "javaxtools"?
+     *
+     * @param compilerName the name of the compiler implementation
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public static boolean isJavaxToolsCompiler(final String compilerName) {
+        return containsIgnoreCase(JAVAX_TOOLS_COMPILERS, compilerName);
+    }
+
     private static boolean containsIgnoreCase(final List<String> compilers, final String compilerName) {
         return compilerName != null && compilers.stream().anyMatch(compilerName::equalsIgnoreCase);
     }
@@ -0,0 +1,233 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs.compilers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Commandline;
+import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.JavaEnvUtils;
+
+/**
+ * The implementation of the javac compiler that uses the
+ * <code>javax.tools</code> API of the running JDK.
+ *
+ * <p>Unlike {@link Javac13} this adapter keeps the file managers it
+ * has used alive for the lifetime of the JVM, so archives on the
+ * classpath only have to be opened and indexed once for all
+ * <code>&lt;javac&gt;</code> tasks that use them rather than once per
+ * task.</p>
+ *
+ * <p>A file manager is discarded if any of the archives it has seen
+ * has been modified since it has been used last.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class JavaxToolsJavac extends DefaultCompilerAdapter {
+
+    /** Number of unused file managers to keep. */
+    private static final int MAX_IDLE_FILE_MANAGERS = 4;
+
+    /** The compiler, file managers are only reusable with the same instance. */
+    private static final JavaCompiler COMPILER = ToolProvider.getSystemJavaCompiler();
+
+    /** Unused file managers, least recently used first. */
+    private static final Deque<PooledFileManager> IDLE = new ArrayDeque<>();
+
+    /**
+     * Run the compilation.
+     * @return true if the compilation succeeded
+     * @exception BuildException if the compilation has problems.
+     */
+    @Override
+    public boolean execute() throws BuildException {
+        attributes.log("Using javax.tools compiler", Project.MSG_VERBOSE);
+        if (COMPILER == null) {
+            throw new BuildException(
+                "Unable to find a javac compiler;\nthe running Java VM doesn't provide one.\nPerhaps JAVA_HOME does not point to the JDK.\nIt is currently set to \"%s\"",
+                JavaEnvUtils.getJavaHome());
+        }
+
+        final Commandline cmd = new Commandline();
+        setupModernJavacCommandlineSwitches(cmd);
+        final int firstFile = cmd.getArguments().length;
+        logAndAddFilesToCompile(cmd);
+        final String[] args = cmd.getArguments();
+        final List<String> options = Arrays.asList(args).subList(0, firstFile);
+
+        final PooledFileManager fm = acquire(getKey(options));
+        boolean reusable = true;
+        try {
+            final JavaCompiler.CompilationTask task =
+                COMPILER.getTask(null, fm.fileManager, null, options, null,
+                                 fm.fileManager.getJavaFileObjects(compileList));
+            return task.call();
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            reusable = false;
+            throw new BuildException("Error starting javax.tools compiler",
+                                     ex, location);
+        } catch (RuntimeException ex) {
+            // may be thrown by annotation processors or the compiler
+            // itself and leave the file manager in an unknown state
+            reusable = false;
+            throw new BuildException("Error running javax.tools compiler",
+                                     ex, location);
+        } finally {
+            release(fm, reusable);
+        }
+    }
+
+    /**
+     * File managers keep the locations and settings of the options
+     * they have been used with, there is no reliable way to reset
+     * them. Therefore a file manager is only reused for compilations
+     * that use the same options - and thus override all settings of
+     * the previous compilation. Only the values of paths may differ.
+     */
+    private String getKey(final List<String> options) {
+        return options.stream().filter(o -> o.startsWith("-"))
+            .collect(Collectors.joining(" ", "encoding=" + encoding + " ", ""));
+    }
+
+    /**
+     * Obtains a file manager for the given key, reusing an idle one if
+     * possible.
+     */
+    private static PooledFileManager acquire(final String key) {
+        synchronized (IDLE) {
+            final Iterator<PooledFileManager> iter = IDLE.descendingIterator();
+            while (iter.hasNext()) {
+                final PooledFileManager fm = iter.next();
+                if (fm.key.equals(key)) {
+                    iter.remove();
+                    if (fm.isUpToDate()) {
+                        return fm;
+                    }
+                    fm.close();
+                }
+            }
+        }
+        // the encoding is passed as an option to each compilation
+        return new PooledFileManager(key,
+            COMPILER.getStandardFileManager(null, null, null));
+    }
+
+    /**
+     * Flushes the file manager and keeps it for later use, or closes
+     * it if it cannot be reused.
+     */
+    private static void release(final PooledFileManager fm, final boolean reusable) {
+        if (!reusable || !fm.reset()) {
+            fm.close();
+            return;
+        }
+        synchronized (IDLE) {
+            IDLE.addLast(fm);
+            while (IDLE.size() > MAX_IDLE_FILE_MANAGERS) {
+                IDLE.removeFirst().close();
+            }
+        }
+    }
+
+    /**
+     * A file manager together with the archives it has seen.
+     */
+    private static final class PooledFileManager {
+        private final String key;
+        private final StandardJavaFileManager fileManager;
+        /** last modification time and length of all archives seen */
+        private final Map<File, long[]> archives = new HashMap<>();
+
+        PooledFileManager(final String key,
+                          final StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        /**
+         * Whether none of the archives seen so far has changed.
+         */
+        boolean isUpToDate() {
+            return archives.entrySet().stream()
+                .allMatch(e -> Arrays.equals(e.getValue(), stamp(e.getKey())));
+        }
+
+        /**
+         * Records the archives of the last compilation and flushes the
+         * file manager.
+         * @return false if the file manager cannot be reused
+         */
+        boolean reset() {
+            try {
+                for (final StandardLocation l : StandardLocation.values()) {
+                    if (l.isOutputLocation()) {
+                        continue;
+                    }
+                    final Iterable<? extends File> files = getLocation(l);
+                    if (files != null) {
+                        for (final File f : files) {
+                            if (f.isFile()) {
+                                archives.putIfAbsent(f, stamp(f));
+                            }
+                        }
+                    }
+                }
+                fileManager.flush();
+                return true;
+            } catch (IOException | RuntimeException ex) {
+                return false;
+            }
+        }
+
+        private Iterable<? extends File> getLocation(final JavaFileManager.Location l) {
+            try {
+                return fileManager.getLocation(l);
+            } catch (IllegalArgumentException | IllegalStateException
+                     | UnsupportedOperationException ex) {
+                // module oriented location
+                return null;
+            }
+        }
+
+        void close() {
+            FileUtils.close(fileManager);
+        }
+
+        private static long[] stamp(final File f) {
+            return new long[] {f.lastModified(), f.length()};
+        }
+    }
+}
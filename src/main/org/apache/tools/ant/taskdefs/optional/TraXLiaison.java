@@ -24,6 +24,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.net.URL;
 import java.nio.file.Files;
@@ -32,7 +34,9 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
@@ -51,7 +55,7 @@ import javax.xml.transform.stream.StreamSource;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
-import org.apache.tools.ant.taskdefs.XSLTLiaison4;
+import org.apache.tools.ant.taskdefs.XSLTLiaison5;
 import org.apache.tools.ant.taskdefs.XSLTLogger;
 import org.apache.tools.ant.taskdefs.XSLTLoggerAware;
 import org.apache.tools.ant.taskdefs.XSLTProcess;
@@ -74,7 +78,7 @@ import org.xml.sax.XMLReader;
  *
  * @since Ant 1.3
  */
-public class TraXLiaison implements XSLTLiaison4, ErrorListener, XSLTLoggerAware {
+public class TraXLiaison implements XSLTLiaison5, ErrorListener, XSLTLoggerAware {
 
     /**
      * Helper for transforming filenames to URIs.
@@ -83,6 +87,16 @@ public class TraXLiaison implements XSLTLiaison4, ErrorListener, XSLTLoggerAware
      */
     private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
 
+    /**
+     * Compiled stylesheets shared by all liaisons that have been
+     * asked to cache them, keyed by stylesheet URI, factory
+     * configuration and resolvers.
+     *
+     * @since Ant 1.10.18
+     */
+    private static final Map<TemplatesKey, CachedTemplates> TEMPLATES_CACHE =
+        new ConcurrentHashMap<>();
+
     /**
      * The current <code>Project</code>
      */
@@ -138,6 +152,9 @@ public class TraXLiaison implements XSLTLiaison4, ErrorListener, XSLTLoggerAware
     /** optional trace configuration. */
     private XSLTProcess.TraceConfiguration traceConfiguration = null;
 
+    /** whether to use the JVM wide cache of compiled stylesheets */
+    private boolean cacheTemplates = false;
+
     /**
      * Constructor for TraXLiaison.
      * @throws Exception never
@@ -291,12 +308,108 @@ public class TraXLiaison implements XSLTLiaison4, ErrorListener, XSLTLoggerAware
         // and avoid keeping the handle until the object is garbaged.
         // (always keep control), otherwise you won't be able to delete
         // the file quickly on windows.
+        final TemplatesKey cacheKey = getTemplatesCacheKey();
+        if (cacheKey != null) {
+            final CachedTemplates cached = TEMPLATES_CACHE.get(cacheKey);
+            final long lastModified = stylesheet.getLastModified();
+            if (cached != null && cached.lastModified == lastModified) {
+                final Templates t = cached.templates.get();
+                if (t != null) {
+                    templatesModTime = lastModified;
+                    templates = t;
+                    return;
+                }
+                TEMPLATES_CACHE.remove(cacheKey, cached);
+            }
+        }
         try (InputStream xslStream =
              new BufferedInputStream(stylesheet.getInputStream())) {
             templatesModTime = stylesheet.getLastModified();
             final Source src = getSource(xslStream, stylesheet);
             templates = getFactory().newTemplates(src);
         }
+        if (cacheKey != null) {
+            // forget stylesheets that are no longer needed
+            TEMPLATES_CACHE.entrySet().removeIf(e -> e.getKey().isCleared()
+                || e.getValue().templates.get() == null);
+            TEMPLATES_CACHE.put(cacheKey, new CachedTemplates(templatesModTime, templates));
+        }
+    }
+
+    /**
+     * The key of the stylesheet inside the templates cache.
+     * @return null if the templates are not to be cached
+     */
+    private TemplatesKey getTemplatesCacheKey() {
+        if (!cacheTemplates
+            || stylesheet.getLastModified() == Resource.UNKNOWN_DATETIME) {
+            return null;
+        }
+        final List<Object> identities = new ArrayList<>();
+        identities.add(getFactory().getClass());
+        final StringBuilder key = new StringBuilder(resourceToURI(stylesheet));
+        for (final Object[] pair : attributes) {
+            key.append('|').append(pair[0]).append('=').append(pair[1]);
+        }
+        new TreeMap<>(features)
+            .forEach((name, value) -> key.append('|').append(name).append('=').append(value));
+        appendResolverKey(key, identities, "uriResolver", uriResolver);
+        appendResolverKey(key, identities, "entityResolver", entityResolver);
+        return new TemplatesKey(key.toString(), identities);
+    }
+
+    /**
+     * Stylesheets read with different resolvers may differ, so the
+     * resolver becomes part of the key - an empty XMLCatalog like the
+     * one every &lt;xslt&gt; task uses by default only depends on the
+     * project's base directory.
+     */
+    private static void appendResolverKey(final StringBuilder key, final List<Object> identities,
+                                          final String role, final Object resolver) {
+        if (resolver == null) {
+            return;
+        }
+        key.append('|').append(role).append('=');
+        if (resolver instanceof XMLCatalog && ((XMLCatalog) resolver).isEmpty()
+            && ((XMLCatalog) resolver).getProject() != null) {
+            key.append("xmlcatalog:")
+                .append(((XMLCatalog) resolver).getProject().getBaseDir());
+        } else {
+            key.append(identities.size());
+            identities.add(resolver);
+        }
+    }
+
+    /**
+     * Creates a liaison that shares the compiled stylesheet with this
+     * one but uses a transformer of its own.
+     * @return a new liaison
+     * @throws Exception if the stylesheet cannot be read
+     * @since Ant 1.10.18
+     */
+    @Override
+    public XSLTLiaison5 createConcurrentLiaison() throws Exception {
+        if (templates == null) {
+            readTemplates();
+        }
+        final TraXLiaison l = new TraXLiaison();
+        l.project = project;
+        l.factoryName = factoryName;
+        l.tfactory = getFactory();
+        l.stylesheet = stylesheet;
+        l.logger = logger;
+        l.entityResolver = entityResolver;
+        l.templates = templates;
+        l.templatesModTime = templatesModTime;
+        l.uriResolver = uriResolver;
+        l.outputProperties.addAll(outputProperties);
+        l.params.putAll(params);
+        l.attributes.addAll(attributes);
+        l.features.putAll(features);
+        l.suppressWarnings = suppressWarnings;
+        l.traceConfiguration = traceConfiguration;
+        l.cacheTemplates = cacheTemplates;
+        return l;
     }
 
     /**
@@ -630,6 +743,8 @@ public class TraXLiaison implements XSLTLiaison4, ErrorListener, XSLTLoggerAware
         suppressWarnings = xsltTask.getSuppressWarnings();
 
         traceConfiguration = xsltTask.getTraceConfiguration();
+
+        cacheTemplates = xsltTask.getCacheTemplates();
     }
 
     private void applyReflectionHackForExtensionMethods() {
@@ -647,4 +762,68 @@ public class TraXLiaison implements XSLTLiaison4, ErrorListener, XSLTLoggerAware
         }
     }
 
+    /**
+     * Key of the templates cache, the factory class and resolvers are
+     * compared by identity and only weakly referenced.
+     */
+    private static final class TemplatesKey {
+        private final String key;
+        private final List<WeakReference<Object>> identities = new ArrayList<>();
+        private final int hash;
+
+        TemplatesKey(final String key, final List<Object> identities) {
+            this.key = key;
+            int h = key.hashCode();
+            for (final Object o : identities) {
+                this.identities.add(new WeakReference<>(o));
+                h = 31 * h + System.identityHashCode(o);
+            }
+            hash = h;
+        }
+
+        /**
+         * @return true if one of the objects has been garbage collected
+         */
+        boolean isCleared() {
+            return identities.stream().anyMatch(r -> r.get() == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof TemplatesKey)) {
+                return false;
+            }
+            final TemplatesKey k = (TemplatesKey) other;
+            if (hash != k.hash || !key.equals(k.key)
+                || identities.size() != k.identities.size()) {
+                return false;
+            }
+            for (int i = 0; i < identities.size(); i++) {
+                final Object o = identities.get(i).get();
+                if (o == null || o != k.identities.get(i).get()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class CachedTemplates {
+        private final long lastModified;
+        private final SoftReference<Templates> templates;
+
+        CachedTemplates(final long lastModified, final Templates templates) {
+            this.lastModified = lastModified;
+            this.templates = new SoftReference<>(templates);
+        }
+    }
+
 }
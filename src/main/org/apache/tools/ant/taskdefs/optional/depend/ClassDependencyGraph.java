@@ -0,0 +1,444 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs.optional.depend;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.util.FileUtils;
+
+/**
+ * Persistent graph of the dependencies between the classes of a
+ * class file directory.
+ *
+ * <p>For every class the graph stores the classes it references, its
+ * direct super types, the source file it has been compiled from and
+ * hashes of its API and its compile time constants. The graph is
+ * kept up to date by {@link #update re-reading} all class files whose
+ * modification time or size has changed.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class ClassDependencyGraph {
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private static final int MAGIC = 0x414e5444; // "ANTD"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String[] NO_STRINGS = new String[0];
+
+    private final Map<String, Node> nodes = new HashMap<>();
+
+    /** classes referencing a class, built on demand */
+    private Map<String, Set<String>> dependents;
+    /** direct sub types of a class, built on demand */
+    private Map<String, Set<String>> subTypes;
+
+    /**
+     * Reads a graph from the given file.
+     * @param file the file, may not exist.
+     * @return the graph stored in the file or an empty graph if the
+     * file doesn't exist or cannot be read.
+     */
+    public static ClassDependencyGraph load(File file) {
+        ClassDependencyGraph graph = new ClassDependencyGraph();
+        if (!file.isFile()) {
+            return graph;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return graph;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final String name = in.readUTF();
+                final String source = in.readBoolean() ? in.readUTF() : null;
+                final long lastModified = in.readLong();
+                final long length = in.readLong();
+                final long apiHash = in.readLong();
+                final long constantsHash = in.readLong();
+                final String[] superTypes = readStrings(in);
+                final String[] refs = readStrings(in);
+                graph.nodes.put(name, new Node(source, lastModified, length, apiHash,
+                                               constantsHash, superTypes, refs));
+            }
+        } catch (IOException ex) {
+            // a broken graph is as good as no graph
+            graph.nodes.clear();
+        }
+        return graph;
+    }
+
+    /**
+     * Writes the graph to the given file.
+     * @param file the file
+     * @throws IOException on error
+     */
+    public void save(File file) throws IOException {
+        final File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        final File tmp = FILE_UTILS.createTempFile(null, "deps", ".tmp", dir,
+                                                   true, false);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(nodes.size());
+            for (Map.Entry<String, Node> e : nodes.entrySet()) {
+                final Node n = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeBoolean(n.source != null);
+                if (n.source != null) {
+                    out.writeUTF(n.source);
+                }
+                out.writeLong(n.lastModified);
+                out.writeLong(n.length);
+                out.writeLong(n.apiHash);
+                out.writeLong(n.constantsHash);
+                writeStrings(out, n.superTypes);
+                writeStrings(out, n.refs);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Whether the graph doesn't contain any classes.
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Brings the graph in line with the class files found in the given
+     * directory.
+     *
+     * <p>Class files whose modification time or size differ from the
+     * ones recorded are read again, classes whose class files have
+     * vanished are removed from the graph.</p>
+     *
+     * @param classDir the directory holding the class files
+     * @param isSource tells whether a source file - given as path
+     * relative to a source root using forward slashes - is known. The
+     * source of a class is only recorded if it is known.
+     * @return the classes that have been added or removed and the
+     * classes whose API has changed.
+     * @throws IOException if a class file cannot be read
+     */
+    public Changes update(File classDir, Predicate<String> isSource) throws IOException {
+        final DirectoryScanner ds = new DirectoryScanner();
+        ds.setBasedir(classDir);
+        ds.setIncludes(new String[] {"**/*" + CLASS_SUFFIX});
+        ds.scan();
+        final Changes changes = new Changes();
+        final Set<String> seen = new HashSet<>();
+        for (String path : ds.getIncludedFiles()) {
+            final String name = path.substring(0, path.length() - CLASS_SUFFIX.length())
+                .replace(File.separatorChar, '.');
+            if (name.endsWith("module-info")) {
+                continue;
+            }
+            seen.add(name);
+            final File classFile = new File(classDir, path);
+            final Node old = nodes.get(name);
+            if (old != null && old.lastModified == classFile.lastModified()
+                && old.length == classFile.length()) {
+                continue;
+            }
+            final Node node = read(classFile, isSource);
+            nodes.put(name, node);
+            if (old == null || old.apiHash != node.apiHash) {
+                changes.changedClasses.add(name);
+            }
+            // constants of new classes cannot have been inlined
+            // anywhere so far
+            if (old != null && old.constantsHash != node.constantsHash) {
+                changes.constantsChanged = true;
+            }
+        }
+        for (final String name : new ArrayList<>(nodes.keySet())) {
+            if (!seen.contains(name)) {
+                final Node old = nodes.remove(name);
+                changes.changedClasses.add(name);
+                changes.constantsChanged |= old.constantsHash != 0;
+            }
+        }
+        if (!changes.changedClasses.isEmpty()) {
+            dependents = null;
+            subTypes = null;
+        }
+        return changes;
+    }
+
+    /**
+     * The classes recorded as compiled from the given source file.
+     * @param source path relative to a source root using forward
+     * slashes
+     * @return set of class names
+     */
+    public Set<String> getClasses(String source) {
+        final Set<String> result = new HashSet<>();
+        nodes.forEach((name, node) -> {
+            if (source.equals(node.source)) {
+                result.add(name);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * All source files recorded.
+     * @return set of paths relative to a source root using forward
+     * slashes
+     */
+    public Set<String> getSources() {
+        final Set<String> result = new HashSet<>();
+        nodes.values().forEach(n -> {
+            if (n.source != null) {
+                result.add(n.source);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The source file a class has been compiled from.
+     * @param className the name of the class in dot format
+     * @return path relative to a source root using forward slashes or
+     * null if unknown
+     */
+    public String getSource(String className) {
+        final Node n = nodes.get(className);
+        return n == null ? null : n.source;
+    }
+
+    /**
+     * Determines the classes that may no longer compile or may need to
+     * be compiled differently now that the API of the given classes has
+     * changed.
+     *
+     * <p>These are the classes directly referencing any of the given
+     * classes or any of their direct or indirect sub types, as
+     * members may have been inherited from the changed classes.</p>
+     *
+     * @param changedClasses names of the changed classes in dot format
+     * @return the names of the affected classes
+     */
+    public Set<String> getAffectedClasses(Collection<String> changedClasses) {
+        final Set<String> changed = new LinkedHashSet<>(changedClasses);
+        final Deque<String> todo = new ArrayDeque<>(changedClasses);
+        final Map<String, Set<String>> subs = getSubTypes();
+        while (!todo.isEmpty()) {
+            for (String sub : subs.getOrDefault(todo.poll(), Collections.emptySet())) {
+                if (changed.add(sub)) {
+                    todo.add(sub);
+                }
+            }
+        }
+        final Map<String, Set<String>> deps = getDependents();
+        final Set<String> result = new HashSet<>();
+        for (String name : changed) {
+            result.addAll(deps.getOrDefault(name, Collections.emptySet()));
+        }
+        return result;
+    }
+
+    private Map<String, Set<String>> getDependents() {
+        if (dependents == null) {
+            dependents = invert(false);
+        }
+        return dependents;
+    }
+
+    private Map<String, Set<String>> getSubTypes() {
+        if (subTypes == null) {
+            subTypes = invert(true);
+        }
+        return subTypes;
+    }
+
+    private Map<String, Set<String>> invert(boolean superTypes) {
+        final Map<String, Set<String>> result = new HashMap<>();
+        nodes.forEach((name, node) -> {
+            for (String target : superTypes ? node.superTypes : node.refs) {
+                result.computeIfAbsent(target, k -> new HashSet<>()).add(name);
+            }
+        });
+        return result;
+    }
+
+    private static Node read(File classFile, Predicate<String> isSource)
+        throws IOException {
+        final long lastModified = classFile.lastModified();
+        final long length = classFile.length();
+        final ClassFile info = new ClassFile();
+        try (InputStream in = new BufferedInputStream(
+                Files.newInputStream(classFile.toPath()))) {
+            info.read(in);
+        } catch (ClassFormatError | RuntimeException ex) {
+            throw new IOException("Failed to read " + classFile + ": " + ex, ex);
+        }
+        final String source = sourceOf(info);
+        final List<String> superTypes = new ArrayList<>(info.getInterfaceNames());
+        if (info.getSuperClassName() != null) {
+            superTypes.add(info.getSuperClassName());
+        }
+        return new Node(isSource.test(source) ? source : null, lastModified, length,
+                        hash(info.getApiMembers()), hash(info.getConstants()),
+                        superTypes.toArray(NO_STRINGS),
+                        info.getTypeRefs().toArray(NO_STRINGS));
+    }
+
+    private static String sourceOf(ClassFile info) {
+        final String name = info.getFullClassName();
+        final int lastDot = name.lastIndexOf('.');
+        final String dir = lastDot < 0 ? "" : name.substring(0, lastDot + 1).replace('.', '/');
+        String file = info.getSourceFile();
+        if (file == null) {
+            // compiled without debug information, guess
+            file = name.substring(lastDot + 1);
+            final int dollar = file.indexOf('$');
+            if (dollar > 0) {
+                file = file.substring(0, dollar);
+            }
+            file += ".java";
+        }
+        return dir + file;
+    }
+
+    private static long hash(List<String> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        try {
+            final MessageDigest md = MessageDigest.getInstance("MD5");
+            for (String v : values) {
+                md.update(v.getBytes(StandardCharsets.UTF_8));
+                md.update((byte) '\n');
+            }
+            final byte[] digest = md.digest();
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result = (result << 8) | (digest[i] & 0xff);
+            }
+            return result == 0 ? 1 : result;
+        } catch (NoSuchAlgorithmException ex) {
+            // every JVM must support MD5
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        final String[] result = new String[in.readInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = in.readUTF();
+        }
+        return result;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] strings)
+        throws IOException {
+        out.writeInt(strings.length);
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+    }
+
+    /**
+     * The result of an {@link ClassDependencyGraph#update update}.
+     */
+    public static final class Changes {
+        private final Set<String> changedClasses = new HashSet<>();
+        private boolean constantsChanged = false;
+
+        /**
+         * The classes that have been added or removed or whose API has
+         * changed.
+         * @return set of class names in dot format
+         */
+        public Set<String> getChangedClasses() {
+            return changedClasses;
+        }
+
+        /**
+         * Whether any non-private compile time constant has been
+         * added, removed or changed.
+         *
+         * <p>As constants get inlined by the compiler the classes
+         * using them cannot be determined.</p>
+         *
+         * @return boolean
+         */
+        public boolean haveConstantsChanged() {
+            return constantsChanged;
+        }
+    }
+
+    /**
+     * Everything known about a single class.
+     */
+    private static final class Node {
+        private final String source;
+        private final long lastModified;
+        private final long length;
+        private final long apiHash;
+        private final long constantsHash;
+        private final String[] superTypes;
+        private final String[] refs;
+
+        Node(String source, long lastModified, long length, long apiHash,
+             long constantsHash, String[] superTypes, String[] refs) {
+            this.source = source;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.apiHash = apiHash;
+            this.constantsHash = constantsHash;
+            this.superTypes = superTypes;
+            this.refs = refs;
+        }
+    }
+}
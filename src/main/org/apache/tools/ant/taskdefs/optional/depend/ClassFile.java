@@ -20,11 +20,19 @@ package org.apache.tools.ant.taskdefs.optional.depend;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 
 import org.apache.tools.ant.taskdefs.optional.depend.constantpool.ClassCPInfo;
+import org.apache.tools.ant.taskdefs.optional.depend.constantpool.ConstantCPInfo;
 import org.apache.tools.ant.taskdefs.optional.depend.constantpool.ConstantPool;
 import org.apache.tools.ant.taskdefs.optional.depend.constantpool.ConstantPoolEntry;
+import org.apache.tools.ant.taskdefs.optional.depend.constantpool.NameAndTypeCPInfo;
+import org.apache.tools.ant.taskdefs.optional.depend.constantpool.Utf8CPInfo;
 
 /**
  * A ClassFile object stores information about a Java class. The class may
@@ -38,12 +46,33 @@ public class ClassFile {
     /** The Magic Value that marks the start of a Java class file  */
     private static final int CLASS_MAGIC = 0xCAFEBABE;
 
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_SUPER = 0x0020;
+
     /** This class' constant pool.  */
     private ConstantPool constantPool;
 
     /** The class name for this class.  */
     private String className;
 
+    /** The super class name in slash format, null for java.lang.Object. */
+    private String superClassName;
+
+    /** The names of the implemented interfaces in slash format. */
+    private final List<String> interfaceNames = new ArrayList<>();
+
+    /** The value of the SourceFile attribute. */
+    private String sourceFile;
+
+    /** Descriptors of fields and methods declared by this class. */
+    private final List<String> memberDescriptors = new ArrayList<>();
+
+    /** The non-private parts of this class that others may depend on. */
+    private final List<String> apiMembers = new ArrayList<>();
+
+    /** Non-private compile time constants declared by this class. */
+    private final List<String> constants = new ArrayList<>();
+
     /**
      * Read the class from a data stream. This method takes an InputStream
      * as input and parses the class from the stream. <p>
@@ -73,12 +102,89 @@ public class ClassFile {
         constantPool.read(classStream);
         constantPool.resolve();
 
-        /* int accessFlags = */ classStream.readUnsignedShort();
+        int accessFlags = classStream.readUnsignedShort();
         int thisClassIndex = classStream.readUnsignedShort();
-        /* int superClassIndex = */ classStream.readUnsignedShort();
+        int superClassIndex = classStream.readUnsignedShort();
         ClassCPInfo classInfo
             = (ClassCPInfo) constantPool.getEntry(thisClassIndex);
         className  = classInfo.getClassName();
+        if (superClassIndex != 0) {
+            superClassName = ((ClassCPInfo) constantPool.getEntry(superClassIndex))
+                .getClassName();
+        }
+        int interfacesCount = classStream.readUnsignedShort();
+        for (int i = 0; i < interfacesCount; i++) {
+            interfaceNames.add(((ClassCPInfo) constantPool
+                .getEntry(classStream.readUnsignedShort())).getClassName());
+        }
+        apiMembers.add("class " + (accessFlags & ~ACC_SUPER) + " " + superClassName
+                       + " " + interfaceNames);
+
+        readMembers(classStream, "field ");
+        readMembers(classStream, "method ");
+
+        int attributesCount = classStream.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            String name = getUtf8(classStream.readUnsignedShort());
+            int length = classStream.readInt();
+            if ("SourceFile".equals(name)) {
+                sourceFile = getUtf8(classStream.readUnsignedShort());
+            } else if ("Signature".equals(name)) {
+                apiMembers.add("signature " + getUtf8(classStream.readUnsignedShort()));
+            } else {
+                classStream.skipBytes(length);
+            }
+        }
+        Collections.sort(apiMembers);
+        Collections.sort(constants);
+    }
+
+    /**
+     * Reads the fields or methods of the class.
+     */
+    private void readMembers(DataInputStream classStream, String kind)
+        throws IOException {
+        int count = classStream.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            int accessFlags = classStream.readUnsignedShort();
+            String name = getUtf8(classStream.readUnsignedShort());
+            String descriptor = getUtf8(classStream.readUnsignedShort());
+            memberDescriptors.add(descriptor);
+            StringBuilder member = new StringBuilder(kind).append(accessFlags)
+                .append(' ').append(name).append(' ').append(descriptor);
+            int attributesCount = classStream.readUnsignedShort();
+            for (int j = 0; j < attributesCount; j++) {
+                String attribute = getUtf8(classStream.readUnsignedShort());
+                int length = classStream.readInt();
+                if ("ConstantValue".equals(attribute)) {
+                    Object value = ((ConstantCPInfo) constantPool
+                        .getEntry(classStream.readUnsignedShort())).getValue();
+                    member.append(" = ").append(value);
+                    if ((accessFlags & ACC_PRIVATE) == 0) {
+                        constants.add(name + " = " + value);
+                    }
+                } else if ("Signature".equals(attribute)) {
+                    member.append(" signature ")
+                        .append(getUtf8(classStream.readUnsignedShort()));
+                } else if ("Exceptions".equals(attribute)) {
+                    int exceptions = classStream.readUnsignedShort();
+                    member.append(" throws");
+                    for (int k = 0; k < exceptions; k++) {
+                        member.append(' ').append(((ClassCPInfo) constantPool
+                            .getEntry(classStream.readUnsignedShort())).getClassName());
+                    }
+                } else {
+                    classStream.skipBytes(length);
+                }
+            }
+            if ((accessFlags & ACC_PRIVATE) == 0) {
+                apiMembers.add(member.toString());
+            }
+        }
+    }
+
+    private String getUtf8(int index) {
+        return ((Utf8CPInfo) constantPool.getEntry(index)).getValue();
     }
 
     /**
@@ -108,6 +214,118 @@ public class ClassFile {
         return classRefs;
     }
 
+    /**
+     * Get the classes which this class references, including the
+     * types only used in the descriptors of fields and methods.
+     *
+     * @return a set of class names in dot format
+     * @since Ant 1.10.18
+     */
+    public Set<String> getTypeRefs() {
+        Set<String> refs = new LinkedHashSet<>();
+        final int size = constantPool.size();
+        for (int i = 0; i < size; ++i) {
+            ConstantPoolEntry entry = constantPool.getEntry(i);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.getTag() == ConstantPoolEntry.CONSTANT_CLASS) {
+                String name = ((ClassCPInfo) entry).getClassName();
+                if (name.startsWith("[")) {
+                    addDescriptorTypes(name, refs);
+                } else {
+                    refs.add(ClassFileUtils.convertSlashName(name));
+                }
+            } else if (entry.getTag() == ConstantPoolEntry.CONSTANT_NAMEANDTYPE) {
+                addDescriptorTypes(((NameAndTypeCPInfo) entry).getType(), refs);
+            }
+        }
+        for (String descriptor : memberDescriptors) {
+            addDescriptorTypes(descriptor, refs);
+        }
+        refs.remove(getFullClassName());
+        return refs;
+    }
+
+    private static void addDescriptorTypes(String descriptor, Set<String> refs) {
+        int start = descriptor.indexOf('L');
+        while (start >= 0) {
+            int end = descriptor.indexOf(';', start);
+            if (end < 0) {
+                break;
+            }
+            refs.add(ClassFileUtils.convertSlashName(descriptor.substring(start + 1, end)));
+            start = descriptor.indexOf('L', end);
+        }
+    }
+
+    /**
+     * Get the name of the super class in dot format.
+     *
+     * @return the super class' name or null if this class doesn't
+     * have one.
+     * @since Ant 1.10.18
+     */
+    public String getSuperClassName() {
+        return superClassName == null ? null
+            : ClassFileUtils.convertSlashName(superClassName);
+    }
+
+    /**
+     * Get the names of the interfaces this class implements directly.
+     *
+     * @return a list of class names in dot format
+     * @since Ant 1.10.18
+     */
+    public List<String> getInterfaceNames() {
+        List<String> names = new ArrayList<>();
+        for (String name : interfaceNames) {
+            names.add(ClassFileUtils.convertSlashName(name));
+        }
+        return names;
+    }
+
+    /**
+     * Get the name of the source file this class has been compiled
+     * from as recorded by the compiler.
+     *
+     * @return the file name without any directory or null if the
+     * class file doesn't say.
+     * @since Ant 1.10.18
+     */
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     * Get a textual representation of the parts of this class other
+     * classes may be compiled against - access flags, super types and
+     * the signatures of all non-private fields and methods.
+     *
+     * <p>Two versions of a class with the same representation are
+     * binary compatible as far as their clients are concerned.</p>
+     *
+     * @return a sorted list of strings
+     * @since Ant 1.10.18
+     */
+    public List<String> getApiMembers() {
+        return Collections.unmodifiableList(apiMembers);
+    }
+
+    /**
+     * Get the non-private compile time constants declared by this
+     * class.
+     *
+     * <p>Compilers inline the values of such constants, so classes
+     * using them don't reference this class at all.</p>
+     *
+     * @return a sorted list of strings
+     * @since Ant 1.10.18
+     */
+    public List<String> getConstants() {
+        return Collections.unmodifiableList(constants);
+    }
+
     /**
      * Get the class' fully qualified name in dot format.
      *
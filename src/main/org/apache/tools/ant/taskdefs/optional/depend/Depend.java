@@ -17,15 +17,14 @@
  */
 package org.apache.tools.ant.taskdefs.optional.depend;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -33,12 +32,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import org.apache.tools.ant.AntClassLoader;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.MatchingTask;
 import org.apache.tools.ant.taskdefs.rmic.DefaultRmicAdapter;
@@ -49,7 +54,6 @@ import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.util.FileUtils;
-import org.apache.tools.ant.util.depend.DependencyAnalyzer;
 
 /**
  * Generates a dependency file for a given set of classes.
@@ -124,10 +128,8 @@ public class Depend extends MatchingTask {
     /** The classpath to look for additional dependencies */
     private Path dependClasspath;
 
-    /** constants used with the cache file */
-    private static final String CACHE_FILE_NAME = "dependencies.txt";
-    /** String Used to separate classnames in the dependency file */
-    private static final String CLASSNAME_PREPEND = "||:";
+    /** number of threads used to read class files */
+    private int threads = 0;
 
     /**
      * Set the classpath to be used for this dependency check.
@@ -185,54 +187,43 @@ public class Depend extends MatchingTask {
     }
 
     /**
-     * Read the dependencies from cache file
+     * Number of threads used to read the class files.
      *
-     * @return a collection of class dependencies
-     * @exception IOException if the dependency file cannot be read
-     */
-    private Map<String, List<String>> readCachedDependencies(File depFile) throws IOException {
-        Map<String, List<String>> dependencyMap = new HashMap<>();
-
-        int prependLength = CLASSNAME_PREPEND.length();
-
-        try (BufferedReader in = new BufferedReader(new FileReader(depFile))) {
-            List<String> dependencyList = null;
-            String line;
-            while ((line = in.readLine()) != null) {
-                if (line.startsWith(CLASSNAME_PREPEND)) {
-                    String className = line.substring(prependLength);
-                    dependencyList = dependencyMap.computeIfAbsent(className,
-                        k -> new ArrayList<>());
-                } else if (dependencyList != null) {
-                    dependencyList.add(line);
-                }
-            }
-        }
-        return dependencyMap;
+     * <p>If not set explicitly the value of the {@value
+     * MagicNames#DEPEND_THREADS} property is used, if that isn't set
+     * either, the number of available processors.</p>
+     *
+     * @param threads int
+     * @since Ant 1.10.18
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
     }
 
     /**
-     * Write the dependencies to cache file
+     * Number of threads used to read the class files.
      *
-     * @param dependencyMap the map of dependencies to be written out.
-     * @exception IOException if the dependency file cannot be written out.
+     * @return int, zero if the value has not been set explicitly.
+     * @since Ant 1.10.18
      */
-    private void writeCachedDependencies(Map<String, List<String>> dependencyMap)
-        throws IOException {
-        if (cache != null) {
-            cache.mkdirs();
-            File depFile = new File(cache, CACHE_FILE_NAME);
-            try (BufferedWriter pw =
-                new BufferedWriter(new FileWriter(depFile))) {
-                for (Map.Entry<String, List<String>> e : dependencyMap
-                    .entrySet()) {
-                    pw.write(String.format("%s%s%n", CLASSNAME_PREPEND, e.getKey()));
-                    for (String s : e.getValue()) {
-                        pw.write(s);
-                        pw.newLine();
-                    }
-                }
-            }
+    public int getThreads() {
+        return threads;
+    }
+
+    private int getEffectiveThreads() {
+        if (threads > 0) {
+            return threads;
+        }
+        final String value = getProject().getProperty(MagicNames.DEPEND_THREADS);
+        if (value == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException ex) {
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.DEPEND_THREADS
+                                     + ": " + value, ex);
         }
     }
 
@@ -283,55 +274,41 @@ public class Depend extends MatchingTask {
     private void determineDependencies() throws IOException {
         affectedClassMap = new HashMap<>();
         classFileInfoMap = new HashMap<>();
-        boolean cacheDirty = false;
-
-        Map<String, List<String>> dependencyMap = new HashMap<>();
-        File cacheFile = null;
-        boolean cacheFileExists = true;
-        long cacheLastModified = Long.MAX_VALUE;
-
-        // read the dependency cache from the disk
-        if (cache != null) {
-            cacheFile = new File(cache, CACHE_FILE_NAME);
-            cacheFileExists = cacheFile.exists();
-            cacheLastModified = cacheFile.lastModified();
-            if (cacheFileExists) {
-                dependencyMap = readCachedDependencies(cacheFile);
-            }
-        }
-        for (ClassFileInfo info : getClassFiles()) {
+
+        final DependencyCache dependencyCache =
+            cache == null ? null : new DependencyCache(cache);
+        final List<ClassFileInfo> classFiles = getClassFiles();
+        final Map<String, List<String>> dependencyMap = new HashMap<>();
+        final List<ClassFileInfo> toRead = new ArrayList<>();
+        for (ClassFileInfo info : classFiles) {
             log("Adding class info for " + info.className, Project.MSG_DEBUG);
             classFileInfoMap.put(info.className, info);
-
-            List<String> dependencyList = null;
-
-            if (cache != null) {
-                // try to read the dependency info from the map if it is
-                // not out of date
-                if (cacheFileExists
-                    && cacheLastModified > info.absoluteFile.lastModified()) {
-                    // depFile exists and is newer than the class file
-                    // need to get dependency list from the map.
-                    dependencyList = dependencyMap.get(info.className);
-                }
-            }
-
+            // try to read the dependency info from the cache if it is
+            // not out of date
+            final List<String> dependencyList = dependencyCache == null ? null
+                : dependencyCache.get(info.className, info.absoluteFile);
             if (dependencyList == null) {
-                // not cached - so need to read directly from the class file
-                DependencyAnalyzer analyzer = new AntAnalyzer();
-                analyzer.addRootClass(info.className);
-                analyzer.addClassPath(destPath);
-                analyzer.setClosure(false);
-                dependencyList = Collections.list(analyzer.getClassDependencies());
-                dependencyList.forEach(o -> log("Class " + info.className + " depends on " + o,
-                        Project.MSG_DEBUG));
-                cacheDirty = true;
+                toRead.add(info);
+            } else {
                 dependencyMap.put(info.className, dependencyList);
             }
+        }
 
+        // not cached - so need to read directly from the class files
+        readDependencies(toRead, dependencyMap);
+        for (ClassFileInfo info : toRead) {
+            final List<String> dependencyList = dependencyMap.get(info.className);
+            dependencyList.forEach(o -> log("Class " + info.className + " depends on " + o,
+                    Project.MSG_DEBUG));
+            if (dependencyCache != null) {
+                dependencyCache.put(info.className, info.absoluteFile, dependencyList);
+            }
+        }
+
+        for (ClassFileInfo info : classFiles) {
             // This class depends on each class in the dependency list. For each
             // one of those, add this class into their affected classes list
-            for (String dependentClass : dependencyList) {
+            for (String dependentClass : dependencyMap.get(info.className)) {
                 affectedClassMap
                     .computeIfAbsent(dependentClass, k -> new HashMap<>())
                     .put(info.className, info);
@@ -340,6 +317,12 @@ public class Depend extends MatchingTask {
             }
         }
 
+        // write the dependency cache to the disk
+        if (dependencyCache != null) {
+            dependencyCache.retainAll(classFileInfoMap.keySet());
+            dependencyCache.save();
+        }
+
         classpathDependencies = null;
         Path checkPath = getCheckClassPath();
         if (checkPath != null) {
@@ -410,11 +393,77 @@ public class Depend extends MatchingTask {
         } else {
             log("No classpath to check", Project.MSG_DEBUG);
         }
+    }
 
-        // write the dependency cache to the disk
-        if (cache != null && cacheDirty) {
-            writeCachedDependencies(dependencyMap);
+    /**
+     * Reads the classes referenced by the given class files, using
+     * several threads if there is more than one class file.
+     *
+     * @param classFiles the class files to read
+     * @param dependencyMap map to add the dependencies of each class to
+     * @exception IOException if a class file cannot be read
+     */
+    private void readDependencies(List<ClassFileInfo> classFiles,
+                                  Map<String, List<String>> dependencyMap)
+        throws IOException {
+        final int threadCount = Math.min(getEffectiveThreads(), classFiles.size());
+        if (threadCount <= 1) {
+            for (ClassFileInfo info : classFiles) {
+                dependencyMap.put(info.className, readDependencies(info));
+            }
+            return;
+        }
+        log("Reading " + classFiles.size() + " class files using " + threadCount
+            + " threads", Project.MSG_VERBOSE);
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = new Thread(r, "depend-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            final List<Future<List<String>>> results = new ArrayList<>();
+            for (ClassFileInfo info : classFiles) {
+                results.add(pool.submit(() -> readDependencies(info)));
+            }
+            for (int i = 0; i < classFiles.size(); i++) {
+                dependencyMap.put(classFiles.get(i).className, results.get(i).get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while reading class files", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BuildException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the classes referenced by a single class file. The class
+     * itself is always part of the result.
+     *
+     * @param info the class file
+     * @return the names of the referenced classes
+     */
+    private static List<String> readDependencies(ClassFileInfo info) {
+        final Set<String> dependencies = new LinkedHashSet<>();
+        dependencies.add(info.className);
+        try (InputStream in = Files.newInputStream(info.absoluteFile.toPath())) {
+            final ClassFile classFile = new ClassFile();
+            classFile.read(in);
+            dependencies.addAll(classFile.getClassRefs());
+        } catch (IOException ioe) {
+            // ignore, like unreadable class files have always been
         }
+        return new ArrayList<>(dependencies);
     }
 
     /**
@@ -443,38 +492,49 @@ public class Depend extends MatchingTask {
     /**
      * Delete all the class files of classes which depend on the given class
      *
+     * <p>When closure is enabled the graph of dependent classes is
+     * traversed breadth first, visiting each class only once.</p>
+     *
      * @param className the name of the class whose dependent classes will be
      *      deleted
      * @return the number of class files removed
      */
     private int deleteAffectedFiles(String className) {
         int count = 0;
-
-        Map<String, ClassFileInfo> affectedClasses = affectedClassMap.get(className);
-        if (affectedClasses == null) {
-            return count;
-        }
-        for (Map.Entry<String, ClassFileInfo> e : affectedClasses.entrySet()) {
-            String affectedClass = e.getKey();
-            ClassFileInfo affectedClassInfo = e.getValue();
-
-            if (!affectedClassInfo.absoluteFile.exists()) {
+        final Set<String> visited = new HashSet<>();
+        final Deque<String> queue = new ArrayDeque<>();
+        visited.add(className);
+        queue.add(className);
+        while (!queue.isEmpty()) {
+            final String current = queue.removeFirst();
+            Map<String, ClassFileInfo> affectedClasses = affectedClassMap.get(current);
+            if (affectedClasses == null) {
                 continue;
             }
+            for (Map.Entry<String, ClassFileInfo> e : affectedClasses.entrySet()) {
+                String affectedClass = e.getKey();
+                ClassFileInfo affectedClassInfo = e.getValue();
 
-            if (affectedClassInfo.sourceFile == null) {
-                warnOutOfDateButNotDeleted(affectedClassInfo, affectedClass, className);
-                continue;
-            }
+                if (!affectedClassInfo.absoluteFile.exists()) {
+                    continue;
+                }
 
-            log("Deleting file " + affectedClassInfo.absoluteFile.getPath()
-                + " since " + className + " out of date", Project.MSG_VERBOSE);
+                if (affectedClassInfo.sourceFile == null) {
+                    warnOutOfDateButNotDeleted(affectedClassInfo, affectedClass, current);
+                    continue;
+                }
 
-            affectedClassInfo.absoluteFile.delete();
-            count++;
-            if (closure) {
-                count += deleteAffectedFiles(affectedClass);
-            } else {
+                log("Deleting file " + affectedClassInfo.absoluteFile.getPath()
+                    + " since " + current + " out of date", Project.MSG_VERBOSE);
+
+                affectedClassInfo.absoluteFile.delete();
+                count++;
+                if (closure) {
+                    if (visited.add(affectedClass)) {
+                        queue.add(affectedClass);
+                    }
+                    continue;
+                }
                 // without closure we may delete an inner class but not the
                 // top level class which would not trigger a recompile.
 
@@ -495,9 +555,6 @@ public class Depend extends MatchingTask {
                         Project.MSG_VERBOSE);
                     topLevelClassInfo.absoluteFile.delete();
                     count++;
-                    if (closure) {
-                        count += deleteAffectedFiles(topLevelClassName);
-                    }
                 }
             }
         }
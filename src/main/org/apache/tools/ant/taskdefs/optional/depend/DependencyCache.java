@@ -0,0 +1,219 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs.optional.depend;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tools.ant.util.FileUtils;
+
+/**
+ * Binary cache of the class dependencies determined by {@link Depend}.
+ *
+ * <p>Entries are keyed by class name and are only valid for a class
+ * file of the recorded modification time and size. The file is an
+ * append-only log of changed and removed entries, so saving a cache
+ * where only a few classes have changed writes only the records of
+ * those classes. The log is compacted once it holds considerably more
+ * records than live entries.</p>
+ *
+ * @since Ant 1.10.18
+ */
+final class DependencyCache {
+
+    /** Name of the cache file inside the cache directory. */
+    static final String CACHE_FILE_NAME = "dependencies.bin";
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private static final int MAGIC = 0x414e5452; // "ANTR"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte RECORD_ENTRY = 1;
+    private static final byte RECORD_REMOVAL = 2;
+
+    private final File file;
+    private final Map<String, Entry> entries = new HashMap<>();
+    /** changes not yet written, null values are removals */
+    private final Map<String, Entry> pending = new LinkedHashMap<>();
+    private int records = 0;
+    private boolean rewrite = true;
+
+    /**
+     * Reads the cache from the given directory.
+     * @param dir the cache directory
+     */
+    DependencyCache(File dir) {
+        file = new File(dir, CACHE_FILE_NAME);
+        if (!file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            while (true) {
+                final byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException ex) {
+                    break;
+                }
+                final String className = in.readUTF();
+                if (type == RECORD_REMOVAL) {
+                    entries.remove(className);
+                } else {
+                    final long lastModified = in.readLong();
+                    final long length = in.readLong();
+                    final String[] dependencies = new String[in.readInt()];
+                    for (int i = 0; i < dependencies.length; i++) {
+                        dependencies[i] = in.readUTF();
+                    }
+                    entries.put(className, new Entry(lastModified, length, dependencies));
+                }
+                records++;
+            }
+            rewrite = false;
+        } catch (IOException ex) {
+            // truncated or broken, keep what has been read and write
+            // the file again
+            rewrite = true;
+        }
+    }
+
+    /**
+     * The cached dependencies of a class.
+     * @param className the class
+     * @param classFile the class file
+     * @return the dependencies or null if the class is not cached or
+     * the class file has changed
+     */
+    List<String> get(String className, File classFile) {
+        final Entry e = entries.get(className);
+        if (e == null || e.lastModified != classFile.lastModified()
+            || e.length != classFile.length()) {
+            return null;
+        }
+        return new ArrayList<>(Arrays.asList(e.dependencies));
+    }
+
+    /**
+     * Records the dependencies of a class.
+     * @param className the class
+     * @param classFile the class file
+     * @param dependencies the dependencies
+     */
+    void put(String className, File classFile, Collection<String> dependencies) {
+        final Entry e = new Entry(classFile.lastModified(), classFile.length(),
+                                  dependencies.toArray(new String[0]));
+        entries.put(className, e);
+        pending.put(className, e);
+    }
+
+    /**
+     * Removes all classes not contained in the given collection.
+     * @param classNames the classes to keep
+     */
+    void retainAll(Collection<String> classNames) {
+        for (String className : new ArrayList<>(entries.keySet())) {
+            if (!classNames.contains(className)) {
+                entries.remove(className);
+                pending.put(className, null);
+            }
+        }
+    }
+
+    /**
+     * Writes all changes to disk.
+     * @throws IOException on error
+     */
+    void save() throws IOException {
+        if (!rewrite && pending.isEmpty()) {
+            return;
+        }
+        if (rewrite || records + pending.size() > 2 * entries.size() + 100) {
+            final File tmp = FILE_UTILS.createTempFile(null, "deps", ".tmp",
+                                                       file.getParentFile(), true, false);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tmp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    write(out, e.getKey(), e.getValue());
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            records = entries.size();
+            rewrite = false;
+        } else {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file, true)))) {
+                for (Map.Entry<String, Entry> e : pending.entrySet()) {
+                    write(out, e.getKey(), e.getValue());
+                }
+            }
+            records += pending.size();
+        }
+        pending.clear();
+    }
+
+    private static void write(DataOutputStream out, String className, Entry e)
+        throws IOException {
+        if (e == null) {
+            out.writeByte(RECORD_REMOVAL);
+            out.writeUTF(className);
+            return;
+        }
+        out.writeByte(RECORD_ENTRY);
+        out.writeUTF(className);
+        out.writeLong(e.lastModified);
+        out.writeLong(e.length);
+        out.writeInt(e.dependencies.length);
+        for (String d : e.dependencies) {
+            out.writeUTF(d);
+        }
+    }
+
+    private static final class Entry {
+        private final long lastModified;
+        private final long length;
+        private final String[] dependencies;
+
+        Entry(long lastModified, long length, String[] dependencies) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.dependencies = dependencies;
+        }
+    }
+}
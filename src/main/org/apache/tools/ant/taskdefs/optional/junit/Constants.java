@@ -43,4 +43,6 @@ public class Constants {
     static final String SKIP_NON_TESTS = "skipNonTests=";
     /** @since Ant 1.9.4 */
     static final String THREADID = "threadid=";
+    /** @since Ant 1.10.18 */
+    static final String STOP_AFTER_FAILURE = "stopAfterFailure=";
 }
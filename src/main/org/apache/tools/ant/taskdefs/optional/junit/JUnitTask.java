@@ -201,6 +201,8 @@ public class JUnitTask extends Task {
     private boolean filterTrace = true;
     private boolean fork        = false;
     private int     threads     = 1;
+    private int     maxTestsPerFork = 0;
+    private boolean newForkOnFailure = false;
     private String  failureProperty;
     private String  errorProperty;
 
@@ -345,6 +347,38 @@ public class JUnitTask extends Task {
         }
     }
 
+    /**
+     * Set the maximum number of test classes a single forked Java VM
+     * runs before a new one is created for the remaining tests.
+     *
+     * <p>Only has an effect on forked VMs that run multiple tests,
+     * i.e. if {@link #setForkMode forkMode} is "once" or
+     * "perBatch". The default is 0, which doesn't limit the number of
+     * tests.</p>
+     *
+     * @param max int
+     * @since Ant 1.10.18
+     */
+    public void setMaxTestsPerFork(final int max) {
+        this.maxTestsPerFork = max;
+    }
+
+    /**
+     * Whether a forked Java VM that runs multiple tests shall be
+     * replaced by a new one once a test has failed.
+     *
+     * <p>The tests following the failed one are run in a fresh VM so
+     * that state left behind by the failed test cannot affect
+     * them. Only has an effect if {@link #setForkMode forkMode} is
+     * "once" or "perBatch".</p>
+     *
+     * @param b boolean
+     * @since Ant 1.10.18
+     */
+    public void setNewForkOnFailure(final boolean b) {
+        this.newForkOnFailure = b;
+    }
+
     /**
      * If true, print one-line statistics for each test, or "withOutAndErr"
      * to also show standard output and error.
@@ -847,7 +881,7 @@ public class JUnitTask extends Task {
 
         final List<List<JUnitTest>> testLists = new ArrayList<>();
         /* parallel test execution is only supported for multi-process execution */
-        final int threads = !fork || forkMode.getValue().equals(ForkMode.ONCE) ? 1 : this.threads;
+        final int threads = fork ? this.threads : 1;
 
         final boolean forkPerTest = ForkMode.PER_TEST.equals(forkMode.getValue());
         if (forkPerTest || ForkMode.ONCE.equals(forkMode.getValue())) {
@@ -861,12 +895,41 @@ public class JUnitTask extends Task {
         }
         try {
             /* prior to parallel the code in 'oneJunitThread' used to be here. */
-            runTestsInThreads(testLists, threads);
+            runTestsInThreads(limitForkSizes(testLists, threads), threads);
         } finally {
             cleanup();
         }
     }
 
+    /**
+     * Splits lists of tests that would share a forked VM so that no
+     * VM runs more than maxTestsPerFork tests and - when running
+     * with forkmode "once" and multiple threads - each thread gets a
+     * VM of its own.
+     * @param testLists lists of tests that share a VM configuration
+     * @param numThreads the number of threads running tests
+     * @return lists of tests that will share a VM
+     */
+    private List<List<JUnitTest>> limitForkSizes(final List<List<JUnitTest>> testLists,
+                                                 final int numThreads) {
+        final boolean once = ForkMode.ONCE.equals(forkMode.getValue());
+        final List<List<JUnitTest>> result = new ArrayList<>();
+        for (final List<JUnitTest> l : testLists) {
+            int max = maxTestsPerFork > 0 ? maxTestsPerFork : l.size();
+            if (once && numThreads > 1) {
+                max = Math.min(max, (l.size() + numThreads - 1) / numThreads);
+            }
+            if (l.size() <= max || !l.get(0).getFork()) {
+                result.add(l);
+                continue;
+            }
+            for (int i = 0; i < l.size(); i += max) {
+                result.add(new ArrayList<>(l.subList(i, Math.min(i + max, l.size()))));
+            }
+        }
+        return result;
+    }
+
     /*
      * When the list of tests is established, an array of threads is created to pick the
      * tests off the list one at a time and execute them until the list is empty.  Tests are
@@ -1072,6 +1135,28 @@ public class JUnitTask extends Task {
      * @throws BuildException on error.
      */
     protected void execute(final List<JUnitTest> testList, final int thread) throws BuildException {
+        List<JUnitTest> remaining = testList;
+        while (!remaining.isEmpty()) {
+            final int testsRun = executeInOneVM(remaining, thread);
+            if (testsRun <= 0 || testsRun >= remaining.size()) {
+                break;
+            }
+            remaining = remaining.subList(testsRun, remaining.size());
+            log("Starting a new VM for the remaining " + remaining.size()
+                + " tests after a failure", Project.MSG_VERBOSE);
+        }
+    }
+
+    /**
+     * Execute a list of tests in a single forked Java VM.
+     * @param testList the list of tests to execute.
+     * @param thread Identifies which thread is test running in (0 for single-threaded runs)
+     * @return the number of tests the VM has run if it stopped after
+     * a failure, -1 if it has run all tests
+     * @throws BuildException on error.
+     */
+    private int executeInOneVM(final List<JUnitTest> testList, final int thread)
+        throws BuildException {
         // Create a temporary file to pass the test cases to run to
         // the runner (one test case per line)
         final File casesFile = createTempPropertiesFile("junittestcases");
@@ -1112,6 +1197,7 @@ public class JUnitTask extends Task {
             final TestResultHolder result =
                 executeAsForked(test, watchdog, casesFile);
             actOnTestResult(result, test, "Tests");
+            return result.testsRun;
         } catch (final IOException e) {
             log(e.toString(), Project.MSG_ERR);
             throw new BuildException(e);
@@ -1172,6 +1258,9 @@ public class JUnitTask extends Task {
         } else {
             log("Running multiple tests in the same VM", Project.MSG_VERBOSE);
             cmd.createArgument().setValue(Constants.TESTSFILE + casesFile);
+            if (newForkOnFailure) {
+                cmd.createArgument().setValue(Constants.STOP_AFTER_FAILURE + true);
+            }
         }
 
         cmd.createArgument().setValue(Constants.SKIP_NON_TESTS + test.isSkipNonTests());
@@ -1271,6 +1360,11 @@ public class JUnitTask extends Task {
                 if (vmWatcher.exists()) {
                     br = new BufferedReader(new FileReader(vmWatcher));
                     vmCrashString = br.readLine();
+                    // the VM may have stopped early after a failure
+                    final String testsRun = br.readLine();
+                    if (testsRun != null) {
+                        result.testsRun = Integer.parseInt(testsRun);
+                    }
                 } else {
                     vmCrashString = "Monitor file ("
                             + vmWatcher.getAbsolutePath()
@@ -2242,6 +2336,12 @@ public class JUnitTask extends Task {
         public boolean timedOut = false;
         /** true if the test crashed */
         public boolean crashed = false;
+        /**
+         * the number of tests run if a forked VM has stopped after a
+         * failure, -1 otherwise
+         * @since Ant 1.10.18
+         */
+        public int testsRun = -1;
         // CheckStyle:VisibilityModifier ON
     }
 
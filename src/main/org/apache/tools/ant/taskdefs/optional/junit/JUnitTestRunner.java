@@ -903,6 +903,11 @@ public class JUnitTestRunner implements TestListener, JUnitTaskMirror.JUnitTestR
      * <td>methods</td><td>Comma-separated list of names of individual
      * test methods to execute.</td><td>null</td>
      * </tr>
+     * <tr>
+     * <td>stopAfterFailure</td><td>when running the tests of a tests
+     * file, stop after the first test that fails and record the number
+     * of tests run in the crash file.</td><td>false</td>
+     * </tr>
      * </table>
      * @param args the command line arguments.
      * @throws IOException on error.
@@ -918,6 +923,7 @@ public class JUnitTestRunner implements TestListener, JUnitTaskMirror.JUnitTestR
         boolean logFailedTests = true;
         boolean logTestListenerEvents = false;
         boolean skipNonTests = false;
+        boolean stopAfterFailure = false;
         /* Ant id of thread running this unit test, 0 in single-threaded mode */
         int antThreadID = 0;
 
@@ -975,6 +981,9 @@ public class JUnitTestRunner implements TestListener, JUnitTaskMirror.JUnitTestR
             } else if (arg.startsWith(Constants.SKIP_NON_TESTS)) {
                 skipNonTests = Project.toBoolean(
                     arg.substring(Constants.SKIP_NON_TESTS.length()));
+            } else if (arg.startsWith(Constants.STOP_AFTER_FAILURE)) {
+                stopAfterFailure = Project.toBoolean(
+                    arg.substring(Constants.STOP_AFTER_FAILURE.length()));
             } else if (arg.startsWith(Constants.THREADID)) {
                 antThreadID = Integer.parseInt(arg.substring(Constants.THREADID.length()));
             }
@@ -987,6 +996,7 @@ public class JUnitTestRunner implements TestListener, JUnitTaskMirror.JUnitTestR
         if (multipleTests) {
             try (final BufferedReader reader = new BufferedReader(new FileReader(args[0]))) {
                 int code = 0;
+                int testsRun = 0;
                 boolean errorOccurred = false;
                 boolean failureOccurred = false;
                 String line = null;
@@ -1015,6 +1025,7 @@ public class JUnitTestRunner implements TestListener, JUnitTaskMirror.JUnitTestR
                     code = launch(t, testMethodNames, haltError, stackfilter, haltFail,
                                   showOut, outputToFormat,
                                   logTestListenerEvents);
+                    testsRun++;
                     errorOccurred = (code == ERRORS);
                     failureOccurred = (code != SUCCESS);
                     if (errorOccurred || failureOccurred) {
@@ -1028,6 +1039,11 @@ public class JUnitTestRunner implements TestListener, JUnitTaskMirror.JUnitTestR
                             if (logFailedTests) {
                                 System.out.println("TEST " + t.getName() + " FAILED");
                             }
+                            if (stopAfterFailure) {
+                                // leave the remaining tests to a fresh VM
+                                registerNonCrash(testsRun);
+                                System.exit(returnCode);
+                            }
                         }
                     }
                 }
@@ -1211,6 +1227,21 @@ public class JUnitTestRunner implements TestListener, JUnitTaskMirror.JUnitTestR
         }
     }
 
+    /**
+     * Records that the VM has stopped after the given number of tests
+     * without running the rest of the tests file.
+     */
+    private static void registerNonCrash(final int testsRun)
+            throws IOException {
+        if (crashFile != null) {
+            try (FileWriter out = new FileWriter(crashFile)) {
+                out.write(Constants.TERMINATED_SUCCESSFULLY + "\n");
+                out.write(testsRun + "\n");
+                out.flush();
+            }
+        }
+    }
+
     private static void registerTestCase(final String testCase) {
         if (crashFile != null) {
             try (FileWriter out = new FileWriter(crashFile)) {
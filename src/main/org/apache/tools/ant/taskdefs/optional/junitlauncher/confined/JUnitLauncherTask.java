@@ -33,6 +33,7 @@ import org.apache.tools.ant.util.FileUtils;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -45,7 +46,13 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -83,6 +90,7 @@ public class JUnitLauncherTask extends Task {
     private boolean haltOnFailure;
     private String failureProperty;
     private boolean printSummary;
+    private int threads = 1;
     private final List<TestDefinition> tests = new ArrayList<>();
     private final List<ListenerDefinition> listeners = new ArrayList<>();
     private final List<String> includeTags = new ArrayList<>();
@@ -97,6 +105,7 @@ public class JUnitLauncherTask extends Task {
             return;
         }
         final Project project = getProject();
+        final List<ForkedTest> forkedTests = threads > 1 ? new ArrayList<>() : null;
         for (final TestDefinition test : this.tests) {
             if (!test.shouldRun(project)) {
                 log("Excluding test " + test + " since it's considered not to run " +
@@ -109,6 +118,15 @@ public class JUnitLauncherTask extends Task {
             } else {
                 final List<ForkedRepresentation> forkedReps = test.toForkedRepresentations();
                 final long timeout = forkDefinition.getTimeout(); // in millis
+                if (forkedTests != null) {
+                    // the timeout starts when the first of the forks starts
+                    final Deadline deadline = new Deadline(timeout);
+                    for (final ForkedRepresentation forkedRep : forkedReps) {
+                        forkedTests.add(new ForkedTest(test, forkDefinition,
+                                createForkedCommandLine(forkDefinition, forkedRep), deadline));
+                    }
+                    continue;
+                }
                 // compute the "end time" (if any)
                 final Optional<Long> deadlineNanos = timeout == -1
                         ? Optional.empty() // no timeout
@@ -118,6 +136,9 @@ public class JUnitLauncherTask extends Task {
                 }
             }
         }
+        if (forkedTests != null && !forkedTests.isEmpty()) {
+            forkTestsConcurrently(forkedTests);
+        }
     }
 
     /**
@@ -179,6 +200,17 @@ public class JUnitLauncherTask extends Task {
         this.printSummary = printSummary;
     }
 
+    /**
+     * The maximum number of forked JVMs running tests at the same
+     * time. Tests that are not forked are not affected.
+     *
+     * @param threads the number of concurrently forked JVMs, defaults to 1
+     * @since Ant 1.10.18
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Tags to include. Will trim each tag.
      *
@@ -254,6 +286,87 @@ public class JUnitLauncherTask extends Task {
     private void forkTest(final TestDefinition test, final ForkDefinition forkDefinition,
                           final ForkedRepresentation forkedRepresentation,
                           final Optional<Long> deadlineNanos) {
+        final CommandlineJava commandlineJava = createForkedCommandLine(forkDefinition, forkedRepresentation);
+        // launch the process and wait for process to complete
+        final int exitCode = executeForkedTest(forkDefinition, commandlineJava, deadlineNanos,
+                new LogOutputStream(this, Project.MSG_INFO), new LogOutputStream(this, Project.MSG_WARN));
+        handleForkedTestResult(test, exitCode);
+    }
+
+    /**
+     * Runs the given forked tests on a bounded pool of threads, each
+     * of which launches one JVM at a time.
+     * The output of each JVM is collected and logged - and the result
+     * of each JVM is handled - in the order the tests have been
+     * defined once the JVM has completed.
+     */
+    private void forkTestsConcurrently(final List<ForkedTest> forkedTests) {
+        final int poolSize = Math.min(threads, forkedTests.size());
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(poolSize, r -> {
+            final Thread t = new Thread(r, getTaskType() + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        final List<Future<ForkedTestResult>> futures = new ArrayList<>();
+        try {
+            for (final ForkedTest forkedTest : forkedTests) {
+                futures.add(pool.submit(() -> {
+                    final ForkedTestResult result = new ForkedTestResult();
+                    result.exitCode = executeForkedTest(forkedTest.forkDefinition,
+                            forkedTest.commandLine, forkedTest.deadline.getDeadlineNanos(),
+                            result.out, result.err);
+                    return result;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                final ForkedTestResult result;
+                try {
+                    result = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new BuildException(cause);
+                }
+                replay(result.out, Project.MSG_INFO);
+                replay(result.err, Project.MSG_WARN);
+                handleForkedTestResult(forkedTests.get(i).test, result.exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while waiting for forked tests", e);
+        } finally {
+            // don't start any new JVMs but let the running ones complete
+            futures.forEach(f -> f.cancel(false));
+            pool.shutdown();
+            try {
+                while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                    log("Waiting for forked tests to finish", Project.MSG_VERBOSE);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void replay(final ByteArrayOutputStream output, final int level) {
+        if (output.size() == 0) {
+            return;
+        }
+        try (final LogOutputStream los = new LogOutputStream(this, level)) {
+            output.writeTo(los);
+        } catch (IOException e) {
+            throw new BuildException(e);
+        }
+    }
+
+    private CommandlineJava createForkedCommandLine(final ForkDefinition forkDefinition,
+                                                    final ForkedRepresentation forkedRepresentation) {
         // create launch command
         final CommandlineJava commandlineJava = forkDefinition.generateCommandLine(this);
         if (this.classPath != null) {
@@ -309,9 +422,10 @@ public class JUnitLauncherTask extends Task {
         // --launch-definition <xml-file-path>
         commandlineJava.createArgument().setValue(Constants.ARG_LAUNCH_DEFINITION);
         commandlineJava.createArgument().setValue(launchDefXmlPath.toAbsolutePath().toString());
+        return commandlineJava;
+    }
 
-        // launch the process and wait for process to complete
-        final int exitCode = executeForkedTest(forkDefinition, commandlineJava, deadlineNanos);
+    private void handleForkedTestResult(final TestDefinition test, final int exitCode) {
         switch (exitCode) {
             case Constants.FORK_EXIT_CODE_SUCCESS: {
                 // success
@@ -369,9 +483,8 @@ public class JUnitLauncherTask extends Task {
     }
 
     private int executeForkedTest(final ForkDefinition forkDefinition, final CommandlineJava commandlineJava,
-                                  final Optional<Long> deadlineNanos) {
-        final LogOutputStream outStream = new LogOutputStream(this, Project.MSG_INFO);
-        final LogOutputStream errStream = new LogOutputStream(this, Project.MSG_WARN);
+                                  final Optional<Long> deadlineNanos, final OutputStream outStream,
+                                  final OutputStream errStream) {
         final ExecuteWatchdog watchdog;
         if (deadlineNanos.isPresent()) {
             final long remainingNanos = deadlineNanos.get() - System.nanoTime();
@@ -418,6 +531,49 @@ public class JUnitLauncherTask extends Task {
             .toPath();
     }
 
+    /**
+     * A test definition's timeout applies to all JVMs forked for it,
+     * it starts when the first of them is launched.
+     */
+    private static final class Deadline {
+        private final long timeout;
+        private Optional<Long> deadlineNanos;
+
+        private Deadline(final long timeout) {
+            this.timeout = timeout;
+        }
+
+        private synchronized Optional<Long> getDeadlineNanos() {
+            if (deadlineNanos == null) {
+                deadlineNanos = timeout == -1
+                        ? Optional.empty() // no timeout
+                        : Optional.of(System.nanoTime() + MILLISECONDS.toNanos(timeout));
+            }
+            return deadlineNanos;
+        }
+    }
+
+    private static final class ForkedTest {
+        private final TestDefinition test;
+        private final ForkDefinition forkDefinition;
+        private final CommandlineJava commandLine;
+        private final Deadline deadline;
+
+        private ForkedTest(final TestDefinition test, final ForkDefinition forkDefinition,
+                           final CommandlineJava commandLine, final Deadline deadline) {
+            this.test = test;
+            this.forkDefinition = forkDefinition;
+            this.commandLine = commandLine;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class ForkedTestResult {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        private int exitCode;
+    }
+
     private final class InVMLaunch implements LaunchDefinition {
 
         private final List<TestDefinition> inVMTests;
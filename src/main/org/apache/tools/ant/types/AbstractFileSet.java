@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.FileScanner;
+import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.selectors.AndSelector;
 import org.apache.tools.ant.types.selectors.ContainsRegexpSelector;
@@ -58,6 +59,7 @@ import org.apache.tools.ant.types.selectors.TypeSelector;
 import org.apache.tools.ant.types.selectors.WindowsJunctionSelector;
 import org.apache.tools.ant.types.selectors.WritableSelector;
 import org.apache.tools.ant.types.selectors.modifiedselector.ModifiedSelector;
+import org.apache.tools.ant.util.DirectoryListingCache;
 
 /**
  * Class that holds an implicit patternset and supports nested
@@ -80,6 +82,9 @@ public abstract class AbstractFileSet extends DataType
     private boolean followSymlinks = true;
     private boolean errorOnMissingDir = true;
     private int maxLevelsOfSymlinks = DirectoryScanner.MAX_LEVELS_OF_SYMLINKS;
+    private int scanThreads = 0;
+    private Boolean prefetchAttributes = null;
+    private File scanCache = null;
 
     /* cached DirectoryScanner instance for our own Project only */
     private DirectoryScanner directoryScanner = null;
@@ -106,6 +111,9 @@ public abstract class AbstractFileSet extends DataType
         this.followSymlinks = fileset.followSymlinks;
         this.errorOnMissingDir = fileset.errorOnMissingDir;
         this.maxLevelsOfSymlinks = fileset.maxLevelsOfSymlinks;
+        this.scanThreads = fileset.scanThreads;
+        this.prefetchAttributes = fileset.prefetchAttributes;
+        this.scanCache = fileset.scanCache;
         setProject(fileset.getProject());
     }
 
@@ -461,6 +469,77 @@ public abstract class AbstractFileSet extends DataType
         return maxLevelsOfSymlinks;
     }
 
+    /**
+     * The number of threads used to scan the directory tree.
+     *
+     * <p>If not set explicitly the value of the {@value
+     * MagicNames#FILESET_SCAN_THREADS} property is used, scanning
+     * happens on a single thread if neither is set.</p>
+     *
+     * @param threads int
+     * @since Ant 1.10.18
+     */
+    public synchronized void setScanThreads(int threads) {
+        if (isReference()) {
+            throw tooManyAttributes();
+        }
+        scanThreads = threads;
+        directoryScanner = null;
+    }
+
+    /**
+     * The number of threads used to scan the directory tree.
+     *
+     * @return int, zero if the value has not been set explicitly.
+     * @since Ant 1.10.18
+     */
+    public synchronized int getScanThreads() {
+        if (isReference()) {
+            return getRef(getProject()).getScanThreads();
+        }
+        dieOnCircularReference();
+        return scanThreads;
+    }
+
+    /**
+     * Whether the attributes of each file should be read once while
+     * scanning and be reused by selectors and the resources of this
+     * set.
+     *
+     * <p>If not set explicitly the value of the {@value
+     * MagicNames#FILESET_PREFETCH_ATTRIBUTES} property is used.</p>
+     *
+     * @param prefetch boolean
+     * @since Ant 1.10.18
+     */
+    public synchronized void setPrefetchAttributes(boolean prefetch) {
+        if (isReference()) {
+            throw tooManyAttributes();
+        }
+        prefetchAttributes = prefetch;
+        directoryScanner = null;
+    }
+
+    /**
+     * Directory holding a persistent cache of the directory listings
+     * below the base directory of this set.
+     *
+     * <p>Directories that haven't been modified since they have been
+     * listed by an earlier scan are not listed again. If not set
+     * explicitly the value of the {@value
+     * MagicNames#FILESET_SCAN_CACHE} property is used.</p>
+     *
+     * @param cacheDir File
+     * @since Ant 1.10.18
+     */
+    public synchronized void setScanCache(File cacheDir) {
+        if (isReference()) {
+            throw tooManyAttributes();
+        }
+        scanCache = cacheDir;
+        directoryScanner = null;
+    }
+
     /**
      * Sets whether an error is thrown if a directory does not exist.
      *
@@ -523,6 +602,17 @@ public abstract class AbstractFileSet extends DataType
                 ds.setFollowSymlinks(followSymlinks);
                 ds.setErrorOnMissingDir(errorOnMissingDir);
                 ds.setMaxLevelsOfSymlinks(maxLevelsOfSymlinks);
+                ds.setParallelism(getScanThreads(p));
+                ds.setPrefetchAttributes(prefetchAttributes != null
+                    ? prefetchAttributes
+                    : Project.toBoolean(p.getProperty(MagicNames.FILESET_PREFETCH_ATTRIBUTES)));
+                File cacheDir = getScanCache(p);
+                if (cacheDir != null) {
+                    DirectoryListingCache cache =
+                        DirectoryListingCache.getCache(cacheDir, dir);
+                    cache.saveWith(p);
+                    ds.setListingCache(cache);
+                }
                 directoryScanner = (p == getProject()) ? ds : directoryScanner;
             }
         }
@@ -530,6 +620,31 @@ public abstract class AbstractFileSet extends DataType
         return ds;
     }
 
+    private File getScanCache(Project p) {
+        if (scanCache != null) {
+            return scanCache;
+        }
+        String cacheDir = p.getProperty(MagicNames.FILESET_SCAN_CACHE);
+        return cacheDir == null ? null : p.resolveFile(cacheDir);
+    }
+
+    private int getScanThreads(Project p) {
+        if (scanThreads > 0) {
+            return scanThreads;
+        }
+        String threads = p.getProperty(MagicNames.FILESET_SCAN_THREADS);
+        if (threads == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException ex) {
+            throw new BuildException("Invalid value for "
+                                     + MagicNames.FILESET_SCAN_THREADS
+                                     + ": " + threads, ex);
+        }
+    }
+
     /**
      * Set up the specified directory scanner against this
      * AbstractFileSet's Project.
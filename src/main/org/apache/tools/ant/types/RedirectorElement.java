@@ -443,6 +443,18 @@ public class RedirectorElement extends DataType {
         outputIsBinary = b;
     }
 
+    /**
+     * Whether this element redirects the input of the process.
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public boolean isRedirectingInput() {
+        if (isReference()) {
+            return getRef().isRedirectingInput();
+        }
+        return inputMapper != null || inputString != null;
+    }
+
     /**
      * Configure the specified <code>Redirector</code>.
      * @param redirector   <code>Redirector</code>.
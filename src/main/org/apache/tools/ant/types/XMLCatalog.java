@@ -280,6 +280,19 @@ public class XMLCatalog extends DataType
     }
 
 
+    /**
+     * Whether this catalog has neither entries nor a classpath or
+     * catalog path, so it only resolves relative URIs against the
+     * project's base directory.
+     *
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public boolean isEmpty() {
+        return getElements().isEmpty() && getClasspath() == null
+            && getCatalogPath() == null;
+    }
+
     /**
      * Creates the nested <code>&lt;dtd&gt;</code> element.  Not
      * allowed if this catalog is itself a reference to another
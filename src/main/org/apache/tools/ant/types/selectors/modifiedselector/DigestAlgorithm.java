@@ -21,14 +21,12 @@ package org.apache.tools.ant.types.selectors.modifiedselector;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.security.DigestInputStream;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.util.Locale;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.util.FileDigester;
 
 
 /**
@@ -77,9 +75,9 @@ public class DigestAlgorithm implements Algorithm {
     private String provider = null;
 
     /**
-     * Message Digest instance
+     * Computes the digests, uses a Message Digest instance per thread
      */
-    private MessageDigest messageDigest = null;
+    private FileDigester fileDigester = null;
 
     /**
      * Size of the read buffer to use.
@@ -113,23 +111,24 @@ public class DigestAlgorithm implements Algorithm {
 
     /** Initialize the security message digest. */
     public void initMessageDigest() {
-        if (messageDigest != null) {
+        if (fileDigester != null) {
             return;
         }
 
         if (provider != null && !provider.isEmpty() && !"null".equals(provider)) {
             try {
-                messageDigest = MessageDigest.getInstance(algorithm, provider);
+                fileDigester = new FileDigester(algorithm, provider);
             } catch (NoSuchAlgorithmException | NoSuchProviderException e) {
                 throw new BuildException(e);
             }
         } else {
             try {
-                messageDigest = MessageDigest.getInstance(algorithm);
-            } catch (NoSuchAlgorithmException noalgo) {
+                fileDigester = new FileDigester(algorithm, null);
+            } catch (NoSuchAlgorithmException | NoSuchProviderException noalgo) {
                 throw new BuildException(noalgo);
             }
         }
+        fileDigester.setReadBufferSize(readBufferSize);
     }
 
 
@@ -157,15 +156,9 @@ public class DigestAlgorithm implements Algorithm {
             return null;
         }
         initMessageDigest();
-        byte[] buf = new byte[readBufferSize];
-        messageDigest.reset();
-        try (DigestInputStream dis = new DigestInputStream(Files.newInputStream(file.toPath()),
-                messageDigest)) {
-            // read the whole stream
-            while (dis.read(buf, 0, readBufferSize) != -1) {
-            }
+        try {
             StringBuilder checksumSb = new StringBuilder();
-            for (byte digestByte : messageDigest.digest()) {
+            for (byte digestByte : fileDigester.digest(file)) {
                 checksumSb.append(String.format("%02x", BYTE_MASK & digestByte));
             }
             return checksumSb.toString();
@@ -0,0 +1,457 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+
+/**
+ * Persistent cache of the directory listings below a base directory.
+ *
+ * <p>For every directory that has been listed the cache stores the
+ * names of its children, whether they are files or directories and
+ * the modification time of the directory itself. A directory is only
+ * listed again if its modification time has changed, so scanning an
+ * untouched tree costs a single stat call per directory.</p>
+ *
+ * <p>Listings of directories that have been modified within the
+ * timestamp granularity of the file system before they have been
+ * listed are never trusted, as further modifications within the same
+ * tick would go unnoticed.</p>
+ *
+ * <p>Instances are shared JVM-wide per cache file as long as a
+ * project uses them and written back to disk when the build - or the
+ * <code>&lt;ant&gt;</code> or <code>&lt;antcall&gt;</code> - of a
+ * project using them finishes. Each base directory gets its own cache
+ * file named after a digest of its canonical path.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class DirectoryListingCache {
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private static final int MAGIC = 0x414e5443; // "ANTC"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte TYPE_UNKNOWN = 0;
+    private static final byte TYPE_FILE = 1;
+    private static final byte TYPE_DIRECTORY = 2;
+    private static final byte TYPE_OTHER = 3;
+
+    /** caches by canonical path of the cache file */
+    private static final Map<String, WeakReference<DirectoryListingCache>> CACHES =
+        new HashMap<>();
+
+    private final File cacheFile;
+    private final File basedir;
+    private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+    private final Set<Project> projects =
+        Collections.newSetFromMap(new WeakHashMap<>());
+    private boolean loaded = false;
+    private volatile boolean dirty = false;
+
+    /**
+     * Obtain the cache for the given base directory.
+     * @param cacheDir the directory holding the cache files.
+     * @param basedir the base directory of the scans.
+     * @return the shared cache instance.
+     */
+    public static DirectoryListingCache getCache(File cacheDir, File basedir) {
+        final File base = canonicalize(basedir);
+        final File cacheFile =
+            canonicalize(new File(cacheDir, "scan-" + digest(base.getPath()) + ".cache"));
+        final String key = cacheFile.getPath();
+        synchronized (CACHES) {
+            CACHES.values().removeIf(r -> r.get() == null);
+            final WeakReference<DirectoryListingCache> ref = CACHES.get(key);
+            DirectoryListingCache cache = ref == null ? null : ref.get();
+            if (cache == null) {
+                cache = new DirectoryListingCache(cacheFile, base);
+                CACHES.put(key, new WeakReference<>(cache));
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Creates a cache that is not shared, use {@link #getCache} instead.
+     * @param cacheFile the file the cache is persisted to.
+     * @param basedir the base directory of the scans.
+     */
+    DirectoryListingCache(File cacheFile, File basedir) {
+        this.cacheFile = cacheFile;
+        this.basedir = basedir;
+    }
+
+    private static File canonicalize(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException ex) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static String digest(String path) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256")
+                .digest(path.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+        final StringBuilder sb = new StringBuilder(2 * digest.length);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16))
+                .append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The file the cache is persisted to.
+     * @return File
+     */
+    public File getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * Makes sure the cache gets saved when the build of the given
+     * project finishes.
+     * @param project the project using the cache.
+     */
+    public void saveWith(Project project) {
+        synchronized (projects) {
+            if (projects.add(project)) {
+                project.addBuildListener(new SaveListener(project));
+            }
+        }
+    }
+
+    /**
+     * Wraps a directory so its listing is served from the cache if
+     * possible.
+     * @param dir the directory, usually the base directory of the
+     * cache or one of its descendants.
+     * @return a File whose {@link File#list list} method uses the cache.
+     */
+    public File getDirectory(File dir) {
+        ensureLoaded();
+        return new CachedFile(dir.getPath(), TYPE_UNKNOWN);
+    }
+
+    /**
+     * Writes the cache to disk if it has been modified.
+     * @throws IOException on error
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        final File dir = cacheFile.getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        final File tmp = FILE_UTILS.createTempFile(null, "scan", ".tmp", dir,
+                                                   true, false);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(basedir.getPath());
+            final Map<String, Listing> snapshot = new HashMap<>(listings);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Listing> e : snapshot.entrySet()) {
+                final Listing l = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeLong(l.lastModified);
+                out.writeLong(l.listedAt);
+                out.writeInt(l.names.length);
+                for (int i = 0; i < l.names.length; i++) {
+                    out.writeUTF(l.names[i]);
+                    out.writeByte(l.types[i]);
+                }
+            }
+        }
+        Files.move(tmp.toPath(), cacheFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(cacheFile.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                || !basedir.getPath().equals(in.readUTF())) {
+                return;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final String path = in.readUTF();
+                final long lastModified = in.readLong();
+                final long listedAt = in.readLong();
+                final int n = in.readInt();
+                final String[] names = new String[n];
+                final byte[] types = new byte[n];
+                for (int j = 0; j < n; j++) {
+                    names[j] = in.readUTF();
+                    types[j] = in.readByte();
+                }
+                listings.put(path, new Listing(lastModified, listedAt, names, types));
+            }
+        } catch (IOException ex) {
+            // a broken cache is as good as no cache
+            listings.clear();
+        }
+    }
+
+    private Listing list(File dir) {
+        final String key = dir.getAbsolutePath();
+        final long lastModified = dir.lastModified();
+        final Listing cached = listings.get(key);
+        if (cached != null && cached.isValidFor(lastModified)) {
+            return cached;
+        }
+        final long listedAt = System.currentTimeMillis();
+        // dir may be a CachedFile
+        final String[] names = new File(dir.getPath()).list();
+        if (names == null) {
+            if (cached != null) {
+                listings.remove(key);
+                dirty = true;
+            }
+            return null;
+        }
+        Arrays.sort(names);
+        final byte[] types = new byte[names.length];
+        for (int i = 0; i < names.length; i++) {
+            types[i] = typeOf(new File(dir, names[i]));
+        }
+        final Listing listing = new Listing(lastModified, listedAt, names, types);
+        listings.put(key, listing);
+        dirty = true;
+        return listing;
+    }
+
+    private static byte typeOf(File f) {
+        try {
+            final BasicFileAttributes attrs =
+                Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+            if (attrs.isDirectory()) {
+                return TYPE_DIRECTORY;
+            }
+            return attrs.isRegularFile() ? TYPE_FILE : TYPE_OTHER;
+        } catch (NoSuchFileException ex) {
+            // dangling symbolic link
+            return TYPE_OTHER;
+        } catch (IOException | SecurityException ex) {
+            return TYPE_UNKNOWN;
+        }
+    }
+
+    /**
+     * The cached listing of a single directory.
+     */
+    private static final class Listing {
+        private final long lastModified;
+        private final long listedAt;
+        private final String[] names;
+        private final byte[] types;
+
+        Listing(long lastModified, long listedAt, String[] names, byte[] types) {
+            this.lastModified = lastModified;
+            this.listedAt = listedAt;
+            this.names = names;
+            this.types = types;
+        }
+
+        boolean isValidFor(long currentLastModified) {
+            return lastModified != 0 && lastModified == currentLastModified
+                && listedAt - lastModified > FILE_UTILS.getFileTimestampGranularity();
+        }
+
+        byte typeOf(String name) {
+            final int i = Arrays.binarySearch(names, name);
+            return i < 0 ? TYPE_UNKNOWN : types[i];
+        }
+    }
+
+    /**
+     * File that serves its listing from the cache and knows its type
+     * from the listing of its parent.
+     */
+    private final class CachedFile extends File {
+        private static final long serialVersionUID = 1L;
+
+        private final byte type;
+        private transient volatile Listing listing;
+
+        CachedFile(String path, byte type) {
+            super(path);
+            this.type = type;
+        }
+
+        @Override
+        public String[] list() {
+            if (type == TYPE_FILE || type == TYPE_OTHER) {
+                return null;
+            }
+            listing = DirectoryListingCache.this.list(this);
+            return listing == null ? null : listing.names.clone();
+        }
+
+        @Override
+        public boolean exists() {
+            return type == TYPE_UNKNOWN ? super.exists() : true;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return type == TYPE_UNKNOWN ? super.isDirectory() : type == TYPE_DIRECTORY;
+        }
+
+        @Override
+        public boolean isFile() {
+            return type == TYPE_UNKNOWN ? super.isFile() : type == TYPE_FILE;
+        }
+
+        /**
+         * Creates the File for a child of this directory, only valid
+         * after the directory has been listed.
+         */
+        File child(String name) {
+            final Listing l = listing;
+            return new CachedFile(new File(this, name).getPath(),
+                                  l == null ? TYPE_UNKNOWN : l.typeOf(name));
+        }
+    }
+
+    /**
+     * Creates the File for a child of a directory that has been
+     * obtained from a DirectoryListingCache.
+     * @param dir the directory, must have been listed already if it has
+     * been obtained from a cache.
+     * @param name the name of the child.
+     * @return the child or null if dir has not been obtained from a
+     * cache.
+     */
+    public static File getChild(File dir, String name) {
+        return dir instanceof CachedFile ? ((CachedFile) dir).child(name) : null;
+    }
+
+    /**
+     * Saves the cache when the build of a project finishes, which is
+     * signalled by a subBuildFinished event for projects created by
+     * <code>&lt;ant&gt;</code> and friends.
+     */
+    private final class SaveListener implements SubBuildListener {
+        private final Project project;
+
+        SaveListener(Project project) {
+            this.project = project;
+        }
+
+        private void saveCache() {
+            try {
+                save();
+            } catch (IOException ex) {
+                project.log("Failed to save directory listing cache " + cacheFile
+                            + ": " + ex.getMessage(), Project.MSG_WARN);
+            }
+        }
+
+        @Override
+        public void buildStarted(BuildEvent event) {
+            // no-op
+        }
+
+        @Override
+        public void buildFinished(BuildEvent event) {
+            saveCache();
+        }
+
+        @Override
+        public void targetStarted(BuildEvent event) {
+            // no-op
+        }
+
+        @Override
+        public void targetFinished(BuildEvent event) {
+            // no-op
+        }
+
+        @Override
+        public void taskStarted(BuildEvent event) {
+            // no-op
+        }
+
+        @Override
+        public void taskFinished(BuildEvent event) {
+            // no-op
+        }
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+            // no-op
+        }
+
+        @Override
+        public void subBuildStarted(BuildEvent event) {
+            // no-op
+        }
+
+        @Override
+        public void subBuildFinished(BuildEvent event) {
+            if (event.getProject() == project) {
+                saveCache();
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes message digests of files.
+ *
+ * <p>Instances are thread-safe, each thread uses its own {@link
+ * MessageDigest} and read buffer. Files are read through a {@link
+ * FileChannel} into a direct buffer that is reused for all files read
+ * by the same thread.</p>
+ *
+ * <p>Optionally digests are kept in a cache file keyed by the
+ * absolute path, size and modification time of the file, unchanged
+ * files are not read again. Digests of files that have been modified
+ * within the timestamp granularity of the file system before they
+ * have been read are never trusted, as further modifications within
+ * the same tick would go unnoticed.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class FileDigester {
+
+    /** The default size of the read buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private static final int MAGIC = 0x414e5448; // "ANTH"
+    private static final int FORMAT_VERSION = 1;
+
+    private final String algorithm;
+    private final String provider;
+    private final ThreadLocal<MessageDigest> digests;
+    private final ThreadLocal<ByteBuffer> buffers;
+    private final long granularity = FILE_UTILS.getFileTimestampGranularity();
+
+    private int readBufferSize = DEFAULT_BUFFER_SIZE;
+    private File cacheFile;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private volatile boolean dirty = false;
+
+    /**
+     * Creates a digester for the given algorithm.
+     * @param algorithm the name of the message digest algorithm
+     * @param provider the name of the provider, may be null
+     * @throws NoSuchAlgorithmException if the algorithm is not available
+     * @throws NoSuchProviderException if the provider is not available
+     */
+    public FileDigester(String algorithm, String provider)
+        throws NoSuchAlgorithmException, NoSuchProviderException {
+        this.algorithm = algorithm;
+        this.provider = provider;
+        // fail early for unknown algorithms or providers
+        createMessageDigest();
+        digests = ThreadLocal.withInitial(() -> {
+            try {
+                return createMessageDigest();
+            } catch (NoSuchAlgorithmException | NoSuchProviderException ex) {
+                // has worked before
+                throw new IllegalStateException(ex);
+            }
+        });
+        buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(readBufferSize));
+    }
+
+    private MessageDigest createMessageDigest()
+        throws NoSuchAlgorithmException, NoSuchProviderException {
+        return provider == null ? MessageDigest.getInstance(algorithm)
+            : MessageDigest.getInstance(algorithm, provider);
+    }
+
+    /**
+     * Sets the size of the buffer used to read files, must be called
+     * before the first digest is computed.
+     * @param size the size of the buffer
+     */
+    public void setReadBufferSize(int size) {
+        readBufferSize = size;
+    }
+
+    /**
+     * Reads the given cache file and uses it for all following
+     * digests.
+     * @param cacheFile the cache file, may not exist
+     */
+    public void setCacheFile(File cacheFile) {
+        this.cacheFile = cacheFile;
+        cache.clear();
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(cacheFile.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                || !getCacheKey().equals(in.readUTF())) {
+                return;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final String path = in.readUTF();
+                final long length = in.readLong();
+                final long lastModified = in.readLong();
+                final long digestedAt = in.readLong();
+                final byte[] digest = new byte[in.readUnsignedShort()];
+                in.readFully(digest);
+                cache.put(path, new Entry(length, lastModified, digestedAt, digest));
+            }
+        } catch (IOException ex) {
+            // a broken cache is as good as no cache
+            cache.clear();
+        }
+    }
+
+    /**
+     * Writes the cache file if any digest has been added or removed.
+     * @throws IOException on error
+     */
+    public synchronized void saveCache() throws IOException {
+        if (cacheFile == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        final File dir = cacheFile.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        final File tmp = FILE_UTILS.createTempFile(null, "digest", ".tmp", dir,
+                                                   true, false);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(getCacheKey());
+            final Map<String, Entry> snapshot = new HashMap<>(cache);
+            // forget files that have been removed
+            snapshot.keySet().removeIf(path -> !new File(path).isFile());
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> e : snapshot.entrySet()) {
+                final Entry entry = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeLong(entry.length);
+                out.writeLong(entry.lastModified);
+                out.writeLong(entry.digestedAt);
+                out.writeShort(entry.digest.length);
+                out.write(entry.digest);
+            }
+        }
+        Files.move(tmp.toPath(), cacheFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String getCacheKey() {
+        return provider == null ? algorithm : algorithm + "/" + provider;
+    }
+
+    /**
+     * Computes the digest of a single file.
+     * @param file the file
+     * @return the digest
+     * @throws IOException if the file cannot be read
+     */
+    public byte[] digest(File file) throws IOException {
+        final String key = file.getAbsolutePath();
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        if (cacheFile != null) {
+            final Entry cached = cache.get(key);
+            if (cached != null && cached.length == length
+                && cached.lastModified == lastModified
+                && lastModified + granularity < cached.digestedAt) {
+                return cached.digest.clone();
+            }
+        }
+        final long digestedAt = System.currentTimeMillis();
+        final byte[] digest = read(file);
+        if (cacheFile != null) {
+            cache.put(key, new Entry(length, lastModified, digestedAt, digest.clone()));
+            dirty = true;
+        }
+        return digest;
+    }
+
+    /**
+     * Computes the digests of several files.
+     * @param files the files
+     * @param threads the maximum number of files to read at the same time
+     * @return the digests in the order of the given files
+     * @throws IOException if a file cannot be read
+     */
+    public Map<File, byte[]> digest(Collection<File> files, int threads)
+        throws IOException {
+        final Map<File, byte[]> result = new LinkedHashMap<>();
+        final int threadCount = Math.min(threads, files.size());
+        if (threadCount <= 1) {
+            for (File f : files) {
+                result.put(f, digest(f));
+            }
+            return result;
+        }
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = new Thread(r, "digest-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            final List<Future<byte[]>> digests = new ArrayList<>();
+            for (File f : files) {
+                digests.add(pool.submit(() -> digest(f)));
+            }
+            int i = 0;
+            for (File f : files) {
+                result.put(f, digests.get(i++).get());
+            }
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while computing digests", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private byte[] read(File file) throws IOException {
+        final MessageDigest md = digests.get();
+        md.reset();
+        final ByteBuffer buffer = buffers.get();
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                                                    StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        }
+        return md.digest();
+    }
+
+    private static final class Entry {
+        private final long length;
+        private final long lastModified;
+        private final long digestedAt;
+        private final byte[] digest;
+
+        Entry(long length, long lastModified, long digestedAt, byte[] digest) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.digestedAt = digestedAt;
+            this.digest = digest;
+        }
+    }
+}
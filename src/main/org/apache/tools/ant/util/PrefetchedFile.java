@@ -0,0 +1,175 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A File that reads its basic attributes once when it is created and
+ * answers {@link #exists}, {@link #isDirectory}, {@link #isFile},
+ * {@link #lastModified} and {@link #length} from that snapshot.
+ *
+ * <p>Used by the {@link org.apache.tools.ant.DirectoryScanner} so
+ * selectors don't have to query the file system again.  The snapshot
+ * can be limited to a scope - like the scan that has created the
+ * file - and once that scope has ended the file system is queried
+ * again.  Any modification made through this instance discards the
+ * snapshot, modifications made by other means are not seen while the
+ * snapshot is in use.</p>
+ *
+ * @since Ant 1.10.18
+ */
+public class PrefetchedFile extends File {
+
+    private static final long serialVersionUID = 1L;
+
+    /** null if the file didn't exist or the snapshot has been discarded */
+    private transient volatile BasicFileAttributes attributes;
+    private transient volatile boolean valid = true;
+    /** null if the snapshot is not limited to a scope */
+    private final transient AtomicBoolean scope;
+
+    /**
+     * Creates the file and reads its attributes, following symbolic links.
+     * @param parent the parent directory
+     * @param child the name of the file
+     */
+    public PrefetchedFile(File parent, String child) {
+        this(parent, child, null);
+    }
+
+    /**
+     * Creates the file and reads its attributes, following symbolic
+     * links, the attributes are only used while the scope is true.
+     * @param parent the parent directory
+     * @param child the name of the file
+     * @param scope the snapshot is used as long as this is true, may
+     * be null if the snapshot shall always be used
+     */
+    public PrefetchedFile(File parent, String child, AtomicBoolean scope) {
+        super(parent, child);
+        this.scope = scope;
+        BasicFileAttributes attrs = null;
+        try {
+            attrs = Files.readAttributes(toPath(), BasicFileAttributes.class);
+        } catch (IOException | SecurityException ex) {
+            // the same as File.exists() returning false
+        }
+        attributes = attrs;
+    }
+
+    @Override
+    public boolean exists() {
+        return isValid() ? attributes != null : super.exists();
+    }
+
+    @Override
+    public boolean isDirectory() {
+        if (!isValid()) {
+            return super.isDirectory();
+        }
+        final BasicFileAttributes attrs = attributes;
+        return attrs != null && attrs.isDirectory();
+    }
+
+    @Override
+    public boolean isFile() {
+        if (!isValid()) {
+            return super.isFile();
+        }
+        final BasicFileAttributes attrs = attributes;
+        return attrs != null && attrs.isRegularFile();
+    }
+
+    @Override
+    public long lastModified() {
+        if (!isValid()) {
+            return super.lastModified();
+        }
+        final BasicFileAttributes attrs = attributes;
+        return attrs == null ? 0L : attrs.lastModifiedTime().toMillis();
+    }
+
+    @Override
+    public long length() {
+        if (!isValid()) {
+            return super.length();
+        }
+        final BasicFileAttributes attrs = attributes;
+        return attrs == null ? 0L : attrs.size();
+    }
+
+    /**
+     * Doesn't try to list anything that isn't a directory.
+     * @return the names of the directory's children or null if this
+     * is not a directory.
+     */
+    @Override
+    public String[] list() {
+        return isValid() && !isDirectory() ? null : super.list();
+    }
+
+    @Override
+    public boolean setLastModified(long time) {
+        discard();
+        return super.setLastModified(time);
+    }
+
+    @Override
+    public boolean delete() {
+        discard();
+        return super.delete();
+    }
+
+    @Override
+    public boolean renameTo(File dest) {
+        discard();
+        return super.renameTo(dest);
+    }
+
+    @Override
+    public boolean createNewFile() throws IOException {
+        discard();
+        return super.createNewFile();
+    }
+
+    @Override
+    public boolean mkdir() {
+        discard();
+        return super.mkdir();
+    }
+
+    @Override
+    public boolean mkdirs() {
+        discard();
+        return super.mkdirs();
+    }
+
+    private boolean isValid() {
+        return valid && (scope == null || scope.get());
+    }
+
+    private void discard() {
+        valid = false;
+        attributes = null;
+    }
+}
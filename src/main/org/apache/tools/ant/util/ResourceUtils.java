@@ -209,17 +209,21 @@ public class ResourceUtils {
             r.add(targetColl);
             if (r.size() > 0) {
                 result.add(sr);
-                final Resource t = r.iterator().next();
-                logTo.log(sr.getName() + " added as " + t.getName()
-                    + (t.isExists() ? " is outdated." : " doesn't exist."),
-                    Project.MSG_VERBOSE);
+                if (isLoggingEnabled(logTo, Project.MSG_VERBOSE)) {
+                    final Resource t = r.iterator().next();
+                    logTo.log(sr.getName() + " added as " + t.getName()
+                        + (t.isExists() ? " is outdated." : " doesn't exist."),
+                        Project.MSG_VERBOSE);
+                }
                 continue;
             }
             //log uptodateness of all targets:
-            logTo.log(sr.getName()
-                  + " omitted as " + targetColl.toString()
-                  + (targetColl.size() == 1 ? " is" : " are ")
-                  + " up to date.", Project.MSG_VERBOSE);
+            if (isLoggingEnabled(logTo, Project.MSG_VERBOSE)) {
+                logTo.log(sr.getName()
+                      + " omitted as " + targetColl.toString()
+                      + (targetColl.size() == 1 ? " is" : " are ")
+                      + " up to date.", Project.MSG_VERBOSE);
+            }
         }
         return result;
     }
@@ -795,6 +799,13 @@ public class ResourceUtils {
                 && FileUtils.getFileUtils().areSame(fileResource1.getFile(), fileResource2.getFile());
     }
 
+    private static boolean isLoggingEnabled(final ProjectComponent logTo,
+                                            final int level) {
+        final Project project = logTo.getProject();
+        // without a project messages go to System.err
+        return project == null || project.isLoggingEnabled(level);
+    }
+
     private static void log(final Project project, final String message) {
         log(project, message, Project.MSG_VERBOSE);
     }
@@ -97,8 +97,15 @@ public class ZipFile implements Closeable {
     private static final class OffsetEntry {
         private long headerOffset = -1;
         private long dataOffset = -1;
+        private long centralDirectoryOffset = -1;
+        private int centralDirectoryLength = -1;
     }
 
+    /**
+     * Offset of the first central directory record.
+     */
+    private long centralDirectoryStart = -1;
+
     /**
      * The encoding to use for filenames and the file comment.
      *
@@ -396,6 +403,78 @@ public class ZipFile implements Closeable {
         }
     }
 
+    /**
+     * Returns an InputStream for reading the content of the given
+     * entry as it is stored inside the archive, i.e. without
+     * decompressing it.
+     *
+     * <p>This can be used to copy the entry to another archive using
+     * {@link ZipOutputStream#addRawEntry} without compressing it
+     * again.</p>
+     *
+     * @param ze the entry to get the stream for.
+     * @return a stream to read the compressed data of the entry from
+     * or null if the entry doesn't belong to this archive.
+     * @since Ant 1.10.18
+     */
+    public InputStream getRawInputStream(final ZipEntry ze) {
+        if (!(ze instanceof Entry)) {
+            return null;
+        }
+        final OffsetEntry offsetEntry = ((Entry) ze).getOffsetEntry();
+        return new BoundedInputStream(offsetEntry.dataOffset,
+                                      ze.getCompressedSize());
+    }
+
+    /**
+     * The number of bytes occupied by the local file headers and data
+     * of all entries listed in the central directory.
+     *
+     * <p>Data descriptors are not taken into account, so this is an
+     * approximation.</p>
+     *
+     * @return long
+     * @since Ant 1.10.18
+     */
+    public long getUsedEntryDataSize() {
+        long used = 0;
+        for (ZipEntry ze : entries) {
+            final OffsetEntry offsetEntry = ((Entry) ze).getOffsetEntry();
+            used += offsetEntry.dataOffset - offsetEntry.headerOffset
+                + ze.getCompressedSize();
+        }
+        return used;
+    }
+
+    /**
+     * The number of bytes occupied by the data of entries, including
+     * the data of entries that are no longer listed in the central
+     * directory.
+     *
+     * @return long
+     * @since Ant 1.10.18
+     */
+    public long getEntryDataSize() {
+        return centralDirectoryStart;
+    }
+
+    /**
+     * Reads the central directory record of the given entry as it is
+     * stored inside the archive.
+     * @param ze the entry
+     * @return the record
+     * @throws IOException on error
+     */
+    byte[] getCentralDirectoryRecord(final ZipEntry ze) throws IOException {
+        final OffsetEntry offsetEntry = ((Entry) ze).getOffsetEntry();
+        final byte[] record = new byte[offsetEntry.centralDirectoryLength];
+        synchronized (archive) {
+            archive.seek(offsetEntry.centralDirectoryOffset);
+            archive.readFully(record);
+        }
+        return record;
+    }
+
     public String getName() {
         return archiveName;
     }
@@ -459,6 +538,7 @@ public class ZipFile implements Closeable {
         final Map<ZipEntry, NameAndComment> noUTF8Flag = new HashMap<>();
 
         positionAtCentralDirectory();
+        centralDirectoryStart = archive.getFilePointer();
 
         archive.readFully(WORD_BUF);
         long sig = ZipLong.getValue(WORD_BUF);
@@ -488,6 +568,7 @@ public class ZipFile implements Closeable {
     private void
         readCentralDirectoryEntry(final Map<ZipEntry, NameAndComment> noUTF8Flag)
         throws IOException {
+        final long recordStart = archive.getFilePointer() - WORD;
         archive.readFully(CFH_BUF);
         int off = 0;
         final OffsetEntry offset = new OffsetEntry();
@@ -568,6 +649,9 @@ public class ZipFile implements Closeable {
         final byte[] comment = new byte[commentLen];
         archive.readFully(comment);
         ze.setComment(entryEncoding.decode(comment));
+        offset.centralDirectoryOffset = recordStart;
+        offset.centralDirectoryLength =
+            (int) (archive.getFilePointer() - recordStart);
 
         if (!hasUTF8Flag && useUnicodeExtraFields) {
             noUTF8Flag.put(ze, new NameAndComment(fileName, comment));
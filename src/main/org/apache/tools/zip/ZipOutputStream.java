@@ -33,16 +33,31 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
 import java.util.zip.ZipException;
@@ -72,6 +87,9 @@ import java.util.zip.ZipException;
  * control is provided via {@link #setUseZip64}.  If the stream can not
  * user RandomAccessFile and you try to write a ZipEntry of
  * unknown size then Zip64 extensions will be disabled by default.</p>
+ *
+ * <p>As of Apache Ant 1.10.18 the data of entries can be compressed
+ * by several threads concurrently, see {@link #setParallelism}.</p>
  */
 public class ZipOutputStream extends FilterOutputStream {
 
@@ -330,6 +348,70 @@ public class ZipOutputStream extends FilterOutputStream {
      */
     private final byte[] oneByte = new byte[1];
 
+    /**
+     * Entries larger than this are not compressed in parallel but
+     * written directly.
+     */
+    private static final int MAX_PENDING_ENTRY_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Upper limit of the number of uncompressed bytes held in memory
+     * for entries that have not been written, yet.
+     */
+    private static final long MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Number of threads compressing entries.
+     */
+    private int parallelism = 1;
+
+    /**
+     * Compresses entries if parallelism is bigger than one.
+     */
+    private ExecutorService compressor;
+
+    /**
+     * Deflaters used by the compressor threads that are currently
+     * not in use.
+     */
+    private final Queue<Deflater> idleDeflaters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Entry whose data is collected to be compressed by the
+     * compressor, null if there is no such entry.
+     */
+    private PendingEntry pendingEntry;
+
+    /**
+     * Entries that have been closed but not been written, yet, in the
+     * order they have been added.
+     */
+    private final Deque<PendingEntry> pendingEntries = new ArrayDeque<>();
+
+    /**
+     * Uncompressed size of all entries in pendingEntries.
+     */
+    private long pendingBytes = 0;
+
+    /**
+     * Whether entries are added to an existing archive.
+     */
+    private boolean appending = false;
+
+    /**
+     * Central directory records of the entries of the archive that
+     * is being updated.
+     */
+    private final List<ExistingEntry> existingEntries = new ArrayList<>();
+
+    /**
+     * Offset and content of the central directory, including the
+     * end of central directory records, of the archive that is being
+     * updated.
+     */
+    private long originalCentralDirectoryOffset;
+    private byte[] originalCentralDirectory;
+
     /**
      * Creates a new ZIP OutputStream filtering the underlying stream.
      * @param out the outputstream to zip
@@ -367,6 +449,95 @@ public class ZipOutputStream extends FilterOutputStream {
         raf = ranf;
     }
 
+    /**
+     * Creates a new ZIP OutputStream that adds entries to an existing
+     * archive.
+     *
+     * <p>The data of the existing entries is left untouched, new
+     * entries are written in place of the existing central directory
+     * and a new central directory is written when the stream is
+     * finished. It lists all existing entries except for those that
+     * have the same name as one of the added entries in their
+     * original order followed by the added entries. The data of
+     * replaced entries remains inside the archive as unused space
+     * that will still be seen by tools reading the archive
+     * sequentially rather than using the central directory.</p>
+     *
+     * <p>If writing fails before the stream has been finished the
+     * archive will be corrupt unless {@link #restore} is invoked.</p>
+     *
+     * @param file the archive to add entries to
+     * @param existing the archive to add entries to, opened for
+     * reading, may be closed once this constructor returns.
+     * @throws IOException on error
+     * @since Ant 1.10.18
+     */
+    public ZipOutputStream(File file, ZipFile existing) throws IOException {
+        super(null);
+        for (ZipEntry ze : Collections.list(existing.getEntries())) {
+            existingEntries.add(new ExistingEntry(ze.getName(),
+                existing.getCentralDirectoryRecord(ze)));
+        }
+        written = existing.getEntryDataSize();
+        raf = new RandomAccessFile(file, "rw");
+        try {
+            final long length = raf.length() - written;
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Central directory of " + file
+                    + " is too big to update the archive");
+            }
+            originalCentralDirectoryOffset = written;
+            originalCentralDirectory = new byte[(int) length];
+            raf.seek(written);
+            raf.readFully(originalCentralDirectory);
+            raf.seek(written);
+        } catch (IOException ex) {
+            raf.close();
+            throw ex;
+        }
+        appending = true;
+    }
+
+    /**
+     * Whether this stream adds entries to an existing archive.
+     *
+     * @return boolean
+     * @since Ant 1.10.18
+     */
+    public boolean isAppending() {
+        return appending;
+    }
+
+    /**
+     * Discards all entries that have been added to the existing
+     * archive, restores the archive's original central directory and
+     * length and closes the stream.
+     *
+     * <p>Must only be used on streams that {@link #isAppending
+     * append} to an existing archive, and only if the stream has not
+     * been finished successfully.</p>
+     *
+     * @throws IOException on error
+     * @since Ant 1.10.18
+     */
+    public void restore() throws IOException {
+        if (!appending) {
+            throw new IllegalStateException("This stream doesn't append to"
+                                            + " an existing archive");
+        }
+        try {
+            shutdownCompressor();
+            raf.seek(originalCentralDirectoryOffset);
+            raf.write(originalCentralDirectory);
+            raf.setLength(originalCentralDirectoryOffset
+                          + originalCentralDirectory.length);
+        } finally {
+            finished = true;
+            def.end();
+            destroy();
+        }
+    }
+
     /**
      * This method indicates whether this archive is writing to a
      * seekable stream (i.e., to a random access file).
@@ -494,6 +665,60 @@ public class ZipOutputStream extends FilterOutputStream {
         zip64Mode = mode;
     }
 
+    /**
+     * Sets the number of threads used to compress the data of the
+     * entries.
+     *
+     * <p>If bigger than one, the data written for an entry is
+     * collected in memory and compressed by a pool of threads once
+     * the entry is closed while the data of the next entry is
+     * written. The entries are still written to the archive in the
+     * order they have been added and the resulting archive is the
+     * same as the one created by a single thread. Entries bigger than
+     * 16 MB are always compressed by the writing thread.</p>
+     *
+     * <p>Headers are written when the compressed data of an entry
+     * becomes available, so encoding and Zip64 settings should not
+     * be changed after the first entry has been added. Errors
+     * concerning an entry may be reported by a later call to
+     * {@link #putNextEntry}, {@link #closeEntry}, {@link #flush} or
+     * {@link #finish}.</p>
+     *
+     * <p>Defaults to 1.</p>
+     *
+     * @param threads number of threads
+     * @throws IllegalStateException if entries have already been added.
+     * @since Ant 1.10.18
+     */
+    public void setParallelism(int threads) {
+        if (entry != null || pendingEntry != null || !entries.isEmpty()
+            || !pendingEntries.isEmpty()) {
+            throw new IllegalStateException("parallelism must be set before"
+                                            + " adding any entries");
+        }
+        shutdownCompressor();
+        parallelism = Math.max(1, threads);
+        if (parallelism > 1) {
+            final AtomicInteger count = new AtomicInteger();
+            compressor = Executors.newFixedThreadPool(parallelism, r -> {
+                Thread t = new Thread(r, "zip-compressor-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * The number of threads used to compress the data of the
+     * entries.
+     *
+     * @return int
+     * @since Ant 1.10.18
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     /**
      * Finish writing the archive.
      *
@@ -506,15 +731,29 @@ public class ZipOutputStream extends FilterOutputStream {
             throw new IOException("This archive has already been finished");
         }
 
-        if (entry != null) {
+        if (entry != null || pendingEntry != null) {
             closeEntry();
         }
+        writePendingEntries();
+        shutdownCompressor();
+
+        if (appending) {
+            final Set<String> added = new HashSet<>();
+            for (ZipEntry ze : entries) {
+                added.add(ze.getName());
+            }
+            existingEntries.removeIf(e -> added.contains(e.name));
+        }
 
         cdOffset = written;
         writeCentralDirectoryInChunks();
         cdLength = written - cdOffset;
         writeZip64CentralDirectory();
         writeCentralDirectoryEnd();
+        if (appending) {
+            // the new central directory may be shorter than the old one
+            raf.setLength(raf.getFilePointer());
+        }
         offsets.clear();
         entries.clear();
         def.end();
@@ -525,6 +764,14 @@ public class ZipOutputStream extends FilterOutputStream {
         final int NUM_PER_WRITE = 1000;
         final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(70 * NUM_PER_WRITE);
         int count = 0;
+        for (ExistingEntry e : existingEntries) {
+            byteArrayOutputStream.write(e.centralDirectoryRecord);
+            if (++count > NUM_PER_WRITE) {
+                writeCounted(byteArrayOutputStream.toByteArray());
+                byteArrayOutputStream.reset();
+                count = 0;
+            }
+        }
         for (ZipEntry ze : entries) {
             byteArrayOutputStream.write(createCentralFileHeader(ze));
             if (++count > NUM_PER_WRITE) {
@@ -546,6 +793,10 @@ public class ZipOutputStream extends FilterOutputStream {
      * is {@link Zip64Mode#Never}.
      */
     public void closeEntry() throws IOException {
+        if (pendingEntry != null) {
+            closePendingEntry();
+            return;
+        }
         preClose();
 
         flushDeflater();
@@ -740,10 +991,99 @@ public class ZipOutputStream extends FilterOutputStream {
             throw new IOException("Stream has already been finished");
         }
 
-        if (entry != null) {
+        if (entry != null || pendingEntry != null) {
+            closeEntry();
+        }
+
+        if (compressor != null) {
+            setDefaults(archiveEntry);
+            pendingEntry = new PendingEntry(archiveEntry, level, buf.length);
+            return;
+        }
+        writeEntryHeader(archiveEntry);
+    }
+
+    /**
+     * Adds an entry whose data has already been compressed, usually
+     * copied from another archive using {@link
+     * ZipFile#getRawInputStream}.
+     *
+     * <p>The entry must use the {@link #STORED STORED} or {@link
+     * #DEFLATED DEFLATED} method and its CRC, size and compressed
+     * size must be known. The data is copied as is, the compression
+     * level of this stream does not apply.</p>
+     *
+     * @param archiveEntry the entry to add
+     * @param rawData the compressed data of the entry, the caller is
+     * responsible for closing the stream.
+     * @throws IOException on error
+     * @throws Zip64RequiredException if the entry's uncompressed or
+     * compressed size exceeds 4 GByte and {@link #setUseZip64}
+     * is {@link Zip64Mode#Never}.
+     * @since Ant 1.10.18
+     */
+    public void addRawEntry(ZipEntry archiveEntry, InputStream rawData)
+        throws IOException {
+        if (finished) {
+            throw new IOException("Stream has already been finished");
+        }
+        if (archiveEntry.getMethod() != STORED && archiveEntry.getMethod() != DEFLATED) {
+            throw new ZipException("Can't copy entry " + archiveEntry.getName()
+                                   + " using compression method "
+                                   + archiveEntry.getMethod());
+        }
+        if (archiveEntry.getCrc() == -1 || archiveEntry.getSize() == -1
+            || archiveEntry.getCompressedSize() == -1) {
+            throw new ZipException("CRC and sizes of entry " + archiveEntry.getName()
+                                   + " must be known in order to copy it");
+        }
+
+        if (entry != null || pendingEntry != null) {
             closeEntry();
         }
 
+        if (compressor != null
+            && archiveEntry.getCompressedSize() <= MAX_PENDING_ENTRY_SIZE) {
+            // queue it so it keeps its position relative to the
+            // entries that are still being compressed
+            final PendingEntry p = new PendingEntry(archiveEntry, level, buf.length);
+            p.raw = true;
+            final byte[] buffer = new byte[BUFFER_SIZE * 16];
+            int count;
+            while ((count = rawData.read(buffer)) != -1) {
+                p.write(buffer, 0, count);
+            }
+            enqueuePendingEntry(p);
+            return;
+        }
+
+        writePendingEntries();
+        writeEntryHeader(archiveEntry);
+        int count;
+        while ((count = rawData.read(buf, 0, buf.length)) != -1) {
+            writeCounted(buf, 0, count);
+        }
+        closeCopiedEntry(archiveEntry.getSize(), archiveEntry.getCrc());
+    }
+
+    /**
+     * Closes the current entry after its compressed data has been
+     * written without using the Deflater of this stream.
+     */
+    private void closeCopiedEntry(long size, long crcValue) throws IOException {
+        entry.hasWritten = true;
+        entry.bytesRead = size;
+        final Zip64Mode effectiveMode = getEffectiveZip64Mode(entry.entry);
+        final boolean actuallyNeedsZip64 =
+            handleSizesAndCrc(written - entry.dataStart, crcValue, effectiveMode);
+        closeEntry(actuallyNeedsZip64);
+    }
+
+    /**
+     * Makes the given entry the current one and writes its local file
+     * header.
+     */
+    private void writeEntryHeader(ZipEntry archiveEntry) throws IOException {
         entry = new CurrentEntry(archiveEntry);
         entries.add(entry.entry);
 
@@ -931,6 +1271,14 @@ public class ZipOutputStream extends FilterOutputStream {
      */
     @Override
     public void write(byte[] b, int offset, int length) throws IOException {
+        if (pendingEntry != null) {
+            ZipUtil.checkRequestedFeatures(pendingEntry.entry);
+            pendingEntry.write(b, offset, length);
+            if (pendingEntry.size > MAX_PENDING_ENTRY_SIZE) {
+                writePendingEntryDirectly();
+            }
+            return;
+        }
         if (entry == null) {
             throw new IllegalStateException("No current entry");
         }
@@ -1014,6 +1362,7 @@ public class ZipOutputStream extends FilterOutputStream {
      */
     @Override
     public void flush() throws IOException {
+        writePendingEntries();
         if (out != null) {
             out.flush();
         }
@@ -1382,7 +1731,7 @@ public class ZipOutputStream extends FilterOutputStream {
         writeCounted(ZERO);
 
         // number of entries
-        int numberOfEntries = entries.size();
+        int numberOfEntries = getNumberOfEntries();
         if (numberOfEntries > ZIP64_MAGIC_SHORT
             && zip64Mode == Zip64Mode.Never) {
             throw new Zip64RequiredException(Zip64RequiredException
@@ -1473,7 +1822,7 @@ public class ZipOutputStream extends FilterOutputStream {
 
         if (!hasUsedZip64
             && (cdOffset >= ZIP64_MAGIC || cdLength >= ZIP64_MAGIC
-                || entries.size() >= ZIP64_MAGIC_SHORT)) {
+                || getNumberOfEntries() >= ZIP64_MAGIC_SHORT)) {
             // actually "will use"
             hasUsedZip64 = true;
         }
@@ -1507,7 +1856,7 @@ public class ZipOutputStream extends FilterOutputStream {
         writeOut(LZERO);
 
         // number of entries
-        byte[] num = ZipEightByteInteger.getBytes(entries.size());
+        byte[] num = ZipEightByteInteger.getBytes(getNumberOfEntries());
         writeOut(num);
         writeOut(num);
 
@@ -1573,6 +1922,132 @@ public class ZipOutputStream extends FilterOutputStream {
         return ZipUtil.adjustToLong(i);
     }
 
+    /**
+     * Hands the data of the pending entry to the compressor and
+     * writes finished entries as long as they are available or too
+     * much data is held in memory.
+     */
+    private void closePendingEntry() throws IOException {
+        final PendingEntry p = pendingEntry;
+        pendingEntry = null;
+        if (p.entry.getMethod() == DEFLATED) {
+            p.compressed = compressor.submit(() -> compress(p));
+        }
+        enqueuePendingEntry(p);
+    }
+
+    private void enqueuePendingEntry(PendingEntry p) throws IOException {
+        pendingEntries.add(p);
+        pendingBytes += p.size;
+        while (!pendingEntries.isEmpty()
+               && (pendingEntries.peek().isDone()
+                   || pendingBytes > MAX_PENDING_BYTES
+                   || pendingEntries.size() > 64 * parallelism)) {
+            writeNextPendingEntry();
+        }
+    }
+
+    /**
+     * Writes all entries that have been handed to the compressor.
+     */
+    private void writePendingEntries() throws IOException {
+        while (!pendingEntries.isEmpty()) {
+            writeNextPendingEntry();
+        }
+    }
+
+    /**
+     * Writes the oldest entry that has been handed to the compressor,
+     * waits for it to be compressed if necessary.
+     */
+    private void writeNextPendingEntry() throws IOException {
+        final PendingEntry p = pendingEntries.poll();
+        pendingBytes -= p.size;
+        writeEntryHeader(p.entry);
+        if (p.raw) {
+            writeCounted(p.data, 0, p.size);
+            closeCopiedEntry(p.entry.getSize(), p.entry.getCrc());
+        } else if (p.compressed == null) {
+            p.replay(this);
+            closeEntry();
+        } else {
+            final CompressedData data = p.getCompressedData();
+            writeCounted(data.bytes);
+            closeCopiedEntry(p.size, data.crc);
+        }
+    }
+
+    /**
+     * Turns the pending entry into the current entry once it has
+     * become too big to be held in memory.
+     */
+    private void writePendingEntryDirectly() throws IOException {
+        final PendingEntry p = pendingEntry;
+        pendingEntry = null;
+        writePendingEntries();
+        writeEntryHeader(p.entry);
+        p.replay(this);
+    }
+
+    /**
+     * Compresses the data of an entry, runs inside the compressor.
+     *
+     * <p>Feeds the Deflater exactly like {@link #writeDeflated} and
+     * {@link #flushDeflater} do so the result is the same.</p>
+     */
+    private CompressedData compress(PendingEntry p) {
+        Deflater deflater = idleDeflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(p.level, true);
+        } else {
+            deflater.setLevel(p.level);
+        }
+        try {
+            final CRC32 checksum = new CRC32();
+            final ByteArrayOutputStream result =
+                new ByteArrayOutputStream(p.size / 2 + BUFFER_SIZE);
+            final byte[] outBuf = new byte[p.bufferSize];
+            int offset = 0;
+            for (int i = 0; i < p.chunkCount; i++) {
+                final int length = p.chunks[i];
+                checksum.update(p.data, offset, length);
+                for (int done = 0; done < length; done += DEFLATER_BLOCK_SIZE) {
+                    deflater.setInput(p.data, offset + done,
+                                      Math.min(DEFLATER_BLOCK_SIZE, length - done));
+                    while (!deflater.needsInput()) {
+                        result.write(outBuf, 0, deflater.deflate(outBuf, 0, outBuf.length));
+                    }
+                }
+                offset += length;
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                result.write(outBuf, 0, deflater.deflate(outBuf, 0, outBuf.length));
+            }
+            deflater.reset();
+            // the uncompressed data is no longer needed
+            p.data = null;
+            return new CompressedData(result.toByteArray(), checksum.getValue());
+        } finally {
+            idleDeflaters.add(deflater);
+        }
+    }
+
+    private void shutdownCompressor() {
+        if (compressor != null) {
+            compressor.shutdownNow();
+            compressor = null;
+        }
+        Deflater d;
+        while ((d = idleDeflaters.poll()) != null) {
+            d.end();
+        }
+    }
+
+    private int getNumberOfEntries() {
+        return entries.size() + existingEntries.size();
+    }
+
     private void deflateUntilInputIsNeeded() throws IOException {
         while (!def.needsInput()) {
             deflate();
@@ -1685,6 +2160,7 @@ public class ZipOutputStream extends FilterOutputStream {
      * @throws IOException if close() fails
      */
     void destroy() throws IOException {
+        shutdownCompressor();
         if (raf != null) {
             raf.close();
         }
@@ -1725,6 +2201,103 @@ public class ZipOutputStream extends FilterOutputStream {
         }
     }
 
+    /**
+     * An entry of the archive that is being updated.
+     */
+    private static final class ExistingEntry {
+        private final String name;
+        private final byte[] centralDirectoryRecord;
+
+        private ExistingEntry(String name, byte[] centralDirectoryRecord) {
+            this.name = name;
+            this.centralDirectoryRecord = centralDirectoryRecord;
+        }
+    }
+
+    /**
+     * An entry whose data is held in memory until it has been
+     * compressed and can be written.
+     */
+    private static final class PendingEntry {
+        private final ZipEntry entry;
+        private final int level;
+        private final int bufferSize;
+        private byte[] data = new byte[BUFFER_SIZE];
+        private int size = 0;
+        /**
+         * Lengths of the non-empty chunks written, the Deflater must
+         * see the same chunks in order to create the same output.
+         */
+        private int[] chunks = new int[16];
+        private int chunkCount = 0;
+        private Future<CompressedData> compressed;
+        /** whether data holds already compressed data */
+        private boolean raw = false;
+
+        private PendingEntry(ZipEntry entry, int level, int bufferSize) {
+            this.entry = entry;
+            this.level = level;
+            this.bufferSize = bufferSize;
+        }
+
+        private void write(byte[] b, int offset, int length) {
+            if (length <= 0) {
+                return;
+            }
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(2 * data.length, size + length));
+            }
+            System.arraycopy(b, offset, data, size, length);
+            size += length;
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, 2 * chunks.length);
+            }
+            chunks[chunkCount++] = length;
+        }
+
+        /**
+         * Writes the collected data to the stream in the same chunks
+         * it has been received.
+         */
+        private void replay(ZipOutputStream zOut) throws IOException {
+            int offset = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                zOut.write(data, offset, chunks[i]);
+                offset += chunks[i];
+            }
+        }
+
+        private boolean isDone() {
+            return compressed == null || compressed.isDone();
+        }
+
+        private CompressedData getCompressedData() throws IOException {
+            try {
+                return compressed.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while compressing "
+                                      + entry.getName(), ex);
+            } catch (ExecutionException ex) {
+                throw new IOException("Failed to compress " + entry.getName(),
+                                      ex.getCause());
+            }
+        }
+    }
+
+    /**
+     * Compressed data and CRC of a pending entry.
+     */
+    private static final class CompressedData {
+        private final byte[] bytes;
+        private final long crc;
+
+        private CompressedData(byte[] bytes, long crc) {
+            this.bytes = bytes;
+            this.crc = crc;
+        }
+    }
+
     /**
      * Structure collecting information for the entry that is
      * currently being written.
@@ -28,8 +28,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.util.FileUtils;
@@ -40,6 +43,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test case for ant class loader
@@ -53,6 +57,9 @@ public class AntClassLoaderTest {
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private AntClassLoader loader;
 
     @Before
@@ -255,6 +262,74 @@ public class AntClassLoaderTest {
         }
     }
 
+    @Test
+    public void testResourcesAreFoundInClasspathOrder() throws IOException {
+        File dir = folder.newFolder("dir");
+        new File(dir, "a").mkdir();
+        new File(dir, "a/dir.txt").createNewFile();
+        File first = createJar("first.jar", "a/", "a/both.txt", "b/first.txt");
+        File second = createJar("second.jar", "a/both.txt", "a/dir.txt", "c/second.txt");
+
+        loader = new AntClassLoader(new EmptyLoader(), null, new Path(null), true);
+        loader.addPathComponent(first);
+        loader.addPathComponent(dir);
+        loader.addPathComponent(second);
+
+        assertTrue(loader.getResource("a/both.txt").toString().contains("first.jar!"));
+        assertTrue(loader.getResource("a/dir.txt").toString().startsWith("file:"));
+        assertTrue(loader.getResource("c/second.txt").toString().contains("second.jar!"));
+        assertNotNull(loader.getResource("a"));
+        assertNull(loader.getResource("d/none.txt"));
+        assertEquals(3, Collections.list(loader.getResources("a/dir.txt")).size()
+                     + Collections.list(loader.getResources("b/first.txt")).size());
+    }
+
+    @Test
+    public void testAddPathComponentUpdatesIndex() throws IOException {
+        File first = createJar("first.jar", "a/first.txt");
+        File second = createJar("second.jar", "a/second.txt", "b/second.txt");
+
+        loader = new AntClassLoader(new EmptyLoader(), null, new Path(null), true);
+        loader.addPathComponent(first);
+        assertNotNull(loader.getResource("a/first.txt"));
+        assertNull(loader.getResource("a/second.txt"));
+        assertNull(loader.getResource("b/second.txt"));
+
+        loader.addPathComponent(second);
+        assertNotNull(loader.getResource("a/second.txt"));
+        assertNotNull(loader.getResource("b/second.txt"));
+    }
+
+    @Test
+    public void testJarIsOpenedOnceALookupReachesIt() throws IOException {
+        File first = createJar("first.jar", "a/first.txt");
+        File second = createJar("second.jar", "a/second.txt");
+
+        loader = new AntClassLoader(new EmptyLoader(), null, new Path(null), true);
+        loader.addPathElement(first.getAbsolutePath());
+        loader.addPathElement(second.getAbsolutePath());
+        assertNotNull(loader.getResource("a/first.txt"));
+
+        // neither adding nor indexing the path has opened second.jar
+        writeJar(second, "b/second.txt");
+        assertNotNull(loader.getResource("b/second.txt"));
+        assertNull(loader.getResource("a/second.txt"));
+    }
+
+    private File createJar(String name, String... entries) throws IOException {
+        return writeJar(folder.newFile(name), entries);
+    }
+
+    private static File writeJar(File jar, String... entries) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            for (String entry : entries) {
+                out.putNextEntry(new JarEntry(entry));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
     private static class EmptyLoader extends ClassLoader {
         public URL getResource(String n) {
             return null;
@@ -0,0 +1,77 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.util.DirectoryListingCache;
+import org.apache.tools.ant.util.PrefetchedFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Runs all DirectoryScanner tests with a directory listing cache.
+ */
+public class CachingDirectoryScannerTest extends DirectoryScannerTest {
+
+    @Rule
+    public TemporaryFolder cacheFolder = new TemporaryFolder();
+
+    @Override
+    protected DirectoryScanner newScanner() {
+        DirectoryScanner scanner = new DirectoryScanner();
+        File output = new File(buildRule.getProject().getProperty("output"));
+        scanner.setListingCache(DirectoryListingCache.getCache(cacheFolder.getRoot(),
+                                                               output));
+        return scanner;
+    }
+
+    @Test
+    public void testRescanSeesSameFiles() {
+        File output = new File(buildRule.getProject().getProperty("output"));
+        DirectoryScanner first = newScanner();
+        first.setBasedir(output);
+        first.scan();
+        DirectoryScanner second = newScanner();
+        second.setBasedir(output);
+        second.scan();
+        assertArrayEquals(first.getIncludedFiles(), second.getIncludedFiles());
+        assertArrayEquals(first.getIncludedDirectories(),
+                          second.getIncludedDirectories());
+    }
+
+    @Test
+    public void testCacheDoesNotDisablePrefetching() {
+        File output = new File(buildRule.getProject().getProperty("output"));
+        for (int i = 0; i < 2; i++) {
+            DirectoryScanner ds = newScanner();
+            ds.setBasedir(output);
+            ds.setPrefetchAttributes(true);
+            ds.setIncludes(new String[] {"**/*.xml"});
+            ds.scan();
+            String name = "alpha" + File.separator + "beta" + File.separator + "beta.xml";
+            FileResource r = (FileResource) ds.getResource(name);
+            assertTrue(r.getFile() instanceof PrefetchedFile);
+        }
+    }
+}
@@ -61,7 +61,15 @@ public class DirectoryScannerTest {
     public void setUp() {
         buildRule.configureProject("src/etc/testcases/core/directoryscanner.xml");
         buildRule.getProject().executeTarget("setUp");
-        ds = new DirectoryScanner();
+        ds = newScanner();
+    }
+
+    /**
+     * Creates the scanner under test.
+     * @return a new DirectoryScanner
+     */
+    protected DirectoryScanner newScanner() {
+        return new DirectoryScanner();
     }
 
     @Test
@@ -156,7 +164,7 @@ public class DirectoryScannerTest {
         ds.scan();
         compareFiles(ds, expectedFiles, expectedDirectories);
         // redo the test, but the 2 include patterns are inverted
-        ds = new DirectoryScanner();
+        ds = newScanner();
         ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
         ds.setIncludes(new String[] {"alpha/beta/gamma/", "alpha/be?a/**"});
         ds.scan();
@@ -265,7 +273,7 @@ public class DirectoryScannerTest {
                 assertTrue("(1) zip package included", haveZipPackage);
                 assertTrue("(1) taskdefs package included", haveTaskdefsPackage);
 
-                ds = new DirectoryScanner();
+                ds = newScanner();
                 ds.setFollowSymlinks(false);
 
                 ds.setBasedir(dir);
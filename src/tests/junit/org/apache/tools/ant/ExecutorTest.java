@@ -19,7 +19,13 @@
 package org.apache.tools.ant;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Vector;
 
 import org.junit.Before;
@@ -42,6 +48,8 @@ public class ExecutorTest implements BuildListener  {
             = "org.apache.tools.ant.helper.SingleCheckExecutor";
     private static final String IGNORE_DEPS
             = "org.apache.tools.ant.helper.IgnoreDependenciesExecutor";
+    private static final String PARALLEL
+            = "org.apache.tools.ant.helper.ParallelExecutor";
 
     private static final Vector<String> TARGET_NAMES;
     static {
@@ -52,9 +60,12 @@ public class ExecutorTest implements BuildListener  {
 
     private int targetCount;
 
+    private final List<String> targetEvents = Collections.synchronizedList(new ArrayList<>());
+
     /* BuildListener stuff */
     public void targetStarted(BuildEvent event) {
         targetCount++;
+        targetEvents.add("started " + event.getTarget().getName());
     }
 
     public void buildStarted(BuildEvent event) {
@@ -64,6 +75,7 @@ public class ExecutorTest implements BuildListener  {
     }
 
     public void targetFinished(BuildEvent event) {
+        targetEvents.add("finished " + event.getTarget().getName());
     }
 
     public void taskStarted(BuildEvent event) {
@@ -73,6 +85,9 @@ public class ExecutorTest implements BuildListener  {
     }
 
     public void messageLogged(BuildEvent event) {
+        if (event.getMessage().startsWith("parallel ")) {
+            targetEvents.add(event.getMessage());
+        }
     }
 
     @Before
@@ -182,4 +197,58 @@ public class ExecutorTest implements BuildListener  {
         }
     }
 
+    @Test
+    public void testParallelExecutor() {
+        Project p = getProject(PARALLEL);
+        p.setNewProperty(MagicNames.ANT_EXECUTOR_THREADS, "2");
+        p.executeTargets(TARGET_NAMES);
+        assertEquals(3, targetCount);
+        assertEquals("started foo", targetEvents.get(0));
+        assertEquals("finished foo", targetEvents.get(1));
+        // events of each target are passed on in one piece
+        for (int i = 0; i < targetEvents.size(); i += 2) {
+            String name = targetEvents.get(i).substring("started ".length());
+            assertEquals("finished " + name, targetEvents.get(i + 1));
+        }
+        assertTrue(p.getBuildListeners().contains(this));
+    }
+
+    @Test
+    public void testParallelExecutorBuffersThreadsOfTarget() {
+        Project p = getProject(PARALLEL);
+        p.setNewProperty(MagicNames.ANT_EXECUTOR_THREADS, "2");
+        p.executeTargets(new Vector<>(Arrays.asList("p1", "p2")));
+        assertEquals(2, targetCount);
+        assertEquals(8, targetEvents.size());
+        for (String name : Arrays.asList("p1", "p2")) {
+            int start = targetEvents.indexOf("started " + name);
+            assertEquals(new HashSet<>(Arrays.asList("parallel " + name + " 1",
+                                                     "parallel " + name + " 2")),
+                         new HashSet<>(targetEvents.subList(start + 1, start + 3)));
+            assertEquals("finished " + name, targetEvents.get(start + 3));
+        }
+    }
+
+    @Test
+    public void testParallelFailure() {
+        thrown.expect(BuildException.class);
+        thrown.expectMessage("failfoo");
+        try {
+            getProject(PARALLEL, true).executeTargets(TARGET_NAMES);
+        } finally {
+            assertEquals(1, targetCount);
+        }
+    }
+
+    @Test
+    public void testKeepGoingParallel() {
+        thrown.expect(BuildException.class);
+        thrown.expectMessage("failfoo");
+        try {
+            getProject(PARALLEL, true, true).executeTargets(TARGET_NAMES);
+        } finally {
+            assertEquals(1, targetCount);
+        }
+    }
+
 }
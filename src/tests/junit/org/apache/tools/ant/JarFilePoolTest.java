@@ -0,0 +1,198 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import org.apache.tools.ant.types.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JarFilePoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File jar;
+
+    @Before
+    public void setUp() throws IOException {
+        jar = folder.newFile("test.jar");
+        writeJar(jar, "a.txt");
+    }
+
+    @Test
+    public void testJarFileIsShared() throws IOException {
+        JarFilePool pool = new JarFilePool(0);
+        JarFile first = pool.acquire(jar);
+        JarFile second = pool.acquire(jar);
+        assertSame(first, second);
+        pool.release(first);
+        assertTrue(isOpen(second));
+        pool.release(second);
+        assertFalse(isOpen(second));
+    }
+
+    @Test
+    public void testUnusedJarFileIsKeptOpen() throws IOException {
+        JarFilePool pool = new JarFilePool(1);
+        JarFile first = pool.acquire(jar);
+        pool.release(first);
+        assertTrue(isOpen(first));
+        assertSame(first, pool.acquire(jar));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedJarFileIsClosed() throws IOException {
+        File other = folder.newFile("other.jar");
+        writeJar(other, "b.txt");
+        JarFilePool pool = new JarFilePool(1);
+        JarFile first = pool.acquire(jar);
+        JarFile second = pool.acquire(other);
+        pool.release(first);
+        pool.release(second);
+        assertFalse(isOpen(first));
+        assertTrue(isOpen(second));
+    }
+
+    @Test
+    public void testModifiedJarIsOpenedAgain() throws IOException {
+        JarFilePool pool = new JarFilePool(1);
+        JarFile first = pool.acquire(jar);
+        writeJar(jar, "a.txt", "b.txt");
+        JarFile second = pool.acquire(jar);
+        assertNotSame(first, second);
+        assertTrue(second.getJarEntry("b.txt") != null);
+        assertTrue(isOpen(first));
+        pool.release(first);
+        assertFalse(isOpen(first));
+        pool.release(second);
+        assertTrue(isOpen(second));
+    }
+
+    @Test
+    public void testPoolIsOnlyUsedWhenEnabled() {
+        Project project = new Project();
+        assertNull(JarFilePool.getInstance(project));
+        project.setProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL, "0");
+        assertNull(JarFilePool.getInstance(project));
+        project.setProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL, "2");
+        JarFilePool pool = JarFilePool.getInstance(project);
+        assertNotNull(pool);
+        assertSame(pool, JarFilePool.getInstance(project));
+    }
+
+    @Test
+    public void testSubProjectUsesPoolOfParent() {
+        Project project = new Project();
+        project.setProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL, "2");
+        JarFilePool pool = JarFilePool.getInstance(project);
+        Project subProject = project.createSubProject();
+        subProject.addBuildListeners(project);
+        assertSame(pool, JarFilePool.getInstance(subProject));
+    }
+
+    @Test
+    public void testProjectsHaveTheirOwnLimits() throws IOException {
+        File other = folder.newFile("other.jar");
+        writeJar(other, "b.txt");
+        Project first = new Project();
+        first.setProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL, "2");
+        Project second = new Project();
+        second.setProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL, "1");
+        JarFilePool firstPool = JarFilePool.getInstance(first);
+        JarFilePool.getInstance(second);
+        JarFile a = firstPool.acquire(jar);
+        JarFile b = firstPool.acquire(other);
+        firstPool.release(a);
+        firstPool.release(b);
+        assertTrue(isOpen(a));
+        assertTrue(isOpen(b));
+        first.fireBuildFinished(null);
+        second.fireBuildFinished(null);
+    }
+
+    @Test
+    public void testUnusedJarFilesAreClosedWhenBuildFinishes() throws IOException {
+        File other = folder.newFile("other.jar");
+        writeJar(other, "b.txt");
+        Project project = new Project();
+        project.setProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL, "2");
+        JarFilePool pool = JarFilePool.getInstance(project);
+        JarFile unused = pool.acquire(jar);
+        JarFile used = pool.acquire(other);
+        pool.release(unused);
+        assertTrue(isOpen(unused));
+        project.fireBuildFinished(null);
+        assertFalse(isOpen(unused));
+        assertTrue(isOpen(used));
+        // released after the build has finished
+        pool.release(used);
+        assertFalse(isOpen(used));
+    }
+
+    @Test
+    public void testJarsReleasedAfterBuildHasFinishedAreClosed() throws IOException {
+        Project project = new Project();
+        project.setProperty(MagicNames.CLASSLOADER_JAR_FILE_POOL, "2");
+        // the pool gets registered before the loader and is finished first
+        JarFilePool pool = JarFilePool.getInstance(project);
+        AntClassLoader loader =
+            project.createClassLoader(new Path(project, jar.getAbsolutePath()));
+        assertNotNull(loader.getResource("a.txt"));
+        JarFile jarFile = pool.acquire(jar);
+        pool.release(jarFile);
+        assertTrue(isOpen(jarFile));
+
+        project.fireBuildFinished(null);
+        assertFalse(isOpen(jarFile));
+    }
+
+    private static boolean isOpen(JarFile jarFile) {
+        try {
+            jarFile.size();
+            return true;
+        } catch (IllegalStateException ex) {
+            return false;
+        }
+    }
+
+    private static void writeJar(File file, String... entries) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(file.toPath()))) {
+            for (String entry : entries) {
+                out.putNextEntry(new JarEntry(entry));
+                out.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.tools.ant.types.selectors.FilenameSelector;
+import org.apache.tools.ant.types.selectors.FileSelector;
+import org.junit.Test;
+
+/**
+ * Runs all DirectoryScanner tests with a parallel scan.
+ */
+public class ParallelDirectoryScannerTest extends DirectoryScannerTest {
+
+    @Override
+    protected DirectoryScanner newScanner() {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setParallelism(4);
+        return scanner;
+    }
+
+    @Test
+    public void testSameResultsAsSequentialScan() throws IOException {
+        File base = new File(buildRule.getProject().getProperty("output"), "tree");
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                File dir = new File(base, "d" + i + "/e" + j);
+                dir.mkdirs();
+                new File(dir, "f.java").createNewFile();
+                new File(dir, "g.txt").createNewFile();
+                new File(dir, "h.java").createNewFile();
+            }
+        }
+        FilenameSelector selector = new FilenameSelector();
+        selector.setName("**/h.java");
+        selector.setNegate(true);
+
+        DirectoryScanner sequential = new DirectoryScanner();
+        DirectoryScanner parallel = newScanner();
+        for (DirectoryScanner ds : Arrays.asList(sequential, parallel)) {
+            ds.setBasedir(base);
+            ds.setIncludes(new String[] {"**/*.java"});
+            ds.setExcludes(new String[] {"d3/**"});
+            ds.setSelectors(new FileSelector[] {selector});
+            ds.scan();
+        }
+        assertArrayEquals(sequential.getIncludedFiles(), parallel.getIncludedFiles());
+        assertArrayEquals(sequential.getIncludedDirectories(),
+                          parallel.getIncludedDirectories());
+        assertArrayEquals(sorted(sequential.getExcludedFiles()),
+                          parallel.getExcludedFiles());
+        assertArrayEquals(sorted(sequential.getNotIncludedFiles()),
+                          parallel.getNotIncludedFiles());
+        assertArrayEquals(sorted(sequential.getDeselectedFiles()),
+                          parallel.getDeselectedFiles());
+        assertArrayEquals(sorted(sequential.getNotIncludedDirectories()),
+                          parallel.getNotIncludedDirectories());
+    }
+
+    @Test
+    public void testPoolIsShutDownAfterScan() {
+        final Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+        DirectoryScanner ds = newScanner();
+        ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
+        ds.setSelectors(new FileSelector[] {(basedir, filename, file) -> {
+            if (ForkJoinTask.getPool() != null) {
+                pools.add(ForkJoinTask.getPool());
+            }
+            return true;
+        }});
+        ds.scan();
+        assertEquals(1, pools.size());
+        assertTrue(pools.iterator().next().isShutdown());
+    }
+
+    private static String[] sorted(String[] names) {
+        Arrays.sort(names);
+        return names;
+    }
+}
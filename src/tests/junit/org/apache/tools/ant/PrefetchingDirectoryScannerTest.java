@@ -0,0 +1,78 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.types.selectors.FileSelector;
+import org.apache.tools.ant.util.PrefetchedFile;
+import org.junit.Test;
+
+/**
+ * Runs all DirectoryScanner tests with prefetched file attributes.
+ */
+public class PrefetchingDirectoryScannerTest extends DirectoryScannerTest {
+
+    @Override
+    protected DirectoryScanner newScanner() {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setPrefetchAttributes(true);
+        return scanner;
+    }
+
+    @Test
+    public void testSelectorsSeePrefetchedFiles() {
+        final List<File> selected = new ArrayList<>();
+        DirectoryScanner ds = newScanner();
+        ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
+        ds.setIncludes(new String[] {"**/*.xml"});
+        ds.setSelectors(new FileSelector[] {(basedir, filename, file) -> selected.add(file)});
+        ds.scan();
+
+        assertEquals(2, selected.size());
+        selected.forEach(f -> assertTrue(f instanceof PrefetchedFile));
+        String name = "alpha" + File.separator + "beta" + File.separator + "beta.xml";
+        FileResource r = (FileResource) ds.getResource(name);
+        assertFalse(r.getFile() instanceof PrefetchedFile);
+        assertEquals(name, r.getName());
+        assertTrue(r.isExists());
+    }
+
+    @Test
+    public void testAttributesDontOutliveTheScan() {
+        final List<File> selected = new ArrayList<>();
+        DirectoryScanner ds = newScanner();
+        ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
+        ds.setIncludes(new String[] {"**/*.xml"});
+        ds.setSelectors(new FileSelector[] {(basedir, filename, file) -> selected.add(file)});
+        ds.scan();
+
+        final File file = selected.get(0);
+        final long modified = file.lastModified() - 100000L;
+        assertTrue(new File(file.getPath()).setLastModified(modified));
+        assertEquals(modified, file.lastModified());
+    }
+}
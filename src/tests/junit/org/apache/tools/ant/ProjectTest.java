@@ -24,6 +24,9 @@ import org.apache.tools.ant.input.PropertyFileInputHandler;
 import org.apache.tools.ant.taskdefs.condition.Os;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.Path;
@@ -39,6 +42,7 @@ import static org.hamcrest.Matchers.hasValue;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -337,6 +341,109 @@ public class ProjectTest {
         // be content if no exception has been thrown
     }
 
+    @Test
+    public void testMessagesNobodyIsInterestedInAreNotDispatched() {
+        final List<String> messages = new ArrayList<>();
+        DefaultLogger logger = new DefaultLogger() {
+            @Override
+            protected void printMessage(String message, java.io.PrintStream stream,
+                                        int priority) {
+                messages.add(message);
+            }
+        };
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        p.addBuildListener(logger);
+        assertTrue(p.isLoggingEnabled(Project.MSG_INFO));
+        assertFalse(p.isLoggingEnabled(Project.MSG_VERBOSE));
+
+        p.log("verbose", Project.MSG_VERBOSE);
+        p.log("info", Project.MSG_INFO);
+        assertEquals(1, messages.size());
+
+        logger.setMessageOutputLevel(Project.MSG_DEBUG);
+        assertTrue(p.isLoggingEnabled(Project.MSG_DEBUG));
+    }
+
+    @Test
+    public void testListenersNotLevelAwareReceiveAllMessages() {
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        p.addBuildListener(logger);
+        final List<String> messages = new ArrayList<>();
+        p.addBuildListener(new BuildListener() {
+            public void buildStarted(BuildEvent event) { }
+            public void buildFinished(BuildEvent event) { }
+            public void targetStarted(BuildEvent event) { }
+            public void targetFinished(BuildEvent event) { }
+            public void taskStarted(BuildEvent event) { }
+            public void taskFinished(BuildEvent event) { }
+            public void messageLogged(BuildEvent event) {
+                messages.add(event.getMessage());
+            }
+        });
+        assertTrue(p.isLoggingEnabled(Project.MSG_DEBUG));
+        p.log("debug", Project.MSG_DEBUG);
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    public void testDefaultLoggerOverridingMessageLoggedReceivesAllMessages() {
+        final List<String> messages = new ArrayList<>();
+        p.addBuildListener(new DefaultLogger() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                messages.add(event.getMessage());
+                super.messageLogged(event);
+            }
+        });
+        p.log("debug", Project.MSG_DEBUG);
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    public void testDeferredReferencesAreCreatedOnFirstUse() {
+        final List<String> created = new ArrayList<>();
+        p.addReference("own", "mine");
+        p.addDeferredReferences(Arrays.asList("own", "lazy", "missing", "replaced"), key -> {
+            created.add(key);
+            return "missing".equals(key) ? null : key + "-copy";
+        });
+        assertTrue(p.getReferenceNames().containsAll(Arrays.asList("own", "lazy", "missing")));
+        assertTrue(created.isEmpty());
+
+        assertEquals("mine", p.getReference("own"));
+        assertEquals("lazy-copy", p.getReference("lazy"));
+        assertEquals("lazy-copy", p.getReference("lazy"));
+        assertFalse(p.hasReference("missing"));
+        p.addReference("replaced", "new");
+        assertEquals("new", p.getReference("replaced"));
+        assertEquals(Arrays.asList("lazy", "missing"), created);
+    }
+
+    @Test
+    public void testCopyOfReferencesContainsDeferredReferences() {
+        p.addDeferredReferences(Arrays.asList("a", "b"), key -> key + "-copy");
+        assertThat(p.getCopyOfReferences(), hasValue("a-copy"));
+        assertThat(p.getReferences(), hasKey("b"));
+    }
+
+    @Test
+    public void testAddBuildListenersOfOtherProject() {
+        Project other = new Project();
+        DefaultLogger first = new DefaultLogger();
+        DefaultLogger second = new DefaultLogger();
+        other.addBuildListener(first);
+        other.addBuildListener(second);
+
+        p.addBuildListeners(other);
+        assertEquals(other.getBuildListeners(), p.getBuildListeners());
+        p.removeBuildListener(first);
+        assertEquals(2, other.getBuildListeners().size());
+
+        p.addBuildListeners(other);
+        assertEquals(Arrays.asList(second, first), p.getBuildListeners());
+    }
+
     private class DummyTaskPrivate extends Task {
         @SuppressWarnings("unused")
         public DummyTaskPrivate() {
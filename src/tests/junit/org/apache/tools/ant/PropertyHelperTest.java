@@ -18,11 +18,19 @@
 
 package org.apache.tools.ant;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.apache.tools.ant.property.LocalProperties;
+import org.apache.tools.ant.property.PropertyExpander;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class PropertyHelperTest {
 
@@ -52,4 +60,121 @@ public class PropertyHelperTest {
         assertTrue(p.getPropertyNames().contains("foo"));
         assertFalse(p.getPropertyNames().contains("baz"));
     }
+
+    @Test
+    public void expandsPropertiesRepeatedly() {
+        Project p = new Project();
+        p.setNewProperty("foo", "bar");
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(p);
+        for (int i = 0; i < 2; i++) {
+            assertEquals("x bar y", ph.replaceProperties("x ${foo} y"));
+            assertEquals("${baz}-bar", ph.replaceProperties("${baz}-${foo}"));
+            assertEquals("$${foo} $", ph.replaceProperties("$$$${foo} $"));
+            assertEquals("${foo}", ph.replaceProperties("$${foo}"));
+            assertEquals("${", ph.replaceProperties("${"));
+            assertTrue(ph.containsProperties("a${foo}"));
+            assertFalse(ph.containsProperties("a$${foo}"));
+        }
+    }
+
+    @Test
+    public void returnsObjectOfSingleReference() {
+        Project p = new Project();
+        Object o = new Object();
+        p.addReference("ref", o);
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(p);
+        assertSame(o, ph.parseProperties("${ant.refid:ref}"));
+        assertEquals("x" + o, ph.parseProperties("x${ant.refid:ref}"));
+    }
+
+    @Test
+    public void reportsUnclosedReference() {
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(new Project());
+        for (int i = 0; i < 2; i++) {
+            try {
+                ph.replaceProperties("a${foo");
+                fail("expected an exception");
+            } catch (BuildException ex) {
+                assertEquals("Syntax error in property: ${foo", ex.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void usesExpandersAddedLater() {
+        Project p = new Project();
+        p.setNewProperty("foo", "bar");
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(p);
+        assertEquals("%foo% bar", ph.replaceProperties("%foo% ${foo}"));
+        ph.add((PropertyExpander) (s, pos, parser) -> {
+            int index = pos.getIndex();
+            if (s.charAt(index) == '%') {
+                int end = s.indexOf('%', index + 1);
+                if (end > index) {
+                    pos.setIndex(end + 1);
+                    return s.substring(index + 1, end);
+                }
+            }
+            return null;
+        });
+        assertEquals("bar bar", ph.replaceProperties("%foo% ${foo}"));
+    }
+
+    @Test
+    public void sharesUserPropertiesWithOtherProject() {
+        Project parent = new Project();
+        parent.setUserProperty("cli", "1");
+        parent.setInheritedProperty("passed", "2");
+        parent.setNewProperty("plain", "3");
+        Project child = new Project();
+        child.setNewProperty("cli", "child");
+        child.setNewProperty("own", "4");
+
+        assertTrue(PropertyHelper.getPropertyHelper(parent)
+                   .inheritProperties(child, false, Collections.emptyList()));
+        assertEquals("1", child.getUserProperty("cli"));
+        assertEquals("1", child.getProperty("cli"));
+        assertNull(child.getUserProperty("passed"));
+        assertNull(child.getProperty("plain"));
+        assertEquals("4", child.getProperty("own"));
+        assertEquals(parent.getUserProperties().size() - 1,
+                     child.getUserProperties().size());
+    }
+
+    @Test
+    public void sharesAllPropertiesWithOtherProject() {
+        Project parent = new Project();
+        parent.setUserProperty("cli", "1");
+        parent.setUserProperty("basedir", "/cli");
+        parent.setNewProperty("ant.file", "parent.xml");
+        PropertyHelper.getPropertyHelper(parent).setNewProperty("object", Boolean.TRUE);
+        Project child = new Project();
+
+        assertTrue(PropertyHelper.getPropertyHelper(parent)
+                   .inheritProperties(child, true, Arrays.asList("basedir", "ant.file")));
+        assertEquals("1", child.getUserProperty("cli"));
+        assertEquals("/cli", child.getProperty("basedir"));
+        assertNull(child.getProperty("ant.file"));
+        assertNull(child.getUserProperty("object"));
+        assertEquals("true", PropertyHelper.getProperty(child, "object"));
+
+        // changes made later are not seen by the other project
+        parent.setNewProperty("later", "parent");
+        child.setNewProperty("object", "ignored");
+        child.setProperty("cli", "ignored");
+        child.setNewProperty("mine", "child");
+        assertNull(child.getProperty("later"));
+        assertNull(parent.getProperty("mine"));
+        assertEquals("true", child.getProperty("object"));
+        assertEquals("1", child.getProperty("cli"));
+        assertTrue(child.getProperties().containsKey("mine"));
+        assertTrue(child.getProperties().containsKey("cli"));
+        assertEquals(Boolean.TRUE, PropertyHelper.getProperty(parent, "object"));
+
+        // direct access to the tables sees the full content
+        assertTrue(PropertyHelper.getPropertyHelper(child).getInternalProperties()
+                   .keySet().contains("object"));
+        assertFalse(PropertyHelper.getPropertyHelper(parent)
+                    .inheritProperties(child, true, Collections.emptyList()));
+    }
 }
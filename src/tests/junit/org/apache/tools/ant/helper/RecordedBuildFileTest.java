@@ -0,0 +1,171 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RecordedBuildFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File buildFile;
+    private File common;
+
+    @Before
+    public void setUp() throws IOException {
+        RecordedBuildFile.clear();
+        buildFile = write("build.xml",
+            "<project name=\"main\" default=\"all\" xmlns:x=\"antlib:org.example\">\n"
+            + "  <import file=\"common.xml\" as=\"c\" prefixSeparator=\"::\"/>\n"
+            + "  <property name=\"p\" value=\"main\"/>\n"
+            + "  <target name=\"all\" depends=\"c::compile\">\n"
+            + "    <echo>&amp;${p}</echo>\n"
+            + "  </target>\n"
+            + "</project>\n");
+        common = write("common.xml",
+            "<project name=\"common\">\n"
+            + "  <target name=\"compile\" description=\"compiles\"/>\n"
+            + "</project>\n");
+    }
+
+    @After
+    public void tearDown() {
+        RecordedBuildFile.clear();
+    }
+
+    @Test
+    public void testReplayedProjectMatchesParsedProject() {
+        Project parsed = configure(false, new ArrayList<>());
+        configure(true, new ArrayList<>());
+        List<String> messages = new ArrayList<>();
+        Project replayed = configure(true, messages);
+
+        assertTrue(messages.contains("parsing buildfile " + buildFile.getAbsolutePath()
+                                     + " with URI = " + uri(buildFile)
+                                     + " from the cache"));
+        assertTrue(messages.contains("parsing buildfile " + common.getAbsolutePath()
+                                     + " with URI = " + uri(common)
+                                     + " from the cache"));
+        assertEquals(describe(parsed), describe(replayed));
+        assertEquals("main", replayed.getProperty("p"));
+        assertTrue(replayed.getTargets().containsKey("c::compile"));
+        assertEquals(common.getAbsolutePath() + ":2: ",
+                     replayed.getTargets().get("c::compile").getLocation().toString());
+    }
+
+    @Test
+    public void testModifiedImportIsParsedAgain() throws IOException {
+        configure(true, new ArrayList<>());
+        write("common.xml",
+              "<project name=\"common\">\n"
+              + "  <target name=\"compile\"/>\n"
+              + "  <target name=\"test\"/>\n"
+              + "</project>\n");
+        List<String> messages = new ArrayList<>();
+        Project p = configure(true, messages);
+
+        assertTrue(p.getTargets().containsKey("c::test"));
+        assertFalse(messages.contains("parsing buildfile " + common.getAbsolutePath()
+                                      + " with URI = " + uri(common)
+                                      + " from the cache"));
+    }
+
+    @Test
+    public void testRecentlyModifiedFilesAreNotCached() throws IOException {
+        buildFile.setLastModified(System.currentTimeMillis());
+        configure(true, new ArrayList<>());
+        List<String> messages = new ArrayList<>();
+        configure(true, messages);
+
+        assertFalse(messages.contains("parsing buildfile " + buildFile.getAbsolutePath()
+                                      + " with URI = " + uri(buildFile)
+                                      + " from the cache"));
+    }
+
+    private Project configure(boolean cache, List<String> messages) {
+        Project p = new Project();
+        p.addBuildListener(new DefaultLogger() {
+            {
+                setMessageOutputLevel(Project.MSG_VERBOSE);
+            }
+
+            @Override
+            public void messageLogged(BuildEvent event) {
+                messages.add(event.getMessage());
+            }
+        });
+        p.init();
+        if (cache) {
+            p.setUserProperty(MagicNames.PROJECT_HELPER_CACHE, "true");
+        }
+        ProjectHelper.configureProject(p, buildFile);
+        return p;
+    }
+
+    private static String describe(Project p) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Target> e : p.getTargets().entrySet()) {
+            Target t = e.getValue();
+            result.add(e.getKey() + "|" + t.getName() + "|" + t.getLocation()
+                       + "|" + t.getDescription() + "|"
+                       + Collections.list(t.getDependencies()) + "|"
+                       + t.getTasks().length);
+        }
+        Collections.sort(result);
+        return result.toString();
+    }
+
+    private static String uri(File f) {
+        return FileUtils.getFileUtils().toURI(f.getAbsolutePath());
+    }
+
+    private File write(String name, String content) throws IOException {
+        File f = new File(folder.getRoot(), name);
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        // old enough to be trusted, different from any earlier version
+        f.setLastModified(System.currentTimeMillis() - 3600000
+                          + content.length() * 1000L);
+        return f;
+    }
+}
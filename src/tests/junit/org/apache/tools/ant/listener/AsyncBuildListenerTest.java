@@ -0,0 +1,287 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Main;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.XmlLogger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class AsyncBuildListenerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+    private RecordingListener recorder;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        recorder = new RecordingListener();
+    }
+
+    @Test
+    public void testEventsArriveInOrderAndAreDrainedOnBuildFinished() {
+        AsyncBuildListener async = new AsyncBuildListener(4, AsyncBuildListener.OverflowPolicy.BLOCK);
+        async.addBuildListener(recorder);
+        project.addBuildListener(async);
+
+        project.fireBuildStarted();
+        for (int i = 0; i < 100; i++) {
+            project.log("message " + i, Project.MSG_DEBUG);
+        }
+        project.fireBuildFinished(null);
+
+        List<String> events = recorder.getEvents();
+        assertEquals(102, events.size());
+        assertEquals("buildStarted", events.get(0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("message " + i, events.get(i + 1));
+        }
+        assertEquals("buildFinished", events.get(101));
+    }
+
+    @Test
+    public void testOrderPerThreadIsPreserved() throws InterruptedException {
+        AsyncBuildListener async = new AsyncBuildListener(16, AsyncBuildListener.OverflowPolicy.BLOCK);
+        async.addBuildListener(recorder);
+        project.addBuildListener(async);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final String name = "t" + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    project.log(name + " " + i, Project.MSG_INFO);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        async.drain();
+
+        List<String> events = recorder.getEvents();
+        assertEquals(2000, events.size());
+        int[] next = new int[threads.length];
+        for (String e : events) {
+            String[] parts = e.split(" ");
+            int t = Integer.parseInt(parts[0].substring(1));
+            assertEquals(next[t]++, Integer.parseInt(parts[1]));
+        }
+    }
+
+    @Test
+    public void testDebugMessagesAreDroppedWhenQueueIsFull() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncBuildListener async = new AsyncBuildListener(2, AsyncBuildListener.OverflowPolicy.DROP_DEBUG);
+        async.addBuildListener(new RecordingListener() {
+            @Override
+            public void buildStarted(BuildEvent event) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        async.addBuildListener(recorder);
+        project.addBuildListener(async);
+
+        project.fireBuildStarted();
+        blocked.await();
+        for (int i = 0; i < 5; i++) {
+            project.log("debug " + i, Project.MSG_DEBUG);
+        }
+        release.countDown();
+        project.log("info", Project.MSG_INFO);
+        project.fireBuildFinished(null);
+
+        assertEquals(3, async.getDroppedMessages());
+        assertEquals(Arrays.asList("buildStarted", "debug 0", "debug 1",
+                                   "info", "buildFinished"),
+                     recorder.getEvents());
+    }
+
+    @Test
+    public void testListenerFailureIsReportedOnBuildFinished() {
+        AsyncBuildListener async = new AsyncBuildListener();
+        async.addBuildListener(new RecordingListener() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                throw new BuildException("broken listener");
+            }
+        });
+        async.addBuildListener(recorder);
+        project.addBuildListener(async);
+
+        project.log("message", Project.MSG_INFO);
+        try {
+            project.fireBuildFinished(null);
+            fail("expected the listener's exception");
+        } catch (BuildException ex) {
+            assertEquals("broken listener", ex.getMessage());
+        }
+        assertEquals(Collections.singletonList("message"),
+                     recorder.getEvents().subList(0, 1));
+    }
+
+    @Test
+    public void testInterestingMessageLevel() {
+        AsyncBuildListener async = new AsyncBuildListener();
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        async.addBuildListener(logger);
+        project.addBuildListener(async);
+        assertTrue(project.isLoggingEnabled(Project.MSG_INFO));
+        assertFalse(project.isLoggingEnabled(Project.MSG_VERBOSE));
+
+        async.addBuildListener(recorder);
+        assertTrue(project.isLoggingEnabled(Project.MSG_DEBUG));
+    }
+
+    @Test
+    public void testEventsKnowTheThreadThatFiredThem() throws InterruptedException {
+        AsyncBuildListener async = new AsyncBuildListener();
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        async.addBuildListener(new RecordingListener() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                threads.add(event.getThread());
+            }
+        });
+        project.addBuildListener(async);
+
+        Thread t = new Thread(() -> project.log("from another thread", Project.MSG_INFO));
+        t.start();
+        t.join();
+        project.log("from this thread", Project.MSG_INFO);
+        async.drain();
+
+        assertEquals(Arrays.asList(t, Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void testXmlLoggerWithParallelTasks() throws Exception {
+        File logFile = new File(folder.getRoot(), "log.xml");
+        File buildFile = folder.newFile("build.xml");
+        StringBuilder sb = new StringBuilder("<project default=\"all\"><target name=\"all\"><parallel>");
+        for (int t = 0; t < 4; t++) {
+            sb.append("<sequential>");
+            for (int i = 0; i < 25; i++) {
+                sb.append("<echo message=\"t").append(t).append(' ').append(i).append("\"/>");
+            }
+            sb.append("</sequential>");
+        }
+        sb.append("</parallel></target></project>");
+        Files.write(buildFile.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        int[] exitCode = {-1};
+        new Main() {
+            @Override
+            protected void exit(int code) {
+                exitCode[0] = code;
+            }
+        }.startAnt(new String[] {"-S", "-f", buildFile.getAbsolutePath(),
+                                 "-listener", XmlLogger.class.getName(),
+                                 "-DXmlLogger.file=" + logFile.getAbsolutePath(),
+                                 "-D" + MagicNames.LOGGING_ASYNC + "=true"},
+                   null, null);
+        assertEquals(0, exitCode[0]);
+
+        Element build = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(logFile).getDocumentElement();
+        NodeList targets = build.getElementsByTagName("target");
+        assertEquals(1, targets.getLength());
+        int echos = 0;
+        NodeList tasks = ((Element) targets.item(0)).getElementsByTagName("task");
+        for (int i = 0; i < tasks.getLength(); i++) {
+            Element task = (Element) tasks.item(i);
+            if ("echo".equals(task.getAttribute("name"))) {
+                echos++;
+                assertEquals(1, task.getElementsByTagName("message").getLength());
+            }
+        }
+        assertEquals(100, echos);
+    }
+
+    private static class RecordingListener implements BuildListener {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        List<String> getEvents() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+
+        public void buildStarted(BuildEvent event) {
+            events.add("buildStarted");
+        }
+
+        public void buildFinished(BuildEvent event) {
+            events.add("buildFinished");
+        }
+
+        public void targetStarted(BuildEvent event) {
+        }
+
+        public void targetFinished(BuildEvent event) {
+        }
+
+        public void taskStarted(BuildEvent event) {
+        }
+
+        public void taskFinished(BuildEvent event) {
+        }
+
+        public void messageLogged(BuildEvent event) {
+            events.add(event.getMessage());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.listener;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class StreamingXmlLoggerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+    private File logFile;
+    private StreamingXmlLogger logger;
+    private Target target;
+    private Task task;
+
+    @Before
+    public void setUp() throws IOException {
+        project = new Project();
+        logFile = new File(folder.getRoot(), "log.xml");
+        project.setProperty("XmlLogger.file", logFile.getAbsolutePath());
+        logger = new StreamingXmlLogger();
+        target = new Target();
+        target.setName("compile");
+        target.setProject(project);
+        task = new Task() { };
+        task.setProject(project);
+        task.setTaskName("echo");
+        task.setOwningTarget(target);
+    }
+
+    @Test
+    public void testTargetIsWrittenBeforeBuildHasFinished() throws Exception {
+        logger.buildStarted(new BuildEvent(project));
+        logger.targetStarted(new BuildEvent(target));
+        logger.taskStarted(new BuildEvent(task));
+        logger.messageLogged(message(task, "hello", Project.MSG_INFO));
+        logger.taskFinished(new BuildEvent(task));
+
+        String partial = new String(Files.readAllBytes(logFile.toPath()),
+                                    StandardCharsets.UTF_8);
+        assertThat(partial, containsString("<target name=\"compile\""));
+        assertThat(partial, containsString("<![CDATA[hello]]>"));
+
+        logger.targetFinished(new BuildEvent(target));
+        logger.buildFinished(new BuildEvent(project));
+
+        Element build = parse(logFile).getDocumentElement();
+        assertEquals("build", build.getTagName());
+        assertTrue(build.hasAttribute("time"));
+        Element t = (Element) build.getElementsByTagName("target").item(0);
+        assertEquals("compile", t.getAttribute("name"));
+        assertTrue(t.hasAttribute("time"));
+        Element echo = (Element) t.getElementsByTagName("task").item(0);
+        assertEquals("echo", echo.getAttribute("name"));
+        assertTrue(echo.hasAttribute("time"));
+        Element m = (Element) echo.getElementsByTagName("message").item(0);
+        assertEquals("info", m.getAttribute("priority"));
+        assertEquals("hello", m.getTextContent());
+    }
+
+    @Test
+    public void testTaskIsWrittenBeforeItHasFinished() throws Exception {
+        logger.buildStarted(new BuildEvent(project));
+        logger.targetStarted(new BuildEvent(target));
+        logger.taskStarted(new BuildEvent(task));
+        logger.messageLogged(message(task, "hello", Project.MSG_INFO));
+
+        String partial = new String(Files.readAllBytes(logFile.toPath()),
+                                    StandardCharsets.UTF_8);
+        assertThat(partial, containsString("<task name=\"echo\""));
+        assertThat(partial, containsString("<![CDATA[hello]]>"));
+
+        logger.taskFinished(new BuildEvent(task));
+        logger.targetFinished(new BuildEvent(target));
+        logger.buildFinished(new BuildEvent(project));
+        Element echo = (Element) parse(logFile).getElementsByTagName("task").item(0);
+        assertTrue(echo.hasAttribute("time"));
+    }
+
+    @Test
+    public void testConcurrentTaskIsWrittenOnceItHasFinished() throws Exception {
+        Task other = new Task() { };
+        other.setProject(project);
+        other.setTaskName("copy");
+        other.setOwningTarget(target);
+        logger.buildStarted(new BuildEvent(project));
+        logger.targetStarted(new BuildEvent(target));
+        logger.taskStarted(new BuildEvent(task));
+        logger.taskStarted(new BuildEvent(other));
+        logger.messageLogged(message(other, "copying", Project.MSG_INFO));
+        logger.taskFinished(new BuildEvent(other));
+
+        String partial = new String(Files.readAllBytes(logFile.toPath()),
+                                    StandardCharsets.UTF_8);
+        assertThat(partial, not(containsString("copying")));
+
+        logger.taskFinished(new BuildEvent(task));
+        logger.targetFinished(new BuildEvent(target));
+        logger.buildFinished(new BuildEvent(project));
+        Document doc = parse(logFile);
+        assertEquals(2, doc.getElementsByTagName("task").getLength());
+        Element copy = (Element) doc.getElementsByTagName("task").item(1);
+        assertEquals("copy", copy.getAttribute("name"));
+        assertTrue(copy.hasAttribute("time"));
+        assertEquals("copying", copy.getTextContent().trim());
+    }
+
+    @Test
+    public void testErrorIsRecorded() throws Exception {
+        logger.buildStarted(new BuildEvent(project));
+        logger.targetStarted(new BuildEvent(target));
+        BuildEvent finished = new BuildEvent(project);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2 * StreamingXmlLogger.MAX_ERROR_LENGTH; i++) {
+            sb.append('&');
+        }
+        finished.setException(new BuildException(sb.toString()));
+        // target is still running when the build fails
+        logger.buildFinished(finished);
+
+        Element build = parse(logFile).getDocumentElement();
+        assertThat(build.getAttribute("error"), containsString("&&&..."));
+        assertEquals(1, build.getElementsByTagName("stacktrace").getLength());
+        Element t = (Element) build.getElementsByTagName("target").item(0);
+        assertTrue(t.hasAttribute("time"));
+    }
+
+    @Test
+    public void testWritesToOutputStreamWhenUsedAsLogger() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        logger.setOutputPrintStream(new PrintStream(bytes));
+        logger.buildStarted(new BuildEvent(project));
+        logger.messageLogged(message(project, "parsing", Project.MSG_DEBUG));
+        logger.targetStarted(new BuildEvent(target));
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8),
+                   containsString("<target name=\"compile\">"));
+        logger.targetFinished(new BuildEvent(target));
+        logger.buildFinished(new BuildEvent(project));
+
+        File out = folder.newFile("out.xml");
+        Files.write(out.toPath(), bytes.toByteArray());
+        Element build = parse(out).getDocumentElement();
+        assertFalse(build.hasAttribute("time"));
+        assertEquals(1, build.getElementsByTagName("target").getLength());
+        assertEquals("debug",
+                     ((Element) build.getElementsByTagName("message").item(0))
+                     .getAttribute("priority"));
+    }
+
+    private static BuildEvent message(Task task, String message, int priority) {
+        BuildEvent event = new BuildEvent(task);
+        event.setMessage(message, priority);
+        return event;
+    }
+
+    private static BuildEvent message(Project project, String message, int priority) {
+        BuildEvent event = new BuildEvent(project);
+        event.setMessage(message, priority);
+        return event;
+    }
+
+    private static Document parse(File f) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(f);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests &lt;javac&gt;'s dependencycache attribute.
+ */
+public class JavacDependencyCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+    private File src;
+    private File dest;
+    private File cache;
+
+    @Before
+    public void setUp() throws IOException {
+        project = new Project();
+        project.init();
+        project.setBaseDir(folder.getRoot());
+        src = folder.newFolder("src");
+        dest = folder.newFolder("dest");
+        cache = new File(folder.getRoot(), "deps.cache");
+    }
+
+    @Test
+    public void testApiChangeRecompilesDependents() throws IOException {
+        write("a/A.java", "package a; public class A { public static void f() { } }");
+        write("b/B.java", "package b; class B { void m() { a.A.f(); } }");
+        compile();
+        assertTrue(cache.isFile());
+
+        modify("a/A.java", "package a; public class A { public static void g() { } }");
+        try {
+            compile();
+            fail("B should have been compiled again and failed");
+        } catch (BuildException ex) {
+            assertFalse(classFile("b/B").exists());
+        }
+    }
+
+    @Test
+    public void testApiChangeInSuperClassRecompilesUsersOfSubClass() throws IOException {
+        write("a/A.java", "package a; public class A { public void f() { } }");
+        write("a/S.java", "package a; public class S extends A { }");
+        write("b/B.java", "package b; class B { void m(a.S s) { s.f(); } }");
+        compile();
+
+        modify("a/A.java", "package a; public class A { }");
+        try {
+            compile();
+            fail("B should have been compiled again and failed");
+        } catch (BuildException ex) {
+            assertFalse(classFile("b/B").exists());
+        }
+    }
+
+    @Test
+    public void testImplementationChangeDoesntRecompileDependents() throws IOException {
+        write("a/A.java", "package a; public class A { public static int f() { return 1; } }");
+        write("b/B.java", "package b; class B { int m() { return a.A.f(); } }");
+        compile();
+
+        modify("a/A.java", "package a; public class A { public static int f() { return 2; } }");
+        assertEquals(1, compile().getFileList().length);
+    }
+
+    @Test
+    public void testConstantChangeRecompilesEverything() throws IOException {
+        write("a/A.java", "package a; public class A { public static final int X = 1; }");
+        write("b/B.java", "package b; class B { int y = a.A.X; }");
+        compile();
+
+        modify("a/A.java", "package a; public class A { public static final int X = 2; }");
+        assertEquals(2, compile().getFileList().length);
+    }
+
+    @Test
+    public void testClassesOfDeletedSourcesAreRemoved() throws IOException {
+        write("a/A.java", "package a; public class A { class Inner { } }");
+        write("b/B.java", "package b; class B { }");
+        compile();
+        assertTrue(classFile("a/A$Inner").exists());
+
+        new File(src, "a/A.java").delete();
+        compile();
+        assertFalse(classFile("a/A").exists());
+        assertFalse(classFile("a/A$Inner").exists());
+        assertTrue(classFile("b/B").exists());
+    }
+
+    private Javac compile() {
+        Javac javac = new Javac();
+        javac.setProject(project);
+        javac.setIncludeantruntime(false);
+        javac.setSrcdir(new Path(project, src.getAbsolutePath()));
+        javac.setDestdir(dest);
+        javac.setDependencyCache(cache);
+        javac.execute();
+        return javac;
+    }
+
+    private File classFile(String name) {
+        return new File(dest, name + ".class");
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(src, name);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(System.currentTimeMillis() - 10000);
+        return file;
+    }
+
+    private void modify(String name, String content) throws IOException {
+        // make sure the source is newer than its class files
+        write(name, content).setLastModified(System.currentTimeMillis() + 10000);
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.tools.ant.taskdefs.compilers.CompilerAdapter;
 import org.apache.tools.ant.taskdefs.compilers.CompilerAdapterFactory;
 import org.apache.tools.ant.taskdefs.compilers.Javac13;
 import org.apache.tools.ant.taskdefs.compilers.JavacExternal;
+import org.apache.tools.ant.taskdefs.compilers.JavaxToolsJavac;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -213,6 +214,15 @@ public class JavacTest {
         javac.setFork(true);
         adapter = CompilerAdapterFactory.getCompiler(javac.getCompiler(), javac);
         assertThat(adapter, instanceOf(JavacExternal.class));
+
+        javac.setFork(false);
+        javac.setCompiler("javaxtools");
+        adapter = CompilerAdapterFactory.getCompiler(javac.getCompiler(), javac);
+        assertThat(adapter, instanceOf(JavaxToolsJavac.class));
+
+        javac.setFork(true);
+        adapter = CompilerAdapterFactory.getCompiler(javac.getCompiler(), javac);
+        assertThat(adapter, instanceOf(JavacExternal.class));
     }
 
     @Test
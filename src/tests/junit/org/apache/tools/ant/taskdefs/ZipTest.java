@@ -20,11 +20,19 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.BuildFileRule;
+import org.apache.tools.ant.types.FileSet;
+import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.zip.UnixStat;
 import org.junit.After;
@@ -35,10 +43,13 @@ import org.junit.Test;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 public class ZipTest {
@@ -208,6 +219,92 @@ public class ZipTest {
        buildRule.executeTarget("testCompressionLevel");
     }
 
+    @Test
+    public void testCompressThreads() {
+       buildRule.executeTarget("testCompressThreads");
+    }
+
+    @Test
+    public void testRawCopy() throws IOException {
+        buildRule.executeTarget("testRawCopy");
+        File output = new File(buildRule.getProject().getProperty("output"));
+        try (org.apache.tools.zip.ZipFile source =
+                 new org.apache.tools.zip.ZipFile(new File(output, "source.zip"));
+             org.apache.tools.zip.ZipFile copied =
+                 new org.apache.tools.zip.ZipFile(new File(output, "copied.zip"));
+             org.apache.tools.zip.ZipFile recompressed =
+                 new org.apache.tools.zip.ZipFile(new File(output, "recompressed.zip"))) {
+            org.apache.tools.zip.ZipEntry original = source.getEntry("zip.xml");
+            org.apache.tools.zip.ZipEntry copy = copied.getEntry("zip.xml");
+            assertEquals(original.getCompressedSize(), copy.getCompressedSize());
+            assertEquals(original.getCrc(), copy.getCrc());
+            assertNotEquals(original.getCompressedSize(),
+                            recompressed.getEntry("zip.xml").getCompressedSize());
+            try (Reader expected = new InputStreamReader(source.getInputStream(original),
+                                                         StandardCharsets.ISO_8859_1);
+                 Reader actual = new InputStreamReader(copied.getInputStream(copy),
+                                                       StandardCharsets.ISO_8859_1)) {
+                assertEquals(FileUtils.readFully(expected), FileUtils.readFully(actual));
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdate() throws IOException {
+        buildRule.executeTarget("testIncrementalUpdate");
+        File output = new File(buildRule.getProject().getProperty("output"));
+        try (org.apache.tools.zip.ZipFile zf =
+                 new org.apache.tools.zip.ZipFile(new File(output, "incremental.zip"))) {
+            assertNotNull(zf.getEntry("a.txt"));
+            assertNotNull(zf.getEntry("b.txt"));
+            assertNotNull(zf.getEntry("c.txt"));
+            assertEquals(3, Collections.list(zf.getEntries()).size());
+            try (Reader r = new InputStreamReader(zf.getInputStream(zf.getEntry("b.txt")),
+                                                  StandardCharsets.ISO_8859_1)) {
+                assertEquals("new b", FileUtils.readFully(r));
+            }
+            // the replaced entry is still there
+            assertNotEquals(zf.getEntryDataSize(), zf.getUsedEntryDataSize());
+        }
+    }
+
+    @Test
+    public void testFailedIncrementalUpdateKeepsArchive() throws IOException {
+        buildRule.executeTarget("testIncrementalUpdate");
+        File output = new File(buildRule.getProject().getProperty("output"));
+        File archive = new File(output, "incremental.zip");
+        byte[] original = Files.readAllBytes(archive.toPath());
+        // gets written before the update fails
+        File added = new File(output, "incremental/e.txt");
+        Files.write(added.toPath(), new byte[64 * 1024]);
+        added.setLastModified(archive.lastModified() + 60000);
+
+        Zip zip = new Zip();
+        zip.setProject(buildRule.getProject());
+        zip.setDestFile(archive);
+        zip.setUpdate(true);
+        zip.setIncremental(true);
+        FileSet fs = new FileSet();
+        fs.setDir(new File(output, "incremental"));
+        zip.addFileset(fs);
+        zip.add(new Resource("d.txt", true, System.currentTimeMillis()) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                throw new IOException("can't read d.txt");
+            }
+        });
+        try {
+            zip.execute();
+            fail("expected the update to fail");
+        } catch (BuildException ex) {
+            assertThat(ex.getMessage(), containsString("can't read d.txt"));
+        }
+        assertArrayEquals(original, Files.readAllBytes(archive.toPath()));
+        try (ZipFile zf = new ZipFile(archive)) {
+            assertEquals(3, zf.size());
+        }
+    }
+
     // Bugzilla Report 33412
     @Test
     public void testDefaultExcludesAndUpdate() throws IOException {
@@ -0,0 +1,120 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs.compilers;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.tools.ToolProvider;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.Javac;
+import org.apache.tools.ant.types.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JavaxToolsJavacTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+
+    @Before
+    public void setUp() {
+        assumeNotNull(ToolProvider.getSystemJavaCompiler());
+        project = new Project();
+        project.init();
+        project.setBaseDir(folder.getRoot());
+    }
+
+    @Test
+    public void testCompile() throws IOException {
+        File src = folder.newFolder("src");
+        write(new File(src, "a/A.java"), "package a; public class A { }");
+        File dest = folder.newFolder("dest");
+        compile(src, dest, null);
+        assertTrue(new File(dest, "a/A.class").isFile());
+    }
+
+    @Test
+    public void testModifiedJarIsReadAgain() throws IOException {
+        File jar = new File(folder.getRoot(), "lib.jar");
+        File lib1 = folder.newFolder("lib1");
+        write(new File(lib1, "lib/Lib.java"),
+              "package lib; public class Lib { public static void a() { } }");
+        compile(lib1, lib1, null);
+        createJar(jar, lib1);
+
+        File src = folder.newFolder("src");
+        write(new File(src, "a/A.java"),
+              "package a; class A { void m() { lib.Lib.a(); } }");
+        File dest = folder.newFolder("dest");
+        compile(src, dest, jar);
+        assertTrue(new File(dest, "a/A.class").isFile());
+
+        File lib2 = folder.newFolder("lib2");
+        write(new File(lib2, "lib/Lib.java"),
+              "package lib; public class Lib { public static void bb() { } }");
+        compile(lib2, lib2, null);
+        createJar(jar, lib2);
+        jar.setLastModified(jar.lastModified() - 10000);
+
+        write(new File(src, "b/B.java"),
+              "package b; class B { void m() { lib.Lib.bb(); } }");
+        compile(src, dest, jar);
+        assertTrue(new File(dest, "b/B.class").isFile());
+    }
+
+    private void compile(File src, File dest, File classpath) {
+        Javac javac = new Javac();
+        javac.setProject(project);
+        javac.setCompiler(CompilerAdapterFactory.COMPILER_JAVAX_TOOLS);
+        javac.setIncludeantruntime(false);
+        javac.setSrcdir(new Path(project, src.getAbsolutePath()));
+        javac.setDestdir(dest);
+        if (classpath != null) {
+            javac.setClasspath(new Path(project, classpath.getAbsolutePath()));
+        }
+        javac.execute();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(System.currentTimeMillis() - 10000);
+    }
+
+    private static void createJar(File jar, File classes) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            out.putNextEntry(new JarEntry("lib/Lib.class"));
+            Files.copy(new File(classes, "lib/Lib.class").toPath(), out);
+            out.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs.optional.depend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DependencyCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private File a;
+    private File b;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = folder.newFolder("cache");
+        a = classFile("A");
+        b = classFile("B");
+    }
+
+    @Test
+    public void testEntriesSurviveReload() throws IOException {
+        DependencyCache cache = new DependencyCache(dir);
+        cache.put("A", a, Arrays.asList("A", "B"));
+        cache.put("B", b, Collections.singletonList("B"));
+        cache.save();
+
+        cache = new DependencyCache(dir);
+        assertEquals(Arrays.asList("A", "B"), cache.get("A", a));
+        assertEquals(Collections.singletonList("B"), cache.get("B", b));
+    }
+
+    @Test
+    public void testModifiedClassFileIsNotCached() throws IOException {
+        DependencyCache cache = new DependencyCache(dir);
+        cache.put("A", a, Arrays.asList("A", "B"));
+        cache.save();
+
+        Files.write(a.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        assertNull(new DependencyCache(dir).get("A", a));
+    }
+
+    @Test
+    public void testChangesAreAppended() throws IOException {
+        DependencyCache cache = new DependencyCache(dir);
+        cache.put("A", a, Arrays.asList("A", "B"));
+        cache.put("B", b, Collections.singletonList("B"));
+        cache.save();
+        File file = new File(dir, DependencyCache.CACHE_FILE_NAME);
+        long length = file.length();
+
+        cache = new DependencyCache(dir);
+        cache.put("A", a, Collections.singletonList("A"));
+        cache.retainAll(Collections.singletonList("A"));
+        cache.save();
+        assertTrue(file.length() > length);
+
+        cache = new DependencyCache(dir);
+        assertEquals(Collections.singletonList("A"), cache.get("A", a));
+        assertNull(cache.get("B", b));
+    }
+
+    @Test
+    public void testTruncatedCacheKeepsCompleteEntries() throws IOException {
+        DependencyCache cache = new DependencyCache(dir);
+        cache.put("A", a, Arrays.asList("A", "B"));
+        cache.save();
+        File file = new File(dir, DependencyCache.CACHE_FILE_NAME);
+        long length = file.length();
+        cache.put("B", b, Collections.singletonList("B"));
+        cache.save();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - 1);
+        }
+
+        cache = new DependencyCache(dir);
+        assertEquals(Arrays.asList("A", "B"), cache.get("A", a));
+        assertNull(cache.get("B", b));
+        cache.save();
+        assertEquals(length, file.length());
+    }
+
+    private File classFile(String name) throws IOException {
+        File f = folder.newFile(name + ".class");
+        Files.write(f.toPath(), name.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+}
@@ -22,6 +22,7 @@ import static org.example.junitlauncher.Tracker.verifySetupFailed;
 import static org.example.junitlauncher.Tracker.verifySkipped;
 import static org.example.junitlauncher.Tracker.verifySuccess;
 import static org.example.junitlauncher.Tracker.wasTestRun;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
@@ -539,6 +540,25 @@ public class JUnitLauncherTaskTest {
                 verifySuccess(trackerFile, SharedDataAccessorTest2.class.getName(), "testData"));
     }
 
+    /**
+     * Tests usage of {@code <testclasses>} with {@code forkMode=perTestClass} and
+     * multiple JVMs running at the same time
+     */
+    @Test
+    public void testForkPerTestClassConcurrently() throws Exception {
+        final String targetName = "test-fork-per-test-class-concurrently";
+        final Path trackerFile = setupTrackerProperty(targetName);
+        buildRule.executeTarget(targetName);
+
+        assertTrue("SharedDataAccessorTest1#testData was expected to pass",
+                verifySuccess(trackerFile, SharedDataAccessorTest1.class.getName(), "testData"));
+        assertTrue("SharedDataAccessorTest2#testData was expected to pass",
+                verifySuccess(trackerFile, SharedDataAccessorTest2.class.getName(), "testData"));
+        assertTrue("JupiterSampleTest#testEvenFails was expected to fail",
+                verifyFailed(trackerFile, JupiterSampleTest.class.getName(), "testEvenFails"));
+        assertEquals("true", buildRule.getProject().getProperty("concurrent.fork.failed"));
+    }
+
     /**
      * Tests usage of {@code <test>} with {@code forkMode=perTestClass}
      */
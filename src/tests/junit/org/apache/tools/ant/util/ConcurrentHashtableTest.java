@@ -0,0 +1,123 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.util.Collections;
+import java.util.Hashtable;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasValue;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentHashtableTest {
+
+    private static final Object K1 = new Object();
+    private static final Object K2 = new Object();
+    private static final Object V1 = new Object();
+    private static final Object V2 = new Object();
+    private Hashtable<Object, Object> h = new ConcurrentHashtable<>();
+
+    @Test
+    public void testClear() {
+        h.put(K1, V1);
+        h.clear();
+        assertTrue(h.isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCloneIsIndependent() {
+        h.put(K1, V1);
+        Hashtable<Object, Object> h2 = (Hashtable<Object, Object>) h.clone();
+        assertThat(h2, instanceOf(ConcurrentHashtable.class));
+        assertThat(h2, hasKey(K1));
+        h2.put(K2, V2);
+        assertThat(h, not(hasKey(K2)));
+    }
+
+    @Test
+    public void testContainsAndPut() {
+        h.put(K1, V1);
+        assertTrue(h.contains(V1));
+        assertThat(h, hasKey(K1));
+        assertThat(h, hasValue(V1));
+        assertThat(h, not(hasKey(K2)));
+    }
+
+    @Test
+    public void testGetAndPut() {
+        assertNull(h.get(K1));
+        assertNull(h.put(K1, V1));
+        assertSame(V1, h.get(K1));
+        assertSame(V1, h.put(K1, V2));
+        assertSame(V2, h.getOrDefault(K1, V1));
+        assertSame(V1, h.getOrDefault(K2, V1));
+    }
+
+    @Test
+    public void testDefaultMethodsUseWrappedMap() {
+        assertSame(V1, h.computeIfAbsent(K1, k -> V1));
+        assertSame(V1, h.putIfAbsent(K1, V2));
+        assertSame(V2, h.merge(K1, V2, (o, n) -> n));
+        assertEquals(1, h.size());
+        assertTrue(h.remove(K1, V2));
+        assertTrue(h.isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        h.put(K1, V1);
+        assertSame(V1, h.remove(K1));
+        assertTrue(h.isEmpty());
+        assertNull(h.remove(K1));
+    }
+
+    @Test
+    public void testViews() {
+        h.put(K1, V1);
+        h.put(K2, V2);
+        assertEquals(2, h.size());
+        assertThat(Collections.list(h.keys()), containsInAnyOrder(K1, K2));
+        assertThat(h.keySet(), containsInAnyOrder(K1, K2));
+        assertThat(Collections.list(h.elements()), containsInAnyOrder(V1, V2));
+        assertThat(h.values(), containsInAnyOrder(V1, V2));
+        h.keySet().remove(K1);
+        assertFalse(h.containsKey(K1));
+    }
+
+    @Test
+    public void testModificationWhileIterating() {
+        h.put(K1, V1);
+        h.put(K2, V2);
+        for (Object k : h.keySet()) {
+            h.remove(k);
+        }
+        assertTrue(h.isEmpty());
+    }
+}
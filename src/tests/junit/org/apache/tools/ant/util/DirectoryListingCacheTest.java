@@ -0,0 +1,149 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DirectoryListingCacheTest {
+
+    private static final long LONG_AGO = 1000000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File base;
+    private DirectoryListingCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        base = folder.newFolder("base");
+        cache = DirectoryListingCache.getCache(folder.newFolder("cache"), base);
+    }
+
+    @Test
+    public void testCacheIsShared() {
+        assertSame(cache, DirectoryListingCache.getCache(
+            cache.getCacheFile().getParentFile(), base));
+    }
+
+    @Test
+    public void testUnmodifiedDirectoryIsNotListedAgain() throws IOException {
+        new File(base, "a").createNewFile();
+        base.setLastModified(LONG_AGO);
+        assertArrayEquals(new String[] {"a"},
+                          cache.getDirectory(base).list());
+
+        new File(base, "b").createNewFile();
+        base.setLastModified(LONG_AGO);
+        assertArrayEquals(new String[] {"a"},
+                          cache.getDirectory(base).list());
+    }
+
+    @Test
+    public void testModifiedDirectoryIsListedAgain() throws IOException {
+        new File(base, "a").createNewFile();
+        base.setLastModified(LONG_AGO);
+        assertArrayEquals(new String[] {"a"},
+                          cache.getDirectory(base).list());
+
+        new File(base, "b").createNewFile();
+        base.setLastModified(LONG_AGO + 10000);
+        assertArrayEquals(new String[] {"a", "b"},
+                          cache.getDirectory(base).list());
+    }
+
+    @Test
+    public void testRecentlyModifiedDirectoryIsNotTrusted() throws IOException {
+        new File(base, "a").createNewFile();
+        cache.getDirectory(base).list();
+        long modified = base.lastModified();
+
+        new File(base, "b").createNewFile();
+        base.setLastModified(modified);
+        assertArrayEquals(new String[] {"a", "b"},
+                          cache.getDirectory(base).list());
+    }
+
+    @Test
+    public void testChildrenKnowTheirType() throws IOException {
+        new File(base, "file").createNewFile();
+        new File(base, "dir").mkdir();
+        File dir = cache.getDirectory(base);
+        dir.list();
+
+        File file = DirectoryListingCache.getChild(dir, "file");
+        assertTrue(file.isFile());
+        assertFalse(file.isDirectory());
+        assertNull(file.list());
+        File subdir = DirectoryListingCache.getChild(dir, "dir");
+        assertTrue(subdir.isDirectory());
+        assertArrayEquals(new String[0], subdir.list());
+    }
+
+    @Test
+    public void testGetChildOfPlainFile() {
+        assertNull(DirectoryListingCache.getChild(base, "a"));
+    }
+
+    @Test
+    public void testSave() throws IOException {
+        new File(base, "a").createNewFile();
+        cache.getDirectory(base).list();
+        cache.save();
+        assertTrue(cache.getCacheFile().isFile());
+    }
+
+    @Test
+    public void testSavedCacheIsLoaded() throws IOException {
+        new File(base, "file").createNewFile();
+        new File(base, "dir").mkdir();
+        base.setLastModified(LONG_AGO);
+        cache.getDirectory(base).list();
+        cache.save();
+
+        new File(base, "other").createNewFile();
+        base.setLastModified(LONG_AGO);
+        DirectoryListingCache reloaded =
+            new DirectoryListingCache(cache.getCacheFile(), base.getCanonicalFile());
+        File dir = reloaded.getDirectory(base);
+        assertArrayEquals(new String[] {"dir", "file"}, dir.list());
+        assertTrue(DirectoryListingCache.getChild(dir, "dir").isDirectory());
+        assertTrue(DirectoryListingCache.getChild(dir, "file").isFile());
+    }
+
+    @Test
+    public void testBaseDirectoriesUseDifferentFiles() throws IOException {
+        File other = folder.newFolder("other");
+        assertNotEquals(cache.getCacheFile(), DirectoryListingCache.getCache(
+            cache.getCacheFile().getParentFile(), other).getCacheFile());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileDigesterTest {
+
+    private static final long LONG_AGO = 1000000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDigestMatchesMessageDigest() throws Exception {
+        FileDigester digester = new FileDigester("SHA-256", null);
+        digester.setReadBufferSize(7);
+        File f = write("a", "some content longer than the buffer");
+        assertArrayEquals(expected("SHA-256", "some content longer than the buffer"),
+                          digester.digest(f));
+    }
+
+    @Test
+    public void testDigestsKeepOrder() throws Exception {
+        FileDigester digester = new FileDigester("MD5", null);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(write("f" + i, "content " + i));
+        }
+        Map<File, byte[]> digests = digester.digest(files, 4);
+        assertEquals(files, new ArrayList<>(digests.keySet()));
+        for (int i = 0; i < 20; i++) {
+            assertArrayEquals(expected("MD5", "content " + i), digests.get(files.get(i)));
+        }
+    }
+
+    @Test
+    public void testCachedDigestIsUsedForUnchangedFile() throws Exception {
+        File cache = new File(folder.getRoot(), "digests.cache");
+        File f = write("a", "abc");
+        f.setLastModified(LONG_AGO);
+        FileDigester digester = new FileDigester("MD5", null);
+        digester.setCacheFile(cache);
+        digester.digest(f);
+        digester.saveCache();
+        assertTrue(cache.isFile());
+
+        // same size and timestamp, the stale digest is not recomputed
+        Files.write(f.toPath(), "xyz".getBytes(StandardCharsets.UTF_8));
+        f.setLastModified(LONG_AGO);
+        digester = new FileDigester("MD5", null);
+        digester.setCacheFile(cache);
+        assertArrayEquals(expected("MD5", "abc"), digester.digest(f));
+
+        f.setLastModified(LONG_AGO + 10000);
+        assertArrayEquals(expected("MD5", "xyz"), digester.digest(f));
+    }
+
+    @Test
+    public void testCacheOfOtherAlgorithmIsIgnored() throws Exception {
+        File cache = new File(folder.getRoot(), "digests.cache");
+        File f = write("a", "abc");
+        f.setLastModified(LONG_AGO);
+        FileDigester digester = new FileDigester("MD5", null);
+        digester.setCacheFile(cache);
+        digester.digest(f);
+        digester.saveCache();
+
+        digester = new FileDigester("SHA-1", null);
+        digester.setCacheFile(cache);
+        assertArrayEquals(expected("SHA-1", "abc"), digester.digest(f));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File f = folder.newFile(name);
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    private static byte[] expected(String algorithm, String content) throws Exception {
+        return MessageDigest.getInstance(algorithm)
+            .digest(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PrefetchedFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAttributesOfFile() throws IOException {
+        File plain = folder.newFile("a.txt");
+        Files.write(plain.toPath(), new byte[] {1, 2, 3});
+        plain.setLastModified(100000L);
+
+        PrefetchedFile f = new PrefetchedFile(folder.getRoot(), "a.txt");
+        assertTrue(f.exists());
+        assertTrue(f.isFile());
+        assertFalse(f.isDirectory());
+        assertEquals(3, f.length());
+        assertEquals(plain.lastModified(), f.lastModified());
+        assertNull(f.list());
+    }
+
+    @Test
+    public void testAttributesOfMissingFile() {
+        PrefetchedFile f = new PrefetchedFile(folder.getRoot(), "missing");
+        assertFalse(f.exists());
+        assertFalse(f.isFile());
+        assertFalse(f.isDirectory());
+        assertEquals(0, f.length());
+        assertEquals(0, f.lastModified());
+    }
+
+    @Test
+    public void testAttributesOfDirectory() throws IOException {
+        folder.newFolder("dir");
+        folder.newFile("dir/child");
+        PrefetchedFile f = new PrefetchedFile(folder.getRoot(), "dir");
+        assertTrue(f.isDirectory());
+        assertFalse(f.isFile());
+        assertEquals(1, f.list().length);
+    }
+
+    @Test
+    public void testSnapshotIsNotUpdatedByOtherFiles() throws IOException {
+        File plain = folder.newFile("a.txt");
+        PrefetchedFile f = new PrefetchedFile(folder.getRoot(), "a.txt");
+        Files.write(plain.toPath(), new byte[] {1, 2, 3});
+        assertEquals(0, f.length());
+    }
+
+    @Test
+    public void testModificationDiscardsSnapshot() throws IOException {
+        folder.newFile("a.txt");
+        PrefetchedFile f = new PrefetchedFile(folder.getRoot(), "a.txt");
+        assertTrue(f.setLastModified(200000L));
+        assertEquals(200000L, f.lastModified());
+        assertTrue(f.delete());
+        assertFalse(f.exists());
+    }
+
+    @Test
+    public void testSnapshotIsOnlyUsedWithinItsScope() throws IOException {
+        File plain = folder.newFile("a.txt");
+        AtomicBoolean scope = new AtomicBoolean(true);
+        PrefetchedFile f = new PrefetchedFile(folder.getRoot(), "a.txt", scope);
+        Files.write(plain.toPath(), new byte[] {1, 2, 3});
+        assertEquals(0, f.length());
+        scope.set(false);
+        assertEquals(3, f.length());
+    }
+}
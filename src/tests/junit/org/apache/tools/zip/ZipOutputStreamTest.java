@@ -19,21 +19,33 @@
 package org.apache.tools.zip;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Random;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.zip.ZipInputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ZipOutputStreamTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private Date time;
     private ZipLong zl;
 
@@ -90,4 +102,179 @@ public class ZipOutputStreamTest {
             }
         }
     }
+
+    @Test
+    public void testParallelCompressionCreatesSameArchiveOnStream() throws IOException {
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(sequential)) {
+            writeEntries(zos);
+        }
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(parallel)) {
+            zos.setParallelism(4);
+            writeEntries(zos);
+        }
+        assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+    }
+
+    @Test
+    public void testParallelCompressionCreatesSameArchiveOnFile() throws IOException {
+        File sequential = folder.newFile("sequential.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(sequential)) {
+            writeEntries(zos);
+        }
+        File parallel = folder.newFile("parallel.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(parallel)) {
+            zos.setParallelism(4);
+            writeEntries(zos);
+        }
+        assertArrayEquals(Files.readAllBytes(sequential.toPath()),
+                          Files.readAllBytes(parallel.toPath()));
+        try (ZipFile zf = new ZipFile(parallel)) {
+            assertEquals(17 * 1024 * 1024, zf.getEntry("big.txt").getSize());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParallelismCannotBeChangedAfterFirstEntry() throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(new ByteArrayOutputStream())) {
+            zos.putNextEntry(new ZipEntry("a"));
+            zos.setParallelism(2);
+        }
+    }
+
+    private static void writeEntries(ZipOutputStream zos) throws IOException {
+        Random random = new Random(42);
+        zos.setLevel(9);
+        ZipEntry dir = new ZipEntry("dir/");
+        dir.setMethod(ZipEntry.STORED);
+        dir.setSize(0);
+        dir.setCrc(0);
+        dir.setTime(100000L);
+        zos.putNextEntry(dir);
+        for (int i = 0; i < 50; i++) {
+            ZipEntry ze = new ZipEntry("dir/file" + i + ".txt");
+            ze.setTime(100000L);
+            zos.putNextEntry(ze);
+            byte[] data = new byte[random.nextInt(100000)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = (byte) ('a' + random.nextInt(4));
+            }
+            for (int off = 0; off < data.length; off += 8192) {
+                zos.write(data, off, Math.min(8192, data.length - off));
+            }
+        }
+        ZipEntry empty = new ZipEntry("empty.txt");
+        empty.setTime(100000L);
+        zos.putNextEntry(empty);
+        ZipEntry big = new ZipEntry("big.txt");
+        big.setTime(100000L);
+        zos.putNextEntry(big);
+        byte[] block = new byte[1024 * 1024];
+        for (int i = 0; i < 17; i++) {
+            for (int j = 0; j < block.length; j++) {
+                block[j] = (byte) ('0' + random.nextInt(10));
+            }
+            zos.write(block);
+        }
+        zos.closeEntry();
+    }
+
+    @Test
+    public void testAddRawEntry() throws IOException {
+        File source = folder.newFile("source.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(source)) {
+            writeEntries(zos);
+        }
+        for (int threads : new int[] {1, 4}) {
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            try (ZipFile zf = new ZipFile(source);
+                 ZipOutputStream zos = new ZipOutputStream(copy)) {
+                zos.setParallelism(threads);
+                for (ZipEntry ze : Collections.list(zf.getEntries())) {
+                    ZipEntry target = new ZipEntry(ze.getName());
+                    target.setMethod(ze.getMethod());
+                    target.setCrc(ze.getCrc());
+                    target.setSize(ze.getSize());
+                    target.setCompressedSize(ze.getCompressedSize());
+                    zos.addRawEntry(target, zf.getRawInputStream(ze));
+                }
+            }
+            try (ZipFile zf = new ZipFile(source);
+                 ZipInputStream zis =
+                     new ZipInputStream(new ByteArrayInputStream(copy.toByteArray()))) {
+                java.util.zip.ZipEntry ze;
+                int count = 0;
+                while ((ze = zis.getNextEntry()) != null) {
+                    assertArrayEquals(ze.getName(),
+                                      readFully(zf.getInputStream(zf.getEntry(ze.getName()))),
+                                      readFully(zis));
+                    count++;
+                }
+                assertEquals(53, count);
+            }
+        }
+    }
+
+    @Test
+    public void testAppendToExistingArchive() throws IOException {
+        File archive = folder.newFile("append.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(archive)) {
+            addEntry(zos, "a.txt", "old a");
+            addEntry(zos, "b.txt", "old b");
+        }
+        try (ZipFile existing = new ZipFile(archive)) {
+            assertEquals(existing.getEntryDataSize(), existing.getUsedEntryDataSize());
+            try (ZipOutputStream zos = new ZipOutputStream(archive, existing)) {
+                addEntry(zos, "b.txt", "new b");
+                addEntry(zos, "c.txt", "new c");
+            }
+        }
+        try (java.util.zip.ZipFile zf = new java.util.zip.ZipFile(archive)) {
+            assertEquals(3, zf.size());
+            assertEquals("old a", new String(readFully(zf.getInputStream(zf.getEntry("a.txt")))));
+            assertEquals("new b", new String(readFully(zf.getInputStream(zf.getEntry("b.txt")))));
+            assertEquals("new c", new String(readFully(zf.getInputStream(zf.getEntry("c.txt")))));
+        }
+        try (ZipFile zf = new ZipFile(archive)) {
+            assertTrue(zf.getUsedEntryDataSize() < zf.getEntryDataSize());
+        }
+    }
+
+    @Test
+    public void testRestoreExistingArchive() throws IOException {
+        File archive = folder.newFile("restore.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(archive)) {
+            addEntry(zos, "a.txt", "old a");
+            addEntry(zos, "b.txt", "old b");
+        }
+        byte[] original = Files.readAllBytes(archive.toPath());
+        try (ZipFile existing = new ZipFile(archive)) {
+            ZipOutputStream zos = new ZipOutputStream(archive, existing);
+            assertTrue(zos.isAppending());
+            addEntry(zos, "c.txt", "a new entry that is longer than the central directory"
+                     + " of the archive it gets added to");
+            zos.putNextEntry(new ZipEntry("d.txt"));
+            zos.write("incomplete".getBytes());
+            zos.restore();
+        }
+        assertArrayEquals(original, Files.readAllBytes(archive.toPath()));
+    }
+
+    private static void addEntry(ZipOutputStream zos, String name, String content)
+        throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(content.getBytes());
+        zos.closeEntry();
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
 }